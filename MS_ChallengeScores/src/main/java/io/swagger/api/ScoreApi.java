@@ -14,6 +14,8 @@
 
 package io.swagger.api;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.shanoir.challengeScores.data.model.exception.RestServiceException;
 import org.shanoir.challengeScores.data.model.exception.SeveralScoresException;
 import org.springframework.http.ResponseEntity;
@@ -88,13 +90,15 @@ public interface ScoreApi {
 	ResponseEntity<ChallengeScores> findScoresByStudyId(
 			@ApiParam(value = "id of the study", required = true) @PathVariable("studyId") Long studyId);
 
-	@ApiOperation(value = "", notes = "Returns the scores attached to the given study, as a Excel file", response = Void.class, tags = {})
+	@ApiOperation(value = "", notes = "Returns the scores attached to the given study, as an Excel 2007 (.xlsx) file, one sheet per metric. "
+			+ "It used to be an Excel 97 (.xls) file: clients checking the content type or the file extension have to accept the new ones.", response = Void.class, tags = {})
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "Challenge scores Excel file", response = Void.class),
 			@ApiResponse(code = 200, message = "unexpected error", response = Void.class) })
 	@RequestMapping(value = "/score/all/xls/{studyId}", produces = {
-			"application/vnd.ms-excel" }, method = RequestMethod.GET)
-	ResponseEntity<byte[]> getXLSScoresByStudyId(
-			@ApiParam(value = "id of the study", required = true) @PathVariable("studyId") Long studyId)
+			"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet" }, method = RequestMethod.GET)
+	void getXLSScoresByStudyId(
+			@ApiParam(value = "id of the study", required = true) @PathVariable("studyId") Long studyId,
+			HttpServletResponse response)
 			throws RestServiceException;
 
 	@ApiOperation(value = "", notes = "Reset all scores", response = Void.class, tags = {})
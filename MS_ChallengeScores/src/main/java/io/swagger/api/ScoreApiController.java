@@ -14,6 +14,8 @@
 
 package io.swagger.api;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.shanoir.challengeScores.controller.ScoreApiDelegate;
 import org.shanoir.challengeScores.data.model.exception.RestServiceException;
 import org.shanoir.challengeScores.data.model.exception.SeveralScoresException;
@@ -70,8 +72,9 @@ public class ScoreApiController implements ScoreApi {
 		return scoreApiDelegate.getScore(studyId);
 	}
 
-	public ResponseEntity<byte[]> getXLSScoresByStudyId(@ApiParam(value = "id of the study", required = true) @PathVariable("studyId") Long studyId) throws RestServiceException {
-		return scoreApiDelegate.getScoreXLS(studyId);
+	public void getXLSScoresByStudyId(@ApiParam(value = "id of the study", required = true) @PathVariable("studyId") Long studyId,
+			HttpServletResponse response) throws RestServiceException {
+		scoreApiDelegate.writeScoreXLS(studyId, response);
 	}
 
 	public ResponseEntity<Void> resetScores(@ApiParam(value = "the new data", required = true) @RequestBody ResetObject resetObject) {
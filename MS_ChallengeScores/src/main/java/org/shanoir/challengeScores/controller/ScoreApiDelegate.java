@@ -14,18 +14,25 @@
 
 package org.shanoir.challengeScores.controller;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.shanoir.challengeScores.data.access.service.ChallengerService;
 import org.shanoir.challengeScores.data.access.service.MetricService;
 import org.shanoir.challengeScores.data.access.service.PatientService;
@@ -35,11 +42,11 @@ import org.shanoir.challengeScores.data.model.Challenger;
 import org.shanoir.challengeScores.data.model.Metric;
 import org.shanoir.challengeScores.data.model.Patient;
 import org.shanoir.challengeScores.data.model.Score;
+import org.shanoir.challengeScores.data.model.ScoreCell;
 import org.shanoir.challengeScores.data.model.Study;
 import org.shanoir.challengeScores.data.model.exception.RestServiceException;
 import org.shanoir.challengeScores.data.model.exception.SeveralScoresException;
 import org.shanoir.challengeScores.data.model.mapping.swagerapi.MetricMapper;
-import org.shanoir.challengeScores.utils.Triplet;
 import org.shanoir.challengeScores.utils.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
@@ -56,14 +63,6 @@ import io.swagger.model.MetricChallengers;
 import io.swagger.model.ResetObject;
 import io.swagger.model.ScoreSet;
 import io.swagger.model.SubjectScore;
-import jxl.Workbook;
-import jxl.WorkbookSettings;
-import jxl.write.Formula;
-import jxl.write.Label;
-import jxl.write.Number;
-import jxl.write.WritableSheet;
-import jxl.write.WritableWorkbook;
-import jxl.write.WriteException;
 
 /**
  * Implement the logic for the generated Swagger server api : {@link MetricApiController}
@@ -91,6 +90,14 @@ public class ScoreApiDelegate {
 
 	public static String XLS_FILE_NAME = "challenge";
 
+	public static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+	/** Number of rows kept in memory while writing the Excel file. */
+	private static final int ROW_ACCESS_WINDOW_SIZE = 100;
+
+	/** Longest sheet name allowed by Excel. */
+	private static final int MAX_SHEET_NAME_LENGTH = 31;
+
 
 	/**
 	 * Constructor
@@ -158,151 +165,174 @@ public class ScoreApiDelegate {
 	 * @return a complex object ready to be serialized in json and looped over for builing a table, tr, td.
 	 */
 	public ResponseEntity<ChallengeScores> getScore(Long studyId) {
-		List<Score> scores = Utils.toList(scoreService.getScores(studyId));
-		ChallengeScores challengeScores = getTableFormattedScores(scores);
+		ChallengeScores challengeScores = getTableFormattedScores(scoreService.getScoreCells(studyId));
 		return new ResponseEntity<ChallengeScores>(challengeScores, HttpStatus.OK);
 	}
 
 
 	/**
 	 * Organize the scores so they are ready to be looped over for being displayed as a table.
+	 * The scores must be ordered by metric, challenger, patient: the table is then built in a single pass,
+	 * and only holds the challengers and subjects that have a score.
 	 *
-	 * @param scores
+	 * @param cells the ordered scores
 	 * @return a Swagger defined object
 	 */
-	private ChallengeScores getTableFormattedScores(List<Score> scores) {
-		// Build lists of all parameters
-		Set<Metric> metrics = new HashSet<Metric>();
-		Set<Challenger> challengers = new HashSet<Challenger>();
-		Set<Patient> patients = new HashSet<Patient>();
-		// Sorting?
-		for (Score score : scores) {
-			metrics.add(score.getMetric());
-			challengers.add(score.getOwner());
-			patients.add(score.getPatient());
-		}
-
-		// Build a map of the scores
-		Map<Triplet<Metric, Challenger, Patient>, Set<Score>> scoreMap = buildScoreMap(scores);
-
-		// Build the returned object
+	private static ChallengeScores getTableFormattedScores(List<ScoreCell> cells) {
 		ChallengeScores challengeScores = new ChallengeScores();
-		for (Metric metric : metrics) {
-			MetricChallengers metricChallenger = new MetricChallengers();
-			metricChallenger.setMetricName(metric.getName());
-			for (Challenger challenger : challengers) {
-				ChallengerSubjects challengerSubjects = new ChallengerSubjects();
-				challengerSubjects.setChallengerName(challenger.getName());
-				for (Patient patient : patients) {
-					Triplet<Metric, Challenger, Patient> coordinates = new Triplet<Metric, Challenger, Patient>(metric, challenger, patient);
-					if (scoreMap.containsKey(coordinates)) {
-						Set<Score> scoreSet = scoreMap.get(coordinates);
-						if (scoreSet.size() == 1) { // When there is only one segmentation per patient
-							SubjectScore subjectScore = new SubjectScore();
-							subjectScore.setSubjectName(patient.getName());
-							subjectScore.setScore(scoreSet.toArray(new Score[1])[0].getValue());
-							challengerSubjects.addSubjectsItem(subjectScore);
-						} else if (scoreSet.size() > 1) { // When there is several segmentation per patient -> split patient with the input dataset ids
-							for (Score score : scoreSet) {
-								SubjectScore subjectScore = new SubjectScore();
-								StringBuilder subjectName = new StringBuilder();
-								subjectName.append(patient.getName()).append(" (").append(score.getInputDatasetId()).append(")");
-								subjectScore.setSubjectName(subjectName.toString());
-								subjectScore.setScore(score.getValue());
-								challengerSubjects.addSubjectsItem(subjectScore);
-							}
-						}
-					}
+		MetricChallengers metricChallengers = null;
+		ChallengerSubjects challengerSubjects = null;
+		ScoreCell previous = null;
+		int i = 0;
+		while (i < cells.size()) {
+			ScoreCell cell = cells.get(i);
+			boolean newMetric = previous == null || !previous.getMetricId().equals(cell.getMetricId());
+			if (newMetric) {
+				metricChallengers = new MetricChallengers();
+				metricChallengers.setMetricName(cell.getMetricName());
+				challengeScores.add(metricChallengers);
+			}
+			if (newMetric || !previous.getOwnerId().equals(cell.getOwnerId())) {
+				challengerSubjects = new ChallengerSubjects();
+				challengerSubjects.setChallengerName(cell.getOwnerName());
+				metricChallengers.addChallengersItem(challengerSubjects);
+			}
+			// The scores of a patient are consecutive
+			int end = i + 1;
+			while (end < cells.size() && cells.get(end).hasSameCoordinates(cell)) {
+				end++;
+			}
+			boolean severalSegmentations = end - i > 1;
+			for (int j = i; j < end; j++) {
+				ScoreCell score = cells.get(j);
+				SubjectScore subjectScore = new SubjectScore();
+				if (severalSegmentations) { // When there is several segmentation per patient -> split patient with the input dataset ids
+					StringBuilder subjectName = new StringBuilder();
+					subjectName.append(score.getPatientName()).append(" (").append(score.getInputDatasetId()).append(")");
+					subjectScore.setSubjectName(subjectName.toString());
+				} else {
+					subjectScore.setSubjectName(score.getPatientName());
 				}
-				metricChallenger.addChallengersItem(challengerSubjects);
+				subjectScore.setScore(score.getValue());
+				challengerSubjects.addSubjectsItem(subjectScore);
 			}
-			challengeScores.add(metricChallenger);
+			previous = cells.get(end - 1);
+			i = end;
 		}
 		return challengeScores;
 	}
 
 
 	/**
-	 * Get all scores for this study as a XLS file
-	 * Manage the case when several scores exist for one patient (and one challenger and one metric).
+	 * Write all scores for this study as an Excel file into the response, one tab per metric.
+	 * Rows are flushed to a temporary file as they are written, so that only a small window of
+	 * the sheet is kept in memory.
 	 *
 	 * @param studyId
-	 * @return a complex object ready to be serialized in json and looped over for builing a table, tr, td.
+	 * @param response
 	 * @throws RestServiceException
 	 */
-	public ResponseEntity<byte[]> getScoreXLS(Long studyId) throws RestServiceException {
-		List<Score> scores = Utils.toList(scoreService.getScores(studyId));
-		ChallengeScores challengeScores = getTableFormattedScores(scores);
+	public void writeScoreXLS(Long studyId, HttpServletResponse response) throws RestServiceException {
+		ChallengeScores challengeScores = getTableFormattedScores(scoreService.getScoreCells(studyId));
 
-		int startCol = 0;
-		int startRow = 0;
-		WorkbookSettings workBookSettings = new WorkbookSettings();
-		workBookSettings.setLocale(Locale.ENGLISH);
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
-		WritableWorkbook workbook;
+		response.setContentType(XLSX_CONTENT_TYPE);
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + getXLSFileName(studyId));
+		SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW_SIZE);
 		try {
-			workbook = Workbook.createWorkbook(out, workBookSettings);
-			int i = 0;
 			for (MetricChallengers metricChallenger : challengeScores) {
-				WritableSheet sheet = workbook.createSheet(metricChallenger.getMetricName(), i); // Create new tab
-				int row = startRow;
-				int headCol = startCol;
-				sheet.setColumnView(headCol, 20); // Set 1st column width
-				headCol++;
-				/* Columns headers */
-				if (!metricChallenger.getChallengers().isEmpty()) {
-					for (SubjectScore patient : metricChallenger.getChallengers().get(0).getSubjects()) {
-						sheet.setColumnView(headCol, 15); // Set column width
-						sheet.addCell(new Label(headCol, row, patient.getSubjectName())); // Add header
-						headCol++;
-					}
-					sheet.setColumnView(headCol, 15); // Set last column width
-					sheet.addCell(new Label(headCol, row, "AVG")); // Add avg header
-					row++;
-					for (ChallengerSubjects challengerSubject : metricChallenger.getChallengers()) {
-						int column = startCol;
-						sheet.addCell(new Label(column++, row, challengerSubject.getChallengerName())); // Add row header
-						for (SubjectScore subjectScore : challengerSubject.getSubjects()) {
-							Float score = subjectScore.getScore();
-							if (score != null) {
-								sheet.addCell(new Number(column, row, score)); // Add score cell
-							}
-							column++;
-						}
-						/* Add an average column */
-						StringBuilder strBuilder = new StringBuilder();
-						strBuilder.append("AVERAGE(");
-						strBuilder.append(toName(startCol+2));
-						strBuilder.append(String.valueOf(row+1));
-						strBuilder.append(":");
-						strBuilder.append(toName(column));
-						strBuilder.append(String.valueOf(row+1));
-						strBuilder.append(")");
-						Formula formula = new Formula(column, row , strBuilder.toString());
-						sheet.addCell(formula);
-						row++;
-					}
-					i++;
-				}
+				writeSheet(workbook.createSheet(getUniqueSheetName(workbook, metricChallenger.getMetricName())), metricChallenger);
 			}
-			workbook.write();
-			workbook.close();
-			byte[] content = out.toByteArray();
-			HttpHeaders headers = new HttpHeaders();
-		    headers.add("Content-Disposition", "attachment; filename=" + getXLSFileName(studyId));
-			return new ResponseEntity<byte[]>(content, headers, HttpStatus.OK);
-
-		} catch (IOException | WriteException e) {
+			OutputStream out = response.getOutputStream();
+			workbook.write(out);
+			out.flush();
+		} catch (IOException e) {
 			throw new RestServiceException(500, e.toString());
+		} finally {
+			workbook.dispose();
 		}
 	}
 
+
+	/**
+	 * Write the scores of a metric: one column per subject, one row per challenger, plus an average column.
+	 *
+	 * @param sheet
+	 * @param metricChallenger
+	 */
+	private static void writeSheet(Sheet sheet, MetricChallengers metricChallenger) {
+		int startCol = 0;
+		int startRow = 0;
+		/* Columns: every subject scored by at least one challenger */
+		Set<String> subjectNames = new TreeSet<String>();
+		for (ChallengerSubjects challengerSubject : metricChallenger.getChallengers()) {
+			for (SubjectScore subjectScore : challengerSubject.getSubjects()) {
+				subjectNames.add(subjectScore.getSubjectName());
+			}
+		}
+		Map<String, Integer> columns = new HashMap<String, Integer>();
+		int row = startRow;
+		int headCol = startCol;
+		Row header = sheet.createRow(row);
+		sheet.setColumnWidth(headCol, 20 * 256); // Set 1st column width
+		headCol++;
+		/* Columns headers */
+		for (String subjectName : subjectNames) {
+			sheet.setColumnWidth(headCol, 15 * 256); // Set column width
+			header.createCell(headCol).setCellValue(subjectName); // Add header
+			columns.put(subjectName, headCol);
+			headCol++;
+		}
+		sheet.setColumnWidth(headCol, 15 * 256); // Set last column width
+		header.createCell(headCol).setCellValue("AVG"); // Add avg header
+		row++;
+		for (ChallengerSubjects challengerSubject : metricChallenger.getChallengers()) {
+			Row challengerRow = sheet.createRow(row);
+			challengerRow.createCell(startCol).setCellValue(challengerSubject.getChallengerName()); // Add row header
+			for (SubjectScore subjectScore : challengerSubject.getSubjects()) {
+				Float score = subjectScore.getScore();
+				if (score != null) {
+					challengerRow.createCell(columns.get(subjectScore.getSubjectName())).setCellValue(score); // Add score cell
+				}
+			}
+			/* Add an average column */
+			StringBuilder strBuilder = new StringBuilder();
+			strBuilder.append("AVERAGE(");
+			strBuilder.append(toName(startCol+2));
+			strBuilder.append(String.valueOf(row+1));
+			strBuilder.append(":");
+			strBuilder.append(toName(headCol));
+			strBuilder.append(String.valueOf(row+1));
+			strBuilder.append(")");
+			challengerRow.createCell(headCol).setCellFormula(strBuilder.toString());
+			row++;
+		}
+	}
+
+	/**
+	 * Excel sheet names are truncated to 31 characters and must be unique, ignoring case:
+	 * metrics whose names only differ after that get a numeric suffix.
+	 *
+	 * @param workbook
+	 * @param metricName
+	 * @return a sheet name not used yet in the workbook
+	 */
+	private String getUniqueSheetName(Workbook workbook, String metricName) {
+		String safeName = WorkbookUtil.createSafeSheetName(metricName);
+		String sheetName = safeName;
+		int index = 2;
+		while (workbook.getSheetIndex(sheetName) != -1) {
+			String suffix = " (" + index++ + ")";
+			sheetName = safeName.substring(0, Math.min(safeName.length(), MAX_SHEET_NAME_LENGTH - suffix.length())) + suffix;
+		}
+		return sheetName;
+	}
+
 	private String getXLSFileName(Long studyId) {
 		StringBuilder str = new StringBuilder();
 		str.append(XLS_FILE_NAME);
 		str.append("(").append(studyId).append(")_");
 		str.append(new SimpleDateFormat("dd-MM-yyyy_HH-mm").format(new Date()));
-		str.append(".xls");
+		str.append(".xlsx");
 		return str.toString();
 	}
 
@@ -336,29 +366,6 @@ public class ScoreApiDelegate {
     }
 
 
-	/**
-	 * Build a map of the scores
-	 *
-	 * @param scores
-	 * @return a map
-	 */
-	private Map<Triplet<Metric, Challenger, Patient>, Set<Score>> buildScoreMap(List<Score> scores) {
-		Map<Triplet<Metric, Challenger, Patient>, Set<Score>> scoreMap = new HashMap<Triplet<Metric, Challenger, Patient>, Set<Score>>();
-		for (Score score : scores) {
-			Set<Score> scoreSet;
-			Triplet<Metric, Challenger, Patient> coordinates = new Triplet<Metric, Challenger, Patient>(score.getMetric(), score.getOwner(), score.getPatient());
-			if (scoreMap.containsKey(coordinates)) {
-				scoreSet = scoreMap.get(coordinates);
-			} else {
-				scoreSet = new HashSet<Score>();
-			}
-			scoreSet.add(score);
-			scoreMap.put(coordinates, scoreSet);
-		}
-		return scoreMap;
-	}
-
-
 	public ResponseEntity<ScoreSet> getScoreSet(Long studyId, Long patientId, Long ownerId, Long inputDatasetId) throws SeveralScoresException {
 		// Get all the scores for the study
 		ScoreSet scoreSet = new ScoreSet();
@@ -379,22 +386,24 @@ public class ScoreApiDelegate {
 		List<Score> scores = Utils.toList(scoreService.getScores(studyId));
 		Set<Score> scoreSet = new HashSet<Score>();
 
-		// Get metric list without a new query
-		Set<Metric> metrics = new HashSet<Metric>();
+		// Group the scores of the challenger for the patient by metric
+		Map<Metric, Set<Score>> scoreMap = new HashMap<Metric, Set<Score>>();
 		for (Score score : scores) {
-			metrics.add(score.getMetric());
+			if (Utils.equals(ownerId, score.getOwner().getId()) && Utils.equals(patientId, score.getPatient().getId())) {
+				Set<Score> scoresOfMetric = scoreMap.get(score.getMetric());
+				if (scoresOfMetric == null) {
+					scoresOfMetric = new HashSet<Score>();
+					scoreMap.put(score.getMetric(), scoresOfMetric);
+				}
+				scoresOfMetric.add(score);
+			}
 		}
 
-		// Build a map of the scores
-		Map<Triplet<Metric, Challenger, Patient>, Set<Score>> scoreMap = buildScoreMap(scores);
-
 		// Build the ScoreSet
-		for (Metric metric : metrics) {
-			Triplet<Metric, Challenger, Patient> key = new Triplet<Metric, Challenger, Patient>(metric, new Challenger(ownerId), new Patient(patientId));
-			Set<Score> scoresFounded = scoreMap.get(key);
-			if (scoresFounded != null && scoresFounded.size() == 1) { // If only one score founded
+		for (Set<Score> scoresFounded : scoreMap.values()) {
+			if (scoresFounded.size() == 1) { // If only one score founded
 				scoreSet.add(scoresFounded.toArray(new Score[1])[0]);
-			} else if (scoresFounded != null && scoresFounded.size() > 1) { // If several scores founded
+			} else if (scoresFounded.size() > 1) { // If several scores founded
 				if (inputDatasetId != null) {
 					// Try to match the input dataset id
 					for (Score score : scoresFounded) {
@@ -14,8 +14,13 @@
 
 package org.shanoir.challengeScores.data.access.repository;
 
+import java.util.List;
+
 import org.shanoir.challengeScores.data.model.Score;
+import org.shanoir.challengeScores.data.model.ScoreCell;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Spring repository interface.
@@ -30,4 +35,17 @@ public interface ScoreRepository extends CrudRepository<Score, Long> {
 	Iterable<Score> findByStudyIdAndOwnerIdAndPatientIdAndMetricId(Long studyId, Long ownerId, Long patientId, Long metricId);
 	Iterable<Score> findByStudyId(Long studyId);
 
+	/**
+	 * Get the scores of a study without loading the entities, ordered by metric,
+	 * challenger, patient then input dataset, so that the score matrix can be
+	 * built in a single pass.
+	 *
+	 * @param studyId
+	 * @return the ordered scores
+	 */
+	@Query("SELECT new org.shanoir.challengeScores.data.model.ScoreCell(m.id, m.name, o.id, o.name, p.id, p.name, s.inputDatasetId, s.value)"
+			+ " FROM Score s JOIN s.metric m JOIN s.owner o JOIN s.patient p WHERE s.study.id = :studyId"
+			+ " ORDER BY m.name, m.id, o.name, o.id, p.name, p.id, s.inputDatasetId")
+	List<ScoreCell> findScoreCellsByStudyId(@Param("studyId") Long studyId);
+
 }
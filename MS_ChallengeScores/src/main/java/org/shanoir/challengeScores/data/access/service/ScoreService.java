@@ -14,7 +14,10 @@
 
 package org.shanoir.challengeScores.data.access.service;
 
+import java.util.List;
+
 import org.shanoir.challengeScores.data.model.Score;
+import org.shanoir.challengeScores.data.model.ScoreCell;
 
 /**
  * Service interface for scores.
@@ -29,4 +32,5 @@ public interface ScoreService {
 	void deleteAll(Iterable<Score> scores);
 	Iterable<Score> getScore(Long studyId, Long ownerId, Long patientId, Long metricId);
 	Iterable<Score> getScores(Long studyId);
+	List<ScoreCell> getScoreCells(Long studyId);
 }
@@ -14,9 +14,12 @@
 
 package org.shanoir.challengeScores.data.access.service.impl;
 
+import java.util.List;
+
 import org.shanoir.challengeScores.data.access.repository.ScoreRepository;
 import org.shanoir.challengeScores.data.access.service.ScoreService;
 import org.shanoir.challengeScores.data.model.Score;
+import org.shanoir.challengeScores.data.model.ScoreCell;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -47,6 +50,11 @@ public class ScoreServiceImpl implements ScoreService {
 		return scoreRepository.findByStudyId(studyId);
 	}
 
+	@Override
+	public List<ScoreCell> getScoreCells(Long studyId) {
+		return scoreRepository.findScoreCellsByStudyId(studyId);
+	}
+
 	@Override
 	public void deleteAll(Iterable<Score> scores) {
 		scoreRepository.delete(scores);
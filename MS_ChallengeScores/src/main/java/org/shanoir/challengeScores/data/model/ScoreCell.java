@@ -0,0 +1,120 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.challengeScores.data.model;
+
+/**
+ * A score with the names of its metric, challenger and patient: a row of the
+ * score matrix query.
+ */
+public class ScoreCell {
+
+	private final Long metricId;
+
+	private final String metricName;
+
+	private final Long ownerId;
+
+	private final String ownerName;
+
+	private final Long patientId;
+
+	private final String patientName;
+
+	private final Long inputDatasetId;
+
+	private final Float value;
+
+
+	/**
+	 * Constructor, used by the JPQL constructor expression.
+	 */
+	public ScoreCell(Long metricId, String metricName, Long ownerId, String ownerName, Long patientId,
+			String patientName, Long inputDatasetId, Float value) {
+		this.metricId = metricId;
+		this.metricName = metricName;
+		this.ownerId = ownerId;
+		this.ownerName = ownerName;
+		this.patientId = patientId;
+		this.patientName = patientName;
+		this.inputDatasetId = inputDatasetId;
+		this.value = value;
+	}
+
+
+	/**
+	 * @param other
+	 * @return true if both scores are for the same metric, challenger and patient
+	 */
+	public boolean hasSameCoordinates(ScoreCell other) {
+		return metricId.equals(other.metricId) && ownerId.equals(other.ownerId) && patientId.equals(other.patientId);
+	}
+
+	/**
+	 * @return the metric id
+	 */
+	public Long getMetricId() {
+		return metricId;
+	}
+
+	/**
+	 * @return the metric name
+	 */
+	public String getMetricName() {
+		return metricName;
+	}
+
+	/**
+	 * @return the owner (challenger) id
+	 */
+	public Long getOwnerId() {
+		return ownerId;
+	}
+
+	/**
+	 * @return the owner (challenger) name
+	 */
+	public String getOwnerName() {
+		return ownerName;
+	}
+
+	/**
+	 * @return the patient id
+	 */
+	public Long getPatientId() {
+		return patientId;
+	}
+
+	/**
+	 * @return the patient name
+	 */
+	public String getPatientName() {
+		return patientName;
+	}
+
+	/**
+	 * @return the inputDatasetId
+	 */
+	public Long getInputDatasetId() {
+		return inputDatasetId;
+	}
+
+	/**
+	 * @return the value
+	 */
+	public Float getValue() {
+		return value;
+	}
+
+}
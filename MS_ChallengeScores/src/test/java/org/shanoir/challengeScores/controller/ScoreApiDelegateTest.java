@@ -0,0 +1,104 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.challengeScores.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.BDDMockito;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.shanoir.challengeScores.data.access.service.ScoreService;
+import org.shanoir.challengeScores.data.model.ScoreCell;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Test class for the Excel export of {@link ScoreApiDelegate}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ScoreApiDelegateTest {
+
+	private static final Long STUDY_ID = 1L;
+
+	/** Two metric names longer than an Excel sheet name, that only differ after 31 characters. */
+	private static final String LONG_METRIC_MM = "Average symmetric surface distance (mm)";
+
+	private static final String LONG_METRIC_VOXELS = "Average symmetric surface distance (voxels)";
+
+	@Mock
+	private ScoreService scoreService;
+
+	@InjectMocks
+	private ScoreApiDelegate scoreApiDelegate;
+
+	@Test
+	public void writeScoreXLSTest() throws Exception {
+		// GIVEN the scores of a study, ordered by metric, challenger and patient
+		BDDMockito.given(scoreService.getScoreCells(STUDY_ID)).willReturn(Arrays.asList(
+				new ScoreCell(1L, "Dice", 10L, "challenger A", 100L, "P1", 1000L, 0.5f),
+				new ScoreCell(1L, "Dice", 10L, "challenger A", 101L, "P2", 1001L, 0.75f),
+				new ScoreCell(1L, "Dice", 11L, "challenger B", 101L, "P2", 1001L, 0.25f),
+				new ScoreCell(2L, LONG_METRIC_MM, 10L, "challenger A", 100L, "P1", 1000L, 1.5f),
+				new ScoreCell(3L, LONG_METRIC_VOXELS, 10L, "challenger A", 100L, "P1", 1000L, 3f)));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// WHEN the Excel file is written
+		scoreApiDelegate.writeScoreXLS(STUDY_ID, response);
+
+		// THEN it is a xlsx file with one sheet per metric
+		assertEquals(ScoreApiDelegate.XLSX_CONTENT_TYPE, response.getContentType());
+		assertTrue(response.getHeader(HttpHeaders.CONTENT_DISPOSITION).endsWith(".xlsx"));
+		try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+			assertEquals(3, workbook.getNumberOfSheets());
+			assertEquals("Dice", workbook.getSheetName(0));
+			// THEN the long names are truncated to 31 characters, and made unique
+			assertEquals("Average symmetric surface dista", workbook.getSheetName(1));
+			assertEquals("Average symmetric surface d (2)", workbook.getSheetName(2));
+
+			// THEN a sheet has a column per subject, a row per challenger and an average column
+			Sheet dice = workbook.getSheetAt(0);
+			Row header = dice.getRow(0);
+			assertEquals("P1", header.getCell(1).getStringCellValue());
+			assertEquals("P2", header.getCell(2).getStringCellValue());
+			assertEquals("AVG", header.getCell(3).getStringCellValue());
+			Row challengerA = dice.getRow(1);
+			assertEquals("challenger A", challengerA.getCell(0).getStringCellValue());
+			assertEquals(0.5, challengerA.getCell(1).getNumericCellValue(), 0);
+			assertEquals(0.75, challengerA.getCell(2).getNumericCellValue(), 0);
+			assertEquals("AVERAGE(B2:C2)", challengerA.getCell(3).getCellFormula());
+			// THEN a subject not scored by a challenger has an empty cell
+			Row challengerB = dice.getRow(2);
+			assertEquals("challenger B", challengerB.getCell(0).getStringCellValue());
+			assertNull(challengerB.getCell(1));
+			assertEquals(0.25, challengerB.getCell(2).getNumericCellValue(), 0);
+
+			assertEquals(1.5, workbook.getSheetAt(1).getRow(1).getCell(1).getNumericCellValue(), 0);
+			assertEquals(3, workbook.getSheetAt(2).getRow(1).getCell(1).getNumericCellValue(), 0);
+		}
+	}
+
+}
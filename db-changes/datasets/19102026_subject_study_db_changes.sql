@@ -0,0 +1,14 @@
+CREATE TABLE `subject_study` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `study_id` bigint(20) DEFAULT NULL,
+  `subject_id` bigint(20) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `study_subject_idx` (`study_id`,`subject_id`),
+  KEY `i_subject` (`subject_id`)
+);
+
+CREATE TABLE `subject_study_sync` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `bootstrap_date` datetime DEFAULT NULL,
+  PRIMARY KEY (`id`)
+);
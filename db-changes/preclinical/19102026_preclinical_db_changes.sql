@@ -0,0 +1,6 @@
+CREATE INDEX i_animal_subject_id ON animal_subject (subject_id);
+CREATE INDEX i_reference_category_type_value ON reference (category, reftype, value);
+CREATE INDEX i_reference_type_value ON reference (reftype, value);
+CREATE INDEX i_pathology_name ON pathology (name);
+CREATE INDEX i_therapy_name ON therapy (name);
+CREATE INDEX i_anesthetic_examination ON examination_anesthetic (examination_id);
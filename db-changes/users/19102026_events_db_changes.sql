@@ -0,0 +1 @@
+CREATE INDEX i_user_last_update ON events (user_id, last_update);
@@ -19,10 +19,10 @@ import java.io.IOException;
 import org.shanoir.ng.dataset.model.Dataset;
 import org.shanoir.ng.datasetacquisition.model.DatasetAcquisition;
 import org.shanoir.ng.datasetacquisition.service.DatasetAcquisitionService;
-import org.shanoir.ng.examination.model.Examination;
-import org.shanoir.ng.examination.repository.ExaminationRepository;
+import org.shanoir.ng.examination.service.ExaminationDeletionService;
 import org.shanoir.ng.shared.configuration.RabbitMQConfiguration;
 import org.shanoir.ng.shared.core.model.IdName;
+import org.shanoir.ng.shared.core.model.SubjectStudyUpdate;
 import org.shanoir.ng.shared.event.ShanoirEvent;
 import org.shanoir.ng.shared.event.ShanoirEventType;
 import org.shanoir.ng.shared.model.Study;
@@ -59,9 +59,6 @@ public class RabbitMQDatasetsService {
 	@Autowired
 	private RabbitMqStudyUserService listener;
 
-	@Autowired
-	private ExaminationRepository examRepository;
-
 	@Autowired
 	private StudyRepository studyRepository;
 
@@ -71,9 +68,15 @@ public class RabbitMQDatasetsService {
 	@Autowired
 	private SolrService solrService;
 
+	@Autowired
+	private ExaminationDeletionService examinationDeletionService;
+
 	@Autowired
 	private DatasetAcquisitionService datasetAcquisitionService;
 
+	@Autowired
+	private SubjectStudyReplicaService subjectStudyReplicaService;
+
 	private static final Logger LOG = LoggerFactory.getLogger(RabbitMQDatasetsService.class);
 
 	@RabbitListener(bindings = @QueueBinding(
@@ -131,6 +134,22 @@ public class RabbitMQDatasetsService {
 		}
 	}
 
+	/**
+	 * Receives the subject/study links of a subject or a study, to update the local replica.
+	 * @param updateStr the links as a json string.
+	 */
+	@RabbitListener(queues = RabbitMQConfiguration.SUBJECT_STUDY_UPDATE_QUEUE)
+	@RabbitHandler
+	public void receiveSubjectStudyUpdate(final String updateStr) {
+		try {
+			SubjectStudyUpdate update = new ObjectMapper().readValue(updateStr, SubjectStudyUpdate.class);
+			subjectStudyReplicaService.applyUpdate(update);
+		} catch (IOException e) {
+			LOG.error("Could not read value transmit as SubjectStudyUpdate class through RabbitMQ", e);
+			throw new AmqpRejectAndDontRequeueException("Something went wrong deserializing the event." + e.getMessage());
+		}
+	}
+
 	/**
 	 * Receives a shanoirEvent as a json object, concerning a dataset acquisition to create
 	 * @param commandArrStr the task as a json string.
@@ -169,25 +188,18 @@ public class RabbitMQDatasetsService {
 			exchange = @Exchange(value = RabbitMQConfiguration.EVENTS_EXCHANGE, ignoreDeclarationExceptions = "true",
 			autoDelete = "false", durable = "true", type=ExchangeTypes.TOPIC))
 			)
-	@Transactional
 	public void deleteSubject(String eventAsString) throws AmqpRejectAndDontRequeueException {
 		ObjectMapper mapper = new ObjectMapper();
 		mapper.registerModule(new JavaTimeModule());
 		SecurityContextUtil.initAuthenticationContext("ADMIN_ROLE");
 		try {
 			ShanoirEvent event = mapper.readValue(eventAsString, ShanoirEvent.class);
+			Long subjectId = Long.valueOf(event.getObjectId());
 
-			// Delete associated examinations and datasets from solr repository
-			for (Examination exam : examRepository.findBySubjectId(Long.valueOf(event.getObjectId()))) {
-				for (DatasetAcquisition dsAcq : exam.getDatasetAcquisitions()) {
-					for (Dataset ds : dsAcq.getDatasets())  {
-						solrService.deleteFromIndex(ds.getId());
-					}
-				}
-				examRepository.delete(exam.getId());
-			}
-			// Delete subject from datasets database
-			subjectRepository.delete(Long.valueOf(event.getObjectId()));
+			// Delete associated datasets from solr repository in one request
+			solrService.deleteSubjectFromIndex(subjectId);
+			// Delete associated examinations, then the subject, from datasets database in background
+			examinationDeletionService.deleteSubject(subjectId, event.getUserId());
 		} catch (Exception e) {
 			LOG.error("Something went wrong deserializing the event. {}", e.getMessage());
 			throw new AmqpRejectAndDontRequeueException("Something went wrong deserializing the event." + e.getMessage());
@@ -204,7 +216,6 @@ public class RabbitMQDatasetsService {
 			exchange = @Exchange(value = RabbitMQConfiguration.EVENTS_EXCHANGE, ignoreDeclarationExceptions = "true",
 			autoDelete = "false", durable = "true", type=ExchangeTypes.TOPIC))
 			)
-	@Transactional
 	public void deleteStudy(String eventAsString) throws AmqpRejectAndDontRequeueException {
 		ObjectMapper mapper = new ObjectMapper();
 		mapper.registerModule(new JavaTimeModule());
@@ -212,18 +223,12 @@ public class RabbitMQDatasetsService {
 
 		try {
 			ShanoirEvent event = mapper.readValue(eventAsString, ShanoirEvent.class);
+			Long studyId = Long.valueOf(event.getObjectId());
 
-			// Delete associated examinations and datasets from solr repository then from database
-			for (Examination exam : examRepository.findByStudyId(Long.valueOf(event.getObjectId()))) {
-				for (DatasetAcquisition dsAcq : exam.getDatasetAcquisitions()) {
-					for (Dataset ds : dsAcq.getDatasets())  {
-						solrService.deleteFromIndex(ds.getId());
-					}
-				}
-				examRepository.delete(exam.getId());
-			}
-			// Delete study from datasets database
-			studyRepository.delete(Long.valueOf(event.getObjectId()));
+			// Delete associated datasets from solr repository in one request
+			solrService.deleteStudyFromIndex(studyId);
+			// Delete associated examinations, then the study, from datasets database in background
+			examinationDeletionService.deleteStudy(studyId, event.getUserId());
 		} catch (Exception e) {
 			LOG.error("Something went wrong deserializing the event. {}", e.getMessage());
 			throw new AmqpRejectAndDontRequeueException("Something went wrong deserializing the event." + e.getMessage());
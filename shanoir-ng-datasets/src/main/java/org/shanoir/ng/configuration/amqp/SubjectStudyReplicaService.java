@@ -0,0 +1,224 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.configuration.amqp;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.shanoir.ng.shared.configuration.RabbitMQConfiguration;
+import org.shanoir.ng.shared.core.model.IdName;
+import org.shanoir.ng.shared.core.model.SubjectStudyLink;
+import org.shanoir.ng.shared.core.model.SubjectStudyUpdate;
+import org.shanoir.ng.shared.model.Subject;
+import org.shanoir.ng.shared.model.SubjectStudy;
+import org.shanoir.ng.shared.model.SubjectStudySync;
+import org.shanoir.ng.shared.repository.SubjectRepository;
+import org.shanoir.ng.shared.repository.SubjectStudyRepository;
+import org.shanoir.ng.shared.repository.SubjectStudySyncRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Maintains the local replica of the subject/study links owned by the studies MS,
+ * so that the subjects of a study can be read without calling studies MS.
+ */
+@Service
+public class SubjectStudyReplicaService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SubjectStudyReplicaService.class);
+
+	/** Studies MS sends all the links at once, which takes much longer than the default 5 s. */
+	private static final long BOOTSTRAP_REPLY_TIMEOUT_MS = 10 * 60 * 1000L;
+
+	@Autowired
+	private SubjectRepository subjectRepository;
+
+	@Autowired
+	private SubjectStudyRepository subjectStudyRepository;
+
+	@Autowired
+	private SubjectStudySyncRepository subjectStudySyncRepository;
+
+	@Autowired
+	private RabbitTemplate rabbitTemplate;
+
+	/** Set once the bootstrap marker has been seen, it is never removed. */
+	private volatile boolean bootstrapped;
+
+	/** Updates received while the bootstrap runs, applied in order after it, null otherwise. Guarded by this. */
+	private List<SubjectStudyUpdate> pendingUpdates;
+
+	/**
+	 * Replaces the links of a subject (or of a study, or of several subjects) by the received ones.
+	 * While the bootstrap runs, the update is kept and applied after the snapshot.
+	 * 
+	 * @param update the new links
+	 */
+	@Transactional
+	public synchronized void applyUpdate(SubjectStudyUpdate update) {
+		if (pendingUpdates != null) {
+			pendingUpdates.add(update);
+			return;
+		}
+		replaceLinks(update);
+	}
+
+	/**
+	 * Fills the replica from studies MS, until it has been done once. The links
+	 * and the marker are saved in the same transaction: a replica interrupted
+	 * midway is not marked, and is replaced at the next start.
+	 * The updates received meanwhile are replayed after the snapshot, in the same
+	 * transaction: each one replaces all the links it covers, so the replica ends
+	 * up with the latest links whether the snapshot already included them or not.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional
+	public void bootstrap() {
+		if (isBootstrapped()) {
+			return;
+		}
+		synchronized (this) {
+			pendingUpdates = new ArrayList<>();
+		}
+		try {
+			String response = (String) bootstrapTemplate().convertSendAndReceive(RabbitMQConfiguration.SUBJECT_STUDY_BOOTSTRAP_QUEUE, "all");
+			if (response == null) {
+				LOG.warn("No answer from studies MS, subject-study replica not initialized.");
+				return;
+			}
+			List<SubjectStudyLink> links = new ObjectMapper().readValue(response, new TypeReference<List<SubjectStudyLink>>(){});
+			subjectStudyRepository.deleteAllLinks();
+			saveLinks(links, new HashSet<>());
+			subjectStudySyncRepository.save(new SubjectStudySync(new Date()));
+			LOG.info("Subject-study replica initialized with {} links.", links.size());
+		} catch (AmqpException | IOException e) {
+			LOG.error("Could not initialize subject-study replica: ", e);
+		} finally {
+			synchronized (this) {
+				for (SubjectStudyUpdate update : pendingUpdates) {
+					replaceLinks(update);
+				}
+				pendingUpdates = null;
+			}
+		}
+	}
+
+	/**
+	 * @return true if the replica holds all the links of studies MS, so that a
+	 *         study without any local link has no subject
+	 */
+	public boolean isBootstrapped() {
+		if (!bootstrapped) {
+			bootstrapped = subjectStudySyncRepository.count() > 0;
+		}
+		return bootstrapped;
+	}
+
+	private void replaceLinks(SubjectStudyUpdate update) {
+		Set<Long> savedSubjects = new HashSet<>();
+		if (update.getSubjectId() != null) {
+			saveSubjects(Collections.singletonMap(update.getSubjectId(), update.getSubjectName()), savedSubjects);
+			subjectStudyRepository.deleteBySubjectId(update.getSubjectId());
+		} else if (update.getStudyId() != null) {
+			subjectStudyRepository.deleteByStudyId(update.getStudyId());
+		} else if (update.getSubjects() != null && !update.getSubjects().isEmpty()) {
+			Map<Long, String> subjects = new LinkedHashMap<>();
+			for (IdName subject : update.getSubjects()) {
+				subjects.put(subject.getId(), subject.getName());
+			}
+			saveSubjects(subjects, savedSubjects);
+			subjectStudyRepository.deleteBySubjectIdIn(new ArrayList<>(subjects.keySet()));
+		} else {
+			LOG.warn("Ignoring subject-study update without subject nor study.");
+			return;
+		}
+		saveLinks(update.getLinks(), savedSubjects);
+	}
+
+	private void saveLinks(List<SubjectStudyLink> links, Set<Long> savedSubjects) {
+		if (links == null || links.isEmpty()) {
+			return;
+		}
+		Map<Long, String> subjects = new LinkedHashMap<>();
+		List<SubjectStudy> subjectStudies = new ArrayList<>(links.size());
+		for (SubjectStudyLink link : links) {
+			// A null name (links sent without the subject loaded) must not hide a known one
+			if (link.getSubjectName() != null || !subjects.containsKey(link.getSubjectId())) {
+				subjects.put(link.getSubjectId(), link.getSubjectName());
+			}
+			subjectStudies.add(new SubjectStudy(link.getSubjectId(), link.getStudyId()));
+		}
+		saveSubjects(subjects, savedSubjects);
+		subjectStudyRepository.save(subjectStudies);
+	}
+
+	/*
+	 * Creates the subjects or updates their names, at most once per subject,
+	 * loading and saving them in batches. A null name keeps the existing one.
+	 */
+	private void saveSubjects(Map<Long, String> names, Set<Long> savedSubjects) {
+		Map<Long, String> toSave = new HashMap<>();
+		for (Map.Entry<Long, String> name : names.entrySet()) {
+			if (savedSubjects.add(name.getKey())) {
+				toSave.put(name.getKey(), name.getValue());
+			}
+		}
+		if (toSave.isEmpty()) {
+			return;
+		}
+		List<Subject> changed = new ArrayList<>();
+		for (Subject subject : subjectRepository.findAll(toSave.keySet())) {
+			String name = toSave.remove(subject.getId());
+			if (name != null && !name.equals(subject.getName())) {
+				subject.setName(name);
+				changed.add(subject);
+			}
+		}
+		// The remaining ones are unknown yet
+		for (Map.Entry<Long, String> name : toSave.entrySet()) {
+			changed.add(new Subject(name.getKey(), name.getValue()));
+		}
+		subjectRepository.save(changed);
+	}
+
+	/*
+	 * The shared template keeps the default reply timeout, suited to the small requests.
+	 */
+	private RabbitTemplate bootstrapTemplate() {
+		RabbitTemplate template = new RabbitTemplate(rabbitTemplate.getConnectionFactory());
+		template.setMessageConverter(rabbitTemplate.getMessageConverter());
+		template.setReplyTimeout(BOOTSTRAP_REPLY_TIMEOUT_MS);
+		return template;
+	}
+
+}
@@ -32,7 +32,6 @@ import org.shanoir.ng.dataset.model.Dataset;
 import org.shanoir.ng.shared.exception.EntityNotFoundException;
 import org.shanoir.ng.shared.exception.ErrorModel;
 import org.shanoir.ng.shared.exception.RestServiceException;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
@@ -141,12 +140,17 @@ public interface DatasetApi {
 			@ApiParam(value = "id of the subject", required = true) @PathVariable("subjectId") Long subjectId,
 			@ApiParam(value = "id of the study", required = true) @PathVariable("studyId") Long studyId);
 
-    @ApiOperation(value = "", nickname = "downloadDatasetById", notes = "If exists, returns a zip file of the dataset corresponding to the given id", response = Resource.class, tags={  })
+    @ApiOperation(value = "", nickname = "downloadDatasetById", notes = "If exists, returns a zip file of the dataset corresponding to the given id. "
+    		+ "A download can be resumed with a Range header (bytes=<offset>-) and an If-Range header holding the ETag of the zip. "
+    		+ "The zip is built again, files fetched from the PACS included, for every request: resume a download, do not split it into many ranges.",
+    		response = Resource.class, tags={  })
     @ApiResponses(value = {
         @ApiResponse(code = 200, message = "zip file", response = Resource.class),
+        @ApiResponse(code = 206, message = "end of the zip file, from the requested offset", response = Resource.class),
         @ApiResponse(code = 401, message = "unauthorized"),
         @ApiResponse(code = 403, message = "forbidden"),
         @ApiResponse(code = 404, message = "no dataset found"),
+        @ApiResponse(code = 416, message = "offset past the end of the zip file"),
         @ApiResponse(code = 500, message = "unexpected error", response = ErrorModel.class) })
     @GetMapping(value = "/download/{datasetId}")
     @PreAuthorize("hasRole('ADMIN') or (hasAnyRole('EXPERT', 'USER') and @datasetSecurityService.hasRightOnDataset(#datasetId, 'CAN_DOWNLOAD'))")
@@ -195,7 +199,7 @@ public interface DatasetApi {
 		@ApiResponse(code = 500, message = "unexpected error", response = ErrorModel.class) })
 	@GetMapping(value = "/downloadStatistics", produces = { "application/zip" })
 	@PreAuthorize("hasRole('ADMIN')")
-	ResponseEntity<ByteArrayResource> downloadStatistics(
+	void downloadStatistics(
 			@ApiParam(value = "Study name including regular expression", required=false) @Valid
 			@RequestParam(value = "studyNameInRegExp", required = false) String studyNameInRegExp,
 			@ApiParam(value = "Study name excluding regular expression", required=false) @Valid
@@ -203,6 +207,7 @@ public interface DatasetApi {
 			@ApiParam(value = "Subject name including regular expression", required=false) @Valid
 			@RequestParam(value = "subjectNameInRegExp", required = false) String subjectNameInRegExp,
 			@ApiParam(value = "Subject name excluding regular expression", required=false) @Valid
-			@RequestParam(value = "subjectNameOutRegExp", required = false) String subjectNameOutRegExp) throws RestServiceException, IOException;
+			@RequestParam(value = "subjectNameOutRegExp", required = false) String subjectNameOutRegExp,
+			HttpServletResponse response) throws RestServiceException, IOException;
 		
 }
@@ -17,21 +17,25 @@ package org.shanoir.ng.dataset.controler;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.text.SimpleDateFormat;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -45,9 +49,9 @@ import javax.validation.Valid;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
-import org.joda.time.DateTime;
 import org.shanoir.ng.dataset.dto.DatasetAndProcessingsDTOInterface;
 import org.shanoir.ng.dataset.dto.DatasetDTO;
+import org.shanoir.ng.dataset.dto.DatasetDownloadFileDTO;
 import org.shanoir.ng.dataset.dto.mapper.DatasetMapper;
 import org.shanoir.ng.dataset.modality.EegDataset;
 import org.shanoir.ng.dataset.modality.EegDatasetMapper;
@@ -73,12 +77,12 @@ import org.shanoir.ng.shared.exception.ErrorDetails;
 import org.shanoir.ng.shared.exception.ErrorModel;
 import org.shanoir.ng.shared.exception.RestServiceException;
 import org.shanoir.ng.shared.repository.SubjectRepository;
+import org.shanoir.ng.utils.FileServingUtil;
 import org.shanoir.ng.utils.KeycloakUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
@@ -105,7 +109,8 @@ public class DatasetApiController implements DatasetApi {
 
 	private static final String ZIP = ".zip";
 
-	private static final String DOWNLOAD = ".download";
+	/** Date of all zip entries, 1980-01-02: zip dates start in 1980, whatever the time zone */
+	private static final long ZIP_ENTRY_TIME = 315619200000L;
 
 	private static final String JAVA_IO_TMPDIR = "java.io.tmpdir";
 
@@ -286,9 +291,8 @@ public class DatasetApiController implements DatasetApi {
 
 		String tmpFilePath = userDir + File.separator + datasetName + "_" + format;
 
-		SimpleDateFormat formatter = new SimpleDateFormat("yyyyMMddHHmmss");
-		File workFolder = new File(tmpFilePath + "-" + formatter.format(new DateTime().toDate()) + DOWNLOAD);
-		workFolder.mkdirs();
+		// a unique folder: the same dataset may be downloaded by concurrent requests
+		File workFolder = Files.createTempDirectory(userDir.toPath(), datasetName + "_" + format + "-").toFile();
 
 		try {
 			List<URL> pathURLs = new ArrayList<>();
@@ -317,10 +321,10 @@ public class DatasetApiController implements DatasetApi {
 			throw new RestServiceException(
 					new ErrorModel(HttpStatus.UNPROCESSABLE_ENTITY.value(), "Error while retrieveing dataset data.", e));
 		}
-		File zipFile = new File(tmpFilePath + ZIP);
-		zipFile.createNewFile();
+		// a retry of a broken download may come while the first request is still running
+		File zipFile = File.createTempFile(datasetName + "_" + format + "-", ZIP, userDir);
 
-		zip(workFolder.getAbsolutePath(), zipFile.getAbsolutePath());
+		byte[] sha256 = zip(workFolder.getAbsolutePath(), zipFile.getAbsolutePath());
 		
 		// Try to determine file's content type
 		String contentType = request.getServletContext().getMimeType(zipFile.getAbsolutePath());
@@ -328,11 +332,9 @@ public class DatasetApiController implements DatasetApi {
 		ShanoirEvent event = new ShanoirEvent(ShanoirEventType.DOWNLOAD_DATASET_EVENT, dataset.getId().toString(), KeycloakUtil.getTokenUserId(), dataset.getId().toString() + "." + format, ShanoirEvent.IN_PROGRESS);
 		eventService.publishEvent(event);
 		
-		try (InputStream is = new FileInputStream(zipFile);) {
-			response.setHeader("Content-Disposition", "attachment;filename=" + zipFile.getName());
-			response.setContentType(contentType);
-			org.apache.commons.io.IOUtils.copy(is, response.getOutputStream());
-			response.flushBuffer();
+		try {
+			// the zip is the same at each request for the same data: a download can be resumed with a range
+			FileServingUtil.serveTemporary(zipFile, new File(tmpFilePath + ZIP).getName(), contentType, sha256, request, response);
 			event.setStatus(ShanoirEvent.SUCCESS);
 			eventService.publishEvent(event);
 		} finally {
@@ -375,15 +377,74 @@ public class DatasetApiController implements DatasetApi {
 			throw new RestServiceException(
 					new ErrorModel(HttpStatus.FORBIDDEN.value(), "Please use a valid study ID."));
 		}
-		// STEP 1: Retrieve all datasets all in one with only the one we can see
-		List<Dataset> datasets = datasetService.findByStudyId(studyId);
+		DatasetExpressionFormat expressionFormat = getExpressionFormat(format);
 
-		if (datasets.size() > DATASET_LIMIT) {
+		// STEP 1: Plan the download in one query: the files of the datasets we can download, by dataset
+		Map<Long, List<DatasetDownloadFileDTO>> filesByDataset = new LinkedHashMap<>();
+		for (DatasetDownloadFileDTO file : datasetService.findDownloadFilesByStudyId(studyId, Arrays.asList(expressionFormat, DatasetExpressionFormat.EEG))) {
+			filesByDataset.computeIfAbsent(file.getDatasetId(), id -> new ArrayList<>()).add(file);
+		}
+
+		if (filesByDataset.size() > DATASET_LIMIT) {
 			throw new RestServiceException(
 					new ErrorModel(HttpStatus.FORBIDDEN.value(), "This study has more than " + DATASET_LIMIT + " datasets, that is the limit. Please download them from solr search." ));
 		}
 
-		massiveDownload(format, datasets, response);
+		// STEP 2: Get the data
+		File tmpFile = createDownloadFolder();
+		try {
+			for (List<DatasetDownloadFileDTO> files : filesByDataset.values()) {
+				File datasetFile = new File(tmpFile.getAbsolutePath() + File.separator + files.get(0).getDatasetId());
+				datasetFile.mkdir();
+				// EEG datasets only have EEG files, whatever the requested format
+				boolean eeg = files.stream().anyMatch(file -> DatasetExpressionFormat.EEG.equals(file.getFormat()));
+				DatasetExpressionFormat datasetFormat = eeg ? DatasetExpressionFormat.EEG : expressionFormat;
+				List<DatasetDownloadFileDTO> formatFiles = files.stream()
+						.filter(file -> datasetFormat.equals(file.getFormat()))
+						.collect(Collectors.toList());
+				if (formatFiles.isEmpty()) {
+					continue;
+				}
+				List<URL> pathURLs = new ArrayList<>();
+				for (DatasetDownloadFileDTO file : formatFiles) {
+					pathURLs.add(new URL(file.getPath().replaceAll("%20", " ")));
+				}
+				DatasetDownloadFileDTO first = formatFiles.get(0);
+				if (DatasetExpressionFormat.DICOM.equals(datasetFormat)) {
+					downloader.downloadDicomFilesForURLs(pathURLs, datasetFile, first.getSubjectName());
+				} else {
+					copyFilesForURLs(pathURLs, datasetFile, first.getSubjectName(), first.getComment(), first.getSortingIndex(), first.getName(), first.getRank());
+				}
+			}
+		} catch (IOException | MessagingException e) {
+			LOG.error("Error while copying files: ", e);
+			FileUtils.deleteQuietly(tmpFile);
+			throw new RestServiceException(
+					new ErrorModel(HttpStatus.UNPROCESSABLE_ENTITY.value(), "Error while retrieving files. Please contact an administrator.", e));
+		}
+
+		// STEP 3: Zip and send it
+		String ids = filesByDataset.keySet().stream().map(Object::toString).collect(Collectors.joining(","));
+		sendZip(tmpFile, ids, format, response);
+	}
+
+	/**
+	 * Maps the format requested for a download to the dataset expression format.
+	 * 
+	 * @param format dcm, nii or eeg
+	 * @return the dataset expression format
+	 * @throws RestServiceException if the format is unknown
+	 */
+	private DatasetExpressionFormat getExpressionFormat(String format) throws RestServiceException {
+		if (DCM.equals(format)) {
+			return DatasetExpressionFormat.DICOM;
+		} else if (NII.equals(format)) {
+			return DatasetExpressionFormat.NIFTI_SINGLE_FILE;
+		} else if (EEG.equals(format)) {
+			return DatasetExpressionFormat.EEG;
+		}
+		throw new RestServiceException(
+				new ErrorModel(HttpStatus.UNPROCESSABLE_ENTITY.value(), "Please choose either nifti, dicom or eeg file type.", null));
 	}
 
 	public void massiveDownload(String format, List<Dataset> datasets, HttpServletResponse response) throws EntityNotFoundException, RestServiceException, IOException {
@@ -391,12 +452,7 @@ public class DatasetApiController implements DatasetApi {
 		datasets = datasetSecurityService.hasRightOnAtLeastOneDataset(datasets, "CAN_DOWNLOAD");
 		// STEP 3: Get the data
 		// Check rights on at least one of the datasets and filter the datasetIds list
-		File userDir = getUserImportDir(System.getProperty(JAVA_IO_TMPDIR));
-		
-		// Add timestamp to get a difference
-		SimpleDateFormat formatter = new SimpleDateFormat("yyyyMMddHHmmss");
-		File tmpFile = new File(userDir.getAbsolutePath() + File.separator + "Datasets" + formatter.format(new DateTime().toDate()));
-		tmpFile.mkdirs();
+		File tmpFile = createDownloadFolder();
 
 		// Get the data
 		try {
@@ -437,6 +493,31 @@ public class DatasetApiController implements DatasetApi {
 			throw new RestServiceException(
 					new ErrorModel(HttpStatus.UNPROCESSABLE_ENTITY.value(), "The size of data you tried to download is too Important. Please split your download.", error));
 		}
+		String ids = String.join(",", datasets.stream().map(dataset -> dataset.getId().toString()).collect(Collectors.toList()));
+		sendZip(tmpFile, ids, format, response);
+	}
+
+	/**
+	 * Creates a new temporary folder for a download, in the user import directory.
+	 * 
+	 * @return the folder
+	 * @throws IOException
+	 */
+	private File createDownloadFolder() throws IOException {
+		File userDir = getUserImportDir(System.getProperty(JAVA_IO_TMPDIR));
+		return Files.createTempDirectory(userDir.toPath(), "Datasets").toFile();
+	}
+
+	/**
+	 * Zips the download folder, sends it and deletes it.
+	 * 
+	 * @param tmpFile the download folder
+	 * @param ids the downloaded dataset ids, for the event
+	 * @param format the requested format, for the event
+	 * @param response the response
+	 * @throws IOException
+	 */
+	private void sendZip(File tmpFile, String ids, String format, HttpServletResponse response) throws IOException {
 		// Zip it
 		File zipFile = new File(tmpFile.getAbsolutePath() + ZIP);
 		zipFile.createNewFile();
@@ -445,7 +526,6 @@ public class DatasetApiController implements DatasetApi {
 		// Try to determine file's content type
 		String contentType = request.getServletContext().getMimeType(zipFile.getAbsolutePath());
 
-		String ids = String.join(",", datasets.stream().map(dataset -> dataset.getId().toString()).collect(Collectors.toList()));
 		ShanoirEvent event = new ShanoirEvent(ShanoirEventType.DOWNLOAD_DATASET_EVENT, ids, KeycloakUtil.getTokenUserId(), ids + "." + format, ShanoirEvent.IN_PROGRESS);
 		eventService.publishEvent(event);
 
@@ -471,6 +551,25 @@ public class DatasetApiController implements DatasetApi {
 	 * @throws MessagingException
 	 */
 	private void copyNiftiFilesForURLs(final List<URL> urls, final File workFolder, Dataset dataset, Object subjectName) throws IOException {
+		copyFilesForURLs(urls, workFolder, subjectName, dataset.getUpdatedMetadata().getComment(),
+				dataset.getDatasetAcquisition().getSortingIndex(), dataset.getUpdatedMetadata().getName(),
+				dataset.getDatasetAcquisition().getRank());
+	}
+
+	/**
+	 * Receives a list of URLs containing file:/// urls and copies the files to a folder named workFolder,
+	 * naming them from the dataset metadata and acquisition.
+	 * @param urls
+	 * @param workFolder
+	 * @param subjectName the subjectName
+	 * @param comment the comment of the dataset metadata
+	 * @param sortingIndex the sorting index of the acquisition
+	 * @param metadataName the name of the dataset metadata
+	 * @param rank the rank of the acquisition
+	 * @throws IOException
+	 */
+	private void copyFilesForURLs(final List<URL> urls, final File workFolder, Object subjectName, String comment,
+			Integer sortingIndex, String metadataName, Integer rank) throws IOException {
 		int index = 0;
 		for (Iterator<URL> iterator = urls.iterator(); iterator.hasNext();) {
 			URL url =  iterator.next();
@@ -480,12 +579,12 @@ public class DatasetApiController implements DatasetApi {
 			StringBuilder name = new StringBuilder("");
 			
 			name.append(subjectName).append("_")
-			.append(dataset.getUpdatedMetadata().getComment()).append("_")
-			.append(dataset.getDatasetAcquisition().getSortingIndex()).append("_");
-			if (dataset.getUpdatedMetadata().getName() != null && dataset.getUpdatedMetadata().getName().lastIndexOf(" ") != -1) {
-				name.append(dataset.getUpdatedMetadata().getName().substring(dataset.getUpdatedMetadata().getName().lastIndexOf(" ") + 1)).append("_");
+			.append(comment).append("_")
+			.append(sortingIndex).append("_");
+			if (metadataName != null && metadataName.lastIndexOf(" ") != -1) {
+				name.append(metadataName.substring(metadataName.lastIndexOf(" ") + 1)).append("_");
 			}
-			name.append(dataset.getDatasetAcquisition().getRank()).append("_")
+			name.append(rank).append("_")
 			.append(index)
 			.append(".").append(FilenameUtils.getExtension(srcFile.getName()));
 
@@ -517,16 +616,24 @@ public class DatasetApiController implements DatasetApi {
 	}
 
 	/**
-	 * Zip
+	 * Zip. Entries are sorted and dated with a fixed time, so that the same
+	 * files always give the same zip, byte for byte.
 	 * 
 	 * @param sourceDirPath
 	 * @param zipFilePath
+	 * @return the SHA-256 digest of the zip
 	 * @throws IOException
 	 */
-	private void zip(final String sourceDirPath, final String zipFilePath) throws IOException {
+	private byte[] zip(final String sourceDirPath, final String zipFilePath) throws IOException {
 		Path p = Paths.get(zipFilePath);
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
 		// 1. Create an outputstream (zip) on the destination
-		try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(p))) {
+		try (ZipOutputStream zos = new ZipOutputStream(new DigestOutputStream(Files.newOutputStream(p), digest))) {
 			
 			// 2. "Walk" => iterate over the source file
 			Path pp = Paths.get(sourceDirPath);
@@ -534,8 +641,10 @@ public class DatasetApiController implements DatasetApi {
 				
 				// 3. We only consider directories, and we copyt them directly by "relativising" them then copying them to the output
 				walker.filter(path -> !path.toFile().isDirectory())
+				.sorted()
 				.forEach(path -> {
 					ZipEntry zipEntry = new ZipEntry(pp.relativize(path).toString());
+					zipEntry.setTime(ZIP_ENTRY_TIME);
 					try {
 						zos.putNextEntry(zipEntry);
 						Files.copy(path, zos);
@@ -547,45 +656,9 @@ public class DatasetApiController implements DatasetApi {
 			}
 			zos.finish();
 		}
+		return digest.digest();
 	}
 	
-	/**
-	 * Zip a single file
-	 * 
-	 * @param sourceFile
-	 * @param zipFile
-	 * @throws IOException
-	 */
-	private void zipSingleFile(final File sourceFile, final File zipFile) throws IOException {
-		
-		byte[] buffer = new byte[1024];
-		
-
-		try (	FileOutputStream fos = new FileOutputStream(zipFile);
-				ZipOutputStream zos = new ZipOutputStream(fos);
-				FileInputStream fis = new FileInputStream(sourceFile);
-				) {
-				// begin writing a new ZIP entry, positions the stream to the start of the entry data
-				zos.putNextEntry(new ZipEntry(sourceFile.getName()));
-					
-				int length;
-
-				while ((length = fis.read(buffer)) > 0) {
-					zos.write(buffer, 0, length);
-				}
-				zos.closeEntry();
-		}
-	}
-
-	private File recreateFile(final String fileName) throws IOException {
-		File file = new File(fileName);
-		if(file.exists()) {
-			file.delete();
-		}
-		file.createNewFile();
-		return file;
-	}
-
 	/**
 	 * This method receives a list of URLs containing file:/// urls and copies the files to a folder named workFolder.
 	 * @param urls
@@ -664,7 +737,7 @@ public class DatasetApiController implements DatasetApi {
 	}
 	
 	@Override
-	public ResponseEntity<ByteArrayResource> downloadStatistics(
+	public void downloadStatistics(
 			@ApiParam(value = "Study name including regular expression", required=false) @Valid
 			@RequestParam(value = "studyNameInRegExp", required = false) String studyNameInRegExp,
 			@ApiParam(value = "Study name excluding regular expression", required=false) @Valid
@@ -672,44 +745,42 @@ public class DatasetApiController implements DatasetApi {
 			@ApiParam(value = "Subject name including regular expression", required=false) @Valid
 			@RequestParam(value = "subjectNameInRegExp", required = false) String subjectNameInRegExp,
 			@ApiParam(value = "Subject name excluding regular expression", required=false) @Valid
-			@RequestParam(value = "subjectNameOutRegExp", required = false) String subjectNameOutRegExp
+			@RequestParam(value = "subjectNameOutRegExp", required = false) String subjectNameOutRegExp,
+			HttpServletResponse response
 	) throws RestServiceException, IOException {
-		String tmpDir = System.getProperty(JAVA_IO_TMPDIR);
-		File userDir = getUserImportDir(tmpDir);
-		File statisticsFile = recreateFile(userDir + File.separator + "shanoirExportStatistics.txt");
-		File zipFile = recreateFile(userDir + File.separator + "shanoirExportStatistics" + ZIP);
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=shanoirExportStatistics" + ZIP);
+		response.setContentType("application/zip");
 
-		// Get the data
-		try (	FileOutputStream fos = new FileOutputStream(statisticsFile);
-				BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(fos));	){
-
-
-			List<Object[]> results = datasetService.queryStatistics(studyNameInRegExp, studyNameOutRegExp, subjectNameInRegExp, subjectNameOutRegExp);
-
-			for (Object[] or : results) {
-				List<String> strings = Arrays.stream(or).map(object -> Objects.toString(object, null)).collect(Collectors.toList());
-				bw.write(String.join("\t", strings));
+		// Stream the rows as they are read from the database, directly into the zip
+		ZipOutputStream zos = new ZipOutputStream(response.getOutputStream());
+		BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(zos, StandardCharsets.UTF_8));
+		try {
+			zos.putNextEntry(new ZipEntry("shanoirExportStatistics.txt"));
+			datasetService.queryStatistics(studyNameInRegExp, studyNameOutRegExp, subjectNameInRegExp, subjectNameOutRegExp, row -> {
+				for (int i = 0; i < row.length; i++) {
+					if (i > 0) {
+						bw.write('\t');
+					}
+					bw.write(Objects.toString(row[i], "null"));
+				}
 				bw.newLine();
-			}
-			
-		} catch (javax.persistence.NoResultException e) {
-			throw new RestServiceException(new ErrorModel(HttpStatus.NOT_FOUND.value(), "No result found.", e));
+			});
+			bw.flush();
+			zos.closeEntry();
+			zos.finish();
+			response.flushBuffer();
+		} catch (IOException e) {
+			// The client went away or the zip could not be written: nothing can be sent anymore
+			LOG.error("Error while streaming statistics: ", e);
+			throw e;
 		} catch (Exception e) {
+			if (response.isCommitted()) {
+				LOG.error("Error while querying the database, statistics export truncated: ", e);
+				throw new IOException(e);
+			}
+			response.reset();
 			throw new RestServiceException(
 					new ErrorModel(HttpStatus.UNPROCESSABLE_ENTITY.value(), "Error while querying the database.", e));
 		}
-
-		zipSingleFile(statisticsFile, zipFile);
-
-		byte[] data = Files.readAllBytes(zipFile.toPath());
-		ByteArrayResource resource = new ByteArrayResource(data);
-
-		statisticsFile.delete();
-
-		return ResponseEntity.ok()
-				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=" + zipFile.getName())
-				.contentType(MediaType.MULTIPART_FORM_DATA)
-				.contentLength(data.length)
-				.body(resource);
 	}
 }
@@ -0,0 +1,121 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.dataset.dto;
+
+import java.time.LocalDate;
+
+import org.shanoir.ng.dataset.model.DatasetExpressionFormat;
+
+/**
+ * One file to download, with what is needed to name it: a row of the
+ * download plan of a study.
+ */
+public class DatasetDownloadFileDTO {
+
+	private Long datasetId;
+
+	private String subjectName;
+
+	private LocalDate examinationDate;
+
+	private String comment;
+
+	private String name;
+
+	private Integer sortingIndex;
+
+	private Integer rank;
+
+	private Integer format;
+
+	private String path;
+
+	public DatasetDownloadFileDTO(Long datasetId, String subjectName, LocalDate examinationDate, String comment,
+			String name, Integer sortingIndex, Integer rank, Integer format, String path) {
+		this.datasetId = datasetId;
+		this.subjectName = subjectName;
+		this.examinationDate = examinationDate;
+		this.comment = comment;
+		this.name = name;
+		this.sortingIndex = sortingIndex;
+		this.rank = rank;
+		this.format = format;
+		this.path = path;
+	}
+
+	/**
+	 * @return the dataset id
+	 */
+	public Long getDatasetId() {
+		return datasetId;
+	}
+
+	/**
+	 * @return the subject name
+	 */
+	public String getSubjectName() {
+		return subjectName;
+	}
+
+	/**
+	 * @return the examination date
+	 */
+	public LocalDate getExaminationDate() {
+		return examinationDate;
+	}
+
+	/**
+	 * @return the comment of the updated metadata
+	 */
+	public String getComment() {
+		return comment;
+	}
+
+	/**
+	 * @return the name of the updated metadata
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the sorting index of the acquisition
+	 */
+	public Integer getSortingIndex() {
+		return sortingIndex;
+	}
+
+	/**
+	 * @return the rank of the acquisition
+	 */
+	public Integer getRank() {
+		return rank;
+	}
+
+	/**
+	 * @return the format of the dataset expression
+	 */
+	public DatasetExpressionFormat getFormat() {
+		return DatasetExpressionFormat.getFormat(format);
+	}
+
+	/**
+	 * @return the path of the file
+	 */
+	public String getPath() {
+		return path;
+	}
+
+}
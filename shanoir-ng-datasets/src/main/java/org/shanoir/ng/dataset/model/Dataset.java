@@ -26,6 +26,9 @@ import javax.persistence.InheritanceType;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.Transient;
@@ -62,6 +65,13 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo.Id;
  */
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
+@NamedEntityGraph(name = "Dataset.list", attributeNodes = {
+		@NamedAttributeNode("originMetadata"),
+		@NamedAttributeNode("updatedMetadata"),
+		@NamedAttributeNode(value = "datasetAcquisition", subgraph = "acquisition") },
+		subgraphs = @NamedSubgraph(name = "acquisition", attributeNodes = {
+				@NamedAttributeNode("examination"),
+				@NamedAttributeNode("studyCard") }))
 @JsonTypeInfo(use = Id.NAME, include = As.PROPERTY, property = "type")
 @JsonSubTypes({
 		@JsonSubTypes.Type(value = CalibrationDataset.class, name = "Calibration"),
@@ -14,17 +14,86 @@
 
 package org.shanoir.ng.dataset.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.shanoir.ng.dataset.dto.DatasetDownloadFileDTO;
 import org.shanoir.ng.dataset.model.Dataset;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface DatasetRepository extends PagingAndSortingRepository<Dataset, Long>, DatasetRepositoryCustom {
 
+	String SELECT_DOWNLOAD_FILES = "SELECT new org.shanoir.ng.dataset.dto.DatasetDownloadFileDTO(d.id, "
+			+ "(SELECT s.name FROM Subject s WHERE s.id = d.subjectId), e.examinationDate, m.comment, m.name, "
+			+ "a.sortingIndex, a.rank, de.datasetExpressionFormat, f.path) "
+			+ "FROM DatasetFile f JOIN f.datasetExpression de JOIN de.dataset d JOIN d.datasetAcquisition a "
+			+ "JOIN a.examination e LEFT JOIN d.updatedMetadata m "
+			+ "WHERE e.studyId = :studyId AND de.datasetExpressionFormat IN :formats ";
+
+	String ORDER_DOWNLOAD_FILES = "ORDER BY d.id, f.id";
+
+	/**
+	 * Metadata, acquisition and examination are fetched in the same query, to
+	 * avoid one select per row when listing.
+	 */
+	@Override
+	@EntityGraph("Dataset.list")
+	Page<Dataset> findAll(Pageable pageable);
+
+	@EntityGraph("Dataset.list")
 	Page<Dataset> findByDatasetAcquisitionExaminationStudyIdIn(Iterable<Long> studyIds, Pageable pageable);
 
 	Iterable<Dataset> findByDatasetAcquisitionExaminationStudyId(Long studyId);
 	
 	Iterable<Dataset> findByDatasetAcquisitionId(Long acquisitionId);
 
+	/**
+	 * Resolves the study of every given dataset in one query, through its
+	 * examination.
+	 * 
+	 * @param ids dataset ids
+	 * @return pairs of (dataset id, study id)
+	 */
+	@Query("SELECT d.id, e.studyId FROM Dataset d JOIN d.datasetAcquisition a JOIN a.examination e WHERE d.id IN :ids")
+	List<Object[]> findStudyIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+	/**
+	 * Ids of the datasets of a subject, through their examination.
+	 * 
+	 * @param subjectId the subject id
+	 * @return the dataset ids
+	 */
+	@Query("SELECT d.id FROM Dataset d JOIN d.datasetAcquisition a JOIN a.examination e WHERE e.subjectId = :subjectId")
+	List<Long> findIdsBySubjectId(@Param("subjectId") Long subjectId);
+
+	/**
+	 * Download plan of a study: the files of the given formats of all its
+	 * datasets, in one query and without loading any entity.
+	 * 
+	 * @param studyId the study id
+	 * @param formats the dataset expression format ids
+	 * @return the files, grouped by dataset
+	 */
+	@Query(SELECT_DOWNLOAD_FILES + ORDER_DOWNLOAD_FILES)
+	List<DatasetDownloadFileDTO> findDownloadFilesByStudyId(@Param("studyId") Long studyId,
+			@Param("formats") Collection<Integer> formats);
+
+	/**
+	 * Same as {@link #findDownloadFilesByStudyId(Long, Collection)}, restricted
+	 * to the datasets whose examination belongs to one of the given studies.
+	 * 
+	 * @param studyId the study id
+	 * @param formats the dataset expression format ids
+	 * @param allowedStudyIds the studies of the datasets to keep
+	 * @return the files, grouped by dataset
+	 */
+	@Query(SELECT_DOWNLOAD_FILES + "AND e.studyId IN :allowedStudyIds " + ORDER_DOWNLOAD_FILES)
+	List<DatasetDownloadFileDTO> findDownloadFilesByStudyIdAndDatasetStudyIdIn(@Param("studyId") Long studyId,
+			@Param("formats") Collection<Integer> formats, @Param("allowedStudyIds") Collection<Long> allowedStudyIds);
+
 }
\ No newline at end of file
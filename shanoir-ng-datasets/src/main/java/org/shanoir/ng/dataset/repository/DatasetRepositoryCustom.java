@@ -1,7 +1,18 @@
 package org.shanoir.ng.dataset.repository;
 
-import java.util.List;
+import java.io.IOException;
 
 public interface DatasetRepositoryCustom {
-	public List<Object[]> queryStatistics(String studyNameInRegExp, String studyNameOutRegExp, String subjectNameInRegExp, String subjectNameOutRegExp) throws Exception;
+
+	/**
+	 * Runs the getStatistics procedure and gives its rows one by one to the handler,
+	 * without keeping them in memory. The first row contains the column names.
+	 */
+	public void queryStatistics(String studyNameInRegExp, String studyNameOutRegExp, String subjectNameInRegExp, String subjectNameOutRegExp,
+			StatisticsRowHandler rowHandler) throws Exception;
+
+	@FunctionalInterface
+	public interface StatisticsRowHandler {
+		void handle(Object[] row) throws IOException;
+	}
 }
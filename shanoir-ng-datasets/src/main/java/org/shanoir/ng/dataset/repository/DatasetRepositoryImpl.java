@@ -1,44 +1,57 @@
 package org.shanoir.ng.dataset.repository;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.CallableStatement;
+import java.sql.ResultSet;
 
 import javax.persistence.EntityManager;
-import javax.persistence.ParameterMode;
 import javax.persistence.PersistenceContext;
-import javax.persistence.StoredProcedureQuery;
 
+import org.hibernate.Session;
 import org.springframework.stereotype.Component;
 
 @Component
 public class DatasetRepositoryImpl implements DatasetRepositoryCustom {
 
-    @PersistenceContext
-    private EntityManager entityManager;
-
-    @Override
-    public List<Object[]> queryStatistics(String studyNameInRegExp, String studyNameOutRegExp,
-            String subjectNameInRegExp, String subjectNameOutRegExp) throws Exception {
-        
-		//"getStatistics" is the name of the MySQL procedure
-		StoredProcedureQuery query = entityManager.createStoredProcedureQuery("getStatistics"); 
-
-		//Declare the parameters in the same order
-		query.registerStoredProcedureParameter(1, String.class, ParameterMode.IN);
-		query.registerStoredProcedureParameter(2, String.class, ParameterMode.IN);
-		query.registerStoredProcedureParameter(3, String.class, ParameterMode.IN);
-		query.registerStoredProcedureParameter(4, String.class, ParameterMode.IN);
-
-		//Pass the parameter values
-		query.setParameter(1, studyNameInRegExp);
-		query.setParameter(2, studyNameOutRegExp);
-		query.setParameter(3, subjectNameInRegExp);
-		query.setParameter(4, subjectNameOutRegExp);
-
-		//Execute query
-		query.execute();
-		
-		List<Object[]> results = query.getResultList();
-		return results;
-    }
+	/** MySQL driver streams the rows one by one with this fetch size, instead of loading the whole result. */
+	private static final int STATISTICS_FETCH_SIZE = Integer.MIN_VALUE;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public void queryStatistics(String studyNameInRegExp, String studyNameOutRegExp,
+			String subjectNameInRegExp, String subjectNameOutRegExp, StatisticsRowHandler rowHandler) throws Exception {
+
+		try {
+			entityManager.unwrap(Session.class).doWork(connection -> {
+				//"getStatistics" is the name of the MySQL procedure, read with a forward-only cursor
+				try (CallableStatement statement = connection.prepareCall("{call getStatistics(?, ?, ?, ?)}",
+						ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+					statement.setFetchSize(STATISTICS_FETCH_SIZE);
+					statement.setString(1, studyNameInRegExp);
+					statement.setString(2, studyNameOutRegExp);
+					statement.setString(3, subjectNameInRegExp);
+					statement.setString(4, subjectNameOutRegExp);
+
+					try (ResultSet resultSet = statement.executeQuery()) {
+						int columnCount = resultSet.getMetaData().getColumnCount();
+						while (resultSet.next()) {
+							Object[] row = new Object[columnCount];
+							for (int i = 0; i < columnCount; i++) {
+								row[i] = resultSet.getObject(i + 1);
+							}
+							rowHandler.handle(row);
+						}
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
 
 }
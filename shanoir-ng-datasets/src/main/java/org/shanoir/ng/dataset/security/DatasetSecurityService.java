@@ -16,6 +16,8 @@ package org.shanoir.ng.dataset.security;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -210,18 +212,103 @@ public class DatasetSecurityService {
 
     /**
      * Check that the connected user has the given right for at least one of the given datasets.
+     * The studies of the datasets are resolved for the whole list at once.
      * 
      * @param datasetId the datasets ids
      * @param rightStr the right
      * @return true or false
-     * @throws EntityNotFoundException
+     * @throws EntityNotFoundException if none of the datasets exists
      */
     public boolean hasAtLeastRightOnOneDataset(List<Long> datasetIds, String rightStr) throws EntityNotFoundException {
-    	boolean hasRight = false;
-    	for(Long datasetId : datasetIds) {
-    		hasRight = hasRight || hasRightOnDataset(datasetId, rightStr);
-    	}
-    	return hasRight;
+    	if (KeycloakUtil.getTokenRoles().contains(ROLE_ADMIN)) {
+			return true;
+		}
+    	if (datasetIds == null || datasetIds.isEmpty()) {
+			return false;
+		}
+    	Map<Long, Set<Long>> studyIdsByDatasetId = findStudyIdsByDatasetId(datasetIds);
+    	if (studyIdsByDatasetId.isEmpty()) {
+			throw new EntityNotFoundException("Cannot find datasets with ids " + datasetIds);
+		}
+    	return !filterDatasetIds(studyIdsByDatasetId, rightStr).isEmpty();
+    }
+
+    /**
+     * Check that the connected user has the given right for every given dataset.
+     * The studies of the datasets are resolved for the whole list at once,
+     * then the rights are checked once per distinct study.
+     * 
+     * @param datasetIds the datasets ids
+     * @param rightStr the right
+     * @return true or false
+     * @throws EntityNotFoundException if one of the datasets does not exist
+     */
+    public boolean hasRightOnEveryDataset(List<Long> datasetIds, String rightStr) throws EntityNotFoundException {
+    	if (KeycloakUtil.getTokenRoles().contains(ROLE_ADMIN)) {
+			return true;
+		}
+    	if (datasetIds == null || datasetIds.isEmpty()) {
+			return true;
+		}
+    	Map<Long, Set<Long>> studyIdsByDatasetId = findStudyIdsByDatasetId(datasetIds);
+    	checkAllFound(datasetIds, studyIdsByDatasetId.keySet(), "dataset");
+    	return filterDatasetIds(studyIdsByDatasetId, rightStr).size() == studyIdsByDatasetId.size();
+    }
+
+    /**
+     * Returns the ids of the given datasets on which the connected user has the given right.
+     * Unknown ids are dropped.
+     * 
+     * @param datasetIds the datasets ids
+     * @param rightStr the right
+     * @return the authorized ids
+     */
+    public Set<Long> filterDatasetIds(Collection<Long> datasetIds, String rightStr) {
+    	if (datasetIds == null || datasetIds.isEmpty()) {
+			return new HashSet<>();
+		}
+    	if (KeycloakUtil.getTokenRoles().contains(ROLE_ADMIN)) {
+			return new HashSet<>(datasetIds);
+		}
+    	return filterDatasetIds(findStudyIdsByDatasetId(datasetIds), rightStr);
+    }
+
+    /**
+     * Check that the connected user has the given right for every given dataset acquisition.
+     * 
+     * @param datasetAcquisitionIds the dataset acquisitions ids
+     * @param rightStr the right
+     * @return true or false
+     * @throws EntityNotFoundException if one of the acquisitions does not exist
+     */
+    public boolean hasRightOnEveryDatasetAcquisition(List<Long> datasetAcquisitionIds, String rightStr) throws EntityNotFoundException {
+    	if (KeycloakUtil.getTokenRoles().contains(ROLE_ADMIN)) {
+			return true;
+		}
+    	if (datasetAcquisitionIds == null || datasetAcquisitionIds.isEmpty()) {
+			return true;
+		}
+    	Set<Long> ids = new HashSet<>(datasetAcquisitionIds);
+    	return hasRightOnEveryStudy(ids, datasetAcquisitionRepository.findStudyIdsByIdIn(ids), "dataset acquisition", rightStr);
+    }
+
+    /**
+     * Check that the connected user has the given right for every given examination.
+     * 
+     * @param examinationIds the examinations ids
+     * @param rightStr the right
+     * @return true or false
+     * @throws EntityNotFoundException if one of the examinations does not exist
+     */
+    public boolean hasRightOnEveryExamination(List<Long> examinationIds, String rightStr) throws EntityNotFoundException {
+    	if (KeycloakUtil.getTokenRoles().contains(ROLE_ADMIN)) {
+			return true;
+		}
+    	if (examinationIds == null || examinationIds.isEmpty()) {
+			return true;
+		}
+    	Set<Long> ids = new HashSet<>(examinationIds);
+    	return hasRightOnEveryStudy(ids, examinationRepository.findStudyIdsByIdIn(ids), "examination", rightStr);
     }
 
     /**
@@ -244,18 +331,21 @@ public class DatasetSecurityService {
     	if (datasets == null || datasets.isEmpty()) {
 			return filteredDatasets;
 		}
-    	// Get list of corresponding studies
-    	Set<Long> studyIds = new HashSet<>();
+    	// Get the studies of the datasets, with their related studies, and check them once per study
+    	Map<Long, Set<Long>> studyIdsByDatasetId = new HashMap<>();
     	datasets.forEach((Dataset dataset) -> {
-    		studyIds.add(dataset.getStudyId());
+    		Set<Long> studyIds = new HashSet<>();
+    		if (dataset.getStudyId() != null) {
+    			studyIds.add(dataset.getStudyId());
+    		}
+    		studyIdsByDatasetId.put(dataset.getId(), studyIds);
     	});
-
-    	// Check study right
-    	Set<Long> validStudyIds = commService.hasRightOnStudies(studyIds, rightStr);
+    	addRelatedStudyIds(studyIdsByDatasetId);
+    	Set<Long> validDatasetIds = filterDatasetIds(studyIdsByDatasetId, rightStr);
 
     	// Build filtered list of datasets
     	datasets.forEach((Dataset dataset) -> {
-    		if (validStudyIds.contains(dataset.getStudyId())) {
+    		if (validDatasetIds.contains(dataset.getId())) {
     			filteredDatasets.add(dataset);
     		}
     	});
@@ -699,4 +789,97 @@ public class DatasetSecurityService {
         return commService.hasRightOnStudy(exam.getStudyId(), rightStr);
     }
    
+    /**
+     * Resolves the studies of the given datasets in two queries: their own study and the
+     * studies they are related to. A dataset without study gets an empty set, as in
+     * {@link #hasRightOnTrustedDataset(Dataset, String)}.
+     * 
+     * @param datasetIds the datasets ids
+     * @return the study ids by dataset id, for the existing datasets only
+     */
+    private Map<Long, Set<Long>> findStudyIdsByDatasetId(Collection<Long> datasetIds) {
+    	Set<Long> ids = new HashSet<>(datasetIds);
+    	Map<Long, Set<Long>> studyIdsByDatasetId = new HashMap<>();
+    	for (Object[] row : datasetRepository.findStudyIdsByIdIn(ids)) {
+    		Set<Long> studyIds = new HashSet<>();
+    		if (row[1] != null) {
+				studyIds.add((Long) row[1]);
+			}
+    		studyIdsByDatasetId.put((Long) row[0], studyIds);
+    	}
+    	addRelatedStudyIds(studyIdsByDatasetId);
+    	return studyIdsByDatasetId;
+    }
+
+    /**
+     * Adds the related studies to the datasets having a study, in one query.
+     * 
+     * @param studyIdsByDatasetId the study ids by dataset id
+     */
+    private void addRelatedStudyIds(Map<Long, Set<Long>> studyIdsByDatasetId) {
+    	if (studyIdsByDatasetId.isEmpty()) {
+			return;
+		}
+    	for (Object[] row : studyRepository.findRelatedStudyIdsByDatasetIdIn(studyIdsByDatasetId.keySet())) {
+    		Set<Long> studyIds = studyIdsByDatasetId.get(row[0]);
+    		if (studyIds != null && !studyIds.isEmpty()) {
+				studyIds.add((Long) row[1]);
+			}
+    	}
+    }
+
+    /**
+     * Evaluates the rights once for all the distinct studies of the given datasets.
+     * 
+     * @param studyIdsByDatasetId the study ids by dataset id
+     * @param rightStr the right
+     * @return the ids of the datasets having at least one authorized study
+     */
+    private Set<Long> filterDatasetIds(Map<Long, Set<Long>> studyIdsByDatasetId, String rightStr) {
+    	Set<Long> studyIds = new HashSet<>();
+    	studyIdsByDatasetId.values().forEach(studyIds::addAll);
+    	Set<Long> validDatasetIds = new HashSet<>();
+    	if (studyIds.isEmpty()) {
+			return validDatasetIds;
+		}
+    	Set<Long> validStudyIds = commService.hasRightOnStudies(studyIds, rightStr);
+    	studyIdsByDatasetId.forEach((datasetId, datasetStudyIds) -> {
+    		if (!Collections.disjoint(datasetStudyIds, validStudyIds)) {
+    			validDatasetIds.add(datasetId);
+    		}
+    	});
+    	return validDatasetIds;
+    }
+
+    /**
+     * Check the right on every study of an (entity id, study id) projection.
+     * 
+     * @param ids the requested entity ids
+     * @param idStudyIdRows the projection rows
+     * @param entityName the entity name, for the error message
+     * @param rightStr the right
+     * @return true if the user has the right on all the studies
+     * @throws EntityNotFoundException if one of the entities does not exist
+     */
+    private boolean hasRightOnEveryStudy(Set<Long> ids, List<Object[]> idStudyIdRows, String entityName, String rightStr) throws EntityNotFoundException {
+    	Map<Long, Long> studyIdById = new HashMap<>();
+    	for (Object[] row : idStudyIdRows) {
+    		studyIdById.put((Long) row[0], (Long) row[1]);
+    	}
+    	checkAllFound(ids, studyIdById.keySet(), entityName);
+    	if (studyIdById.containsValue(null)) {
+			return false;
+		}
+    	Set<Long> studyIds = new HashSet<>(studyIdById.values());
+    	return commService.hasRightOnStudies(studyIds, rightStr).containsAll(studyIds);
+    }
+
+    private void checkAllFound(Collection<Long> requestedIds, Set<Long> foundIds, String entityName) throws EntityNotFoundException {
+    	for (Long id : requestedIds) {
+    		if (!foundIds.contains(id)) {
+				throw new EntityNotFoundException("Cannot find " + entityName + " with id " + id);
+			}
+    	}
+    }
+
 }
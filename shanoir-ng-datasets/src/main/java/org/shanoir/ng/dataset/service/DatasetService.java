@@ -14,9 +14,13 @@
 
 package org.shanoir.ng.dataset.service;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.shanoir.ng.dataset.dto.DatasetDownloadFileDTO;
 import org.shanoir.ng.dataset.model.Dataset;
+import org.shanoir.ng.dataset.model.DatasetExpressionFormat;
+import org.shanoir.ng.dataset.repository.DatasetRepositoryCustom.StatisticsRowHandler;
 import org.shanoir.ng.shared.exception.EntityNotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -101,17 +105,29 @@ public interface DatasetService {
 	@PreAuthorize("hasRole('ADMIN') or (hasAnyRole('EXPERT', 'USER') and @datasetSecurityService.hasRightOnStudy(#studyId, 'CAN_SEE_ALL'))")
 	public List<Dataset> findByStudyId(Long studyId);
 
+	/**
+	 * Get the files of the given formats of all the datasets of a study that the
+	 * connected user can download, ordered by dataset.
+	 * 
+	 * @param studyId the study id
+	 * @param formats the expression formats to download
+	 * @return the download plan
+	 */
+	@PreAuthorize("hasRole('ADMIN') or (hasAnyRole('EXPERT', 'USER') and @datasetSecurityService.hasRightOnStudy(#studyId, 'CAN_DOWNLOAD'))")
+	List<DatasetDownloadFileDTO> findDownloadFilesByStudyId(Long studyId, Collection<DatasetExpressionFormat> formats);
+
   
 	@PreAuthorize("hasRole('ADMIN') or (hasAnyRole('EXPERT', 'USER') and @datasetSecurityService.hasRightOnDatasetAcquisition(#acquisitionId, 'CAN_SEE_ALL'))")
 	List<Dataset> findByAcquisition(Long acquisitionId);
   
   
 	/**
-	 * Get database statistics
+	 * Get database statistics, row by row
 	 * 
-	 * @return statistics
+	 * @param rowHandler called for each row, the first one being the header
 	 */
 	@PreAuthorize("hasRole('ADMIN')")
-	List<Object[]> queryStatistics(String studyNameInRegExp, String studyNameOutRegExp, String subjectNameInRegExp, String subjectNameOutRegExp) throws Exception;
+	void queryStatistics(String studyNameInRegExp, String studyNameOutRegExp, String subjectNameInRegExp, String subjectNameOutRegExp,
+			StatisticsRowHandler rowHandler) throws Exception;
 
 }
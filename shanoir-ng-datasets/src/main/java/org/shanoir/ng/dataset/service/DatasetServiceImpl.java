@@ -14,16 +14,22 @@
 
 package org.shanoir.ng.dataset.service;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
 import javax.persistence.ParameterMode;
 import javax.persistence.PersistenceContext;
 import javax.persistence.StoredProcedureQuery;
 
+import org.shanoir.ng.dataset.dto.DatasetDownloadFileDTO;
 import org.shanoir.ng.dataset.modality.MrDataset;
 import org.shanoir.ng.dataset.model.Dataset;
+import org.shanoir.ng.dataset.model.DatasetExpressionFormat;
 import org.shanoir.ng.dataset.repository.DatasetRepository;
+import org.shanoir.ng.dataset.repository.DatasetRepositoryCustom.StatisticsRowHandler;
 import org.shanoir.ng.shared.event.ShanoirEvent;
 import org.shanoir.ng.shared.event.ShanoirEventService;
 import org.shanoir.ng.shared.event.ShanoirEventType;
@@ -37,6 +43,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Dataset service implementation.
@@ -150,13 +157,29 @@ public class DatasetServiceImpl implements DatasetService {
 		return Utils.toList(repository.findByDatasetAcquisitionExaminationStudyId(studyId));
 	}
 
+	@Override
+	public List<DatasetDownloadFileDTO> findDownloadFilesByStudyId(Long studyId, Collection<DatasetExpressionFormat> formats) {
+		List<Integer> formatIds = formats.stream().map(DatasetExpressionFormat::getId).collect(Collectors.toList());
+		if (KeycloakUtil.getTokenRoles().contains("ROLE_ADMIN")) {
+			return repository.findDownloadFilesByStudyId(studyId, formatIds);
+		}
+		Long userId = KeycloakUtil.getTokenUserId();
+		List<Long> studyIds = rightsRepository.findDistinctStudyIdByUserId(userId, StudyUserRight.CAN_DOWNLOAD.getId());
+		if (studyIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return repository.findDownloadFilesByStudyIdAndDatasetStudyIdIn(studyId, formatIds, studyIds);
+	}
+
 	@Override
 	public List<Dataset> findByAcquisition(Long acquisitionId) {
 		return Utils.toList(repository.findByDatasetAcquisitionId(acquisitionId));
 	}
 	
-  @Override
-	public List<Object[]> queryStatistics(String studyNameInRegExp, String studyNameOutRegExp, String subjectNameInRegExp, String subjectNameOutRegExp) throws Exception {
-		return repository.queryStatistics(studyNameInRegExp, studyNameOutRegExp, subjectNameInRegExp, subjectNameOutRegExp);
+	@Override
+	@Transactional
+	public void queryStatistics(String studyNameInRegExp, String studyNameOutRegExp, String subjectNameInRegExp, String subjectNameOutRegExp,
+			StatisticsRowHandler rowHandler) throws Exception {
+		repository.queryStatistics(studyNameInRegExp, studyNameOutRegExp, subjectNameInRegExp, subjectNameOutRegExp, rowHandler);
 	}
 }
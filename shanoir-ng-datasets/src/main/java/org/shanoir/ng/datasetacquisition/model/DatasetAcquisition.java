@@ -23,6 +23,8 @@ import javax.persistence.Inheritance;
 import javax.persistence.InheritanceType;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.Transient;
 import javax.validation.constraints.NotNull;
@@ -53,6 +55,9 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo.Id;
 @Entity
 @DatasetsModalityTypeCheck
 @Inheritance(strategy = InheritanceType.JOINED)
+@NamedEntityGraph(name = "DatasetAcquisition.list", attributeNodes = {
+		@NamedAttributeNode("examination"),
+		@NamedAttributeNode("studyCard") })
 @JsonTypeInfo(use = Id.NAME, include = As.PROPERTY, property = "type")
 @JsonSubTypes({  
 	@Type(value = CtDatasetAcquisition.class, name = "Ct"),  
@@ -14,12 +14,16 @@
 
 package org.shanoir.ng.datasetacquisition.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.shanoir.ng.datasetacquisition.model.DatasetAcquisition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository for dataset acquisition.
@@ -33,6 +37,24 @@ public interface DatasetAcquisitionRepository extends PagingAndSortingRepository
 	
 	List<DatasetAcquisition> findByExaminationId(Long studyCardId);
 	
+	/**
+	 * Examination and study card are fetched in the same query, to avoid one
+	 * select per row when listing.
+	 */
+	@Override
+	@EntityGraph("DatasetAcquisition.list")
+	Page<DatasetAcquisition> findAll(Pageable pageable);
+
+	@EntityGraph("DatasetAcquisition.list")
 	Page<DatasetAcquisition> findByExaminationStudyIdIn(Iterable<Long> studyIds, Pageable pageable);
 
+	/**
+	 * Resolves the study of every given acquisition in one query.
+	 * 
+	 * @param ids acquisition ids
+	 * @return pairs of (acquisition id, study id), the study id being null without examination
+	 */
+	@Query("SELECT a.id, e.studyId FROM DatasetAcquisition a LEFT JOIN a.examination e WHERE a.id IN :ids")
+	List<Object[]> findStudyIdsByIdIn(@Param("ids") Collection<Long> ids);
+
 }
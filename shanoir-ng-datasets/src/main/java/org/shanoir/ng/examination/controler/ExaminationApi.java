@@ -38,6 +38,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 
 import io.swagger.annotations.Api;
@@ -87,6 +88,20 @@ public interface ExaminationApi {
 	@PostAuthorize("hasRole('ADMIN') or @datasetSecurityService.filterExaminationDTOPage(returnObject.getBody(), 'CAN_SEE_ALL')")
 	ResponseEntity<Page<ExaminationDTO>> findExaminations(Pageable pageable);
 
+	@ApiOperation(value = "", notes = "Returns the examinations having an id lower than the given one, by decreasing id", response = ExaminationDTO.class, responseContainer = "List", tags = {})
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "found examinations", response = ExaminationDTO.class, responseContainer = "List"),
+			@ApiResponse(code = 204, message = "no examination found", response = Void.class),
+			@ApiResponse(code = 401, message = "unauthorized", response = Void.class),
+			@ApiResponse(code = 403, message = "forbidden", response = Void.class),
+			@ApiResponse(code = 500, message = "unexpected error", response = ErrorModel.class) })
+	@GetMapping(value = "/keyset", produces = { "application/json" })
+	@PreAuthorize("hasAnyRole('ADMIN', 'EXPERT', 'USER')")
+	ResponseEntity<List<ExaminationDTO>> findExaminationsAfter(
+			@ApiParam(value = "id of the last examination of the previous page") @RequestParam(value = "lastId", required = false) Long lastId,
+			@ApiParam(value = "number of examinations") @RequestParam(value = "size", required = false, defaultValue = "20") Integer size,
+			@ApiParam(value = "preclinical") @RequestParam(value = "preclinical", required = false, defaultValue = "false") boolean preclinical);
+
 	@ApiOperation(value = "", notes = "Returns all the examinations", response = Examination.class, responseContainer = "List", tags = {})
 	@ApiResponses(value = {
 			@ApiResponse(code = 200, message = "found examinations", response = Examination.class, responseContainer = "List"),
@@ -15,9 +15,7 @@
 package org.shanoir.ng.examination.controler;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -46,7 +44,9 @@ import org.shanoir.ng.shared.exception.ErrorDetails;
 import org.shanoir.ng.shared.exception.ErrorModel;
 import org.shanoir.ng.shared.exception.RestServiceException;
 import org.shanoir.ng.shared.model.Study;
+import org.shanoir.ng.shared.paging.PageImpl;
 import org.shanoir.ng.shared.repository.StudyRepository;
+import org.shanoir.ng.utils.FileServingUtil;
 import org.shanoir.ng.utils.KeycloakUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +59,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 
 import io.swagger.annotations.ApiParam;
@@ -68,6 +69,8 @@ public class ExaminationApiController implements ExaminationApi {
 
 	private static final Logger LOG = LoggerFactory.getLogger(ExaminationApiController.class);
 
+	private static final int MAX_KEYSET_PAGE_SIZE = 500;
+
 	@Autowired
 	private ExaminationMapper examinationMapper;
 
@@ -132,24 +135,35 @@ public class ExaminationApiController implements ExaminationApi {
 
 	@Override
 	public ResponseEntity<Page<ExaminationDTO>> findExaminations(final Pageable pageable) {
-		Page<Examination> examinations = examinationService.findPage(pageable, false);
+		Page<ExaminationDTO> examinations = examinationService.findListPage(pageable, false);
 		if (examinations.getContent().isEmpty()) {
 			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 		}
-		return new ResponseEntity<>(examinationMapper.examinationsToExaminationDTOs(examinations), HttpStatus.OK);
+		return new ResponseEntity<>(new PageImpl<>(examinations), HttpStatus.OK);
+	}
+
+	@Override
+	public ResponseEntity<List<ExaminationDTO>> findExaminationsAfter(
+			@ApiParam(value = "id of the last examination of the previous page") @RequestParam(value = "lastId", required = false) Long lastId,
+			@ApiParam(value = "number of examinations") @RequestParam(value = "size", required = false, defaultValue = "20") Integer size,
+			@ApiParam(value = "preclinical") @RequestParam(value = "preclinical", required = false, defaultValue = "false") boolean preclinical) {
+		int pageSize = Math.max(1, Math.min(size, MAX_KEYSET_PAGE_SIZE));
+		List<ExaminationDTO> examinations = examinationService.findListAfter(lastId, pageSize, preclinical);
+		if (examinations.isEmpty()) {
+			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+		}
+		return new ResponseEntity<>(examinations, HttpStatus.OK);
 	}
 	
 	@Override
 	public ResponseEntity<Page<ExaminationDTO>> findPreclinicalExaminations(
 			@ApiParam(value = "preclinical", required = true) @PathVariable("isPreclinical") Boolean isPreclinical, Pageable pageable) {
-		Page<Examination> examinations;
-
 		// Get examinations reachable by connected user
-		examinations = examinationService.findPage(pageable, isPreclinical);
+		Page<ExaminationDTO> examinations = examinationService.findListPage(pageable, isPreclinical);
 		if (examinations.getContent().isEmpty()) {
 			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 		}
-		return new ResponseEntity<>(examinationMapper.examinationsToExaminationDTOs(examinations), HttpStatus.OK);
+		return new ResponseEntity<>(new PageImpl<>(examinations), HttpStatus.OK);
 	}
 
 	@Override
@@ -278,13 +292,7 @@ public class ExaminationApiController implements ExaminationApi {
 		}
 
 		String contentType = request.getServletContext().getMimeType(fileToDownLoad.getAbsolutePath());
-
-		try (InputStream is = new FileInputStream(fileToDownLoad);) {
-			response.setHeader("Content-Disposition", "attachment;filename=" + fileToDownLoad.getName());
-			response.setContentType(contentType);
-			org.apache.commons.io.IOUtils.copy(is, response.getOutputStream());
-			response.flushBuffer();
-		}
+		FileServingUtil.serve(fileToDownLoad, fileToDownLoad.getName(), contentType, request, response);
 	}
 
 	/**
@@ -53,6 +53,26 @@ public class ExaminationDTO {
 
 	private List<String> extraDataFilePathList;
 
+	public ExaminationDTO() {
+	}
+
+	/**
+	 * Constructor used by the listing queries: the assessments and extra data
+	 * files are not loaded, so their lists stay null.
+	 */
+	public ExaminationDTO(Long id, Long centerId, String comment, LocalDate examinationDate, String note,
+			Long studyId, Long subjectId, Double subjectWeight, boolean preclinical) {
+		this.id = id;
+		this.centerId = centerId;
+		this.comment = comment;
+		this.examinationDate = examinationDate;
+		this.note = note;
+		this.studyId = studyId;
+		this.subjectId = subjectId;
+		this.subjectWeight = subjectWeight;
+		this.preclinical = preclinical;
+	}
+
 	/**
 	 * @return the id
 	 */
@@ -14,12 +14,16 @@
 
 package org.shanoir.ng.examination.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.shanoir.ng.examination.dto.ExaminationDTO;
 import org.shanoir.ng.examination.model.Examination;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository for examination.
@@ -99,4 +103,44 @@ public interface ExaminationRepository extends PagingAndSortingRepository<Examin
 	 */
 	List<Examination> findByStudyId(Long studyId);
 
+	@Query("SELECT e.id FROM Examination e WHERE e.studyId = :studyId")
+	List<Long> findIdsByStudyId(@Param("studyId") Long studyId);
+
+	@Query("SELECT e.id FROM Examination e WHERE e.subjectId = :subjectId")
+	List<Long> findIdsBySubjectId(@Param("subjectId") Long subjectId);
+
+	/** Selects only the columns shown by the examination lists, in a single query. */
+	String SELECT_LIST_DTO = "SELECT new org.shanoir.ng.examination.dto.ExaminationDTO(e.id, e.centerId, e.comment, e.examinationDate, "
+			+ "e.note, e.studyId, e.subjectId, e.subjectWeight, e.preclinical) FROM Examination e ";
+
+	@Query(value = SELECT_LIST_DTO + "WHERE e.preclinical = :preclinical",
+			countQuery = "SELECT count(e) FROM Examination e WHERE e.preclinical = :preclinical")
+	Page<ExaminationDTO> findListByPreclinical(@Param("preclinical") boolean preclinical, Pageable pageable);
+
+	@Query(value = SELECT_LIST_DTO + "WHERE e.preclinical = :preclinical AND e.studyId IN :studyIds",
+			countQuery = "SELECT count(e) FROM Examination e WHERE e.preclinical = :preclinical AND e.studyId IN :studyIds")
+	Page<ExaminationDTO> findListByPreclinicalAndStudyIdIn(@Param("preclinical") boolean preclinical,
+			@Param("studyIds") List<Long> studyIds, Pageable pageable);
+
+	/*
+	 * Keyset pagination: the examinations following the last one of the previous page,
+	 * by decreasing id. The pageable only gives the size.
+	 */
+	@Query(SELECT_LIST_DTO + "WHERE e.preclinical = :preclinical AND e.id < :lastId ORDER BY e.id DESC")
+	List<ExaminationDTO> findListByPreclinicalAndIdLessThan(@Param("preclinical") boolean preclinical,
+			@Param("lastId") Long lastId, Pageable pageable);
+
+	@Query(SELECT_LIST_DTO + "WHERE e.preclinical = :preclinical AND e.studyId IN :studyIds AND e.id < :lastId ORDER BY e.id DESC")
+	List<ExaminationDTO> findListByPreclinicalAndStudyIdInAndIdLessThan(@Param("preclinical") boolean preclinical,
+			@Param("studyIds") List<Long> studyIds, @Param("lastId") Long lastId, Pageable pageable);
+
+	/**
+	 * Resolves the study of every given examination in one query.
+	 * 
+	 * @param ids examination ids
+	 * @return pairs of (examination id, study id)
+	 */
+	@Query("SELECT e.id, e.studyId FROM Examination e WHERE e.id IN :ids")
+	List<Object[]> findStudyIdsByIdIn(@Param("ids") Collection<Long> ids);
+
 }
@@ -0,0 +1,142 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+
+package org.shanoir.ng.examination.service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.PreDestroy;
+
+import org.shanoir.ng.examination.repository.ExaminationRepository;
+import org.shanoir.ng.shared.event.ShanoirEvent;
+import org.shanoir.ng.shared.event.ShanoirEventService;
+import org.shanoir.ng.shared.event.ShanoirEventType;
+import org.shanoir.ng.shared.repository.StudyRepository;
+import org.shanoir.ng.shared.repository.SubjectRepository;
+import org.shanoir.ng.shared.repository.SubjectStudyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Deletes, in background, the examinations (with their acquisitions and datasets)
+ * of a study or a subject removed from ms studies, then the study or subject itself.
+ * Examinations are deleted by chunks, each one in its own transaction, and a
+ * progress event is sent after each chunk.
+ */
+@Service
+public class ExaminationDeletionService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ExaminationDeletionService.class);
+
+	/** Number of examinations deleted in a transaction. */
+	private static final int CHUNK_SIZE = 50;
+
+	@Autowired
+	private ExaminationRepository examinationRepository;
+
+	@Autowired
+	private StudyRepository studyRepository;
+
+	@Autowired
+	private SubjectRepository subjectRepository;
+
+	@Autowired
+	private SubjectStudyRepository subjectStudyRepository;
+
+	@Autowired
+	private ShanoirEventService eventService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/** Deletions are done one after the other, with the security context of the caller. */
+	private final ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newSingleThreadExecutor());
+
+	/**
+	 * Deletes the examinations of a study, then the study.
+	 * 
+	 * @param studyId the study id
+	 * @param userId the user who deleted the study
+	 * @return the background deletion
+	 */
+	public Future<?> deleteStudy(Long studyId, Long userId) {
+		ShanoirEvent event = new ShanoirEvent(ShanoirEventType.DELETE_STUDY_DATA_EVENT, studyId.toString(), userId,
+				"", ShanoirEvent.IN_PROGRESS, 0f);
+		return executor.submit(() -> deleteExaminations(examinationRepository.findIdsByStudyId(studyId), event, "study " + studyId, () -> {
+			subjectStudyRepository.deleteByStudyId(studyId);
+			studyRepository.delete(studyId);
+		}));
+	}
+
+	/**
+	 * Deletes the examinations of a subject, then the subject.
+	 * 
+	 * @param subjectId the subject id
+	 * @param userId the user who deleted the subject
+	 * @return the background deletion
+	 */
+	public Future<?> deleteSubject(Long subjectId, Long userId) {
+		ShanoirEvent event = new ShanoirEvent(ShanoirEventType.DELETE_SUBJECT_DATA_EVENT, subjectId.toString(), userId,
+				"", ShanoirEvent.IN_PROGRESS, 0f);
+		return executor.submit(() -> deleteExaminations(examinationRepository.findIdsBySubjectId(subjectId), event, "subject " + subjectId, () -> {
+			subjectStudyRepository.deleteBySubjectId(subjectId);
+			subjectRepository.delete(subjectId);
+		}));
+	}
+
+	private void deleteExaminations(List<Long> examinationIds, ShanoirEvent event, String deleted, Runnable lastStep) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		event.setMessage("Deleting " + examinationIds.size() + " examination(s) of " + deleted);
+		eventService.publishEvent(event);
+		try {
+			for (int start = 0; start < examinationIds.size(); start += CHUNK_SIZE) {
+				List<Long> chunk = examinationIds.subList(start, Math.min(start + CHUNK_SIZE, examinationIds.size()));
+				transactionTemplate.execute(status -> {
+					examinationRepository.delete(examinationRepository.findAll(chunk));
+					return null;
+				});
+				event.setProgress((float) (start + chunk.size()) / (examinationIds.size() + 1));
+				eventService.publishEvent(event);
+			}
+			transactionTemplate.execute(status -> {
+				lastStep.run();
+				return null;
+			});
+			event.setProgress(1f);
+			event.setStatus(ShanoirEvent.SUCCESS);
+			event.setMessage("Deleted " + examinationIds.size() + " examination(s) of " + deleted);
+			eventService.publishEvent(event);
+		} catch (RuntimeException e) {
+			LOG.error("Error while deleting data of {}", deleted, e);
+			event.setStatus(ShanoirEvent.ERROR);
+			event.setMessage("Error while deleting data of " + deleted + ": " + e.getMessage());
+			eventService.publishEvent(event);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+}
@@ -16,6 +16,7 @@ package org.shanoir.ng.examination.service;
 
 import java.util.List;
 
+import org.shanoir.ng.examination.dto.ExaminationDTO;
 import org.shanoir.ng.examination.model.Examination;
 import org.shanoir.ng.shared.exception.EntityNotFoundException;
 import org.springframework.data.domain.Page;
@@ -51,6 +52,31 @@ public interface ExaminationService {
 	@PostAuthorize("hasRole('ADMIN') or @datasetSecurityService.filterExaminationPage(returnObject, 'CAN_SEE_ALL')")
 	Page<Examination> findPage(final Pageable pageable, boolean preclinical);
 
+	/**
+	 * Get a paginated list of examinations reachable by connected user, with
+	 * only the data shown by the examination lists.
+	 * 
+	 * @param pageable pagination data.
+	 * @param preclinical preclinical or clinical examinations.
+	 * @return page of examinations.
+	 */
+	@PreAuthorize("hasAnyRole('ADMIN', 'EXPERT', 'USER')")
+	@PostAuthorize("hasRole('ADMIN') or @datasetSecurityService.filterExaminationDTOPage(returnObject, 'CAN_SEE_ALL')")
+	Page<ExaminationDTO> findListPage(final Pageable pageable, boolean preclinical);
+
+	/**
+	 * Get the examinations reachable by connected user following a given one,
+	 * by decreasing id (keyset pagination, for deep pages).
+	 * 
+	 * @param lastId id of the last examination of the previous page, null for the first page.
+	 * @param size number of examinations.
+	 * @param preclinical preclinical or clinical examinations.
+	 * @return list of examinations.
+	 */
+	@PreAuthorize("hasAnyRole('ADMIN', 'EXPERT', 'USER')")
+	@PostAuthorize("hasRole('ADMIN') or @datasetSecurityService.filterExaminationDTOList(returnObject, 'CAN_SEE_ALL')")
+	List<ExaminationDTO> findListAfter(Long lastId, int size, boolean preclinical);
+
 	/**
 	 * Find examination by its id.
 	 *
@@ -21,6 +21,7 @@ import java.util.List;
 import org.apache.commons.io.FileUtils;
 import org.shanoir.ng.dataset.model.Dataset;
 import org.shanoir.ng.datasetacquisition.model.DatasetAcquisition;
+import org.shanoir.ng.examination.dto.ExaminationDTO;
 import org.shanoir.ng.examination.model.Examination;
 import org.shanoir.ng.examination.repository.ExaminationRepository;
 import org.shanoir.ng.shared.exception.EntityNotFoundException;
@@ -33,6 +34,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -94,6 +97,32 @@ public class ExaminationServiceImpl implements ExaminationService {
 		}
 	}
 
+	@Override
+	public Page<ExaminationDTO> findListPage(final Pageable pageable, boolean preclinical) {
+		if (KeycloakUtil.getTokenRoles().contains("ROLE_ADMIN")) {
+			return examinationRepository.findListByPreclinical(preclinical, pageable);
+		}
+		List<Long> studyIds = rightsRepository.findDistinctStudyIdByUserId(KeycloakUtil.getTokenUserId(), StudyUserRight.CAN_SEE_ALL.getId());
+		if (studyIds.isEmpty()) {
+			return new PageImpl<>(new ArrayList<>(), pageable, 0);
+		}
+		return examinationRepository.findListByPreclinicalAndStudyIdIn(preclinical, studyIds, pageable);
+	}
+
+	@Override
+	public List<ExaminationDTO> findListAfter(final Long lastId, int size, boolean preclinical) {
+		Long idBound = lastId != null ? lastId : Long.MAX_VALUE;
+		Pageable limit = new PageRequest(0, size);
+		if (KeycloakUtil.getTokenRoles().contains("ROLE_ADMIN")) {
+			return examinationRepository.findListByPreclinicalAndIdLessThan(preclinical, idBound, limit);
+		}
+		List<Long> studyIds = rightsRepository.findDistinctStudyIdByUserId(KeycloakUtil.getTokenUserId(), StudyUserRight.CAN_SEE_ALL.getId());
+		if (studyIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return examinationRepository.findListByPreclinicalAndStudyIdInAndIdLessThan(preclinical, studyIds, idBound, limit);
+	}
+
 	@Override
 	public List<Examination> findBySubjectId(final Long subjectId) {
 		return examinationRepository.findBySubjectId(subjectId);
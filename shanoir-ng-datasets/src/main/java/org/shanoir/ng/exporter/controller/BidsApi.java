@@ -49,5 +49,18 @@ public interface BidsApi {
     void exportBIDSFile(
     		@ApiParam(value = "Id of the study", required=true) @PathVariable("studyId") Long studyId,
     		@ApiParam(value = "file path") @Valid @RequestParam(value = "filePath", required = true) String filePath, HttpServletResponse response) throws RestServiceException, IOException;
+
+    @ApiOperation(value = "", nickname = "exportBIDSZipByStudyId", notes = "Streams a zip file of the BIDS structure of the given study id, built on the fly", response = Resource.class, tags={})
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "zip file", response = Resource.class),
+        @ApiResponse(code = 401, message = "unauthorized"),
+        @ApiResponse(code = 403, message = "forbidden"),
+        @ApiResponse(code = 404, message = "no dataset found"),
+        @ApiResponse(code = 500, message = "unexpected error", response = ErrorModel.class) })
+    @GetMapping(value = "/exportBIDSZip/studyId/{studyId}/studyName/{studyName}")
+    @PreAuthorize("hasRole('ADMIN') or (hasAnyRole('EXPERT', 'USER') and @datasetSecurityService.hasRightOnStudy(#studyId, 'CAN_DOWNLOAD'))")
+    void exportBIDSZip(
+    		@ApiParam(value = "id of the study", required=true) @PathVariable("studyId") Long studyId,
+    		@ApiParam(value = "name of the study", required=true) @PathVariable("studyName") String studyName, HttpServletResponse response) throws RestServiceException, IOException;
   
 }
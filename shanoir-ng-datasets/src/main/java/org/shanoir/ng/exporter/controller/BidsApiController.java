@@ -102,6 +102,17 @@ public class BidsApiController implements BidsApi {
 		}
 	}
 
+	@Override
+	public void exportBIDSZip(
+    		@ApiParam(value = "id of the study", required=true) @PathVariable("studyId") Long studyId,
+    		@ApiParam(value = "name of the study", required=true) @PathVariable("studyName") String studyName, HttpServletResponse response) throws RestServiceException, IOException {
+		// Nothing is written on disk: the zip is built while it is sent
+		response.setHeader("Content-Disposition", "attachment;filename=stud-" + studyId + "_" + studyName + ZIP);
+		response.setContentType("application/zip");
+		bidsService.exportAsBidsZip(studyId, studyName, response.getOutputStream());
+		response.flushBuffer();
+	}
+
 	public static File getUserDir(String importDir) {
 		final Long userId = KeycloakUtil.getTokenUserId();
 		final String userImportDirFilePath = importDir + File.separator + Long.toString(userId);
@@ -2,6 +2,7 @@ package org.shanoir.ng.exporter.service;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 
 import org.shanoir.ng.dataset.model.Dataset;
 import org.shanoir.ng.examination.model.Examination;
@@ -25,6 +26,14 @@ public interface BIDSService {
 	 */
 	public File exportAsBids(Long studyId, String studyName) throws IOException ;
 
+	/**
+	 * Streams the full BIDS structure of a study as a zip, without creating the BIDS folder
+	 * @param studyId the study ID for which we export the BIDS structure
+	 * @param studyName the study name for which we export the BIDS structure
+	 * @param outputStream the stream where the zip is written
+	 */
+	void exportAsBidsZip(Long studyId, String studyName, OutputStream outputStream) throws IOException;
+
 	/**
 	 * When importing a dataset, add it to the current BIDS folder
 	 * @param exam the examination/dataset to add.
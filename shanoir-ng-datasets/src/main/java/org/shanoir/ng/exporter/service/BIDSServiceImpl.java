@@ -7,6 +7,7 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
@@ -14,12 +15,27 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.FileUtils;
+import org.shanoir.ng.configuration.amqp.SubjectStudyReplicaService;
 import org.shanoir.ng.dataset.DatasetDescription;
 import org.shanoir.ng.dataset.controler.DatasetApiController.CoordinatesSystem;
 import org.shanoir.ng.dataset.modality.EegDataSetDescription;
@@ -37,12 +53,16 @@ import org.shanoir.ng.examination.service.ExaminationService;
 import org.shanoir.ng.importer.dto.Subject;
 import org.shanoir.ng.shared.configuration.RabbitMQConfiguration;
 import org.shanoir.ng.shared.exception.RestServiceException;
+import org.shanoir.ng.shared.repository.SubjectRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.util.UriUtils;
 
 import com.fasterxml.jackson.core.JsonParseException;
@@ -84,14 +104,31 @@ public class BIDSServiceImpl implements BIDSService {
 	@Value("${bids-data-folder}")
 	private String bidsStorageDir;
 
+	/** Maximum number of subjects exported at the same time. */
+	@Value("${bids-export-threads:4}")
+	private int exportThreads = 4;
+
 	@Autowired
     private RabbitTemplate rabbitTemplate;
 
 	@Autowired
 	private ExaminationService examService;
 
+	@Autowired
+	private SubjectRepository subjectRepository;
+
+	@Autowired
+	private SubjectStudyReplicaService subjectStudyReplicaService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/** Lock protecting the sidecars shared by all the subjects of a study. */
+	private final Object studyFilesLock = new Object();
+
 	/**
 	 * Returns data from the study formatted as BIDS in a .zip file.
+	 * Subjects are exported in parallel, under a bounded pool.
 	 * @param study the study we want to export as BIDS
 	 * @return data from the study formatted as BIDS in a .zip file.
 	 * @throws IOException
@@ -103,13 +140,60 @@ public class BIDSServiceImpl implements BIDSService {
 		
 		// Iterate over subjects got from call to SubjectApiController.findSubjectsByStudyId() and get list of subjects
 		List<Subject> subjs = getSubjectsForStudy(studyId);
-		for (Subject subj : subjs) {
-			exportAsBids(subj, studyName, baseDir);
+		ExecutorService executor = createExportExecutor();
+		try {
+			List<Future<BidsSubjectEntries>> futures = new ArrayList<>();
+			for (Subject subj : subjs) {
+				futures.add(executor.submit(() -> {
+					BidsSubjectEntries entries = getSubjectEntries(subj, studyName);
+					writeEntries(entries, baseDir);
+					return entries;
+				}));
+			}
+			for (Future<BidsSubjectEntries> future : futures) {
+				waitFor(future);
+			}
+		} finally {
+			executor.shutdownNow();
 		}
 
 		return baseDir;
 	}
 
+	@Override
+	public void exportAsBidsZip(final Long studyId, final String studyName, final OutputStream outputStream) throws IOException {
+		ZipOutputStream zos = new ZipOutputStream(outputStream);
+		Set<String> writtenEntries = new HashSet<>();
+
+		// Study sidecars
+		DatasetDescription datasetDescription = new DatasetDescription();
+		datasetDescription.setName(studyName);
+		ObjectMapper objectMapper = new ObjectMapper();
+		putZipEntry(zos, writtenEntries, DATASET_DESCRIPTION_FILE, objectMapper.writeValueAsBytes(datasetDescription));
+		putZipEntry(zos, writtenEntries, README_FILE, objectMapper.writeValueAsBytes(studyName));
+
+		// Subjects are resolved in parallel, and written to the stream as soon as they are ready
+		List<Subject> subjs = getSubjectsForStudy(studyId);
+		ExecutorService executor = createExportExecutor();
+		try {
+			CompletionService<BidsSubjectEntries> completionService = new ExecutorCompletionService<>(executor);
+			for (Subject subj : subjs) {
+				completionService.submit(() -> getSubjectEntries(subj, studyName));
+			}
+			for (int i = 0; i < subjs.size(); i++) {
+				BidsSubjectEntries entries = waitFor(completionService.take());
+				writeEntries(entries, zos, writtenEntries);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("BIDS export interrupted for study " + studyId, e);
+		} finally {
+			executor.shutdownNow();
+		}
+		zos.finish();
+		zos.flush();
+	}
+
 	@Override
 	public File addDataset(Examination exam, String subjectName, String studyName) throws IOException {
 		// 0. If base file does not exist, create it from scratch
@@ -119,10 +203,11 @@ public class BIDSServiceImpl implements BIDSService {
 		}
 
 		// 1. Create Subject File if not existing
-		File subjDir = createSubjectFolder(subjectName, exam.getSubjectId().toString(), baseDir);
+		BidsSubjectEntries entries = new BidsSubjectEntries(getSubjectFolderName(subjectName, exam.getSubjectId().toString()));
 
 		// 2. Create dataset files
-		exportAsBids(exam, subjDir, studyName, subjectName);
+		addExaminationEntries(exam, entries, studyName, subjectName);
+		writeEntries(entries, baseDir);
 		return baseDir;
 	}
 
@@ -257,7 +342,8 @@ public class BIDSServiceImpl implements BIDSService {
 	}
 
 	/**
-	 * Get a list of subject from the study ID.
+	 * Get a list of subject from the study ID, from the local subject/study replica.
+	 * Until the replica has been bootstrapped, they are asked to studies MS.
 	 * @param studyId the study ID to get the subject for
 	 * @return a list of users associated to the study
 	 * @throws IOException
@@ -265,6 +351,17 @@ public class BIDSServiceImpl implements BIDSService {
 	 * @throws JsonParseException
 	 */
 	private List<Subject> getSubjectsForStudy(final Long studyId) throws JsonParseException, JsonMappingException, IOException {
+		if (subjectStudyReplicaService.isBootstrapped()) {
+			List<org.shanoir.ng.shared.model.Subject> localSubjects = subjectRepository.findByStudyId(studyId);
+			List<Subject> subjects = new ArrayList<>(localSubjects.size());
+			for (org.shanoir.ng.shared.model.Subject localSubject : localSubjects) {
+				Subject subject = new Subject();
+				subject.setId(localSubject.getId());
+				subject.setName(localSubject.getName());
+				subjects.add(subject);
+			}
+			return subjects;
+		}
 
 		/// Get the list of subjects
 		String response = (String) rabbitTemplate.convertSendAndReceive(RabbitMQConfiguration.DATASET_SUBJECT_QUEUE, studyId);
@@ -306,36 +403,71 @@ public class BIDSServiceImpl implements BIDSService {
 	}
 
 	/**
-	 * Create all the data in a BIDS folder for a given subject
+	 * Creates the executor used to export subjects in parallel.
+	 * The security context of the caller is propagated to the workers.
+	 */
+	private ExecutorService createExportExecutor() {
+		return new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(Math.max(1, exportThreads)));
+	}
+
+	/**
+	 * Waits for the export of a subject, unwrapping its failure.
+	 */
+	private <T> T waitFor(Future<T> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("BIDS export interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("BIDS export failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Lists all the BIDS entries of a subject, without writing anything.
+	 * Runs in its own read only transaction, as it is called from the export workers.
 	 * @param subject the subject we want to export as BIDS
 	 * @param studyName the study name
-	 * @param workDir Subject BIDS directory where we are working. Will be created if null.
-	 * @return data from the subject formatted as BIDS in a .zip file.
-	 * @throws IOException
+	 * @return the BIDS entries of the subject
 	 */
-	private void exportAsBids(final Subject subject, final String studyName, final File workDir) throws IOException {
-		File subjDir = createSubjectFolder(subject.getName(), String.valueOf(subject.getId()), workDir);
-
-		// Get subject examinations and filter on the one with adapted study only
-		final List<Examination> examinationList = examService.findBySubjectId(subject.getId());
+	private BidsSubjectEntries getSubjectEntries(final Subject subject, final String studyName) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(true);
+		return transactionTemplate.execute(status -> {
+			BidsSubjectEntries entries = new BidsSubjectEntries(getSubjectFolderName(subject.getName(), String.valueOf(subject.getId())));
+
+			// Get subject examinations and filter on the one with adapted study only
+			final List<Examination> examinationList = examService.findBySubjectId(subject.getId());
+
+			// Iterate over examinations to export them as BIDS
+			for (Examination exam : examinationList) {
+				// OTHER: can we imagine a subject in multiple studies ? Do the filter here
+				addExaminationEntries(exam, entries, studyName, subject.getName());
+			}
+			return entries;
+		});
+	}
 
-		// Iterate over examinations to export them as BIDS
-		for (Examination exam : examinationList) {
-			// OTHER: can we imagine a subject in multiple studies ? Do the filter here
-			exportAsBids(exam, subjDir, studyName, subject.getName());
-		}
+	/**
+	 * @return the name of the subject/patient BIDS folder
+	 */
+	private String getSubjectFolderName(final String subjectName, final String subjectId) {
+		return SUBJECT_PREFIX + subjectId + "_" + subjectName;
 	}
 
 	/**
 	 * Create the subject/patient BIDS folder
-	 * @param subjectName the subject name for which we want to create the folder
+	 * @param subjectFolderName the subject folder name
 	 * @param baseDir the parent folder
-	 * @param subjectId the subject id
 	 * @return the newly created folder
 	 * @throws IOException
 	 */
-	private File createSubjectFolder(final String subjectName, final String subjectId, final File baseDir) throws IOException {
-		File subjectFolder = new File(baseDir.getAbsolutePath() + File.separator + SUBJECT_PREFIX + subjectId + "_" + subjectName);
+	private File createSubjectFolder(final String subjectFolderName, final File baseDir) throws IOException {
+		File subjectFolder = new File(baseDir.getAbsolutePath() + File.separator + subjectFolderName);
 		if (!subjectFolder.exists()) {
 			subjectFolder.mkdirs();
 		}
@@ -344,23 +476,22 @@ public class BIDSServiceImpl implements BIDSService {
 	}
 
 	/**
-	 * Returns data from the examination formatted as BIDS in a .zip file.
+	 * Lists the BIDS entries of an examination.
 	 * @param examination the examination we want to export as BIDS
-	 * @param subjDir examination BIDS directory where we are working.
+	 * @param entries the entries of the subject, completed by this method
 	 * @param studyName the study name
 	 * @param subjectName the subject name
-	 * @return data from the examination formatted as BIDS in a .zip file.
-	 * @throws IOException
 	 */
-	private void exportAsBids(final Examination examination, final File subjDir, final String studyName, final String subjectName) throws IOException {
-		File examDir = createExaminationFolder(examination, subjDir);
+	private void addExaminationEntries(final Examination examination, final BidsSubjectEntries entries, final String studyName, final String subjectName) {
+		String examFolder = entries.subjectFolder + File.separator + SESSION_PREFIX + examination.getId();
+		entries.folders.add(examFolder);
 
 		// Iterate over acquisitions/datasets
 		for (DatasetAcquisition acq : examination.getDatasetAcquisitions()) {
 			List<Dataset> datasets = acq.getDatasets();
 			for (Dataset ds : datasets) {
 				try {
-					createDatasetBidsFiles(ds, examDir, studyName, subjectName);
+					addDatasetEntries(ds, examFolder, entries, studyName, subjectName);
 				} catch (IOException e) {
 					LOG.error(e.getMessage());
 				}
@@ -369,41 +500,29 @@ public class BIDSServiceImpl implements BIDSService {
 	}
 
 	/**
-	 * Create the session/examination BIDS folder
-	 * @param examination the examination for which we want to create the folder
-	 * @param subjectDir the parent folder
-	 * @return the newly created folder
-	 */
-	private File createExaminationFolder(final Examination examination, final File subjectDir) {
-		File examFolder = new File(subjectDir.getAbsolutePath() + File.separator + SESSION_PREFIX +  examination.getId());
-		if (!examFolder.exists()) {
-			examFolder.mkdirs();
-		}
-		return examFolder;
-	}
-
-	/**
-	 * Create the list of BIDS files associated to a dataset.
+	 * Lists the BIDS files associated to a dataset.
 	 * @param dataset the dataset from which we want the specific BIDS files to be created
-	 * @param workDir the working directory where files will be created
+	 * @param examFolder the examination folder, relative to the study folder
+	 * @param entries the entries of the subject, completed by this method
 	 * @param studyName the study name
 	 * @param subjectName the subject name
-	 * @return A list of newly created specific BIDS files associated to the dataset in entry
 	 * @throws IOException when we fail to create a file
 	 */
-	private void createDatasetBidsFiles(final Dataset dataset, final File workDir, final String studyName, final String subjectName) throws IOException {
-		File dataFolder;
+	private void addDatasetEntries(final Dataset dataset, final String examFolder, final BidsSubjectEntries entries, final String studyName, final String subjectName) throws IOException {
+		String dataFolder;
 
 		// Create specific files (EEG, MS, MEG, etc..)
 		if (dataset instanceof EegDataset) {
-			dataFolder = createDataFolder("eeg", workDir);
-			exportSpecificEegFiles((EegDataset) dataset, workDir, subjectName, dataset.getDatasetAcquisition().getExamination().getId().toString(), studyName, dataset.getId().toString());
+			dataFolder = examFolder + File.separator + "eeg";
+			addSpecificEegEntries((EegDataset) dataset, entries, subjectName, dataset.getDatasetAcquisition().getExamination().getId().toString(), studyName, dataset.getId().toString());
 		} else if (dataset instanceof MrDataset) {
 			// Do something specific about MR dataset
-			dataFolder = createDataFolder("anat", workDir);
+			dataFolder = examFolder + File.separator + "anat";
 		} else {
-			dataFolder = workDir;
+			dataFolder = examFolder;
 		}
+		entries.folders.add(dataFolder);
+
 		// Copy dataset files in the directory AS hard link to avoid duplicating files
 		List<URL> pathURLs = new ArrayList<>();
 		getDatasetFilePathURLs(dataset, pathURLs, null);
@@ -411,56 +530,118 @@ public class BIDSServiceImpl implements BIDSService {
 		for (Iterator<URL> iterator = pathURLs.iterator(); iterator.hasNext();) {
 			URL url =  iterator.next();
 			File srcFile = new File(UriUtils.decode(url.getPath(), "UTF-8"));
+			String path = dataFolder + File.separator + srcFile.getName();
+			entries.dataFiles.put(path, srcFile);
 
-			Path pathToGo = Paths.get(dataFolder.getAbsolutePath() + File.separator + srcFile.getName());
+			// Add the file to the scans.tsv reference
+			StringBuilder buffer = new StringBuilder();
+			buffer.append(srcFile.getName()).append(TABULATION)
+				.append(dataset.getDatasetAcquisition().getExamination().getExaminationDate()).append(TABULATION)
+				.append(dataset.getDatasetAcquisition().getExamination().getId())
+				.append(NEW_LINE);
+			// TODO: center_id / comment / weigth / other examination things ?
+			entries.scansLines.put(path, buffer.toString());
+		}
+	}
+
+	/**
+	 * Writes the entries of a subject in the study BIDS folder.
+	 * Data files are hard links to avoid duplicating files.
+	 * @param entries the entries of the subject
+	 * @param baseDir the study BIDS folder
+	 * @throws IOException
+	 */
+	private void writeEntries(final BidsSubjectEntries entries, final File baseDir) throws IOException {
+		File subjDir = createSubjectFolder(entries.subjectFolder, baseDir);
+		for (String folder : entries.folders) {
+			new File(baseDir, folder).mkdirs();
+		}
+		synchronized (studyFilesLock) {
+			for (Map.Entry<String, byte[]> studyFile : entries.studyFiles.entrySet()) {
+				Files.write(new File(baseDir, studyFile.getKey()).toPath(), studyFile.getValue());
+			}
+		}
+		for (Map.Entry<String, byte[]> subjectFile : entries.subjectFiles.entrySet()) {
+			Files.write(new File(baseDir, subjectFile.getKey()).toPath(), subjectFile.getValue());
+		}
+		File scansTsvFile = getScansFile(subjDir);
+		for (Map.Entry<String, File> dataFile : entries.dataFiles.entrySet()) {
+			File srcFile = dataFile.getValue();
+			Path pathToGo = new File(baseDir, dataFile.getKey()).toPath();
 			try {
 				// Use link to avoid file duplication
 				Files.createLink(pathToGo, srcFile.toPath());
-				
-				// Add the file to the scans.tsv reference
-				File scansTsvFile = getScansFile(workDir.getParentFile());
-				StringBuilder buffer = new StringBuilder();
-				buffer.append(pathToGo.getFileName()).append(TABULATION)
-					.append(dataset.getDatasetAcquisition().getExamination().getExaminationDate()).append(TABULATION)
-					.append(dataset.getDatasetAcquisition().getExamination().getId())
-					.append(NEW_LINE);
-
-				// TODO: center_id / comment / weigth / other examination things ?
-				Files.write(Paths.get(scansTsvFile.getAbsolutePath()), buffer.toString().getBytes(), StandardOpenOption.APPEND);
 
+				// Add the file to the scans.tsv reference
+				Files.write(Paths.get(scansTsvFile.getAbsolutePath()), entries.scansLines.get(dataFile.getKey()).getBytes(), StandardOpenOption.APPEND);
 			} catch (IOException exception) {
 				LOG.error("File could not be treated: {}", srcFile.getAbsolutePath(), exception);
 			}
 		}
 	}
 
+	/**
+	 * Writes the entries of a subject in a zip stream, relatively to the study BIDS folder.
+	 * @param entries the entries of the subject
+	 * @param zos the zip stream
+	 * @param writtenEntries the names of the entries already in the zip stream
+	 * @throws IOException
+	 */
+	private void writeEntries(final BidsSubjectEntries entries, final ZipOutputStream zos, final Set<String> writtenEntries) throws IOException {
+		for (Map.Entry<String, byte[]> studyFile : entries.studyFiles.entrySet()) {
+			putZipEntry(zos, writtenEntries, studyFile.getKey(), studyFile.getValue());
+		}
+		for (Map.Entry<String, byte[]> subjectFile : entries.subjectFiles.entrySet()) {
+			putZipEntry(zos, writtenEntries, subjectFile.getKey(), subjectFile.getValue());
+		}
+		StringBuilder scans = new StringBuilder(getScansHeader());
+		for (Map.Entry<String, File> dataFile : entries.dataFiles.entrySet()) {
+			String entryName = toZipEntryName(dataFile.getKey());
+			if (!dataFile.getValue().isFile() || !writtenEntries.add(entryName)) {
+				continue;
+			}
+			zos.putNextEntry(new ZipEntry(entryName));
+			Files.copy(dataFile.getValue().toPath(), zos);
+			zos.closeEntry();
+			scans.append(entries.scansLines.get(dataFile.getKey()));
+		}
+		putZipEntry(zos, writtenEntries, entries.subjectFolder + File.separator + entries.subjectFolder + SCANS_FILE_EXTENSION,
+				scans.toString().getBytes());
+	}
+
+	private void putZipEntry(final ZipOutputStream zos, final Set<String> writtenEntries, final String path, final byte[] content) throws IOException {
+		String entryName = toZipEntryName(path);
+		if (!writtenEntries.add(entryName)) {
+			return;
+		}
+		zos.putNextEntry(new ZipEntry(entryName));
+		zos.write(content);
+		zos.closeEntry();
+	}
+
+	private String toZipEntryName(final String path) {
+		return path.replace(File.separatorChar, '/');
+	}
+
+	private String getScansHeader() {
+		StringBuilder buffer = new StringBuilder();
+		buffer.append("filename").append(TABULATION)
+			.append("acq_time").append(TABULATION)
+			.append("session_id")
+			.append(NEW_LINE);
+		// TODO: center_id / comment / weigth / other examination things ?
+		return buffer.toString();
+	}
+
 	private File getScansFile(File parentFile) throws IOException {
 		// What if we don't have subject name ?
 		File scansFile = new File(parentFile.getAbsolutePath() + File.separator + parentFile.getName() + SCANS_FILE_EXTENSION);
 		if (!scansFile.exists()) {
-			StringBuilder buffer = new StringBuilder();
-			buffer.append("filename").append(TABULATION)
-				.append("acq_time").append(TABULATION)
-				.append("session_id")
-				.append(NEW_LINE);
-			// TODO: center_id / comment / weigth / other examination things ?
-			Files.write(Paths.get(scansFile.getAbsolutePath()), buffer.toString().getBytes());
+			Files.write(Paths.get(scansFile.getAbsolutePath()), getScansHeader().getBytes());
 		}
 		return scansFile;
 	}
 
-	/**
-	 * Create /eeg, /func ,[...] folder in BIDS file if not existing.
-	 * @return the folder newly created.
-	 */
-	private File createDataFolder(final String folderName, final File workDir) {
-		File dataFolder = new File(workDir.getAbsolutePath() + File.separator + folderName);
-		if (!dataFolder.exists()) {
-			dataFolder.mkdirs();
-		}
-		return dataFolder;
-	}
-
 	/**
 	 * Reads all dataset files depending on the format attached to one dataset.
 	 * @param dataset
@@ -485,7 +666,7 @@ public class BIDSServiceImpl implements BIDSService {
 	}
 
 	/**
-	 * This methods export specific EEG files for BIDS export.
+	 * This methods lists specific EEG files for BIDS export.
 	 * - channel.tsv -> A list of channels from dataset.channels
 	 * - event.tsv -> A list of events from dataset.events
 	 * - [..]_eeg.json -> Description of EEG methods used
@@ -494,38 +675,31 @@ public class BIDSServiceImpl implements BIDSService {
 	 * See https://bids-specification.readthedocs.io/en/latest/04-modality-specific-files/03-electroencephalography.html
 	 * for more informations
 	 * @param dataset the dataset we want to export in BIDS
-	 * @param workFolder the examination work folder in which we are working
-	 * @param pathURLs list of file URL
+	 * @param entries the entries of the subject, completed by this method
 	 * @param studyName the name of associated study
 	 * @param subjectName the subject name associated
 	 * @param sessionId the session ID / examination ID associated
 	 * @param runId The run ID
-	 * @throws RestServiceException
 	 * @throws IOException
 	 */
-	private void exportSpecificEegFiles(final EegDataset dataset, final File workFolder, final String subjectName, final String sessionId, final String studyName, final String runId) throws IOException {
+	private void addSpecificEegEntries(final EegDataset dataset, final BidsSubjectEntries entries, final String subjectName, final String sessionId, final String studyName, final String runId) throws IOException {
 		// Create _eeg.json
 		String fileName = "task_" + studyName + "_eeg.json";
-		File baseDirectory = workFolder.getParentFile().getParentFile();
-		String destFile = baseDirectory.getAbsolutePath() + File.separator + fileName;
 
 		EegDataSetDescription datasetDescription = new EegDataSetDescription();
 		datasetDescription.setTaskName(studyName);
 		datasetDescription.setSamplingFrequency(String.valueOf(dataset.getSamplingFrequency()));
 		ObjectMapper objectMapper = new ObjectMapper();
-		objectMapper.writeValue(new File(destFile), datasetDescription);
+		entries.studyFiles.put(fileName, objectMapper.writeValueAsBytes(datasetDescription));
 
 		// Create channels.tsv file
-		String destWorkFolderPath = baseDirectory.getAbsolutePath() + File.separator + SUBJECT_PREFIX + dataset.getSubjectId() + "_" + subjectName + File.separator + SESSION_PREFIX + sessionId + File.separator + "eeg" + File.separator;
+		String destWorkFolderPath = entries.subjectFolder + File.separator + SESSION_PREFIX + sessionId + File.separator + "eeg";
 
 		// Create the folder where we are currently working if necessary.
-		File destWorkFolderFile = new File(destWorkFolderPath);
-		if (!destWorkFolderFile.exists()) {
-			destWorkFolderFile.mkdirs();
-		}
+		entries.folders.add(destWorkFolderPath);
 
 		fileName = subjectName + "_" + sessionId + TASK + studyName + "_" + runId + "_channel.tsv";
-		destFile = destWorkFolderPath + File.separator + fileName;
+		String destFile = destWorkFolderPath + File.separator + fileName;
 		
 		StringBuilder buffer = new StringBuilder();
 		buffer.append("name \t type \t units \t sampling_frequency \t low_cutoff \t high_cutoff \t notch \n");
@@ -539,7 +713,7 @@ public class BIDSServiceImpl implements BIDSService {
 			.append(chan.getHighCutoff() == 0 ? "n/a" : chan.getHighCutoff()).append(TABULATION)
 			.append(chan.getNotch() == 0 ? "n/a" : chan.getNotch()).append(NEW_LINE);
 		}
-		Files.write(Paths.get(destFile), buffer.toString().getBytes());
+		entries.subjectFiles.put(destFile, buffer.toString().getBytes());
 		
 		// Create events.tsv file
 		fileName = subjectName + "_" + sessionId + TASK + studyName + "_" + runId + "_event.tsv";
@@ -557,7 +731,7 @@ public class BIDSServiceImpl implements BIDSService {
 			.append(duration == 0 ? "n/a" : String.valueOf(duration)).append(TABULATION)
 			.append(sample).append(NEW_LINE);
 		}
-		Files.write(Paths.get(destFile), buffer.toString().getBytes());
+		entries.subjectFiles.put(destFile, buffer.toString().getBytes());
 
 		// If no coordinates system, don't create electrode.csv & _coordsystem.json files
 		if (dataset.getCoordinatesSystem() == null) {
@@ -577,7 +751,7 @@ public class BIDSServiceImpl implements BIDSService {
 			.append(chan.getY()).append(TABULATION)
 			.append(chan.getZ()).append(NEW_LINE);
 		}
-		Files.write(Paths.get(destFile), buffer.toString().getBytes());
+		entries.subjectFiles.put(destFile, buffer.toString().getBytes());
 		
 		// Create _coordsystem.json file
 		fileName = subjectName + "_" + sessionId + TASK + studyName + "_" + runId + "_coordsystem.json";
@@ -589,7 +763,7 @@ public class BIDSServiceImpl implements BIDSService {
 		.append("\"EEGCoordinateUnits\": ").append("\"" +CoordinatesSystem.valueOf(dataset.getCoordinatesSystem()).getUnit()).append("\"\n")
 		.append("}");
 		
-		Files.write(Paths.get(destFile), buffer.toString().getBytes());
+		entries.subjectFiles.put(destFile, buffer.toString().getBytes());
 	}
 
 	/**
@@ -622,4 +796,29 @@ public class BIDSServiceImpl implements BIDSService {
 		LOG.info("ERROR: no folder containing ID: {} in bids folder. It will probably be created by the BIDS manager. Should not happen", id);
 		return null;
 	}
+
+	/**
+	 * The BIDS entries of a subject, by path relative to the study BIDS folder.
+	 * They are computed by the export workers, then written to a folder or to a zip stream.
+	 */
+	private static class BidsSubjectEntries {
+
+		private final String subjectFolder;
+
+		private final Set<String> folders = new LinkedHashSet<>();
+
+		/** Sidecars at the root of the study folder, shared by all the subjects. */
+		private final Map<String, byte[]> studyFiles = new LinkedHashMap<>();
+
+		private final Map<String, byte[]> subjectFiles = new LinkedHashMap<>();
+
+		private final Map<String, File> dataFiles = new LinkedHashMap<>();
+
+		/** The scans.tsv line of each data file. */
+		private final Map<String, String> scansLines = new HashMap<>();
+
+		BidsSubjectEntries(String subjectFolder) {
+			this.subjectFolder = subjectFolder;
+		}
+	}
 }
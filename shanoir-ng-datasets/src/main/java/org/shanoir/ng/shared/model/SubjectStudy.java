@@ -0,0 +1,78 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.shared.model;
+
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import org.shanoir.ng.shared.core.model.AbstractEntity;
+
+/**
+ * Local replica of the subject/study links owned by the studies MS.
+ */
+@Entity
+@Table(name = "subject_study", uniqueConstraints = {
+		@UniqueConstraint(columnNames = { "study_id", "subject_id" }, name = "study_subject_idx") }, indexes = {
+		@Index(columnList = "subject_id", name = "i_subject") })
+public class SubjectStudy extends AbstractEntity {
+
+	private static final long serialVersionUID = -2953866201478315274L;
+
+	private Long subjectId;
+
+	private Long studyId;
+
+	public SubjectStudy() {}
+
+	/**
+	 * @param subjectId
+	 * @param studyId
+	 */
+	public SubjectStudy(Long subjectId, Long studyId) {
+		this.subjectId = subjectId;
+		this.studyId = studyId;
+	}
+
+	/**
+	 * @return the subjectId
+	 */
+	public Long getSubjectId() {
+		return subjectId;
+	}
+
+	/**
+	 * @param subjectId the subjectId to set
+	 */
+	public void setSubjectId(Long subjectId) {
+		this.subjectId = subjectId;
+	}
+
+	/**
+	 * @return the studyId
+	 */
+	public Long getStudyId() {
+		return studyId;
+	}
+
+	/**
+	 * @param studyId the studyId to set
+	 */
+	public void setStudyId(Long studyId) {
+		this.studyId = studyId;
+	}
+
+}
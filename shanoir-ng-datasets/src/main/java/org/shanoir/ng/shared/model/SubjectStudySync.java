@@ -0,0 +1,63 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+
+package org.shanoir.ng.shared.model;
+
+import java.util.Date;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.shanoir.ng.shared.core.model.AbstractEntity;
+
+/**
+ * Marks the local subject/study replica as complete: it is written in the same
+ * transaction as the links received from studies MS at bootstrap.
+ */
+@Entity
+@Table(name = "subject_study_sync")
+public class SubjectStudySync extends AbstractEntity {
+
+	private static final long serialVersionUID = 5032761944781532187L;
+
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date bootstrapDate;
+
+	public SubjectStudySync() {}
+
+	/**
+	 * @param bootstrapDate
+	 */
+	public SubjectStudySync(Date bootstrapDate) {
+		this.bootstrapDate = bootstrapDate;
+	}
+
+	/**
+	 * @return the bootstrapDate
+	 */
+	public Date getBootstrapDate() {
+		return bootstrapDate;
+	}
+
+	/**
+	 * @param bootstrapDate the bootstrapDate to set
+	 */
+	public void setBootstrapDate(Date bootstrapDate) {
+		this.bootstrapDate = bootstrapDate;
+	}
+
+}
@@ -14,10 +14,13 @@
 package org.shanoir.ng.shared.repository;
 
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.List;
+
 import org.shanoir.ng.shared.model.Study;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 /**
  * @author yyao
@@ -28,4 +31,13 @@ public interface StudyRepository extends CrudRepository<Study, Long> {
 	@Query(value="select rd.study_id from related_datasets rd where dataset_id = ?1",
 			nativeQuery = true)
 	List<BigInteger> findByDatasetId(Long datasetId);
+
+	/**
+	 * Resolves the studies the given datasets are related to in one query.
+	 * 
+	 * @param datasetIds dataset ids
+	 * @return pairs of (dataset id, study id)
+	 */
+	@Query("SELECT d.id, s.id FROM Study s JOIN s.relatedDatasets d WHERE d.id IN :datasetIds")
+	List<Object[]> findRelatedStudyIdsByDatasetIdIn(@Param("datasetIds") Collection<Long> datasetIds);
 }
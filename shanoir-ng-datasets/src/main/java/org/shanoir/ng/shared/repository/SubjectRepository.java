@@ -13,8 +13,12 @@
  */
 package org.shanoir.ng.shared.repository;
 
+import java.util.List;
+
 import org.shanoir.ng.shared.model.Subject;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 /**
  * @author yyao
@@ -22,4 +26,13 @@ import org.springframework.data.repository.CrudRepository;
  */
 public interface SubjectRepository extends CrudRepository<Subject, Long> {
 
+	/**
+	 * Find the subjects of a study, using the local subject/study replica.
+	 * 
+	 * @param studyId the study id
+	 * @return the subjects, ordered by name
+	 */
+	@Query("SELECT s FROM Subject s WHERE s.id IN (SELECT ss.subjectId FROM SubjectStudy ss WHERE ss.studyId = :studyId) ORDER BY s.name")
+	List<Subject> findByStudyId(@Param("studyId") Long studyId);
+
 }
@@ -0,0 +1,51 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.shared.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.shanoir.ng.shared.model.SubjectStudy;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository for the local subject/study links.
+ */
+public interface SubjectStudyRepository extends CrudRepository<SubjectStudy, Long> {
+
+	List<SubjectStudy> findBySubjectId(Long subjectId);
+
+	List<SubjectStudy> findByStudyId(Long studyId);
+
+	@Modifying
+	@Query("DELETE FROM SubjectStudy ss WHERE ss.subjectId = :subjectId")
+	void deleteBySubjectId(@Param("subjectId") Long subjectId);
+
+	@Modifying
+	@Query("DELETE FROM SubjectStudy ss WHERE ss.subjectId IN :subjectIds")
+	void deleteBySubjectIdIn(@Param("subjectIds") Collection<Long> subjectIds);
+
+	@Modifying
+	@Query("DELETE FROM SubjectStudy ss WHERE ss.studyId = :studyId")
+	void deleteByStudyId(@Param("studyId") Long studyId);
+
+	@Modifying
+	@Query("DELETE FROM SubjectStudy ss")
+	void deleteAllLinks();
+
+}
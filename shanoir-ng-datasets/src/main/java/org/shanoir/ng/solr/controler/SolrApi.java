@@ -19,6 +19,9 @@
  */
 package org.shanoir.ng.solr.controler;
 
+import java.util.List;
+import java.util.Map;
+
 import javax.validation.Valid;
 
 import org.shanoir.ng.shared.exception.ErrorModel;
@@ -33,6 +36,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -76,5 +80,19 @@ public interface SolrApi {
 	@RequestMapping(value = "", produces = { "application/json" }, consumes = {
 			"application/json" }, method = RequestMethod.POST)
 	ResponseEntity<SolrResultPage<ShanoirSolrDocument>> facetSearch(@ApiParam(value = "facets", required = true) @Valid @RequestBody ShanoirSolrFacet facet, Pageable pageable);
+
+	@ApiOperation(value = "", notes = "Autocompletion: returns the study, subject, dataset and center names containing words starting with the typed ones", response = Map.class, tags = {})
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "found suggestions", response = Map.class),
+		@ApiResponse(code = 401, message = "unauthorized", response = ErrorModel.class),
+		@ApiResponse(code = 403, message = "forbidden", response = ErrorModel.class),
+		@ApiResponse(code = 422, message = "bad parameters", response = ErrorModel.class),
+		@ApiResponse(code = 500, message = "unexpected error", response = ErrorModel.class) })
+	@RequestMapping(value = "/suggest", produces = { "application/json" }, method = RequestMethod.GET)
+	@PreAuthorize("hasAnyRole('ADMIN', 'EXPERT', 'USER')")
+	ResponseEntity<Map<String, List<String>>> suggest(
+			@ApiParam(value = "typed text", required = true) @RequestParam(value = "text", required = true) String text,
+			@ApiParam(value = "name to complete: studyName, subjectName, datasetName or centerName, all if absent") @RequestParam(value = "field", required = false) String field,
+			@ApiParam(value = "maximum number of suggestions per name") @RequestParam(value = "size", required = false, defaultValue = "10") int size)
+			throws RestServiceException;
 	
 }
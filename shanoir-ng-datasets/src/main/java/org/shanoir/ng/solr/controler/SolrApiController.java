@@ -19,11 +19,16 @@
  */
 package org.shanoir.ng.solr.controler;
 
+import java.util.List;
+import java.util.Map;
+
 import javax.validation.Valid;
 
+import org.shanoir.ng.shared.exception.ErrorModel;
 import org.shanoir.ng.shared.exception.RestServiceException;
 import org.shanoir.ng.solr.model.ShanoirSolrDocument;
 import org.shanoir.ng.solr.model.ShanoirSolrFacet;
+import org.shanoir.ng.solr.service.SolrSchemaService;
 import org.shanoir.ng.solr.service.SolrService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
@@ -42,6 +47,9 @@ import io.swagger.annotations.ApiParam;
 @Controller
 public class SolrApiController implements SolrApi {
 	
+	/** Bound of the number of suggestions per name, to keep the responses small. */
+	private static final int MAX_SUGGESTIONS = 50;
+
 	@Autowired
 	private SolrService solrService;
 	
@@ -71,4 +79,15 @@ public class SolrApiController implements SolrApi {
 		return new ResponseEntity<SolrResultPage<ShanoirSolrDocument>>(documents, HttpStatus.OK);
 	}
 	
-}
\ No newline at end of file
+	@Override
+	public ResponseEntity<Map<String, List<String>>> suggest(String text, String field, int size) throws RestServiceException {
+		if (field != null && !SolrSchemaService.SUGGESTED_FIELDS.contains(field)) {
+			throw new RestServiceException(new ErrorModel(HttpStatus.UNPROCESSABLE_ENTITY.value(), "Unknown field: " + field));
+		}
+		if (size < 1 || size > MAX_SUGGESTIONS) {
+			throw new RestServiceException(new ErrorModel(HttpStatus.UNPROCESSABLE_ENTITY.value(), "Size must be between 1 and " + MAX_SUGGESTIONS));
+		}
+		return new ResponseEntity<>(solrService.suggest(text, field, size), HttpStatus.OK);
+	}
+
+}
@@ -41,7 +41,8 @@ import org.shanoir.ng.shared.dateTime.LocalDateAnnotations;
 			@ColumnResult(name="datasetType", type = Integer.class), @ColumnResult(name="datasetNature", type = Integer.class),
 			@ColumnResult(name="datasetCreationDate", type = LocalDate.class), @ColumnResult(name="examinationComment", type = String.class), 
 			@ColumnResult(name="examinationDate", type = LocalDate.class), @ColumnResult(name="subjectName", type = String.class),
-			@ColumnResult(name="studyName", type = String.class), @ColumnResult(name="studyId", type = Long.class)
+			@ColumnResult(name="studyName", type = String.class), @ColumnResult(name="studyId", type = Long.class),
+			@ColumnResult(name="subjectId", type = Long.class), @ColumnResult(name="centerName", type = String.class)
 	})
 }) 
 public class ShanoirMetadata {
@@ -71,13 +72,17 @@ public class ShanoirMetadata {
 	
 	private Long studyId;
 	
+	private Long subjectId;
+	
+	private String centerName;
+	
 	public ShanoirMetadata () {
 		
 	}
 	
 	public ShanoirMetadata (Long datasetId, String datasetName, Integer datasetType, Integer datasetNature, 
 			LocalDate datasetCreationDate, String examinationComment, LocalDate examinationDate,
-			String subjectName, String studyName, Long studyId) {
+			String subjectName, String studyName, Long studyId, Long subjectId, String centerName) {
 		this.datasetId = datasetId;
 		this.datasetName = datasetName;
 		this.datasetType = datasetType;
@@ -88,6 +93,8 @@ public class ShanoirMetadata {
 		this.subjectName = subjectName;
 		this.studyName = studyName;
 		this.studyId = studyId;
+		this.subjectId = subjectId;
+		this.centerName = centerName;
 	}
 	
 	/**
@@ -246,4 +253,32 @@ public class ShanoirMetadata {
 		this.studyId = studyId;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * @return the subjectId
+	 */
+	public Long getSubjectId() {
+		return subjectId;
+	}
+
+	/**
+	 * @param subjectId the subjectId to set
+	 */
+	public void setSubjectId(Long subjectId) {
+		this.subjectId = subjectId;
+	}
+
+	/**
+	 * @return the centerName
+	 */
+	public String getCenterName() {
+		return centerName;
+	}
+
+	/**
+	 * @param centerName the centerName to set
+	 */
+	public void setCenterName(String centerName) {
+		this.centerName = centerName;
+	}
+
+}
@@ -76,13 +76,21 @@ public class ShanoirSolrDocument {
 	@Indexed(name="studyId", type="Long")
 	private Long studyId;
 	
+	@Field
+	@Indexed(name="subjectId", type="Long")
+	private Long subjectId;
+	
+	@Field
+	@Indexed(name="centerName", type="string")
+	private String centerName;
+	
 	public ShanoirSolrDocument () {
 		
 	}
 	
 	public ShanoirSolrDocument (Long datasetId, String datasetName, String datasetType, String datasetNature,
 			Date datasetCreationDate, String examinationComment, Date examinationDate,
-			String subjectName, String studyName, Long studyId) {
+			String subjectName, String studyName, Long studyId, Long subjectId, String centerName) {
 		this.datasetId = datasetId;
 		this.datasetName = datasetName;
 		this.datasetType = datasetType;
@@ -93,6 +101,8 @@ public class ShanoirSolrDocument {
 		this.subjectName = subjectName;
 		this.studyName = studyName;
 		this.studyId = studyId;
+		this.subjectId = subjectId;
+		this.centerName = centerName;
 	}
 
 	/**
@@ -235,4 +245,32 @@ public class ShanoirSolrDocument {
 		this.studyId = studyId;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * @return the subjectId
+	 */
+	public Long getSubjectId() {
+		return subjectId;
+	}
+
+	/**
+	 * @param subjectId the subjectId to set
+	 */
+	public void setSubjectId(Long subjectId) {
+		this.subjectId = subjectId;
+	}
+
+	/**
+	 * @return the centerName
+	 */
+	public String getCenterName() {
+		return centerName;
+	}
+
+	/**
+	 * @param centerName the centerName to set
+	 */
+	public void setCenterName(String centerName) {
+		this.centerName = centerName;
+	}
+
+}
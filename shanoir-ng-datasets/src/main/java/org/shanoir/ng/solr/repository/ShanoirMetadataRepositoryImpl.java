@@ -44,38 +44,42 @@ public class ShanoirMetadataRepositoryImpl implements ShanoirMetadataRepositoryC
 	public List<ShanoirMetadata> findAllAsSolrDoc() {
 		List<ShanoirMetadata> result = new ArrayList<>();
 		/**
- SELECT d.id as datasetId, dm.name as datasetName, dm.dataset_modality_type as datasetType, mdm.mr_dataset_nature as datasetNature, d.creation_date as datasetCreationDate, e.comment as examinationComment, e.examination_date as examinationDate, su.name as subjectName, st.name as studyName, e.study_id as studyId
+ SELECT d.id as datasetId, dm.name as datasetName, dm.dataset_modality_type as datasetType, mdm.mr_dataset_nature as datasetNature, d.creation_date as datasetCreationDate, e.comment as examinationComment, e.examination_date as examinationDate, su.name as subjectName, st.name as studyName, e.study_id as studyId, d.subject_id as subjectId, c.name as centerName
  FROM dataset d
  LEFT JOIN dataset_acquisition da on da.id = d.dataset_acquisition_id
  LEFT JOIN examination e ON e.id = da.examination_id
  LEFT JOIN study st ON st.id = e.study_id
+ LEFT JOIN center c ON c.id = e.center_id
  LEFT JOIN subject su ON su.id = d.subject_id, dataset_metadata dm, mr_dataset md
  LEFT JOIN mr_dataset_metadata mdm ON md.updated_mr_metadata_id = mdm.id
  WHERE d.updated_metadata_id = dm.id AND md.id = d.id AND d.id = 25;
 		 */
 		Query mrQuery = em.createNativeQuery(
-				"SELECT d.id as datasetId, dm.name as datasetName, dm.dataset_modality_type as datasetType, mdm.mr_dataset_nature as datasetNature, d.creation_date as datasetCreationDate, e.comment as examinationComment, e.examination_date as examinationDate, su.name as subjectName, st.name as studyName, e.study_id as studyId\n"
+				"SELECT d.id as datasetId, dm.name as datasetName, dm.dataset_modality_type as datasetType, mdm.mr_dataset_nature as datasetNature, d.creation_date as datasetCreationDate, e.comment as examinationComment, e.examination_date as examinationDate, su.name as subjectName, st.name as studyName, e.study_id as studyId, d.subject_id as subjectId, c.name as centerName\n"
 				+ " FROM dataset d"
 				+ " LEFT JOIN dataset_acquisition da on da.id = d.dataset_acquisition_id"
 				+ " LEFT JOIN examination e ON e.id = da.examination_id"
 				+ " LEFT JOIN study st ON st.id = e.study_id"
+				+ " LEFT JOIN center c ON c.id = e.center_id"
 				+ " LEFT JOIN subject su ON su.id = d.subject_id, dataset_metadata dm, mr_dataset md"
 				+ " LEFT JOIN mr_dataset_metadata mdm ON md.updated_mr_metadata_id = mdm.id"
 				+ " WHERE d.updated_metadata_id = dm.id AND md.id = d.id;", "SolrResult");
 		Query petQuery = em.createNativeQuery(
-				"SELECT d.id as datasetId, dm.name as datasetName, dm.dataset_modality_type as datasetType, null as datasetNature, d.creation_date as datasetCreationDate, e.comment as examinationComment, e.examination_date as examinationDate, su.name as subjectName, st.name as studyName, e.study_id as studyId\n"
+				"SELECT d.id as datasetId, dm.name as datasetName, dm.dataset_modality_type as datasetType, null as datasetNature, d.creation_date as datasetCreationDate, e.comment as examinationComment, e.examination_date as examinationDate, su.name as subjectName, st.name as studyName, e.study_id as studyId, d.subject_id as subjectId, c.name as centerName\n"
 				+ " FROM dataset d"
 				+ " LEFT JOIN dataset_acquisition da on da.id = d.dataset_acquisition_id"
 				+ " LEFT JOIN examination e ON e.id = da.examination_id"
 				+ " LEFT JOIN study st ON st.id = e.study_id"
+				+ " LEFT JOIN center c ON c.id = e.center_id"
 				+ " LEFT JOIN subject su ON su.id = d.subject_id, pet_dataset pd, dataset_metadata dm"
 				+ " WHERE d.updated_metadata_id = dm.id AND pd.id = d.id;", "SolrResult");
 		Query ctQuery = em.createNativeQuery(
-				"SELECT d.id as datasetId, dm.name as datasetName, dm.dataset_modality_type as datasetType, null as datasetNature, d.creation_date as datasetCreationDate, e.comment as examinationComment, e.examination_date as examinationDate, su.name as subjectName, st.name as studyName, e.study_id as studyId\n"
+				"SELECT d.id as datasetId, dm.name as datasetName, dm.dataset_modality_type as datasetType, null as datasetNature, d.creation_date as datasetCreationDate, e.comment as examinationComment, e.examination_date as examinationDate, su.name as subjectName, st.name as studyName, e.study_id as studyId, d.subject_id as subjectId, c.name as centerName\n"
 				+ " FROM dataset d"
 				+ " LEFT JOIN dataset_acquisition da on da.id = d.dataset_acquisition_id"
 				+ " LEFT JOIN examination e ON e.id = da.examination_id"
 				+ " LEFT JOIN study st ON st.id = e.study_id"
+				+ " LEFT JOIN center c ON c.id = e.center_id"
 				+ " LEFT JOIN subject su ON su.id = d.subject_id, ct_dataset cd, dataset_metadata dm"
 				+ " WHERE d.updated_metadata_id = dm.id AND cd.id = d.id;", "SolrResult");
 				
@@ -91,28 +95,31 @@ public class ShanoirMetadataRepositoryImpl implements ShanoirMetadataRepositoryC
 		List<ShanoirMetadata> result = new ArrayList<>();
 
 		Query mrQuery = em.createNativeQuery(
-				"SELECT d.id as datasetId, dm.name as datasetName, dm.dataset_modality_type as datasetType, mdm.mr_dataset_nature as datasetNature, d.creation_date as datasetCreationDate, e.comment as examinationComment, e.examination_date as examinationDate, su.name as subjectName, st.name as studyName, e.study_id as studyId\n"
+				"SELECT d.id as datasetId, dm.name as datasetName, dm.dataset_modality_type as datasetType, mdm.mr_dataset_nature as datasetNature, d.creation_date as datasetCreationDate, e.comment as examinationComment, e.examination_date as examinationDate, su.name as subjectName, st.name as studyName, e.study_id as studyId, d.subject_id as subjectId, c.name as centerName\n"
 				+ " FROM dataset d"
 				+ " LEFT JOIN dataset_acquisition da on da.id = d.dataset_acquisition_id"
 				+ " LEFT JOIN examination e ON e.id = da.examination_id"
 				+ " LEFT JOIN study st ON st.id = e.study_id"
+				+ " LEFT JOIN center c ON c.id = e.center_id"
 				+ " LEFT JOIN subject su ON su.id = d.subject_id, dataset_metadata dm, mr_dataset md"
 				+ " LEFT JOIN mr_dataset_metadata mdm ON md.updated_mr_metadata_id = mdm.id"
 				+ " WHERE d.updated_metadata_id = dm.id AND md.id = d.id AND d.id = " + datasetId + ";", "SolrResult");
 		Query petQuery = em.createNativeQuery(
-				"SELECT d.id as datasetId, dm.name as datasetName, dm.dataset_modality_type as datasetType, null as datasetNature, d.creation_date as datasetCreationDate, e.comment as examinationComment, e.examination_date as examinationDate, su.name as subjectName, st.name as studyName, e.study_id as studyId\n"
+				"SELECT d.id as datasetId, dm.name as datasetName, dm.dataset_modality_type as datasetType, null as datasetNature, d.creation_date as datasetCreationDate, e.comment as examinationComment, e.examination_date as examinationDate, su.name as subjectName, st.name as studyName, e.study_id as studyId, d.subject_id as subjectId, c.name as centerName\n"
 				+ " FROM dataset d"
 				+ " LEFT JOIN dataset_acquisition da on da.id = d.dataset_acquisition_id"
 				+ " LEFT JOIN examination e ON e.id = da.examination_id"
 				+ " LEFT JOIN study st ON st.id = e.study_id"
+				+ " LEFT JOIN center c ON c.id = e.center_id"
 				+ " LEFT JOIN subject su ON su.id = d.subject_id, pet_dataset pd, dataset_metadata dm"
 				+ " WHERE d.updated_metadata_id = dm.id AND pd.id = d.id AND d.id = " + datasetId + ";", "SolrResult");
 		Query ctQuery = em.createNativeQuery(
-				"SELECT d.id as datasetId, dm.name as datasetName, dm.dataset_modality_type as datasetType, null as datasetNature, d.creation_date as datasetCreationDate, e.comment as examinationComment, e.examination_date as examinationDate, su.name as subjectName, st.name as studyName, e.study_id as studyId\n"
+				"SELECT d.id as datasetId, dm.name as datasetName, dm.dataset_modality_type as datasetType, null as datasetNature, d.creation_date as datasetCreationDate, e.comment as examinationComment, e.examination_date as examinationDate, su.name as subjectName, st.name as studyName, e.study_id as studyId, d.subject_id as subjectId, c.name as centerName\n"
 				+ " FROM dataset d"
 				+ " LEFT JOIN dataset_acquisition da on da.id = d.dataset_acquisition_id"
 				+ " LEFT JOIN examination e ON e.id = da.examination_id"
 				+ " LEFT JOIN study st ON st.id = e.study_id"
+				+ " LEFT JOIN center c ON c.id = e.center_id"
 				+ " LEFT JOIN subject su ON su.id = d.subject_id, ct_dataset cd, dataset_metadata dm"
 				+ " WHERE d.updated_metadata_id = dm.id AND cd.id = d.id AND d.id = " + datasetId + ";", "SolrResult");
 		
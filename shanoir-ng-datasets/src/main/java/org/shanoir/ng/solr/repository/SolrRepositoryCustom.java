@@ -4,6 +4,7 @@
 package org.shanoir.ng.solr.repository;
 
 import java.util.Collection;
+import java.util.List;
 
 import org.shanoir.ng.solr.model.ShanoirSolrDocument;
 import org.shanoir.ng.solr.model.ShanoirSolrFacet;
@@ -18,4 +19,28 @@ public interface SolrRepositoryCustom {
 	public SolrResultPage<ShanoirSolrDocument> findByFacetCriteria(ShanoirSolrFacet facet,Pageable pageable);
 	
 	public SolrResultPage<ShanoirSolrDocument> findByStudyIdInAndFacetCriteria(Collection<Long> studyIds, ShanoirSolrFacet facet,Pageable pageable);
+
+	/**
+	 * Deletes the documents of all the datasets of a study, with a single delete by query.
+	 * @param studyId the study id
+	 */
+	public void deleteByStudyId(Long studyId);
+
+	/**
+	 * Deletes the documents of all the datasets of a subject, with a single delete by query,
+	 * plus one per chunk of dataset ids for the documents indexed without their subject id.
+	 * @param subjectId the subject id
+	 * @param datasetIds the ids of the datasets of the subject
+	 */
+	public void deleteBySubjectId(Long subjectId, Collection<Long> datasetIds);
+
+	/**
+	 * Returns the most frequent distinct values of a field containing words starting with the given prefixes.
+	 * @param field the field, one of {@link org.shanoir.ng.solr.service.SolrSchemaService#SUGGESTED_FIELDS}
+	 * @param prefixes lower cased word prefixes, all required
+	 * @param studyIds the studies to search into, null for all
+	 * @param size the maximum number of values
+	 * @return the values
+	 */
+	public List<String> findSuggestions(String field, List<String> prefixes, Collection<Long> studyIds, int size);
 }
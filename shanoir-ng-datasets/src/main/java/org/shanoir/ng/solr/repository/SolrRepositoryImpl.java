@@ -3,13 +3,16 @@
  */
 package org.shanoir.ng.solr.repository;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import javax.annotation.Resource;
 
 import org.shanoir.ng.shared.dateTime.DateTimeUtils;
 import org.shanoir.ng.solr.model.ShanoirSolrDocument;
 import org.shanoir.ng.solr.model.ShanoirSolrFacet;
+import org.shanoir.ng.solr.service.SolrSchemaService;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.solr.core.SolrTemplate;
 import org.springframework.data.solr.core.query.Criteria;
@@ -17,6 +20,9 @@ import org.springframework.data.solr.core.query.FacetOptions;
 import org.springframework.data.solr.core.query.FacetQuery;
 import org.springframework.data.solr.core.query.Node;
 import org.springframework.data.solr.core.query.SimpleFacetQuery;
+import org.springframework.data.solr.core.query.SimpleFilterQuery;
+import org.springframework.data.solr.core.query.SimpleQuery;
+import org.springframework.data.solr.core.query.result.FacetFieldEntry;
 import org.springframework.data.solr.core.query.result.FacetPage;
 import org.springframework.data.solr.core.query.result.SolrResultPage;
 
@@ -32,6 +38,8 @@ public class SolrRepositoryImpl implements SolrRepositoryCustom{
 	private static final String EXAMINATION_COMMENT = "examinationComment";
 	private static final String SUBJECT_NAME = "subjectName_str";
 	private static final String STUDY_NAME = "studyName_str";
+	/** Dataset ids per delete query, below the default limit of clauses of a Solr boolean query. */
+	private static final int DELETE_CHUNK_SIZE = 500;
 	@Resource
 	private SolrTemplate solrTemplate;
 
@@ -49,6 +57,54 @@ public class SolrRepositoryImpl implements SolrRepositoryCustom{
 
 	}
 
+	@Override
+	public void deleteByStudyId(Long studyId) {
+		deleteByCriteria(new Criteria("studyId").is(studyId));
+	}
+
+	@Override
+	public void deleteBySubjectId(Long subjectId, Collection<Long> datasetIds) {
+		solrTemplate.delete(new SimpleQuery(new Criteria("subjectId").is(subjectId)));
+		// Documents indexed before the subjectId field existed are only found by their dataset id
+		List<Long> ids = new ArrayList<>(datasetIds);
+		for (int start = 0; start < ids.size(); start += DELETE_CHUNK_SIZE) {
+			List<Long> chunk = ids.subList(start, Math.min(start + DELETE_CHUNK_SIZE, ids.size()));
+			solrTemplate.delete(new SimpleQuery(new Criteria("datasetId").in(chunk)));
+		}
+		solrTemplate.softCommit();
+	}
+
+	@Override
+	public List<String> findSuggestions(String field, List<String> prefixes, Collection<Long> studyIds, int size) {
+		Criteria criteria = null;
+		for (String prefix : prefixes) {
+			Criteria prefixCriteria = new Criteria(field + SolrSchemaService.AUTOCOMPLETE_SUFFIX).is(prefix);
+			criteria = criteria == null ? prefixCriteria : criteria.and(prefixCriteria);
+		}
+		SimpleFacetQuery query = new SimpleFacetQuery(criteria);
+		if (studyIds != null) {
+			query.addFilterQuery(new SimpleFilterQuery(new Criteria("studyId").in(studyIds)));
+		}
+		query.setRows(0);
+		String facetField = field + SolrSchemaService.EXACT_SUFFIX;
+		query.setFacetOptions(new FacetOptions().addFacetOnField(facetField)
+				.setFacetMinCount(1)
+				.setFacetLimit(size));
+		List<String> suggestions = new ArrayList<>();
+		for (FacetFieldEntry entry : solrTemplate.queryForFacetPage(query, ShanoirSolrDocument.class).getFacetResultPage(facetField)) {
+			suggestions.add(entry.getValue());
+		}
+		return suggestions;
+	}
+
+	/**
+	 * Deletes all the matching documents in one request, made visible by a soft commit.
+	 */
+	private void deleteByCriteria(Criteria criteria) {
+		solrTemplate.delete(new SimpleQuery(criteria));
+		solrTemplate.softCommit();
+	}
+
 	private SolrResultPage<ShanoirSolrDocument> getSearchResultsWithFacets(Criteria criteria, ShanoirSolrFacet facet, Pageable pageable) {
 		if (facet.getStudyName() != null && !facet.getStudyName().isEmpty()) {
 			for (String studyName: facet.getStudyName()) {
@@ -0,0 +1,175 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+
+package org.shanoir.ng.solr.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.schema.AnalyzerDefinition;
+import org.apache.solr.client.solrj.request.schema.FieldTypeDefinition;
+import org.apache.solr.client.solrj.request.schema.SchemaRequest;
+import org.apache.solr.client.solrj.response.schema.FieldTypeRepresentation;
+import org.apache.solr.client.solrj.response.schema.SchemaResponse;
+import org.apache.solr.common.SolrException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Adds to the Solr managed schema what the autocompletion needs: an edge n-gram
+ * field type, and for every suggested name a "_ac" field (edge n-grams, for the
+ * match) and a "_exact" field (whole value, for the distinct values), both filled
+ * by copy fields. The "_str" fields that schemaless cores create for sorting and
+ * faceting, and the suggested names themselves, are left as they are. Only what
+ * is missing is added, so this runs at startup and around every full indexation.
+ */
+@Service
+public class SolrSchemaService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SolrSchemaService.class);
+
+	/** Names proposed by the autocompletion. */
+	public static final List<String> SUGGESTED_FIELDS = Collections.unmodifiableList(
+			Arrays.asList("studyName", "subjectName", "datasetName", "centerName"));
+
+	/** Suffix of the edge n-gram fields. */
+	public static final String AUTOCOMPLETE_SUFFIX = "_ac";
+
+	/** Suffix of the whole value fields. */
+	public static final String EXACT_SUFFIX = "_exact";
+
+	/** Longest prefix indexed by the edge n-gram fields. */
+	public static final int MAX_GRAM_SIZE = 20;
+
+	/** Separator of the words of the suggested names, also used to split the typed text. */
+	public static final String WORD_SEPARATOR = "[^\\p{L}\\p{N}]+";
+
+	private static final String EDGE_NGRAM_TYPE = "text_edge_ngram";
+
+	private static final String NAME = "name";
+
+	@Autowired
+	private SolrClient solrClient;
+
+	/**
+	 * Adds the missing field type, fields and copy fields. A copy field is only
+	 * added once its source field exists: on a new core, after the first documents.
+	 * Errors are only logged: the search keeps working without autocompletion.
+	 *
+	 * @return true if definitions have been added, so that the documents already
+	 *         indexed have to be indexed again to fill them
+	 */
+	public boolean ensureAutocompleteFields() {
+		try {
+			Set<String> fieldTypes = new HashSet<>();
+			for (FieldTypeRepresentation fieldType : new SchemaRequest.FieldTypes().process(solrClient).getFieldTypes()) {
+				fieldTypes.add((String) fieldType.getAttributes().get(NAME));
+			}
+			Set<String> fields = new HashSet<>();
+			for (Map<String, Object> field : new SchemaRequest.Fields().process(solrClient).getFields()) {
+				fields.add((String) field.get(NAME));
+			}
+			Set<String> copyFields = new HashSet<>();
+			for (Map<String, Object> copyField : new SchemaRequest.CopyFields().process(solrClient).getCopyFields()) {
+				copyFields.add(copyField.get("source") + ">" + copyField.get("dest"));
+			}
+
+			List<SchemaRequest.Update> updates = new ArrayList<>();
+			if (!fieldTypes.contains(EDGE_NGRAM_TYPE)) {
+				updates.add(new SchemaRequest.AddFieldType(edgeNGramFieldType()));
+			}
+			for (String field : SUGGESTED_FIELDS) {
+				addFieldAndCopy(updates, fields, copyFields, field, field + AUTOCOMPLETE_SUFFIX, EDGE_NGRAM_TYPE, false);
+				addFieldAndCopy(updates, fields, copyFields, field, field + EXACT_SUFFIX, "string", true);
+			}
+			if (updates.isEmpty()) {
+				return false;
+			}
+			SchemaResponse.UpdateResponse response = new SchemaRequest.MultiUpdate(updates).process(solrClient);
+			Object errors = response.getResponse().get("errors");
+			if (errors != null) {
+				LOG.error("Could not add the autocompletion fields to the Solr schema: {}", errors);
+				return false;
+			}
+			LOG.info("Added {} autocompletion definition(s) to the Solr schema", updates.size());
+			return true;
+		} catch (SolrServerException | IOException | SolrException e) {
+			LOG.error("Could not read or update the Solr schema: {}", e.getMessage());
+			return false;
+		}
+	}
+
+	private void addFieldAndCopy(List<SchemaRequest.Update> updates, Set<String> fields, Set<String> copyFields,
+			String source, String dest, String type, boolean docValues) {
+		if (!fields.contains(dest)) {
+			Map<String, Object> field = new HashMap<>();
+			field.put(NAME, dest);
+			field.put("type", type);
+			field.put("indexed", true);
+			field.put("stored", false);
+			field.put("multiValued", false);
+			field.put("docValues", docValues);
+			updates.add(new SchemaRequest.AddField(field));
+		}
+		if (fields.contains(source) && !copyFields.contains(source + ">" + dest)) {
+			updates.add(new SchemaRequest.AddCopyField(source, Collections.singletonList(dest)));
+		}
+	}
+
+	/**
+	 * Lower cased words indexed with all their prefixes, queried as is:
+	 * a prefix search becomes a simple term lookup.
+	 */
+	private FieldTypeDefinition edgeNGramFieldType() {
+		Map<String, Object> attributes = new HashMap<>();
+		attributes.put(NAME, EDGE_NGRAM_TYPE);
+		attributes.put("class", "solr.TextField");
+		attributes.put("positionIncrementGap", "100");
+
+		Map<String, Object> tokenizer = new HashMap<>();
+		tokenizer.put("class", "solr.PatternTokenizerFactory");
+		tokenizer.put("pattern", WORD_SEPARATOR);
+
+		AnalyzerDefinition indexAnalyzer = new AnalyzerDefinition();
+		indexAnalyzer.setTokenizer(tokenizer);
+		Map<String, Object> edgeNGram = new HashMap<>();
+		edgeNGram.put("class", "solr.EdgeNGramFilterFactory");
+		edgeNGram.put("minGramSize", "1");
+		edgeNGram.put("maxGramSize", String.valueOf(MAX_GRAM_SIZE));
+		indexAnalyzer.setFilters(Arrays.asList(Collections.singletonMap("class", "solr.LowerCaseFilterFactory"), edgeNGram));
+
+		AnalyzerDefinition queryAnalyzer = new AnalyzerDefinition();
+		queryAnalyzer.setTokenizer(tokenizer);
+		queryAnalyzer.setFilters(Collections.singletonList(Collections.singletonMap("class", "solr.LowerCaseFilterFactory")));
+
+		FieldTypeDefinition fieldType = new FieldTypeDefinition();
+		fieldType.setAttributes(attributes);
+		fieldType.setIndexAnalyzer(indexAnalyzer);
+		fieldType.setQueryAnalyzer(queryAnalyzer);
+		return fieldType;
+	}
+
+}
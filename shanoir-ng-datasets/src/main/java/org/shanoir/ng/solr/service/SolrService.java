@@ -19,6 +19,9 @@
  */
 package org.shanoir.ng.solr.service;
 
+import java.util.List;
+import java.util.Map;
+
 import org.shanoir.ng.solr.model.ShanoirSolrDocument;
 import org.shanoir.ng.solr.model.ShanoirSolrFacet;
 import org.springframework.data.domain.Pageable;
@@ -35,6 +38,10 @@ public interface SolrService {
 	void addToIndex(ShanoirSolrDocument document);
 	
 	void deleteFromIndex(Long datasetId);
+
+	void deleteStudyFromIndex(Long studyId);
+
+	void deleteSubjectFromIndex(Long subjectId);
 	
 	void indexAll();
 	
@@ -44,4 +51,13 @@ public interface SolrService {
 
 	void indexDataset(Long datasetId);
 
+	/**
+	 * Autocompletion: the names starting with the typed text, among the studies the user can see.
+	 * @param text the typed text, every word of it being a prefix
+	 * @param field the name to complete, null for all the suggested names
+	 * @param size the maximum number of suggestions per name
+	 * @return the suggestions by name
+	 */
+	Map<String, List<String>> suggest(String text, String field, int size);
+
 }
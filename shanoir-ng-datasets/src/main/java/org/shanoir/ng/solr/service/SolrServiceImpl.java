@@ -19,10 +19,15 @@
  */
 package org.shanoir.ng.solr.service;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 
+import org.shanoir.ng.dataset.repository.DatasetRepository;
 import org.shanoir.ng.shared.dateTime.DateTimeUtils;
 import org.shanoir.ng.shared.security.rights.StudyUserRight;
 import org.shanoir.ng.solr.model.ShanoirMetadata;
@@ -33,6 +38,8 @@ import org.shanoir.ng.solr.repository.SolrRepository;
 import org.shanoir.ng.study.rights.StudyUserRightsRepository;
 import org.shanoir.ng.utils.KeycloakUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -56,9 +63,17 @@ public class SolrServiceImpl implements SolrService {
 	@Autowired
 	private ShanoirMetadataRepository shanoirMetadataRepository;
 
+	@Autowired
+	private DatasetRepository datasetRepository;
+
 	@Autowired
 	private StudyUserRightsRepository rightsRepository;
 
+	@Autowired
+	private SolrSchemaService solrSchemaService;
+
+	private static final Pattern WORD_SEPARATOR = Pattern.compile(SolrSchemaService.WORD_SEPARATOR);
+
 	@Transactional
 	@Override
 	public void addToIndex (final ShanoirSolrDocument document) {
@@ -71,15 +86,49 @@ public class SolrServiceImpl implements SolrService {
 		solrRepository.deleteByDatasetId(datasetId);
 	}
 
+	@Transactional
+	@Override
+	public void deleteStudyFromIndex(Long studyId) {
+		solrRepository.deleteByStudyId(studyId);
+	}
+
+	@Transactional
+	@Override
+	public void deleteSubjectFromIndex(Long subjectId) {
+		solrRepository.deleteBySubjectId(subjectId, datasetRepository.findIdsBySubjectId(subjectId));
+	}
+
 	@Transactional
 	public void deleteAll() {
 		solrRepository.deleteAll();
 	}
 
+	/**
+	 * Adds the autocompletion fields missing in the Solr schema, and fills them
+	 * with a full indexation when some had to be added (upgrade of an existing core).
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional
+	public void updateSchema() {
+		if (solrSchemaService.ensureAutocompleteFields()) {
+			indexAll();
+		}
+	}
+
 	@Transactional
 	@Override
 	@Scheduled(cron = "0 0 6 * * *", zone="Europe/Paris")
 	public void indexAll() {
+		// 0. make sure the autocompletion fields are defined before filling them
+		solrSchemaService.ensureAutocompleteFields();
+		indexAllDocuments();
+		// On a new core, the copy fields can only be added once the documents created their source fields
+		if (solrSchemaService.ensureAutocompleteFields()) {
+			indexAllDocuments();
+		}
+	}
+
+	private void indexAllDocuments() {
 		// 1. delete all
 		deleteAll();
 
@@ -91,7 +140,7 @@ public class SolrServiceImpl implements SolrService {
 			ShanoirSolrDocument doc = new ShanoirSolrDocument(shanoirMetadata.getDatasetId(), shanoirMetadata.getDatasetName(),
 					shanoirMetadata.getDatasetType(), shanoirMetadata.getDatasetNature(), DateTimeUtils.localDateToDate(shanoirMetadata.getDatasetCreationDate()),
 					shanoirMetadata.getExaminationComment(), DateTimeUtils.localDateToDate(shanoirMetadata.getExaminationDate()),
-					shanoirMetadata.getSubjectName(), shanoirMetadata.getStudyName(), shanoirMetadata.getStudyId());
+					shanoirMetadata.getSubjectName(), shanoirMetadata.getStudyName(), shanoirMetadata.getStudyId(), shanoirMetadata.getSubjectId(), shanoirMetadata.getCenterName());
 			addToIndex(doc);
 		}
 	}
@@ -104,7 +153,7 @@ public class SolrServiceImpl implements SolrService {
 		ShanoirSolrDocument doc = new ShanoirSolrDocument(shanoirMetadata.getDatasetId(), shanoirMetadata.getDatasetName(),
 				shanoirMetadata.getDatasetType(), shanoirMetadata.getDatasetNature(), DateTimeUtils.localDateToDate(shanoirMetadata.getDatasetCreationDate()),
 				shanoirMetadata.getExaminationComment(), DateTimeUtils.localDateToDate(shanoirMetadata.getExaminationDate()),
-				shanoirMetadata.getSubjectName(), shanoirMetadata.getStudyName(), shanoirMetadata.getStudyId());
+				shanoirMetadata.getSubjectName(), shanoirMetadata.getStudyName(), shanoirMetadata.getStudyId(), shanoirMetadata.getSubjectId(), shanoirMetadata.getCenterName());
 		solrRepository.save(doc);
 	}
 
@@ -139,6 +188,33 @@ public class SolrServiceImpl implements SolrService {
 		return result;
 	}
 
+	@Override
+	public Map<String, List<String>> suggest(String text, String field, int size) {
+		Map<String, List<String>> suggestions = new LinkedHashMap<>();
+		List<String> prefixes = new ArrayList<>();
+		for (String word : WORD_SEPARATOR.split(text.toLowerCase())) {
+			if (!word.isEmpty()) {
+				// longer words match on their longest indexed prefix
+				prefixes.add(word.length() > SolrSchemaService.MAX_GRAM_SIZE ? word.substring(0, SolrSchemaService.MAX_GRAM_SIZE) : word);
+			}
+		}
+		if (prefixes.isEmpty()) {
+			return suggestions;
+		}
+		List<Long> studyIds = null;
+		if (!KeycloakUtil.getTokenRoles().contains("ROLE_ADMIN")) {
+			studyIds = rightsRepository.findDistinctStudyIdByUserId(KeycloakUtil.getTokenUserId(), StudyUserRight.CAN_SEE_ALL.getId());
+			if (studyIds.isEmpty()) {
+				return suggestions;
+			}
+		}
+		List<String> fields = field != null ? Collections.singletonList(field) : SolrSchemaService.SUGGESTED_FIELDS;
+		for (String suggestedField : fields) {
+			suggestions.put(suggestedField, solrRepository.findSuggestions(suggestedField, prefixes, studyIds, size));
+		}
+		return suggestions;
+	}
+
 	private Pageable prepareTextFields(Pageable pageable) {
 		for (Sort.Order order : pageable.getSort()) {
 			if (order.getProperty().equals("studyName") || order.getProperty().equals("subjectName")
@@ -121,6 +121,18 @@ INSERT INTO ct_dataset
 	(id) 
 VALUES 
 	(3);
+
+INSERT INTO dataset_expression
+	(id, dataset_id, dataset_expression_format, multi_frame)
+VALUES
+	(1, 1, 2, false),
+	(2, 1, 6, false);
+
+INSERT INTO dataset_file
+	(id, dataset_expression_id, pacs, path)
+VALUES
+	(1, 1, false, 'file:///tmp/dataset1.nii'),
+	(2, 2, true, 'http://pacs/wado?studyUID=1');
 	
 INSERT INTO study_user
 	(id, confirmed, receive_anonymization_report, receive_new_import_report, study_id, user_id, user_name)
@@ -14,21 +14,29 @@
 
 package org.shanoir.ng.dataset;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.times;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.junit.matchers.JUnitMatchers.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -37,6 +45,7 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.shanoir.ng.dataset.controler.DatasetApiController;
+import org.shanoir.ng.dataset.dto.DatasetDownloadFileDTO;
 import org.shanoir.ng.dataset.dto.mapper.DatasetMapper;
 import org.shanoir.ng.dataset.modality.EegDatasetMapper;
 import org.shanoir.ng.dataset.modality.MrDataset;
@@ -45,6 +54,7 @@ import org.shanoir.ng.dataset.model.Dataset;
 import org.shanoir.ng.dataset.model.DatasetExpression;
 import org.shanoir.ng.dataset.model.DatasetExpressionFormat;
 import org.shanoir.ng.dataset.model.DatasetMetadata;
+import org.shanoir.ng.dataset.repository.DatasetRepositoryCustom.StatisticsRowHandler;
 import org.shanoir.ng.dataset.security.DatasetSecurityService;
 import org.shanoir.ng.dataset.service.DatasetService;
 import org.shanoir.ng.datasetacquisition.model.DatasetAcquisition;
@@ -70,6 +80,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -192,24 +203,14 @@ public class DatasetApiControllerTest {
 		datasetFile.createNewFile();
 		FileUtils.write(datasetFile, "test");
 
-		// Link it to datasetExpression in a dataset in a study
+		// Planned as a file of a dataset in the study
 		Dataset dataset = new MrDataset();
 		dataset.setId(1L);
-		dataset.setSubjectId(3L);
-		given(subjectRepository.findOne(3L)).willReturn(subject);
-		dataset.setDatasetAcquisition(dsAcq);
-		dataset.setUpdatedMetadata(updatedMetadata);
-
-		DatasetExpression expr = new DatasetExpression();
-		expr.setDatasetExpressionFormat(DatasetExpressionFormat.NIFTI_SINGLE_FILE);
-		DatasetFile dsFile = new DatasetFile();
-		dsFile.setPath("file:///" + datasetFile.getAbsolutePath());
-		expr.setDatasetFiles(Collections.singletonList(dsFile));
-		List<DatasetExpression> datasetExpressions = Collections.singletonList(expr);
-		dataset.setDatasetExpressions(datasetExpressions);
-
-		Mockito.when(datasetSecurityService.hasRightOnAtLeastOneDataset(Mockito.anyList(), Mockito.eq("CAN_DOWNLOAD"))).thenReturn(Collections.singletonList(dataset));
-		Mockito.when(datasetServiceMock.findByStudyId(1L)).thenReturn(Collections.singletonList(dataset));
+		DatasetDownloadFileDTO file = new DatasetDownloadFileDTO(dataset.getId(), subject.getName(), null,
+				updatedMetadata.getComment(), updatedMetadata.getName(), dsAcq.getSortingIndex(), dsAcq.getRank(),
+				DatasetExpressionFormat.NIFTI_SINGLE_FILE.getId(), "file:///" + datasetFile.getAbsolutePath());
+		Mockito.when(datasetServiceMock.findDownloadFilesByStudyId(Mockito.eq(1L), Mockito.anyCollectionOf(DatasetExpressionFormat.class)))
+				.thenReturn(Collections.singletonList(file));
 
 		// WHEN we export all the datasets
 		mvc.perform(MockMvcRequestBuilders.get("/datasets/massiveDownloadByStudy")
@@ -230,6 +231,45 @@ public class DatasetApiControllerTest {
 		assertEquals(ShanoirEventType.DOWNLOAD_DATASET_EVENT, event.getEventType());
 	}
 
+	@Test
+	@WithMockKeycloakUser(id = 3, username = "jlouis", authorities = { "ROLE_ADMIN" })
+	public void testDownloadDatasetByIdResume() throws Exception {
+		// GIVEN a dataset with a nifti file
+		File datasetFile = testFolder.newFile("test.nii");
+		FileUtils.write(datasetFile, "test");
+
+		Dataset dataset = new MrDataset();
+		dataset.setId(1L);
+		dataset.setSubjectId(3L);
+		given(subjectRepository.findOne(3L)).willReturn(subject);
+		dataset.setDatasetAcquisition(dsAcq);
+		dataset.setUpdatedMetadata(updatedMetadata);
+		DatasetExpression expr = new DatasetExpression();
+		expr.setDatasetExpressionFormat(DatasetExpressionFormat.NIFTI_SINGLE_FILE);
+		DatasetFile dsFile = new DatasetFile();
+		dsFile.setPath("file:///" + datasetFile.getAbsolutePath());
+		expr.setDatasetFiles(Collections.singletonList(dsFile));
+		dataset.setDatasetExpressions(Collections.singletonList(expr));
+		given(datasetServiceMock.findById(1L)).willReturn(dataset);
+
+		// WHEN it is downloaded, then resumed from its 10th byte
+		MvcResult full = mvc.perform(MockMvcRequestBuilders.get("/datasets/download/1").param("format", "nii"))
+				.andExpect(status().isOk())
+				.andReturn();
+		String eTag = full.getResponse().getHeader("ETag");
+		byte[] zip = full.getResponse().getContentAsByteArray();
+		MvcResult rest = mvc.perform(MockMvcRequestBuilders.get("/datasets/download/1").param("format", "nii")
+				.header("Range", "bytes=10-").header("If-Range", eTag))
+				.andExpect(status().isPartialContent())
+				.andReturn();
+
+		// THEN the zip built again is the same, and the range completes the first bytes
+		assertNotNull(full.getResponse().getHeader("Digest"));
+		assertEquals(eTag, rest.getResponse().getHeader("ETag"));
+		assertEquals(full.getResponse().getHeader("Digest"), rest.getResponse().getHeader("Digest"));
+		assertArrayEquals(Arrays.copyOfRange(zip, 10, zip.length), rest.getResponse().getContentAsByteArray());
+	}
+
 	@Test
 	@WithMockKeycloakUser(id = 3, username = "jlouis", authorities = { "ROLE_ADMIN" })
 	public void testMassiveDownloadByDatasetsId() throws Exception {
@@ -328,11 +368,11 @@ public class DatasetApiControllerTest {
 	public void testMassiveDownloadByStudyIdTooMuchDatasets() throws Exception {
 		// GIVEN a study with more then 50 datasets to export
 
-		List<Dataset> hugeList = new ArrayList<Dataset>();
-		for (int i = 0; i < 51 ; i++) {
-			hugeList.add(new MrDataset());
+		List<DatasetDownloadFileDTO> hugeList = new ArrayList<DatasetDownloadFileDTO>();
+		for (long i = 0; i < 51 ; i++) {
+			hugeList.add(new DatasetDownloadFileDTO(i, "name", null, null, null, null, null, DatasetExpressionFormat.NIFTI_SINGLE_FILE.getId(), "file:///test.nii"));
 		}
-		Mockito.when(datasetServiceMock.findByStudyId(1L)).thenReturn(hugeList);
+		Mockito.when(datasetServiceMock.findDownloadFilesByStudyId(Mockito.eq(1L), Mockito.anyCollectionOf(DatasetExpressionFormat.class))).thenReturn(hugeList);
 
 		try {
 		// WHEN we export all the datasets
@@ -384,4 +424,28 @@ public class DatasetApiControllerTest {
 
 		// THEN we expect a failure
 	}
+
+	@Test
+	@WithMockKeycloakUser(id = 3, username = "jlouis", authorities = { "ROLE_ADMIN" })
+	public void testDownloadStatistics() throws Exception {
+		// GIVEN statistics rows streamed by the database
+		doAnswer(invocation -> {
+			StatisticsRowHandler rowHandler = (StatisticsRowHandler) invocation.getArguments()[4];
+			rowHandler.handle(new Object[] {"patient_id", "shanoir_name"});
+			rowHandler.handle(new Object[] {1L, null});
+			return null;
+		}).when(datasetServiceMock).queryStatistics(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+
+		// WHEN we download the statistics
+		MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/datasets/downloadStatistics")
+				.param("studyNameInRegExp", "study.*"))
+				.andExpect(status().isOk()).andReturn();
+
+		// THEN the rows are written as tsv in a zipped file
+		try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+			ZipEntry entry = zis.getNextEntry();
+			assertEquals("shanoirExportStatistics.txt", entry.getName());
+			assertEquals("patient_id\tshanoir_name\n1\tnull\n", IOUtils.toString(zis, StandardCharsets.UTF_8).replace("\r\n", "\n"));
+		}
+	}
 }
@@ -19,14 +19,18 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.shanoir.ng.dataset.dto.DatasetDownloadFileDTO;
 import org.shanoir.ng.dataset.modality.MrDataset;
 import org.shanoir.ng.dataset.modality.MrQualityProcedureType;
 import org.shanoir.ng.dataset.modality.PetDataset;
 import org.shanoir.ng.dataset.model.Dataset;
+import org.shanoir.ng.dataset.model.DatasetExpressionFormat;
 import org.shanoir.ng.dataset.repository.DatasetRepository;
 import org.shanoir.ng.shared.exception.ShanoirException;
 import org.shanoir.ng.utils.ModelsUtil;
@@ -147,6 +151,46 @@ public class DatasetRepositoryTest {
 		assertEquals("Pet", ((PetDataset)foundedPet1).getType());
 	}
 	
+	@Test
+	public void findDownloadFilesByStudyIdTest() {
+		List<DatasetDownloadFileDTO> files = repository.findDownloadFilesByStudyId(1L,
+				Arrays.asList(DatasetExpressionFormat.NIFTI_SINGLE_FILE.getId()));
+		assertEquals(1, files.size());
+		DatasetDownloadFileDTO file = files.get(0);
+		assertEquals(Long.valueOf(1L), file.getDatasetId());
+		assertEquals(DatasetExpressionFormat.NIFTI_SINGLE_FILE, file.getFormat());
+		assertEquals("file:///tmp/dataset1.nii", file.getPath());
+		assertEquals(Integer.valueOf(1), file.getRank());
+		assertNotNull(file.getExaminationDate());
+
+		assertEquals(2, repository.findDownloadFilesByStudyId(1L, Arrays.asList(
+				DatasetExpressionFormat.NIFTI_SINGLE_FILE.getId(), DatasetExpressionFormat.DICOM.getId())).size());
+		assertTrue(repository.findDownloadFilesByStudyId(3L, Arrays.asList(
+				DatasetExpressionFormat.NIFTI_SINGLE_FILE.getId())).isEmpty());
+	}
+
+	@Test
+	public void findDownloadFilesByStudyIdAndDatasetStudyIdInTest() {
+		List<Integer> formats = Arrays.asList(DatasetExpressionFormat.NIFTI_SINGLE_FILE.getId());
+		List<DatasetDownloadFileDTO> files = repository.findDownloadFilesByStudyIdAndDatasetStudyIdIn(1L, formats,
+				Arrays.asList(1L, 3L));
+		assertEquals(1, files.size());
+		assertEquals(Long.valueOf(1L), files.get(0).getDatasetId());
+		assertTrue(repository.findDownloadFilesByStudyIdAndDatasetStudyIdIn(1L, formats, Arrays.asList(3L)).isEmpty());
+	}
+
+	@Test
+	public void findStudyIdsByIdInTest() {
+		List<Object[]> rows = repository.findStudyIdsByIdIn(Arrays.asList(1L, 3L, 999L));
+		assertEquals(2, rows.size());
+		Map<Long, Long> studyIdByDatasetId = new HashMap<>();
+		for (Object[] row : rows) {
+			studyIdByDatasetId.put((Long) row[0], (Long) row[1]);
+		}
+		assertEquals(Long.valueOf(1L), studyIdByDatasetId.get(1L));
+		assertEquals(Long.valueOf(3L), studyIdByDatasetId.get(3L));
+	}
+
 	@Test
 	public void loadingStrategyTest() throws ShanoirException {
 		assertNotNull(repository.findOne(1L).getDatasetAcquisition());
@@ -0,0 +1,155 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.dataset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.shanoir.ng.dataset.repository.DatasetRepository;
+import org.shanoir.ng.dataset.security.DatasetSecurityService;
+import org.shanoir.ng.datasetacquisition.repository.DatasetAcquisitionRepository;
+import org.shanoir.ng.examination.repository.ExaminationRepository;
+import org.shanoir.ng.shared.exception.EntityNotFoundException;
+import org.shanoir.ng.shared.repository.StudyRepository;
+import org.shanoir.ng.study.rights.StudyRightsService;
+import org.shanoir.ng.utils.usermock.WithMockKeycloakUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * Batch checks of the dataset security service.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class DatasetSecurityServiceTest {
+
+	private static final long LOGGED_USER_ID = 2L;
+	private static final String LOGGED_USER_USERNAME = "logged";
+	private static final String RIGHT = "CAN_DOWNLOAD";
+
+	@Autowired
+	private DatasetSecurityService service;
+
+	@MockBean
+	private DatasetRepository datasetRepository;
+
+	@MockBean
+	private DatasetAcquisitionRepository datasetAcquisitionRepository;
+
+	@MockBean
+	private ExaminationRepository examinationRepository;
+
+	@MockBean
+	private StudyRepository studyRepository;
+
+	@MockBean
+	private StudyRightsService rightsService;
+
+	@Test
+	@WithMockKeycloakUser(id = LOGGED_USER_ID, username = LOGGED_USER_USERNAME, authorities = { "ROLE_USER" })
+	public void hasRightOnEveryDatasetTest() throws EntityNotFoundException {
+		List<Long> datasetIds = new ArrayList<>();
+		List<Object[]> rows = new ArrayList<>();
+		for (long id = 1; id <= 1000; id++) {
+			datasetIds.add(id);
+			rows.add(new Object[] { id, id % 2 == 0 ? 1L : 2L });
+		}
+		given(datasetRepository.findStudyIdsByIdIn(Mockito.anyCollectionOf(Long.class))).willReturn(rows);
+		given(studyRepository.findRelatedStudyIdsByDatasetIdIn(Mockito.anyCollectionOf(Long.class))).willReturn(Collections.emptyList());
+		given(rightsService.hasRightOnStudies(eq(new HashSet<>(Arrays.asList(1L, 2L))), eq(RIGHT))).willReturn(new HashSet<>(Arrays.asList(1L, 2L)));
+
+		assertTrue(service.hasRightOnEveryDataset(datasetIds, RIGHT));
+
+		// One projection for the studies, one for the related studies, one rights lookup
+		verify(datasetRepository, times(1)).findStudyIdsByIdIn(Mockito.anyCollectionOf(Long.class));
+		verify(studyRepository, times(1)).findRelatedStudyIdsByDatasetIdIn(Mockito.anyCollectionOf(Long.class));
+		verify(rightsService, times(1)).hasRightOnStudies(Mockito.anySetOf(Long.class), anyString());
+		verify(datasetRepository, never()).findOne(anyLong());
+	}
+
+	@Test
+	@WithMockKeycloakUser(id = LOGGED_USER_ID, username = LOGGED_USER_USERNAME, authorities = { "ROLE_USER" })
+	public void filterDatasetIdsWithRelatedStudyTest() {
+		given(datasetRepository.findStudyIdsByIdIn(Mockito.anyCollectionOf(Long.class))).willReturn(Arrays.asList(
+				new Object[] { 1L, 1L }, new Object[] { 2L, 2L }, new Object[] { 3L, null }));
+		List<Object[]> related = new ArrayList<>();
+		related.add(new Object[] { 2L, 3L });
+		given(studyRepository.findRelatedStudyIdsByDatasetIdIn(Mockito.anyCollectionOf(Long.class))).willReturn(related);
+		given(rightsService.hasRightOnStudies(eq(new HashSet<>(Arrays.asList(1L, 2L, 3L))), eq(RIGHT))).willReturn(new HashSet<>(Arrays.asList(3L)));
+
+		Set<Long> validIds = service.filterDatasetIds(Arrays.asList(1L, 2L, 3L), RIGHT);
+
+		assertEquals(Collections.singleton(2L), validIds);
+	}
+
+	@Test(expected = EntityNotFoundException.class)
+	@WithMockKeycloakUser(id = LOGGED_USER_ID, username = LOGGED_USER_USERNAME, authorities = { "ROLE_USER" })
+	public void hasRightOnEveryDatasetNotFoundTest() throws EntityNotFoundException {
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(new Object[] { 1L, 1L });
+		given(datasetRepository.findStudyIdsByIdIn(Mockito.anyCollectionOf(Long.class))).willReturn(rows);
+
+		service.hasRightOnEveryDataset(Arrays.asList(1L, 2L), RIGHT);
+	}
+
+	@Test
+	@WithMockKeycloakUser(id = LOGGED_USER_ID, username = LOGGED_USER_USERNAME, authorities = { "ROLE_USER" })
+	public void hasRightOnEveryDatasetAcquisitionTest() throws EntityNotFoundException {
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(new Object[] { 1L, 1L });
+		rows.add(new Object[] { 2L, 2L });
+		given(datasetAcquisitionRepository.findStudyIdsByIdIn(Mockito.anyCollectionOf(Long.class))).willReturn(rows);
+		given(rightsService.hasRightOnStudies(Mockito.anySetOf(Long.class), eq(RIGHT))).willReturn(new HashSet<>(Arrays.asList(1L)));
+
+		assertFalse(service.hasRightOnEveryDatasetAcquisition(Arrays.asList(1L, 2L), RIGHT));
+		verify(datasetAcquisitionRepository, never()).findOne(anyLong());
+	}
+
+	@Test
+	@WithMockKeycloakUser(id = LOGGED_USER_ID, username = LOGGED_USER_USERNAME, authorities = { "ROLE_USER" })
+	public void hasRightOnEveryExaminationTest() throws EntityNotFoundException {
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(new Object[] { 1L, 1L });
+		rows.add(new Object[] { 2L, 1L });
+		given(examinationRepository.findStudyIdsByIdIn(Mockito.anyCollectionOf(Long.class))).willReturn(rows);
+		given(rightsService.hasRightOnStudies(Mockito.anySetOf(Long.class), eq(RIGHT))).willReturn(new HashSet<>(Arrays.asList(1L)));
+
+		assertTrue(service.hasRightOnEveryExamination(Arrays.asList(1L, 2L), RIGHT));
+		verify(rightsService, times(1)).hasRightOnStudies(Mockito.<Set<Long>>any(), anyString());
+	}
+
+}
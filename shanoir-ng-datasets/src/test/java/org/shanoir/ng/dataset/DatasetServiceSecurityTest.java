@@ -25,6 +25,7 @@ import static org.shanoir.ng.utils.assertion.AssertUtils.assertAccessDenied;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -36,6 +37,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.shanoir.ng.dataset.modality.MrDataset;
 import org.shanoir.ng.dataset.model.Dataset;
+import org.shanoir.ng.dataset.model.DatasetExpressionFormat;
 import org.shanoir.ng.dataset.repository.DatasetRepository;
 import org.shanoir.ng.dataset.service.DatasetService;
 import org.shanoir.ng.shared.exception.ShanoirException;
@@ -104,6 +106,8 @@ public class DatasetServiceSecurityTest {
 		assertAccessDenied(service::findById, ENTITY_ID);
 		assertAccessDenied(service::findAll);
 		assertAccessDenied(service::findPage, new PageRequest(0, 10));
+		Collection<DatasetExpressionFormat> formats = Arrays.asList(DatasetExpressionFormat.DICOM);
+		assertAccessDenied(service::findDownloadFilesByStudyId, 1L, formats);
 		assertAccessDenied(service::create, mockDataset());
 		assertAccessDenied(service::update, mockDataset(1L));
 		assertAccessDenied(service::deleteById, ENTITY_ID);
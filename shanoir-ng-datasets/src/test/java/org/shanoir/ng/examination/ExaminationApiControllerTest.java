@@ -35,6 +35,7 @@ import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.shanoir.ng.examination.controler.ExaminationApiController;
+import org.shanoir.ng.examination.dto.ExaminationDTO;
 import org.shanoir.ng.examination.dto.mapper.ExaminationMapper;
 import org.shanoir.ng.examination.model.Examination;
 import org.shanoir.ng.examination.repository.ExaminationRepository;
@@ -126,7 +127,7 @@ public class ExaminationApiControllerTest {
 		gson = new GsonBuilder().setDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").create();
 
 		doNothing().when(examinationServiceMock).deleteById(1L);
-		given(examinationServiceMock.findPage(Mockito.any(Pageable.class), Mockito.eq(false))).willReturn(new PageImpl<Examination>(Arrays.asList(new Examination())));
+		given(examinationServiceMock.findListPage(Mockito.any(Pageable.class), Mockito.eq(false))).willReturn(new PageImpl<ExaminationDTO>(Arrays.asList(new ExaminationDTO())));
 		Examination exam = new Examination();
 		exam.setId(Long.valueOf(123));
 		given(examinationServiceMock.save(Mockito.any(Examination.class))).willReturn(exam);
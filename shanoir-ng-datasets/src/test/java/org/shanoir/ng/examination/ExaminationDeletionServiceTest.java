@@ -0,0 +1,124 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+
+package org.shanoir.ng.examination;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.shanoir.ng.examination.model.Examination;
+import org.shanoir.ng.examination.repository.ExaminationRepository;
+import org.shanoir.ng.examination.service.ExaminationDeletionService;
+import org.shanoir.ng.shared.event.ShanoirEvent;
+import org.shanoir.ng.shared.event.ShanoirEventService;
+import org.shanoir.ng.shared.event.ShanoirEventType;
+import org.shanoir.ng.shared.repository.StudyRepository;
+import org.shanoir.ng.shared.repository.SubjectRepository;
+import org.shanoir.ng.shared.repository.SubjectStudyRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Background deletion of the examinations of a study or a subject.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ExaminationDeletionServiceTest {
+
+	private static final Long STUDY_ID = 1L;
+
+	private static final Long SUBJECT_ID = 2L;
+
+	private static final Long USER_ID = 3L;
+
+	@Mock
+	private ExaminationRepository examinationRepository;
+
+	@Mock
+	private StudyRepository studyRepository;
+
+	@Mock
+	private SubjectRepository subjectRepository;
+
+	@Mock
+	private SubjectStudyRepository subjectStudyRepository;
+
+	@Mock
+	private ShanoirEventService eventService;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@InjectMocks
+	private ExaminationDeletionService service;
+
+	@After
+	public void tearDown() {
+		service.shutdown();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void deleteStudyByChunksTest() throws InterruptedException, ExecutionException {
+		List<Long> examinationIds = new ArrayList<>();
+		for (long id = 1; id <= 120; id++) {
+			examinationIds.add(id);
+		}
+		given(examinationRepository.findIdsByStudyId(STUDY_ID)).willReturn(examinationIds);
+
+		service.deleteStudy(STUDY_ID, USER_ID).get();
+
+		// 120 examinations: 3 chunks, then the study itself
+		Mockito.verify(examinationRepository, Mockito.times(3)).findAll(Mockito.anyListOf(Long.class));
+		Mockito.verify(examinationRepository, Mockito.times(3)).delete(Mockito.any(Iterable.class));
+		Mockito.verify(examinationRepository, Mockito.never()).delete(Mockito.any(Examination.class));
+		Mockito.verify(subjectStudyRepository).deleteByStudyId(STUDY_ID);
+		Mockito.verify(studyRepository).delete(STUDY_ID);
+
+		// start, one progress per chunk, end
+		ArgumentCaptor<ShanoirEvent> eventCaptor = ArgumentCaptor.forClass(ShanoirEvent.class);
+		Mockito.verify(eventService, Mockito.times(5)).publishEvent(eventCaptor.capture());
+		ShanoirEvent event = eventCaptor.getValue();
+		assertEquals(ShanoirEventType.DELETE_STUDY_DATA_EVENT, event.getEventType());
+		assertEquals(USER_ID, event.getUserId());
+		assertEquals(ShanoirEvent.SUCCESS, event.getStatus());
+	}
+
+	@Test
+	public void deleteSubjectErrorTest() throws InterruptedException, ExecutionException {
+		List<Long> examinationIds = new ArrayList<>();
+		examinationIds.add(1L);
+		given(examinationRepository.findIdsBySubjectId(SUBJECT_ID)).willReturn(examinationIds);
+		Mockito.doThrow(new IllegalStateException("constraint")).when(subjectRepository).delete(SUBJECT_ID);
+
+		service.deleteSubject(SUBJECT_ID, USER_ID).get();
+
+		Mockito.verify(subjectStudyRepository).deleteBySubjectId(SUBJECT_ID);
+		ArgumentCaptor<ShanoirEvent> eventCaptor = ArgumentCaptor.forClass(ShanoirEvent.class);
+		Mockito.verify(eventService, Mockito.times(3)).publishEvent(eventCaptor.capture());
+		assertEquals(ShanoirEvent.ERROR, eventCaptor.getValue().getStatus());
+	}
+
+}
@@ -19,13 +19,20 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.util.Iterator;
 import java.util.List;
 
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.shanoir.ng.examination.dto.ExaminationDTO;
 import org.shanoir.ng.examination.model.Examination;
 import org.shanoir.ng.examination.repository.ExaminationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -52,6 +59,9 @@ public class ExaminationRepositoryTest {
 	@Autowired
 	private ExaminationRepository repository;
 
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
 	/*
 	 * Mocks used to avoid unsatisfied dependency exceptions.
 	 */
@@ -88,6 +98,29 @@ public class ExaminationRepositoryTest {
 	// 	assertThat(examinationsDb.size()).isEqualTo(2);
 	// }
 
+	@Test
+	public void findListByPreclinicalTest() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		try {
+			Page<ExaminationDTO> examinations = repository.findListByPreclinical(false, new PageRequest(0, 10));
+			assertThat(examinations.getContent().size()).isEqualTo(3);
+			assertThat(examinations.getContent().get(0).getNote()).isNotNull();
+			// One count and one select for the content, whatever the number of rows
+			assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+		} finally {
+			statistics.setStatisticsEnabled(false);
+		}
+	}
+
+	@Test
+	public void findListByPreclinicalAndIdLessThanTest() throws Exception {
+		List<ExaminationDTO> examinations = repository.findListByPreclinicalAndIdLessThan(false, 3L, new PageRequest(0, 10));
+		assertThat(examinations.size()).isEqualTo(2);
+		assertThat(examinations.get(0).getId()).isEqualTo(2L);
+	}
+
 	@Test
 	public void findBySubjectId() throws Exception {
 		List<Examination> examinationsDb = repository.findBySubjectId(SUBJECT_TEST_1_ID);
@@ -92,6 +92,8 @@ public class ExaminationServiceSecurityTest {
 		given(rightsService.hasRightOnStudies(ids, Mockito.anyString())).willReturn(ids);
 		assertAccessDenied(service::findById, ENTITY_ID);
 		assertAccessDenied(service::findPage, new PageRequest(0, 10), false);
+		assertAccessDenied(service::findListPage, new PageRequest(0, 10), false);
+		assertAccessDenied(service::findListAfter, null, 10, false);
 		assertAccessDenied(service::findBySubjectId, 1L);
 		assertAccessDenied(service::findBySubjectIdStudyId, 1L, 1L);
 		assertAccessDenied(service::save, mockExam());
@@ -130,6 +132,7 @@ public class ExaminationServiceSecurityTest {
 	public void testAsAdmin() throws ShanoirException {
 		assertAccessAuthorized(service::findById, ENTITY_ID);
 		assertAccessAuthorized(service::findPage, new PageRequest(0, 10), false);
+		assertAccessAuthorized(service::findListPage, new PageRequest(0, 10), false);
 		assertAccessAuthorized(service::findBySubjectId, 1L);
 		assertAccessAuthorized(service::findBySubjectIdStudyId, 1L, 1L);
 		assertAccessAuthorized(service::save, mockExam());
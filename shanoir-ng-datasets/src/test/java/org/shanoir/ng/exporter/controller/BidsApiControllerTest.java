@@ -1,7 +1,11 @@
 package org.shanoir.ng.exporter.controller;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.OutputStream;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
@@ -32,6 +36,8 @@ public class BidsApiControllerTest {
 
 	private static final String REQUEST_PATH_EXPORT = REQUEST_PATH + "/exportBIDS/studyId/1";
 
+	private static final String REQUEST_PATH_EXPORT_ZIP = REQUEST_PATH + "/exportBIDSZip/studyId/1/studyName/Name";
+
 	@MockBean
 	BIDSService bidsService;
 
@@ -68,4 +74,15 @@ public class BidsApiControllerTest {
 
 		// THEN the service is called
 	}
+
+	@Test
+	public void testExportBIDSZip() throws Exception  {
+		// GIVEN a study to export
+
+		// WHEN we call the API to stream the zip
+		mvc.perform(MockMvcRequestBuilders.get(REQUEST_PATH_EXPORT_ZIP)).andExpect(status().isOk());
+
+		// THEN the service writes it directly in the response
+		Mockito.verify(bidsService).exportAsBidsZip(eq(1L), eq("Name"), any(OutputStream.class));
+	}
 }
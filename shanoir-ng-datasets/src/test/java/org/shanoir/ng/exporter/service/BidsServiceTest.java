@@ -3,11 +3,22 @@ package org.shanoir.ng.exporter.service;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import org.apache.commons.io.FileUtils;
 import org.junit.After;
@@ -20,6 +31,7 @@ import org.mockito.Spy;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.shanoir.ng.configuration.amqp.SubjectStudyReplicaService;
 import org.shanoir.ng.dataset.modality.EegDataset;
 import org.shanoir.ng.dataset.modality.MrDataset;
 import org.shanoir.ng.dataset.model.Dataset;
@@ -32,10 +44,12 @@ import org.shanoir.ng.examination.model.Examination;
 import org.shanoir.ng.examination.service.ExaminationService;
 import org.shanoir.ng.importer.dto.Subject;
 import org.shanoir.ng.shared.configuration.RabbitMQConfiguration;
+import org.shanoir.ng.shared.repository.SubjectRepository;
 import org.shanoir.ng.utils.KeycloakUtil;
 import org.shanoir.ng.utils.ModelsUtil;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
@@ -53,6 +67,15 @@ public class BidsServiceTest {
 	@Mock
 	private RabbitTemplate rabbitTemplate;
 
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private SubjectRepository subjectRepository;
+
+	@Mock
+	private SubjectStudyReplicaService subjectStudyReplicaService;
+
 	@InjectMocks
 	@Spy
 	private BIDSServiceImpl service = new BIDSServiceImpl();
@@ -137,6 +160,52 @@ public class BidsServiceTest {
 		assertTrue(bidsDataFile.exists());
 	}
 
+	@Test
+	public void testExportAsBidsFromLocalSubjects() throws IOException {
+		//GIVEN a study whose subjects are replicated locally
+		given(subjectStudyReplicaService.isBootstrapped()).willReturn(true);
+		org.shanoir.ng.shared.model.Subject localSubject = new org.shanoir.ng.shared.model.Subject(subject.getId(), subject.getName());
+		given(subjectRepository.findByStudyId(exam.getStudyId())).willReturn(Collections.singletonList(localSubject));
+		given(examService.findBySubjectId(subject.getId())).willReturn(Collections.singletonList(exam));
+
+		// WHEN we export the data
+		service.exportAsBids(exam.getStudyId(), studyName);
+
+		// THEN the subject folder is generated without asking studies MS
+		File studyFile = new File(tempFolderPath + "stud-" + exam.getStudyId() + "_" + studyName);
+		File subjectFile = new File(studyFile.getAbsolutePath() + "/sub-" + subject.getId() + "_" + subject.getName());
+		assertTrue(subjectFile.exists());
+		verify(rabbitTemplate, never()).convertSendAndReceive(anyString(), any(Object.class));
+	}
+
+	@Test
+	public void testExportAsBidsZip() throws IOException {
+		//GIVEN a study full of data
+		Subject[] subjects = {subject};
+		ObjectMapper mapper = new ObjectMapper();
+		String value = mapper.writeValueAsString(subjects);
+		given(rabbitTemplate.convertSendAndReceive(RabbitMQConfiguration.DATASET_SUBJECT_QUEUE, exam.getStudyId())).willReturn(value);
+		given(examService.findBySubjectId(subject.getId())).willReturn(Collections.singletonList(exam));
+
+		// WHEN we stream the data as a zip
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		service.exportAsBidsZip(exam.getStudyId(), studyName, outputStream);
+
+		// THEN the zip contains study - subject - exam - data, and no BIDS folder is created
+		Set<String> entries = new HashSet<>();
+		try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+			ZipEntry entry;
+			while ((entry = zis.getNextEntry()) != null) {
+				entries.add(entry.getName());
+			}
+		}
+		String subjectFolder = "sub-" + subject.getId() + "_" + subject.getName();
+		assertTrue(entries.contains("dataset_description.json"));
+		assertTrue(entries.contains(subjectFolder + "/ses-" + exam.getId() + "/anat/test.test"));
+		assertTrue(entries.contains(subjectFolder + "/" + subjectFolder + "_scans.tsv"));
+		assertFalse(new File(tempFolderPath + "stud-" + exam.getStudyId() + "_" + studyName).exists());
+	}
+
 	@Test
 	public void testAddDataset() throws IOException {
 		// GIVEN a study with existing BIDS folder
@@ -0,0 +1,129 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+
+package org.shanoir.ng.solr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.shanoir.ng.dataset.repository.DatasetRepository;
+import org.shanoir.ng.shared.security.rights.StudyUserRight;
+import org.shanoir.ng.solr.repository.ShanoirMetadataRepository;
+import org.shanoir.ng.solr.repository.SolrRepository;
+import org.shanoir.ng.solr.service.SolrSchemaService;
+import org.shanoir.ng.solr.service.SolrServiceImpl;
+import org.shanoir.ng.study.rights.StudyUserRightsRepository;
+import org.shanoir.ng.utils.KeycloakUtil;
+
+/**
+ * Autocompletion and deletions of the solr service.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(KeycloakUtil.class)
+public class SolrServiceTest {
+
+	private static final Long USER_ID = 2L;
+
+	@Mock
+	private SolrRepository solrRepository;
+
+	@Mock
+	private ShanoirMetadataRepository shanoirMetadataRepository;
+
+	@Mock
+	private StudyUserRightsRepository rightsRepository;
+
+	@Mock
+	private SolrSchemaService solrSchemaService;
+
+	@Mock
+	private DatasetRepository datasetRepository;
+
+	@InjectMocks
+	private SolrServiceImpl solrService;
+
+	@Before
+	public void setup() {
+		PowerMockito.mockStatic(KeycloakUtil.class);
+		when(KeycloakUtil.getTokenUserId()).thenReturn(USER_ID);
+		when(KeycloakUtil.getTokenRoles()).thenReturn(Collections.singleton("ROLE_USER"));
+	}
+
+	@Test
+	public void suggestFilteredByRightsTest() {
+		List<Long> studyIds = Arrays.asList(1L, 3L);
+		given(rightsRepository.findDistinctStudyIdByUserId(USER_ID, StudyUserRight.CAN_SEE_ALL.getId())).willReturn(studyIds);
+		given(solrRepository.findSuggestions("subjectName", Arrays.asList("sub", "01"), studyIds, 5))
+				.willReturn(Arrays.asList("SUB_01", "sub-012"));
+
+		Map<String, List<String>> suggestions = solrService.suggest("Sub_01", "subjectName", 5);
+
+		assertEquals(Collections.singleton("subjectName"), suggestions.keySet());
+		assertEquals(Arrays.asList("SUB_01", "sub-012"), suggestions.get("subjectName"));
+	}
+
+	@Test
+	public void suggestAllFieldsTest() {
+		when(KeycloakUtil.getTokenRoles()).thenReturn(Collections.singleton("ROLE_ADMIN"));
+		String longWord = "abcdefghijklmnopqrstuvwxyz";
+
+		Map<String, List<String>> suggestions = solrService.suggest(longWord, null, 10);
+
+		assertEquals(SolrSchemaService.SUGGESTED_FIELDS.size(), suggestions.size());
+		// admin: no study filter, words cut to the longest indexed prefix
+		Mockito.verify(solrRepository).findSuggestions("centerName",
+				Collections.singletonList(longWord.substring(0, SolrSchemaService.MAX_GRAM_SIZE)), null, 10);
+		Mockito.verify(rightsRepository, Mockito.never()).findDistinctStudyIdByUserId(Mockito.anyLong(), Mockito.anyInt());
+	}
+
+	@Test
+	public void suggestWithoutStudyTest() {
+		given(rightsRepository.findDistinctStudyIdByUserId(USER_ID, StudyUserRight.CAN_SEE_ALL.getId())).willReturn(Collections.emptyList());
+
+		assertTrue(solrService.suggest("study", null, 10).isEmpty());
+		assertTrue(solrService.suggest(" - ", null, 10).isEmpty());
+		Mockito.verifyZeroInteractions(solrRepository);
+	}
+
+	@Test
+	public void deleteSubjectFromIndexTest() {
+		// GIVEN a subject with two datasets
+		List<Long> datasetIds = Arrays.asList(10L, 11L);
+		given(datasetRepository.findIdsBySubjectId(1L)).willReturn(datasetIds);
+
+		// WHEN the subject is deleted from the index
+		solrService.deleteSubjectFromIndex(1L);
+
+		// THEN its documents are deleted by subject id, and by dataset id for the ones indexed without it
+		Mockito.verify(solrRepository).deleteBySubjectId(1L, datasetIds);
+	}
+
+}
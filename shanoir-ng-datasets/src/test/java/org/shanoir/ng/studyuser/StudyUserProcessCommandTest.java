@@ -17,6 +17,7 @@ package org.shanoir.ng.studyuser;
 import static org.mockito.BDDMockito.given;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Test;
@@ -53,7 +54,11 @@ public class StudyUserProcessCommandTest {
 		commands.add(new StudyUserCommand(CommandType.DELETE, 1L));
 		commands.add(new StudyUserCommand(CommandType.CREATE, makeSU()));
 		service.processCommands(commands);
-        
+
+		// deletions are bulk statements, not one delete per study user
+		Mockito.verify(studyUserRepository).deleteRightsByStudyUserIdIn(Collections.singleton(1L));
+		Mockito.verify(studyUserRepository).deleteByIdIn(Collections.singleton(1L));
+		Mockito.verify(studyUserRepository, Mockito.never()).delete(Mockito.anyLong());
     }
 	
 	private StudyUser makeSU() {
@@ -2,6 +2,18 @@ package org.shanoir.ng.exchange.imports.dicom;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
@@ -9,7 +21,6 @@ import org.dcm4che3.data.UID;
 import org.dcm4che3.data.VR;
 import org.dcm4che3.io.DicomEncodingOptions;
 import org.dcm4che3.io.DicomInputStream;
-import org.dcm4che3.media.DicomDirReader;
 import org.dcm4che3.media.DicomDirWriter;
 import org.dcm4che3.media.RecordFactory;
 import org.dcm4che3.media.RecordType;
@@ -21,7 +32,12 @@ import org.springframework.stereotype.Service;
 
 /**
  * This bean generates a DICOMDIR file.
- * 
+ *
+ * The headers of the files are read in parallel, up to the pixel data, and
+ * the patient/study/series/instance records are merged in memory. The DICOMDIR
+ * is then written in one pass, in the order of the file paths, so that the
+ * same directory always gives the same DICOMDIR.
+ *
  * @author mkain
  *
  */
@@ -30,148 +46,232 @@ public class DicomDirGeneratorService {
 
 	private static final Logger LOG = LoggerFactory.getLogger(DicomDirGeneratorService.class);
 
-	private DicomEncodingOptions encOpts = DicomEncodingOptions.DEFAULT;
-
-	private FilesetInfo fsInfo = new FilesetInfo();
-
-	private boolean checkDuplicate = false;
+	/** Number of files whose header is read at the same time. */
+	private static final int HEADER_READER_THREADS = 4;
 
-	private RecordFactory recFact = new RecordFactory();
+	/** Preamble (128 bytes) + "DICM", the smallest DICOM file with a header. */
+	private static final long MIN_DICOM_FILE_SIZE = 132;
 
-	private DicomDirReader in;
+	private DicomEncodingOptions encOpts = DicomEncodingOptions.DEFAULT;
 
-	private DicomDirWriter out;
+	private FilesetInfo fsInfo = new FilesetInfo();
 
 	public void generateDicomDirFromDirectory(File dicomDir, File directory) throws IOException {
-		createDicomDir(dicomDir);
-		addReferenceTo(directory, dicomDir);
-		close();
+		List<Path> files = listFiles(dicomDir, directory);
+		RecordFactory recFact = new RecordFactory();
+		// Loaded once here, so that the workers only read the configuration
+		recFact.loadDefaultConfiguration();
+		DicomDirWriter out = createDicomDir(dicomDir);
+		try {
+			List<InstanceRecords> instances = readHeaders(files, out, recFact);
+			addRecords(out, instances);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Lists the regular files under a directory, sorted by path, without the
+	 * DICOMDIR itself.
+	 */
+	private List<Path> listFiles(File dicomDir, File directory) throws IOException {
+		Path dicomDirPath = dicomDir.toPath().toAbsolutePath().normalize();
+		try (Stream<Path> paths = Files.walk(directory.toPath())) {
+			return paths.filter(Files::isRegularFile)
+					.filter(path -> !path.toAbsolutePath().normalize().equals(dicomDirPath))
+					.sorted()
+					.collect(Collectors.toList());
+		}
 	}
 
-	private void createDicomDir(File file) throws IOException {
+	private DicomDirWriter createDicomDir(File file) throws IOException {
 		DicomDirWriter.createEmptyDirectory(file, UIDUtils.createUIDIfNull(fsInfo.getFilesetUID()),
 				fsInfo.getFilesetID(), fsInfo.getDescriptorFile(), fsInfo.getDescriptorFileCharset());
-		in = out = DicomDirWriter.open(file);
+		DicomDirWriter out = DicomDirWriter.open(file);
 		out.setEncodingOptions(encOpts);
+		return out;
 	}
 
-	private int addReferenceTo(File f, File dicomDir) throws IOException {
-		int n = 0;
-		if (f.isDirectory()) {
-			for (String s : f.list()) {
-				n += addReferenceTo(new File(f, s), dicomDir);
-			}
-			return n;
+	/**
+	 * Reads the headers of the files with a bounded pool of workers.
+	 *
+	 * @return the records of the DICOM files, in the order of the files
+	 */
+	private List<InstanceRecords> readHeaders(List<Path> files, DicomDirWriter out, RecordFactory recFact)
+			throws IOException {
+		List<InstanceRecords> instances = new ArrayList<>(files.size());
+		if (files.isEmpty()) {
+			return instances;
 		}
-		// do not add reference to DICOMDIR
-		if (f.equals(dicomDir)) {
-			return 0;
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(HEADER_READER_THREADS, files.size()));
+		try {
+			List<Future<InstanceRecords>> futures = new ArrayList<>(files.size());
+			for (Path path : files) {
+				futures.add(executor.submit(() -> readHeader(path.toFile(), out, recFact)));
+			}
+			for (Future<InstanceRecords> future : futures) {
+				InstanceRecords instance = future.get();
+				if (instance != null) {
+					instances.add(instance);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading DICOM headers.", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Failed to read DICOM headers: " + e.getCause().getMessage(), e.getCause());
+		} finally {
+			executor.shutdownNow();
 		}
+		return instances;
+	}
 
+	/**
+	 * Reads the header of a file and creates its directory records.
+	 *
+	 * @return the records, null if the file is not a DICOM file to reference
+	 */
+	private InstanceRecords readHeader(File f, DicomDirWriter out, RecordFactory recFact) {
+		if (f.length() < MIN_DICOM_FILE_SIZE) {
+			LOG.debug("skip file '" + f + "': too small to be a DICOM file");
+			return null;
+		}
 		Attributes fmi;
 		Attributes dataset;
-		DicomInputStream din = null;
-		try {
-			din = new DicomInputStream(f);
+		try (DicomInputStream din = new DicomInputStream(f)) {
 			din.setIncludeBulkData(DicomInputStream.IncludeBulkData.NO);
 			fmi = din.readFileMetaInformation();
 			dataset = din.readDataset(-1, Tag.PixelData);
-		} catch (IOException e) {
+		} catch (IOException | RuntimeException e) {
 			LOG.error("failed to parse image '" + f + "' - " + e.getMessage());
-			return 0;
-		} finally {
-			if (din != null) {
-				try {
-					din.close();
-				} catch (Exception ignore) {
-				}
-			}
+			return null;
 		}
-		char prompt = '.';
 		if (fmi == null) {
 			fmi = dataset.createFileMetaInformation(UID.ImplicitVRLittleEndian);
-			prompt = 'F';
+		}
+		if (UID.MediaStorageDirectoryStorage.equals(fmi.getString(Tag.MediaStorageSOPClassUID, null))) {
+			LOG.info("skip DICOMDIR file '" + f + "'");
+			return null;
 		}
 		String iuid = fmi.getString(Tag.MediaStorageSOPInstanceUID, null);
 		if (iuid == null) {
 			LOG.error("skip DICOM file '" + f + "' without SOP Instance UID (0008, 0018)");
-			return 0;
+			return null;
 		}
-		return addRecords(dataset, n, out.toFileIDs(f), prompt, iuid, fmi);
+		return new InstanceRecords(dataset, fmi, out.toFileIDs(f), recFact);
 	}
 
-	private int addRecords(Attributes dataset, int num, String[] fileIDs, char prompt, String iuid, Attributes fmi)
-			throws IOException {
-		String pid = dataset.getString(Tag.PatientID, null);
-		String styuid = dataset.getString(Tag.StudyInstanceUID, null);
-		String seruid = dataset.getString(Tag.SeriesInstanceUID, null);
-
-		if (styuid != null) {
-			if (pid == null) {
-				dataset.setString(Tag.PatientID, VR.LO, pid = styuid);
-				prompt = prompt == 'F' ? 'P' : 'p';
-			}
-			Attributes patRec = in.findPatientRecord(pid);
-			if (patRec == null) {
-				patRec = recFact.createRecord(RecordType.PATIENT, null, dataset, null, null);
-				out.addRootDirectoryRecord(patRec);
-				num++;
+	/**
+	 * Merges the records of the instances under their patient, study and
+	 * series, in the order the instances come, then writes them.
+	 */
+	private void addRecords(DicomDirWriter out, List<InstanceRecords> instances) throws IOException {
+		Map<String, PatientNode> patients = new LinkedHashMap<>();
+		List<Attributes> rootInstances = new ArrayList<>();
+		for (InstanceRecords instance : instances) {
+			if (instance.studyUID == null) {
+				rootInstances.add(instance.instanceRecord);
+				continue;
 			}
-			Attributes studyRec = in.findStudyRecord(patRec, styuid);
-			if (studyRec == null) {
-				studyRec = recFact.createRecord(RecordType.STUDY, null, dataset, null, null);
-				out.addLowerDirectoryRecord(patRec, studyRec);
-				num++;
+			PatientNode patient = patients.computeIfAbsent(instance.patientID,
+					pid -> new PatientNode(instance.patientRecord));
+			StudyNode study = patient.studies.computeIfAbsent(instance.studyUID,
+					uid -> new StudyNode(instance.studyRecord));
+			if (instance.seriesUID == null) {
+				continue;
 			}
+			SeriesNode series = study.series.computeIfAbsent(instance.seriesUID,
+					uid -> new SeriesNode(instance.seriesRecord));
+			series.instances.add(instance.instanceRecord);
+		}
 
-			if (seruid != null) {
-				Attributes seriesRec = in.findSeriesRecord(studyRec, seruid);
-				if (seriesRec == null) {
-					seriesRec = recFact.createRecord(RecordType.SERIES, null, dataset, null, null);
-					out.addLowerDirectoryRecord(studyRec, seriesRec);
-					num++;
-				}
-
-				if (iuid != null) {
-					Attributes instRec;
-					if (checkDuplicate) {
-						instRec = in.findLowerInstanceRecord(seriesRec, false, iuid);
-						if (instRec != null) {
-							System.out.print('-');
-							return 0;
-						}
+		for (PatientNode patient : patients.values()) {
+			out.addRootDirectoryRecord(patient.record);
+			for (StudyNode study : patient.studies.values()) {
+				out.addLowerDirectoryRecord(patient.record, study.record);
+				for (SeriesNode series : study.series.values()) {
+					out.addLowerDirectoryRecord(study.record, series.record);
+					for (Attributes instanceRecord : series.instances) {
+						out.addLowerDirectoryRecord(series.record, instanceRecord);
 					}
-					instRec = recFact.createRecord(dataset, fmi, fileIDs);
-					out.addLowerDirectoryRecord(seriesRec, instRec);
-					num++;
 				}
 			}
-		} else {
-			if (iuid != null) {
-				if (checkDuplicate) {
-					if (in.findRootInstanceRecord(false, iuid) != null) {
-						System.out.print('-');
-						return 0;
-					}
+		}
+		for (Attributes instanceRecord : rootInstances) {
+			out.addRootDirectoryRecord(instanceRecord);
+		}
+	}
+
+	/**
+	 * The directory records of one DICOM file. Only the attributes needed by
+	 * the records are kept, not the whole header.
+	 */
+	private static class InstanceRecords {
+
+		private final String patientID;
+
+		private final String studyUID;
+
+		private final String seriesUID;
+
+		private Attributes patientRecord;
+
+		private Attributes studyRecord;
+
+		private Attributes seriesRecord;
+
+		private final Attributes instanceRecord;
+
+		InstanceRecords(Attributes dataset, Attributes fmi, String[] fileIDs, RecordFactory recFact) {
+			String pid = dataset.getString(Tag.PatientID, null);
+			this.studyUID = dataset.getString(Tag.StudyInstanceUID, null);
+			this.seriesUID = dataset.getString(Tag.SeriesInstanceUID, null);
+			if (studyUID != null) {
+				if (pid == null) {
+					dataset.setString(Tag.PatientID, VR.LO, pid = studyUID);
+				}
+				this.patientRecord = recFact.createRecord(RecordType.PATIENT, null, dataset, null, null);
+				this.studyRecord = recFact.createRecord(RecordType.STUDY, null, dataset, null, null);
+				if (seriesUID != null) {
+					this.seriesRecord = recFact.createRecord(RecordType.SERIES, null, dataset, null, null);
 				}
-				Attributes instRec = recFact.createRecord(dataset, fmi, fileIDs);
-				out.addRootDirectoryRecord(instRec);
-				prompt = prompt == 'F' ? 'R' : 'r';
-				num++;
 			}
+			this.patientID = pid;
+			this.instanceRecord = recFact.createRecord(dataset, fmi, fileIDs);
 		}
-		return num;
 	}
 
-	protected void close() {
-		if (in != null) {
-			try {
-				in.close();
-			} catch (IOException ignore) {
-			}
+	private static class PatientNode {
+
+		private final Attributes record;
+
+		private final Map<String, StudyNode> studies = new LinkedHashMap<>();
+
+		PatientNode(Attributes record) {
+			this.record = record;
+		}
+	}
+
+	private static class StudyNode {
+
+		private final Attributes record;
+
+		private final Map<String, SeriesNode> series = new LinkedHashMap<>();
+
+		StudyNode(Attributes record) {
+			this.record = record;
+		}
+	}
+
+	private static class SeriesNode {
+
+		private final Attributes record;
+
+		private final List<Attributes> instances = new ArrayList<>();
+
+		SeriesNode(Attributes record) {
+			this.record = record;
 		}
-		in = null;
-		out = null;
 	}
 
 }
@@ -1,11 +1,25 @@
 package org.shanoir.ng.exchange.imports.dicom;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.security.NoSuchAlgorithmException;
 
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.io.DicomOutputStream;
+import org.dcm4che3.media.DicomDirReader;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +27,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 @RunWith(MockitoJUnitRunner.class)
 public class DicomDirGeneratorServiceTest {
 
+	private static final String PATIENT_ID = "PATIENT1";
+
+	private static final String STUDY_UID = "1.2.250.1.1";
+
+	private static final String SERIES_1_UID = "1.2.250.1.1.1";
+
+	private static final String SERIES_2_UID = "1.2.250.1.1.2";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Autowired
 	private DicomDirGeneratorService dicomDirGeneratorService;
 
@@ -27,4 +52,50 @@ public class DicomDirGeneratorServiceTest {
 //				new File("/Users/mkain/Desktop/UCAN-SIM-dataset-5213f9fc-8251-4466-b1a8-194b528bc0af"));
 	}
 
+	@Test
+	public void testGenerateDicomDirFromHeaders() throws IOException {
+		File root = folder.newFolder("import");
+		writeDicomFile(new File(root, "b/IM2"), SERIES_1_UID, SERIES_1_UID + ".2");
+		writeDicomFile(new File(root, "a/IM1"), SERIES_1_UID, SERIES_1_UID + ".1");
+		writeDicomFile(new File(root, "a/IM3"), SERIES_2_UID, SERIES_2_UID + ".1");
+		Files.write(new File(root, "a/notes.txt").toPath(), "not a DICOM file".getBytes(StandardCharsets.UTF_8));
+		Files.write(new File(root, "a/empty").toPath(), new byte[0]);
+		File dicomDir = new File(root, "DICOMDIR");
+
+		dicomDirGeneratorService.generateDicomDirFromDirectory(dicomDir, root);
+
+		try (DicomDirReader reader = new DicomDirReader(dicomDir)) {
+			Attributes patient = reader.findPatientRecord(PATIENT_ID);
+			assertNotNull(patient);
+			assertNull(reader.readNextDirectoryRecord(patient));
+			Attributes study = reader.findStudyRecord(patient, STUDY_UID);
+			assertNotNull(study);
+			// Series and instances come in the order of the file paths
+			Attributes series1 = reader.readLowerDirectoryRecord(study);
+			assertEquals(SERIES_1_UID, series1.getString(Tag.SeriesInstanceUID));
+			Attributes instance1 = reader.readLowerDirectoryRecord(series1);
+			assertEquals(SERIES_1_UID + ".1", instance1.getString(Tag.ReferencedSOPInstanceUIDInFile));
+			Attributes instance2 = reader.readNextDirectoryRecord(instance1);
+			assertEquals(SERIES_1_UID + ".2", instance2.getString(Tag.ReferencedSOPInstanceUIDInFile));
+			assertNull(reader.readNextDirectoryRecord(instance2));
+			Attributes series2 = reader.readNextDirectoryRecord(series1);
+			assertEquals(SERIES_2_UID, series2.getString(Tag.SeriesInstanceUID));
+			assertNull(reader.readNextDirectoryRecord(series2));
+		}
+	}
+
+	private static void writeDicomFile(File file, String seriesUID, String instanceUID) throws IOException {
+		file.getParentFile().mkdirs();
+		Attributes dataset = new Attributes();
+		dataset.setString(Tag.SOPClassUID, VR.UI, UID.MRImageStorage);
+		dataset.setString(Tag.SOPInstanceUID, VR.UI, instanceUID);
+		dataset.setString(Tag.PatientID, VR.LO, PATIENT_ID);
+		dataset.setString(Tag.StudyInstanceUID, VR.UI, STUDY_UID);
+		dataset.setString(Tag.SeriesInstanceUID, VR.UI, seriesUID);
+		dataset.setString(Tag.Modality, VR.CS, "MR");
+		try (DicomOutputStream out = new DicomOutputStream(file)) {
+			out.writeDataset(dataset.createFileMetaInformation(UID.ExplicitVRLittleEndian), dataset);
+		}
+	}
+
 }
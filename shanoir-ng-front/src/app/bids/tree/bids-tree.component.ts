@@ -32,6 +32,8 @@ import { KeycloakService } from '../../shared/keycloak/keycloak.service';
 
 export class BidsTreeComponent implements OnDestroy, OnInit {
 
+    private static readonly PAGE_SIZE: number = 100;
+
     API_URL = AppUtils.BACKEND_API_BIDS_URL;
     @Input() studyId: number;
     public list: BidsElement[];
@@ -42,6 +44,7 @@ export class BidsTreeComponent implements OnDestroy, OnInit {
     private globalClickSubscription: Subscription;
     public load: string;
     private hasDownloadRight: boolean;
+    private loadingPaths: Set<string> = new Set<string>();
 
     constructor(private globalService: GlobalService,
                 private elementRef: ElementRef, 
@@ -68,32 +71,40 @@ export class BidsTreeComponent implements OnDestroy, OnInit {
     }
 
     getBidsStructure() {
-       if (!this.load) {
-        this.load="loading"
-            this.studyService.getBidsStructure(this.studyId).then(element => {
-                this.sort(element);
-                this.list = [element];
+        if (!this.load) {
+            this.load = "loading";
+            this.loadChildren(null).then(elements => {
+                this.list = elements;
                 this.load = "loaded";
             });
         }
     }
 
-    sort(element: BidsElement) {
-        if (element.elements) {
-            element.elements.sort(function(elem1, elem2) {
-                if (elem1.file && !elem2.file) {
-                    return 1
-                } else if (!elem1.file && elem2.file) {
-                    return -1;
-                } else if (elem1.file && elem2.file || !elem1.file && !elem2.file) {
-                    return elem1.path < elem2.path ? -1 : 1;
-                }
-            });
-            // Then sort all sub elements folders
-            for (let elem of element.elements) {
-                this.sort(elem);
-            }
-        }
+    /**
+     * Folders are loaded when first opened: the server sends them folders first, then by name.
+     */
+    openFolder(folder: BidsElement) {
+        this.loadingPaths.add(folder.path);
+        this.loadChildren(folder.path).then(elements => {
+            folder.elements = elements;
+            this.loadingPaths.delete(folder.path);
+        }, () => this.loadingPaths.delete(folder.path));
+    }
+
+    isLoading(element: BidsElement): boolean {
+        return this.loadingPaths.has(element.path);
+    }
+
+    hasChildren(element: BidsElement): boolean | 'unknown' {
+        if (element.file) return false;
+        return element.elements ? element.elements.length > 0 : 'unknown';
+    }
+
+    private loadChildren(path: string, page: number = 0, elements: BidsElement[] = []): Promise<BidsElement[]> {
+        return this.studyService.getBidsChildren(this.studyId, path, page, BidsTreeComponent.PAGE_SIZE).then(result => {
+            elements = elements.concat(result.content);
+            return page + 1 < result.totalPages ? this.loadChildren(path, page + 1, elements) : elements;
+        });
     }
 
     getFileName(element): string {
@@ -113,6 +124,22 @@ export class BidsTreeComponent implements OnDestroy, OnInit {
             return;
         }
         this.selectedIndex = id;
+        if (bidsElem.file && !bidsElem.content && this.hasContent(bidsElem)) {
+            // Files come without their content, which is only loaded for the sidecars
+            this.studyService.getBidsFile(this.studyId, bidsElem.path).then(file => {
+                bidsElem.content = file.content;
+                if (this.selectedIndex == id) this.showContent(bidsElem);
+            });
+        } else {
+            this.showContent(bidsElem);
+        }
+    }
+
+    private hasContent(bidsElem: BidsElement): boolean {
+        return bidsElem.path.indexOf('.json') != -1 || bidsElem.path.indexOf('.tsv') != -1;
+    }
+
+    private showContent(bidsElem: BidsElement) {
         if (bidsElem.content) {
             this.title = this.getFileName(bidsElem.path);
             if (bidsElem.path.indexOf('.json') != -1) {
@@ -11,13 +11,14 @@
  * You should have received a copy of the GNU General Public License
  * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
  */
-import { HttpClient, HttpResponse } from '@angular/common/http';
+import { HttpClient, HttpParams, HttpResponse } from '@angular/common/http';
 import { Injectable } from '@angular/core';
 import { Observable } from 'rxjs/Observable';
 
 import { BidsElement } from '../../bids/model/bidsElement.model';
 import { DataUserAgreement } from '../../dua/shared/dua.model';
 import { EntityService } from '../../shared/components/entity/entity.abstract.service';
+import { Page } from '../../shared/components/table/pageable.model';
 import { KeycloakService } from '../../shared/keycloak/keycloak.service';
 import { IdName } from '../../shared/models/id-name.model';
 import { SubjectWithSubjectStudy } from '../../subjects/shared/subject.with.subject-study.model';
@@ -160,12 +161,21 @@ export class StudyService extends EntityService<Study> {
         ).toPromise().then(response => {this.downloadIntoBrowser(response);});
     }
 
-    getBidsStructure(studyId: number): Promise<BidsElement> {
+    getBidsChildren(studyId: number, path: string, page: number, size: number): Promise<Page<BidsElement>> {
         if (!studyId) throw Error('study id is required');
-        return this.http.get<BidsElement>(AppUtils.BACKEND_API_STUDY_BIDS_STRUCTURE_URL + '/studyId/' + studyId)
+        let params = new HttpParams().set('page', '' + page).set('size', '' + size);
+        if (path) params = params.set('path', path);
+        return this.http.get<Page<BidsElement>>(AppUtils.BACKEND_API_STUDY_BIDS_STRUCTURE_URL + '/studyId/' + studyId + '/children', { params: params })
             .toPromise();
     }
 
+    getBidsFile(studyId: number, path: string): Promise<BidsElement> {
+        if (!studyId) throw Error('study id is required');
+        return this.http.get<BidsElement>(AppUtils.BACKEND_API_STUDY_BIDS_STRUCTURE_URL + '/studyId/' + studyId + '/file',
+            { params: new HttpParams().set('path', path) }
+        ).toPromise();
+    }
+
     protected getIgnoreList(): string[] {
         return super.getIgnoreList().concat(['completeMembers']);
     }
@@ -70,6 +70,12 @@ public class RabbitMQConfiguration {
 	/** Create a subject study for a given subject and study. */
 	public static final String DATASET_SUBJECT_STUDY_QUEUE = "dataset-subject-study-queue";
 
+	/** Subject/study links of a subject or a study changed => notify dataset MS to update its replica. */
+	public static final String SUBJECT_STUDY_UPDATE_QUEUE = "subject-study-update-queue";
+
+	/** Get all the subject/study links, used by dataset MS to initialize its replica. */
+	public static final String SUBJECT_STUDY_BOOTSTRAP_QUEUE = "subject-study-bootstrap-queue";
+
 	/** Get the list of administrator for a given study */
 	public static final String USER_ADMIN_STUDY_QUEUE = "user-admin-study-queue";
 
@@ -246,6 +252,16 @@ public class RabbitMQConfiguration {
 	public static Queue datasetSubjectStudyQueue() {
 		return new Queue(DATASET_SUBJECT_STUDY_QUEUE, true);
 	}
+
+	@Bean
+	public static Queue subjectStudyUpdateQueue() {
+		return new Queue(SUBJECT_STUDY_UPDATE_QUEUE, true);
+	}
+
+	@Bean
+	public static Queue subjectStudyBootstrapQueue() {
+		return new Queue(SUBJECT_STUDY_BOOTSTRAP_QUEUE, true);
+	}
 	
 	@Bean
 	public static Queue importerQueue() {
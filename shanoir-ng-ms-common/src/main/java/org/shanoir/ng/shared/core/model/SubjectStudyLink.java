@@ -0,0 +1,92 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.shared.core.model;
+
+/**
+ * Link between a subject and a study, as replicated from the studies MS.
+ */
+public class SubjectStudyLink {
+
+	private Long subjectId;
+
+	private String subjectName;
+
+	private Long studyId;
+
+	/**
+	 * Default constructor.
+	 */
+	public SubjectStudyLink() {
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param subjectId subject id.
+	 * @param subjectName subject name.
+	 * @param studyId study id.
+	 */
+	public SubjectStudyLink(final Long subjectId, final String subjectName, final Long studyId) {
+		this.subjectId = subjectId;
+		this.subjectName = subjectName;
+		this.studyId = studyId;
+	}
+
+	/**
+	 * @return the subjectId
+	 */
+	public Long getSubjectId() {
+		return subjectId;
+	}
+
+	/**
+	 * @param subjectId
+	 *            the subjectId to set
+	 */
+	public void setSubjectId(Long subjectId) {
+		this.subjectId = subjectId;
+	}
+
+	/**
+	 * @return the subjectName
+	 */
+	public String getSubjectName() {
+		return subjectName;
+	}
+
+	/**
+	 * @param subjectName
+	 *            the subjectName to set
+	 */
+	public void setSubjectName(String subjectName) {
+		this.subjectName = subjectName;
+	}
+
+	/**
+	 * @return the studyId
+	 */
+	public Long getStudyId() {
+		return studyId;
+	}
+
+	/**
+	 * @param studyId
+	 *            the studyId to set
+	 */
+	public void setStudyId(Long studyId) {
+		this.studyId = studyId;
+	}
+
+}
@@ -0,0 +1,113 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.shared.core.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full state of the subject/study links of one subject (subjectId set), of
+ * one study (studyId set) or of several subjects (subjects set): the receiver
+ * replaces all its links for this subject (resp. study, subjects) by the given
+ * ones.
+ */
+public class SubjectStudyUpdate {
+
+	private Long subjectId;
+
+	private String subjectName;
+
+	private Long studyId;
+
+	private List<SubjectStudyLink> links = new ArrayList<>();
+
+	/** Subjects created together: their links are all in the links of this update. */
+	private List<IdName> subjects = new ArrayList<>();
+
+	/**
+	 * Default constructor.
+	 */
+	public SubjectStudyUpdate() {
+	}
+
+	/**
+	 * @return the subjectId
+	 */
+	public Long getSubjectId() {
+		return subjectId;
+	}
+
+	/**
+	 * @param subjectId
+	 *            the subjectId to set
+	 */
+	public void setSubjectId(Long subjectId) {
+		this.subjectId = subjectId;
+	}
+
+	/**
+	 * @return the subjectName
+	 */
+	public String getSubjectName() {
+		return subjectName;
+	}
+
+	/**
+	 * @param subjectName
+	 *            the subjectName to set
+	 */
+	public void setSubjectName(String subjectName) {
+		this.subjectName = subjectName;
+	}
+
+	/**
+	 * @return the studyId
+	 */
+	public Long getStudyId() {
+		return studyId;
+	}
+
+	/**
+	 * @param studyId
+	 *            the studyId to set
+	 */
+	public void setStudyId(Long studyId) {
+		this.studyId = studyId;
+	}
+
+	/**
+	 * @return the links
+	 */
+	public List<SubjectStudyLink> getLinks() {
+		return links;
+	}
+
+	/**
+	 * @param links
+	 *            the links to set
+	 */
+	public void setLinks(List<SubjectStudyLink> links) {
+		this.links = links;
+	}
+
+	public List<IdName> getSubjects() {
+		return subjects;
+	}
+
+	public void setSubjects(List<IdName> subjects) {
+		this.subjects = subjects;
+	}
+
+}
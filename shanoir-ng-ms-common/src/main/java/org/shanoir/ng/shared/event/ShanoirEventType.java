@@ -67,12 +67,19 @@ public class ShanoirEventType {
 	public static final String UPDATE_PRECLINICAL_REFERENCE_EVENT = "updatePreclinicalReference.event";
 	public static final String DELETE_PRECLINICAL_REFERENCE_EVENT = "deletePreclinicalReference.event";
 	
+	/** Bruker archive conversion to DICOM **/
+	public static final String BRUKER_CONVERSION_EVENT = "brukerConversion.event";
+
 	/** Import Dataset **/
 	public static final String IMPORT_DATASET_EVENT = "importDataset.event";
 
 	/** Download dataset. */
 	public static final String DOWNLOAD_DATASET_EVENT = "downloadDataset.event";
 
+	/** Background deletion of the examinations and datasets of a removed study / subject. */
+	public static final String DELETE_STUDY_DATA_EVENT = "deleteStudyData.event";
+	public static final String DELETE_SUBJECT_DATA_EVENT = "deleteSubjectData.event";
+
 	/** User subscribed to a challenge. */
 	public static final String CHALLENGE_SUBSCRIPTION_EVENT = "challengeSubscription.event";
 }
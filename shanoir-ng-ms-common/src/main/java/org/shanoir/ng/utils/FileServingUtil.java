@@ -0,0 +1,213 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+
+/**
+ * Utility class to send a file in a http response with a constant memory use:
+ * the file is sent by the container (Tomcat sendfile) when it supports it, or
+ * transferred from its channel to the response otherwise. Single byte ranges
+ * (Range / If-Range) and conditional requests (ETag / Last-Modified) are
+ * supported, so that big downloads can be resumed. Files built for one
+ * request (zips) are sent with a digest of their content.
+ */
+public final class FileServingUtil {
+
+	private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+	private static final String BYTES = "bytes";
+
+	/** Instance digest header, RFC 3230. */
+	private static final String DIGEST = "Digest";
+
+	private static final String SHA_256 = "SHA-256";
+
+	private static final Pattern BYTE_RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+
+	private FileServingUtil() {
+	}
+
+	/**
+	 * Sends a file as an attachment. The file must exist.
+	 * 
+	 * @param file the file to send
+	 * @param fileName the name given to the downloaded file
+	 * @param contentType the content type, application/octet-stream if null
+	 * @param request the request
+	 * @param response the response
+	 * @throws IOException
+	 */
+	public static void serve(File file, String fileName, String contentType, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+		// http dates have a one second precision
+		long lastModified = file.lastModified() / 1000 * 1000;
+		String eTag = "\"" + Long.toHexString(file.length()) + "-" + Long.toHexString(lastModified) + "\"";
+		serve(file, fileName, contentType, eTag, true, request, response);
+	}
+
+	/**
+	 * Sends a file built for this request only, and deleted by the caller once
+	 * this method returns: it is always transferred here, never by the
+	 * container. As the file is built again at each request, its validator is
+	 * its SHA-256 digest, sent in the ETag and Digest headers, so that a
+	 * download can be resumed and verified as long as the content is the same.
+	 * 
+	 * @param file the file to send
+	 * @param fileName the name given to the downloaded file
+	 * @param contentType the content type, application/octet-stream if null
+	 * @param sha256 the SHA-256 digest of the file
+	 * @param request the request
+	 * @param response the response
+	 * @throws IOException
+	 */
+	public static void serveTemporary(File file, String fileName, String contentType, byte[] sha256,
+			HttpServletRequest request, HttpServletResponse response) throws IOException {
+		StringBuilder eTag = new StringBuilder("\"");
+		for (byte b : sha256) {
+			eTag.append(String.format("%02x", b));
+		}
+		eTag.append('"');
+		response.setHeader(DIGEST, SHA_256 + "=" + Base64.getEncoder().encodeToString(sha256));
+		serve(file, fileName, contentType, eTag.toString(), false, request, response);
+	}
+
+	private static void serve(File file, String fileName, String contentType, String eTag, boolean sendfile,
+			HttpServletRequest request, HttpServletResponse response) throws IOException {
+		long length = file.length();
+		// http dates have a one second precision
+		long lastModified = file.lastModified() / 1000 * 1000;
+
+		response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES);
+		response.setHeader(HttpHeaders.ETAG, eTag);
+		response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+		if (isNotModified(request, eTag, lastModified)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=" + fileName);
+		response.setContentType(contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+
+		long start = 0;
+		long end = length - 1;
+		String range = request.getHeader(HttpHeaders.RANGE);
+		if (range != null && isRangeApplicable(request, eTag, lastModified)) {
+			// multiple ranges and malformed ranges are ignored: the whole file is sent
+			Matcher matcher = BYTE_RANGE.matcher(range.trim());
+			if (matcher.matches() && !(matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+				if (matcher.group(1).isEmpty()) {
+					start = Math.max(0, length - Long.parseLong(matcher.group(2)));
+				} else {
+					start = Long.parseLong(matcher.group(1));
+					if (!matcher.group(2).isEmpty()) {
+						end = Math.min(Long.parseLong(matcher.group(2)), length - 1);
+					}
+				}
+				if (start >= length || start > end) {
+					response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES + " */" + length);
+					response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+					return;
+				}
+				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+				response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES + " " + start + "-" + end + "/" + length);
+			}
+		}
+		long count = end - start + 1;
+		response.setHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(count));
+		if (HttpMethod.HEAD.matches(request.getMethod()) || count <= 0) {
+			return;
+		}
+
+		if (sendfile && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+			// Tomcat sends the file itself (zero-copy) once the servlet returns
+			request.setAttribute(SENDFILE_FILENAME, file.getCanonicalPath());
+			request.setAttribute(SENDFILE_START, Long.valueOf(start));
+			request.setAttribute(SENDFILE_END, Long.valueOf(end + 1));
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+			long position = start;
+			while (position <= end) {
+				long sent = channel.transferTo(position, end + 1 - position, out);
+				if (sent <= 0) {
+					break;
+				}
+				position += sent;
+			}
+		}
+		response.flushBuffer();
+	}
+
+	/**
+	 * If-None-Match takes precedence over If-Modified-Since.
+	 */
+	private static boolean isNotModified(HttpServletRequest request, String eTag, long lastModified) {
+		String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+		if (ifNoneMatch != null) {
+			for (String candidate : ifNoneMatch.split(",")) {
+				String value = candidate.trim();
+				if ("*".equals(value) || eTag.equals(value.startsWith("W/") ? value.substring(2) : value)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		long ifModifiedSince = getDateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+		return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+	}
+
+	/**
+	 * A range is only applied if the file did not change since the client
+	 * got the validator sent in If-Range, if any.
+	 */
+	private static boolean isRangeApplicable(HttpServletRequest request, String eTag, long lastModified) {
+		String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+		if (ifRange == null) {
+			return true;
+		}
+		if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+			return eTag.equals(ifRange.trim());
+		}
+		return getDateHeader(request, HttpHeaders.IF_RANGE) == lastModified;
+	}
+
+	private static long getDateHeader(HttpServletRequest request, String name) {
+		try {
+			return request.getDateHeader(name);
+		} catch (IllegalArgumentException e) {
+			return -1;
+		}
+	}
+
+}
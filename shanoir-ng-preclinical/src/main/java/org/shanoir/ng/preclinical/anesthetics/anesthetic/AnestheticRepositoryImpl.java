@@ -18,6 +18,8 @@ import java.util.List;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+
+import org.shanoir.ng.utils.RepositoryUtils;
 import org.springframework.stereotype.Component;
 
 
@@ -27,13 +29,9 @@ public class AnestheticRepositoryImpl implements AnestheticRepositoryCustom{
 	@PersistenceContext
     private EntityManager em;
 		
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<Anesthetic> findBy(String fieldName, Object value) {
-		return em.createQuery(
-				"SELECT a FROM Anesthetic a WHERE a." + fieldName + " LIKE :value")
-				.setParameter("value", value)
-				.getResultList();
+		return RepositoryUtils.findBy(em, Anesthetic.class, fieldName, value);
 	}
 	
 	
@@ -20,7 +20,10 @@ import java.util.Objects;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.PostLoad;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
@@ -39,7 +42,10 @@ import io.swagger.annotations.ApiModelProperty;
  * Examination Anesthetic
  */
 @Entity
-@Table(name = "examination_anesthetic")
+@Table(name = "examination_anesthetic", indexes = {
+		@Index(columnList = "examinationId", name = "i_anesthetic_examination") })
+@NamedEntityGraph(name = "ExaminationAnesthetic.list", attributeNodes = { @NamedAttributeNode("anesthetic"),
+		@NamedAttributeNode("doseUnit") })
 @JsonPropertyOrder({ "_links" })
 public class ExaminationAnesthetic extends HalEntity  {
   
@@ -17,11 +17,16 @@ package org.shanoir.ng.preclinical.anesthetics.examination_anesthetics;
 import java.util.List;
 
 import org.shanoir.ng.preclinical.anesthetics.anesthetic.Anesthetic;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.repository.CrudRepository;
 
 public interface ExaminationAnestheticRepository
 		extends CrudRepository<ExaminationAnesthetic, Long>, ExaminationAnestheticRepositoryCustom {
 
+	/**
+	 * Anesthetic and dose unit are fetched with the rows of the examination.
+	 */
+	@EntityGraph("ExaminationAnesthetic.list")
 	List<ExaminationAnesthetic> findByExaminationId(Long examinationId);
 
 	List<ExaminationAnesthetic> findByAnesthetic(Anesthetic anesthetic);
@@ -19,6 +19,7 @@ import java.util.List;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import org.shanoir.ng.utils.RepositoryUtils;
 import org.springframework.stereotype.Component;
 
 
@@ -28,13 +29,9 @@ public class ExaminationAnestheticRepositoryImpl implements ExaminationAnestheti
 	@PersistenceContext
     private EntityManager em;
 		
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<ExaminationAnesthetic> findBy(String fieldName, Object value) {
-		return em.createQuery(
-				"SELECT ea FROM ExaminationAnesthetic ea WHERE ea." + fieldName + " LIKE :value")
-				.setParameter("value", value)
-				.getResultList();
+		return RepositoryUtils.findBy(em, ExaminationAnesthetic.class, fieldName, value);
 	}
 	
 }
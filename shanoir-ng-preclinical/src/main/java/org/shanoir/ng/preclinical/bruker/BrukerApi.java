@@ -19,6 +19,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 
 import io.swagger.annotations.Api;
@@ -37,7 +38,7 @@ public interface BrukerApi {
 			@ApiResponse(code = 500, message = "Unexpected Error", response = Void.class) })
 	@PostMapping(value = "/bruker/upload", produces = { "application/json" }, consumes = {
 			MediaType.MULTIPART_FORM_DATA_VALUE, "application/json" })
-	ResponseEntity<String> uploadBrukerFile(@RequestParam("files") MultipartFile[] uploadfiles)
+	DeferredResult<ResponseEntity<String>> uploadBrukerFile(@RequestParam("files") MultipartFile[] uploadfiles)
 			throws RestServiceException;
 
 }
@@ -0,0 +1,468 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.preclinical.bruker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import javax.annotation.PreDestroy;
+
+import org.shanoir.ng.shared.event.ShanoirEvent;
+import org.shanoir.ng.shared.event.ShanoirEventService;
+import org.shanoir.ng.shared.event.ShanoirEventType;
+import org.shanoir.ng.shared.exception.ErrorModel;
+import org.shanoir.ng.shared.exception.RestServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Converts uploaded Bruker archives to a zip of DICOM images with a DICOMDIR,
+ * in background. The archive is read as a stream and its reconstructions are
+ * converted natively (see {@link BrukerDicomConverter}); archives that cannot
+ * be converted this way are unzipped and sent to the bruker2dicom microservice.
+ */
+@Service
+public class BrukerConversionService {
+
+	private static final String ERROR_BRUKER2DICOM_REQUEST = "Error on bruker2dicom microservice request";
+
+	private static final Logger LOG = LoggerFactory.getLogger(BrukerConversionService.class);
+
+	public static final String RECONSTRUCTED_DATA_FILES = "2dseq";
+	public static final String VISU_PARS = "visu_pars";
+	public static final String METHOD = "method";
+	public static final String ACQP = "acqp";
+	public static final String RESULT_FOLDER = "result";
+	public static final String FOLDER_SEP = "/";
+
+	private static final List<String> PARAMETER_FILES = Arrays.asList(VISU_PARS, METHOD, ACQP);
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Number of archives converted at the same time. */
+	private static final int CONVERSION_THREADS = 2;
+
+	/** A progress event is sent each time this part of the archive has been read. */
+	private static final float PROGRESS_STEP = 0.1f;
+
+	@Value("${ms.url.bruker2dicom}")
+	private String bruker2DicomMsUrl;
+
+	@Autowired
+	private RestTemplate restTemplate;
+
+	@Autowired
+	private ShanoirEventService eventService;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(CONVERSION_THREADS);
+
+	/**
+	 * Converts an uploaded Bruker archive in background.
+	 * 
+	 * @param uploadedFile the uploaded zip archive
+	 * @param brukerDir the working folder of this upload
+	 * @param userId the user who uploaded the archive
+	 * @return the zip of DICOM files, completed with null if the archive does
+	 *         not contain any reconstruction
+	 */
+	public CompletableFuture<File> convert(Path uploadedFile, Path brukerDir, Long userId) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return convertNow(uploadedFile, brukerDir, userId);
+			} catch (RestServiceException e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	/**
+	 * Converts an uploaded Bruker archive in the calling thread.
+	 * 
+	 * @param uploadedFile the uploaded zip archive
+	 * @param brukerDir the working folder of this upload
+	 * @param userId the user who uploaded the archive
+	 * @return the zip of DICOM files, null if the archive does not contain any
+	 *         reconstruction
+	 * @throws RestServiceException
+	 */
+	File convertNow(Path uploadedFile, Path brukerDir, Long userId) throws RestServiceException {
+		String brukerDirString = brukerDir.getFileName().toString();
+		ShanoirEvent event = new ShanoirEvent(ShanoirEventType.BRUKER_CONVERSION_EVENT,
+				uploadedFile.getFileName().toString(), userId, "Converting Bruker archive to DICOM",
+				ShanoirEvent.IN_PROGRESS, 0f);
+		eventService.publishEvent(event);
+		try {
+			// the prefix of a temp file cannot contain a path: the zip is created in the upload folder
+			File destinationZip = File.createTempFile(RESULT_FOLDER, "." + brukerDirString + ".converted.zip",
+					brukerDir.toFile());
+			int images = 0;
+			try {
+				images = convertNatively(uploadedFile.toFile(), brukerDir.toFile(), destinationZip, event);
+			} catch (IOException | RuntimeException e) {
+				LOG.warn("Native conversion of {} failed, using bruker2dicom: {}", uploadedFile, e.getMessage());
+			}
+			if (images > 0) {
+				LOG.info("{} DICOM images converted natively into {}", images, destinationZip.getAbsolutePath());
+			} else if (convertWithBruker2Dicom(uploadedFile, brukerDir, destinationZip)) {
+				LOG.info("bruker2dicom conversion zipped into {}", destinationZip.getAbsolutePath());
+			} else {
+				Files.deleteIfExists(destinationZip.toPath());
+				event.setStatus(ShanoirEvent.ERROR);
+				event.setMessage("Not a valid Bruker archive: no " + RECONSTRUCTED_DATA_FILES + " file found");
+				eventService.publishEvent(event);
+				return null;
+			}
+			event.setProgress(1f);
+			event.setStatus(ShanoirEvent.SUCCESS);
+			event.setMessage("Bruker archive converted to DICOM");
+			eventService.publishEvent(event);
+			return destinationZip;
+		} catch (IOException e) {
+			LOG.error("Error while converting bruker file {}", uploadedFile, e);
+			publishError(event, e);
+			throw new RestServiceException(e,
+					new ErrorModel(HttpStatus.UNPROCESSABLE_ENTITY.value(), "Error while saving uploaded file", null));
+		} catch (RestServiceException e) {
+			publishError(event, e);
+			throw e;
+		}
+	}
+
+	private void publishError(ShanoirEvent event, Exception e) {
+		event.setStatus(ShanoirEvent.ERROR);
+		event.setMessage("Error while converting Bruker archive: " + e.getMessage());
+		eventService.publishEvent(event);
+	}
+
+	/**
+	 * Reads the archive once, converting each 2dseq while it is read when its
+	 * visu_pars has already been read, or spooling it on disk until the end of
+	 * the archive otherwise.
+	 * 
+	 * @return the number of images written, 0 if the archive has no reconstruction
+	 * @throws IOException if a reconstruction cannot be converted natively
+	 */
+	private int convertNatively(File uploadedFile, File brukerDir, File destinationZip, ShanoirEvent event)
+			throws IOException {
+		Map<String, ParaVisionParameters> parameters = new HashMap<>();
+		Map<String, File> spooled = new LinkedHashMap<>();
+		try (ProgressInputStream progress = new ProgressInputStream(new FileInputStream(uploadedFile),
+				uploadedFile.length(), event);
+				ZipInputStream zipIn = new ZipInputStream(progress);
+				ZipOutputStream zipOut = new ZipOutputStream(
+						new BufferedOutputStream(new FileOutputStream(destinationZip), BUFFER_SIZE));
+				BrukerDicomConverter converter = new BrukerDicomConverter(zipOut,
+						new File(brukerDir, BrukerDicomConverter.DICOMDIR))) {
+			ZipEntry entry;
+			while ((entry = zipIn.getNextEntry()) != null) {
+				String name = entry.getName();
+				String fileName = name.substring(name.lastIndexOf('/') + 1);
+				if (entry.isDirectory()) {
+					continue;
+				} else if (PARAMETER_FILES.contains(fileName)) {
+					parameters.put(name, ParaVisionParameters.parse(zipIn));
+				} else if (RECONSTRUCTED_DATA_FILES.equals(fileName)) {
+					String recoDir = parentOf(name);
+					if (parameters.containsKey(recoDir + VISU_PARS)) {
+						convertReconstruction(converter, parameters, recoDir, zipIn);
+					} else {
+						File twoDSeq = File.createTempFile(RECONSTRUCTED_DATA_FILES, null, brukerDir);
+						spooled.put(recoDir, twoDSeq);
+						Files.copy(zipIn, twoDSeq.toPath(), StandardCopyOption.REPLACE_EXISTING);
+					}
+				}
+				zipIn.closeEntry();
+			}
+			for (Map.Entry<String, File> twoDSeq : spooled.entrySet()) {
+				try (InputStream in = new BufferedInputStream(new FileInputStream(twoDSeq.getValue()), BUFFER_SIZE)) {
+					convertReconstruction(converter, parameters, twoDSeq.getKey(), in);
+				}
+			}
+			return converter.getImageCount();
+		} finally {
+			for (File file : spooled.values()) {
+				Files.deleteIfExists(file.toPath());
+			}
+		}
+	}
+
+	private void convertReconstruction(BrukerDicomConverter converter, Map<String, ParaVisionParameters> parameters,
+			String recoDir, InputStream twoDSeq) throws IOException {
+		ParaVisionParameters visuPars = parameters.get(recoDir + VISU_PARS);
+		if (!BrukerDicomConverter.isSupported(visuPars)) {
+			throw new IOException("Reconstruction " + recoDir + " not supported natively");
+		}
+		// <scan>/pdata/<reco>/: method and acqp are in the scan folder
+		String scanDir = parentOf(parentOf(recoDir));
+		converter.convert(visuPars, parameters.get(scanDir + METHOD), parameters.get(scanDir + ACQP), twoDSeq);
+	}
+
+	/**
+	 * @param path a zip entry path
+	 * @return the parent path, with its trailing separator, empty for a root entry
+	 */
+	private static String parentOf(String path) {
+		String trimmed = path.endsWith(FOLDER_SEP) ? path.substring(0, path.length() - 1) : path;
+		return trimmed.substring(0, trimmed.lastIndexOf('/') + 1);
+	}
+
+	/**
+	 * Previous conversion: unzips the archive and asks bruker2dicom to convert it.
+	 * 
+	 * @return false if the archive does not contain any 2dseq
+	 */
+	private boolean convertWithBruker2Dicom(Path uploadedFile, Path brukerDirFile, File destinationZip)
+			throws IOException, RestServiceException {
+		unzipBrukerArchive(uploadedFile.toFile().getAbsolutePath(), brukerDirFile.toFile().getAbsolutePath());
+		LOG.info("bruker file has been unzipped into {}", brukerDirFile);
+		boolean isValidBruker = checkBrukerCrawlFor2dseq(
+				Arrays.asList(new File(brukerDirFile.toAbsolutePath().toString()).listFiles()),
+				RECONSTRUCTED_DATA_FILES);
+		LOG.info("isValidBruker for {{}}? {}", brukerDirFile, isValidBruker);
+		if (!isValidBruker) {
+			return false;
+		}
+		String destinationFilePath = brukerDirFile.toAbsolutePath().toString() + File.separator + RESULT_FOLDER;
+		LOG.info("START BRUKER 2 DICOM");
+		startBruker2Dicom(brukerDirFile);
+		LOG.info("zip destinationFilePath = {}, destinationZip = {}, rootFolderToRemove = {}", destinationFilePath, destinationZip.getAbsolutePath(), RESULT_FOLDER);
+		zipFolder(destinationFilePath, destinationZip, RESULT_FOLDER);
+		return true;
+	}
+
+	/**
+	 * This method does a REST http post call to the docker container bruker2dicom
+	 * to start the conversion of bruker2dicom.
+	 * 
+	 * @param brukerDirFile
+	 * @throws RestServiceException
+	 */
+	private void startBruker2Dicom(Path brukerDirFile) throws RestServiceException {
+		String sourceFilePath = brukerDirFile.toAbsolutePath().toString();
+		String destinationFilePath = brukerDirFile.toAbsolutePath().toString() + File.separator + RESULT_FOLDER;
+		String requestJson = "{\"source\":\"" + sourceFilePath
+				+ "\", \"destination\":\"" + destinationFilePath
+				+ "\", \"dicomdir\": true }";
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+
+		// HttpEntity represents the request
+		HttpEntity<String> entity = new HttpEntity<>(requestJson, headers);
+
+		// Post to Bruker2Dicom to start conversion
+		ResponseEntity<String> response = null;
+		try {
+			response = restTemplate.exchange(bruker2DicomMsUrl, HttpMethod.POST, entity, String.class);
+		} catch (RestClientException e) {
+			LOG.error(ERROR_BRUKER2DICOM_REQUEST, e);
+			throw new RestServiceException(e, new ErrorModel(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+					"Error while converting bruker2dicom.", null));
+		} catch (Exception e2) {
+			LOG.error(ERROR_BRUKER2DICOM_REQUEST, e2);
+			throw new RestServiceException(e2, new ErrorModel(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+					"Error while converting bruker2dicom.", null));
+		}
+
+		if (!HttpStatus.OK.equals(response.getStatusCode()) && !HttpStatus.NO_CONTENT.equals(response.getStatusCode())) {
+			LOG.error(ERROR_BRUKER2DICOM_REQUEST);
+		}
+	}
+
+	/**
+	 * unzip a zip file
+	 * 
+	 * @param brukerPath
+	 * @param brukerDirPath
+	 * @throws IOException
+	 */
+	private void unzipBrukerArchive(String brukerPath, String brukerDirPath) throws IOException {
+		try (ZipInputStream zipIn = new ZipInputStream(new FileInputStream(brukerPath))) {
+			ZipEntry entry = zipIn.getNextEntry();
+			// iterates over entries in the zip file
+			while (entry != null) {
+				String filePath = brukerDirPath + FOLDER_SEP + entry.getName();
+				if (!entry.isDirectory()) {
+					// if the entry is a file, extracts it (archives do not always list their folders)
+					new File(filePath).getParentFile().mkdirs();
+					extractFile(zipIn, filePath);
+				} else {
+					// if the entry is a directory, make the directory
+					File dir = new File(filePath);
+					dir.mkdir();
+				}
+				zipIn.closeEntry();
+				entry = zipIn.getNextEntry();
+			}
+		}
+	}
+
+	/**
+	 * extract file from a zip
+	 * 
+	 * @param zipIn
+	 * @param filePath
+	 * @throws IOException
+	 */
+	private static void extractFile(ZipInputStream zipIn, String filePath) throws IOException {
+		try(BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(filePath))) {
+			byte[] bytesIn = new byte[BUFFER_SIZE];
+			int read = 0;
+			while ((read = zipIn.read(bytesIn)) != -1) {
+				bos.write(bytesIn, 0, read);
+			}
+		}
+	}
+
+	/**
+	 * check if there is reconstructed data file into a given list of files
+	 * 
+	 * @param foldersList
+	 * @param fileNameToFind
+	 * @return
+	 */
+	private boolean checkBrukerCrawlFor2dseq(List<File> foldersList, String fileNameToFind) {
+		boolean found = false;
+		for (File current : foldersList) {
+			if (current.isDirectory() && !found) {
+				found = checkBrukerCrawlFor2dseq(Arrays.asList(current.listFiles()), fileNameToFind);
+			} else if (current.getName().equals(fileNameToFind)) {
+				found = true;
+				break;
+			}
+		}
+		return found;
+	}
+
+	private static void zipFolder(String srcFolder, File destZipFile, String rootFolderToRemove) throws IOException {
+		try (ZipOutputStream zip = new ZipOutputStream(
+				new BufferedOutputStream(new FileOutputStream(destZipFile), BUFFER_SIZE))) {
+			addFolderToZip("", srcFolder, zip, rootFolderToRemove);
+		}
+	}
+
+	private static void addFolderToZip(String path, String srcFolder, ZipOutputStream zip, String rootFolderToRemove)
+			throws IOException {
+		File folder = new File(srcFolder);
+		if (folder.list() != null) {
+			for (String fileName : folder.list()) {
+				if (path.equals("")) {
+					addFileToZip(folder.getName(), srcFolder + "/" + fileName, zip, rootFolderToRemove);
+				} else {
+					addFileToZip(path + "/" + folder.getName(), srcFolder + "/" + fileName, zip, rootFolderToRemove);
+				}
+			}
+		}
+	}
+
+	private static void addFileToZip(String path, String srcFile, ZipOutputStream zip, String rootFolderToRemove)
+			throws IOException {
+		File folder = new File(srcFile);
+		if (folder.isDirectory()) {
+			addFolderToZip(path, srcFile, zip, rootFolderToRemove);
+		} else {
+			String pathAfterOmittingtheRootFolder = path.replaceFirst(rootFolderToRemove, "");
+			zip.putNextEntry(new ZipEntry(pathAfterOmittingtheRootFolder + "/" + folder.getName()));
+			Files.copy(folder.toPath(), zip);
+			zip.closeEntry();
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Counts the bytes read from the archive to publish the progress of the conversion.
+	 */
+	private class ProgressInputStream extends FilterInputStream {
+
+		private final long length;
+
+		private final ShanoirEvent event;
+
+		private long read = 0;
+
+		private float published = 0f;
+
+		ProgressInputStream(InputStream in, long length, ShanoirEvent event) {
+			super(in);
+			this.length = Math.max(length, 1);
+			this.event = event;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1) {
+				count(1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) {
+				count(n);
+			}
+			return n;
+		}
+
+		private void count(int n) {
+			read += n;
+			// the last step is kept for the end of the conversion
+			float progress = Math.min((float) read / length, 0.99f);
+			if (progress - published >= PROGRESS_STEP) {
+				published = progress;
+				event.setProgress(progress);
+				eventService.publishEvent(event);
+			}
+		}
+	}
+
+}
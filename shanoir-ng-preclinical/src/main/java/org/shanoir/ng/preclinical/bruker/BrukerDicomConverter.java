@@ -0,0 +1,453 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.preclinical.bruker;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.io.DicomOutputStream;
+import org.dcm4che3.media.DicomDirWriter;
+import org.dcm4che3.media.RecordFactory;
+import org.dcm4che3.media.RecordType;
+import org.dcm4che3.util.UIDUtils;
+
+/**
+ * Converts ParaVision reconstructions (2dseq + visu_pars) into classic MR
+ * DICOM images, written directly into a zip together with their DICOMDIR.
+ * Each image is converted while the 2dseq is read, so that a reconstruction
+ * never has to be written on disk.
+ */
+public class BrukerDicomConverter implements Closeable {
+
+	public static final String DICOMDIR = "DICOMDIR";
+
+	private static final String DICOM_FOLDER = "DICOM";
+
+	private static final String MANUFACTURER = "Bruker BioSpin MRI GmbH";
+
+	private static final String WORD_8BIT_UNSIGNED = "_8BIT_UNSGN_INT";
+	private static final String WORD_16BIT_SIGNED = "_16BIT_SGN_INT";
+	private static final String WORD_32BIT_SIGNED = "_32BIT_SGN_INT";
+	private static final String WORD_32BIT_FLOAT = "_32BIT_FLOAT";
+
+	private static final List<String> SUPPORTED_WORD_TYPES = Arrays.asList(WORD_8BIT_UNSIGNED, WORD_16BIT_SIGNED,
+			WORD_32BIT_SIGNED, WORD_32BIT_FLOAT);
+
+	private static final String BIG_ENDIAN = "bigEndian";
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final int SHORT_RANGE = 65535;
+
+	private static final int SHORT_OFFSET = 32768;
+
+	private static final double[] IDENTITY_ORIENTATION = { 1, 0, 0, 0, 1, 0, 0, 0, 1 };
+
+	private static final DateTimeFormatter DICOM_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+	private static final DateTimeFormatter DICOM_TIME = DateTimeFormatter.ofPattern("HHmmss");
+
+	private final ZipOutputStream zip;
+
+	private final OutputStream entryStream;
+
+	private final File dicomDirFile;
+
+	private final DicomDirWriter dicomDir;
+
+	private final RecordFactory recordFactory = new RecordFactory();
+
+	private final Map<String, Attributes> patientRecords = new HashMap<>();
+
+	private final Map<String, Attributes> studyRecords = new HashMap<>();
+
+	private final Map<String, Attributes> seriesRecords = new HashMap<>();
+
+	private int seriesCount = 0;
+
+	private int imageCount = 0;
+
+	/**
+	 * @param zip the zip the images and the DICOMDIR are written into
+	 * @param dicomDirFile a temporary file used to build the DICOMDIR
+	 * @throws IOException
+	 */
+	public BrukerDicomConverter(ZipOutputStream zip, File dicomDirFile) throws IOException {
+		this.zip = zip;
+		this.dicomDirFile = dicomDirFile;
+		// DICOM streams must not close the zip when closed
+		this.entryStream = new FilterOutputStream(zip) {
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write(b, off, len);
+			}
+
+			@Override
+			public void close() throws IOException {
+				flush();
+			}
+		};
+		DicomDirWriter.createEmptyDirectory(dicomDirFile, UIDUtils.createUID(), null, null, null);
+		this.dicomDir = DicomDirWriter.open(dicomDirFile);
+	}
+
+	/**
+	 * Checks that a reconstruction can be converted by this class: 2D or 3D
+	 * images of a supported word type.
+	 * 
+	 * @param visuPars the visu_pars of the reconstruction
+	 * @return true if the reconstruction is supported
+	 */
+	public static boolean isSupported(ParaVisionParameters visuPars) {
+		if (visuPars == null) {
+			return false;
+		}
+		int[] size = visuPars.getInts("VisuCoreSize");
+		return (size.length == 2 || size.length == 3)
+				&& SUPPORTED_WORD_TYPES.contains(visuPars.getString("VisuCoreWordType"));
+	}
+
+	/**
+	 * Converts a reconstruction, reading its 2dseq image by image.
+	 * 
+	 * @param visuPars the visu_pars of the reconstruction
+	 * @param method the method of the scan, can be null
+	 * @param acqp the acqp of the scan, can be null
+	 * @param twoDSeq the 2dseq stream, not closed
+	 * @return the number of images written
+	 * @throws IOException
+	 */
+	public int convert(ParaVisionParameters visuPars, ParaVisionParameters method, ParaVisionParameters acqp,
+			InputStream twoDSeq) throws IOException {
+		if (!isSupported(visuPars)) {
+			throw new IOException("Unsupported ParaVision reconstruction: " + visuPars.getString("VisuCoreWordType"));
+		}
+		int[] size = visuPars.getInts("VisuCoreSize");
+		int columns = size[0];
+		int rows = size[1];
+		int depth = size.length == 3 ? size[2] : 1;
+		int frameCount = visuPars.getInt("VisuCoreFrameCount", 1);
+		double[] extent = visuPars.getDoubles("VisuCoreExtent");
+		double[] orientations = visuPars.getDoubles("VisuCoreOrientation");
+		double[] positions = visuPars.getDoubles("VisuCorePosition");
+		double[] slopes = visuPars.getDoubles("VisuCoreDataSlope");
+		double[] offsets = visuPars.getDoubles("VisuCoreDataOffs");
+		double[] echoTimes = firstDefined(visuPars.getDoubles("VisuAcqEchoTime"), method, "PVM_EchoTime");
+		String wordType = visuPars.getString("VisuCoreWordType");
+		ByteOrder byteOrder = BIG_ENDIAN.equals(visuPars.getString("VisuCoreByteOrder")) ? ByteOrder.BIG_ENDIAN
+				: ByteOrder.LITTLE_ENDIAN;
+		int bytesPerWord = WORD_8BIT_UNSIGNED.equals(wordType) ? 1 : WORD_16BIT_SIGNED.equals(wordType) ? 2 : 4;
+
+		double rowSpacing = extent.length > 1 ? extent[1] / rows : 1;
+		double columnSpacing = extent.length > 0 ? extent[0] / columns : 1;
+		double sliceSpacing = depth > 1 && extent.length > 2 ? extent[2] / depth
+				: visuPars.getDouble("VisuCoreFrameThickness", 1);
+
+		Attributes series = createSeriesAttributes(visuPars, method, acqp);
+		series.setInt(Tag.Rows, VR.US, rows);
+		series.setInt(Tag.Columns, VR.US, columns);
+		series.setDouble(Tag.PixelSpacing, VR.DS, rowSpacing, columnSpacing);
+		series.setDouble(Tag.SliceThickness, VR.DS, sliceSpacing);
+		seriesCount++;
+		String seriesFolder = String.format("S%07d", seriesCount);
+
+		DataInputStream in = new DataInputStream(twoDSeq);
+		byte[] raw = new byte[columns * rows * bytesPerWord];
+		int images = frameCount * depth;
+		for (int image = 0; image < images; image++) {
+			int frame = image / depth;
+			int slice = image % depth;
+			in.readFully(raw);
+			ByteBuffer buffer = ByteBuffer.wrap(raw).order(byteOrder);
+			double slope = valueAt(slopes, frame, 1);
+			double offset = valueAt(offsets, frame, 0);
+			Attributes attributes = new Attributes(series);
+			byte[] pixels = toSignedShorts(buffer, wordType, columns * rows, slope, offset, attributes);
+
+			double[] orientation = orientations.length >= 9
+					? Arrays.copyOfRange(orientations, (frame % (orientations.length / 9)) * 9,
+							(frame % (orientations.length / 9)) * 9 + 9)
+					: IDENTITY_ORIENTATION;
+			double[] position = positions.length >= 3
+					? Arrays.copyOfRange(positions, (frame % (positions.length / 3)) * 3,
+							(frame % (positions.length / 3)) * 3 + 3)
+					: new double[3];
+			for (int axis = 0; axis < 3; axis++) {
+				position[axis] += slice * sliceSpacing * orientation[6 + axis];
+			}
+			attributes.setDouble(Tag.ImageOrientationPatient, VR.DS, Arrays.copyOf(orientation, 6));
+			attributes.setDouble(Tag.ImagePositionPatient, VR.DS, position);
+			if (echoTimes.length > 0) {
+				attributes.setDouble(Tag.EchoTime, VR.DS, valueAt(echoTimes, frame, 0));
+			}
+			attributes.setInt(Tag.InstanceNumber, VR.IS, image + 1);
+			attributes.setInt(Tag.AcquisitionNumber, VR.IS, frame + 1);
+			attributes.setString(Tag.SOPInstanceUID, VR.UI, UIDUtils.createUID());
+			attributes.setBytes(Tag.PixelData, VR.OW, pixels);
+			write(attributes, new String[] { DICOM_FOLDER, seriesFolder, String.format("I%07d", image + 1) });
+		}
+		return images;
+	}
+
+	/**
+	 * Converts a reconstruction whose 2dseq has been spooled on disk.
+	 * 
+	 * @param visuPars the visu_pars of the reconstruction
+	 * @param method the method of the scan, can be null
+	 * @param acqp the acqp of the scan, can be null
+	 * @param twoDSeq the 2dseq file
+	 * @return the number of images written
+	 * @throws IOException
+	 */
+	public int convert(ParaVisionParameters visuPars, ParaVisionParameters method, ParaVisionParameters acqp,
+			File twoDSeq) throws IOException {
+		try (InputStream in = new BufferedInputStream(new FileInputStream(twoDSeq), BUFFER_SIZE)) {
+			return convert(visuPars, method, acqp, in);
+		}
+	}
+
+	/**
+	 * Writes the DICOMDIR at the root of the zip. The zip itself is not closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			dicomDir.close();
+			zip.putNextEntry(new ZipEntry(DICOMDIR));
+			Files.copy(dicomDirFile.toPath(), zip);
+			zip.closeEntry();
+		} finally {
+			Files.deleteIfExists(dicomDirFile.toPath());
+		}
+	}
+
+	/**
+	 * @return the number of images written so far
+	 */
+	public int getImageCount() {
+		return imageCount;
+	}
+
+	private void write(Attributes attributes, String[] fileIds) throws IOException {
+		Attributes fmi = attributes.createFileMetaInformation(UID.ExplicitVRLittleEndian);
+		zip.putNextEntry(new ZipEntry(String.join("/", fileIds)));
+		try (DicomOutputStream dos = new DicomOutputStream(entryStream, UID.ExplicitVRLittleEndian)) {
+			dos.writeDataset(fmi, attributes);
+		}
+		zip.closeEntry();
+		attributes.remove(Tag.PixelData);
+		addRecords(attributes, fmi, fileIds);
+		imageCount++;
+	}
+
+	private void addRecords(Attributes attributes, Attributes fmi, String[] fileIds) throws IOException {
+		String patientId = attributes.getString(Tag.PatientID);
+		Attributes patientRecord = patientRecords.get(patientId);
+		if (patientRecord == null) {
+			patientRecord = recordFactory.createRecord(RecordType.PATIENT, null, attributes, null, null);
+			dicomDir.addRootDirectoryRecord(patientRecord);
+			patientRecords.put(patientId, patientRecord);
+		}
+		String studyUid = attributes.getString(Tag.StudyInstanceUID);
+		Attributes studyRecord = studyRecords.get(studyUid);
+		if (studyRecord == null) {
+			studyRecord = recordFactory.createRecord(RecordType.STUDY, null, attributes, null, null);
+			dicomDir.addLowerDirectoryRecord(patientRecord, studyRecord);
+			studyRecords.put(studyUid, studyRecord);
+		}
+		String seriesUid = attributes.getString(Tag.SeriesInstanceUID);
+		Attributes seriesRecord = seriesRecords.get(seriesUid);
+		if (seriesRecord == null) {
+			seriesRecord = recordFactory.createRecord(RecordType.SERIES, null, attributes, null, null);
+			dicomDir.addLowerDirectoryRecord(studyRecord, seriesRecord);
+			seriesRecords.put(seriesUid, seriesRecord);
+		}
+		dicomDir.addLowerDirectoryRecord(seriesRecord, recordFactory.createRecord(attributes, fmi, fileIds));
+	}
+
+	/**
+	 * Creates the attributes shared by all the images of a reconstruction.
+	 */
+	private Attributes createSeriesAttributes(ParaVisionParameters visuPars, ParaVisionParameters method,
+			ParaVisionParameters acqp) {
+		Attributes attributes = new Attributes();
+		attributes.setString(Tag.SpecificCharacterSet, VR.CS, "ISO_IR 100");
+		attributes.setString(Tag.SOPClassUID, VR.UI, UID.MRImageStorage);
+		attributes.setString(Tag.Modality, VR.CS, "MR");
+		attributes.setString(Tag.ImageType, VR.CS, "ORIGINAL", "PRIMARY");
+		attributes.setString(Tag.Manufacturer, VR.LO, defaultIfNull(visuPars.getString("VisuManufacturer"), MANUFACTURER));
+		setIfDefined(attributes, Tag.InstitutionName, VR.LO, visuPars.getString("VisuInstitution"));
+		setIfDefined(attributes, Tag.StationName, VR.SH, visuPars.getString("VisuStation"));
+		setIfDefined(attributes, Tag.SoftwareVersions, VR.LO, visuPars.getString("VisuCreatorVersion"));
+
+		String subjectId = defaultIfNull(visuPars.getString("VisuSubjectId"), visuPars.getString("VisuSubjectName"));
+		attributes.setString(Tag.PatientID, VR.LO, defaultIfNull(subjectId, "unknown"));
+		attributes.setString(Tag.PatientName, VR.PN, defaultIfNull(visuPars.getString("VisuSubjectName"), subjectId));
+		attributes.setString(Tag.PatientSex, VR.CS, toPatientSex(visuPars.getString("VisuSubjectSex")));
+		if (visuPars.contains("VisuSubjectWeight")) {
+			attributes.setDouble(Tag.PatientWeight, VR.DS, visuPars.getDouble("VisuSubjectWeight", 0));
+		}
+
+		attributes.setString(Tag.StudyInstanceUID, VR.UI, validUid(visuPars.getString("VisuStudyUid")));
+		attributes.setString(Tag.StudyID, VR.SH, defaultIfNull(visuPars.getString("VisuStudyNumber"), "1"));
+		setIfDefined(attributes, Tag.StudyDescription, VR.LO, visuPars.getString("VisuStudyId"));
+		setDateTime(attributes, Tag.StudyDate, Tag.StudyTime, visuPars.getString("VisuStudyDate"));
+
+		attributes.setString(Tag.SeriesInstanceUID, VR.UI, validUid(visuPars.getString("VisuUid")));
+		attributes.setInt(Tag.SeriesNumber, VR.IS, visuPars.getInt("VisuExperimentNumber", seriesCount + 1) * 10000
+				+ visuPars.getInt("VisuProcessingNumber", 1));
+		String protocol = visuPars.getString("VisuAcquisitionProtocol");
+		setIfDefined(attributes, Tag.SeriesDescription, VR.LO, protocol);
+		setIfDefined(attributes, Tag.ProtocolName, VR.LO, protocol);
+		setIfDefined(attributes, Tag.SequenceName, VR.SH, visuPars.getString("VisuAcqSequenceName"));
+		setDateTime(attributes, Tag.SeriesDate, Tag.SeriesTime, visuPars.getString("VisuAcqDate"));
+		attributes.setString(Tag.FrameOfReferenceUID, VR.UI, validUid(visuPars.getString("VisuCoreFrameOfReferenceUid")));
+
+		double[] repetitionTimes = firstDefined(visuPars.getDoubles("VisuAcqRepetitionTime"), method, "PVM_RepetitionTime");
+		if (repetitionTimes.length > 0) {
+			attributes.setDouble(Tag.RepetitionTime, VR.DS, repetitionTimes[0]);
+		}
+		double[] flipAngles = firstDefined(visuPars.getDoubles("VisuAcqFlipAngle"), acqp, "ACQ_flip_angle");
+		if (flipAngles.length > 0) {
+			attributes.setDouble(Tag.FlipAngle, VR.DS, flipAngles[0]);
+		}
+		if (visuPars.contains("VisuMagneticFieldStrength")) {
+			attributes.setDouble(Tag.MagneticFieldStrength, VR.DS, visuPars.getDouble("VisuMagneticFieldStrength", 0));
+		}
+
+		attributes.setInt(Tag.SamplesPerPixel, VR.US, 1);
+		attributes.setString(Tag.PhotometricInterpretation, VR.CS, "MONOCHROME2");
+		attributes.setInt(Tag.BitsAllocated, VR.US, 16);
+		attributes.setInt(Tag.BitsStored, VR.US, 16);
+		attributes.setInt(Tag.HighBit, VR.US, 15);
+		attributes.setInt(Tag.PixelRepresentation, VR.US, 1);
+		return attributes;
+	}
+
+	/**
+	 * Reads one image and converts it to signed 16 bits little endian pixels,
+	 * setting the rescale slope and intercept that give back the real values.
+	 * 32 bits data are linearly mapped on the whole 16 bits range of the image.
+	 */
+	private static byte[] toSignedShorts(ByteBuffer buffer, String wordType, int pixelCount, double slope,
+			double offset, Attributes attributes) {
+		ByteBuffer pixels = ByteBuffer.allocate(pixelCount * 2).order(ByteOrder.LITTLE_ENDIAN);
+		double rescaleSlope = slope;
+		double rescaleIntercept = offset;
+		if (WORD_8BIT_UNSIGNED.equals(wordType)) {
+			for (int i = 0; i < pixelCount; i++) {
+				pixels.putShort((short) (buffer.get() & 0xFF));
+			}
+		} else if (WORD_16BIT_SIGNED.equals(wordType)) {
+			for (int i = 0; i < pixelCount; i++) {
+				pixels.putShort(buffer.getShort());
+			}
+		} else {
+			boolean isFloat = WORD_32BIT_FLOAT.equals(wordType);
+			double[] values = new double[pixelCount];
+			double min = Double.MAX_VALUE;
+			double max = -Double.MAX_VALUE;
+			for (int i = 0; i < pixelCount; i++) {
+				values[i] = isFloat ? buffer.getFloat() : buffer.getInt();
+				min = Math.min(min, values[i]);
+				max = Math.max(max, values[i]);
+			}
+			double scale = max > min ? (max - min) / SHORT_RANGE : 1;
+			for (int i = 0; i < pixelCount; i++) {
+				pixels.putShort((short) (Math.round((values[i] - min) / scale) - SHORT_OFFSET));
+			}
+			rescaleSlope = slope * scale;
+			rescaleIntercept = slope * (SHORT_OFFSET * scale + min) + offset;
+		}
+		attributes.setDouble(Tag.RescaleSlope, VR.DS, rescaleSlope);
+		attributes.setDouble(Tag.RescaleIntercept, VR.DS, rescaleIntercept);
+		return pixels.array();
+	}
+
+	private static double[] firstDefined(double[] values, ParaVisionParameters fallback, String fallbackName) {
+		if (values.length > 0 || fallback == null) {
+			return values;
+		}
+		return fallback.getDoubles(fallbackName);
+	}
+
+	private static double valueAt(double[] values, int index, double defaultValue) {
+		return values.length > 0 ? values[index % values.length] : defaultValue;
+	}
+
+	private static String validUid(String uid) {
+		return uid != null && UIDUtils.isValid(uid) ? uid : UIDUtils.createUID();
+	}
+
+	private static String defaultIfNull(String value, String defaultValue) {
+		return value == null || value.isEmpty() ? defaultValue : value;
+	}
+
+	private static void setIfDefined(Attributes attributes, int tag, VR vr, String value) {
+		if (value != null && !value.isEmpty()) {
+			attributes.setString(tag, vr, value);
+		}
+	}
+
+	private static String toPatientSex(String sex) {
+		if ("MALE".equals(sex)) {
+			return "M";
+		} else if ("FEMALE".equals(sex)) {
+			return "F";
+		}
+		return "O";
+	}
+
+	/**
+	 * Sets a date and a time from a ParaVision date, "2019-03-14T10:01:02,000+0100".
+	 * Older ParaVision date formats are ignored.
+	 */
+	private static void setDateTime(Attributes attributes, int dateTag, int timeTag, String value) {
+		if (value == null || value.length() < 19) {
+			return;
+		}
+		try {
+			LocalDateTime dateTime = LocalDateTime.parse(value.substring(0, 19));
+			attributes.setString(dateTag, VR.DA, dateTime.format(DICOM_DATE));
+			attributes.setString(timeTag, VR.TM, dateTime.format(DICOM_TIME));
+		} catch (DateTimeParseException e) {
+			// not a ParaVision 6 date: left empty
+		}
+	}
+
+}
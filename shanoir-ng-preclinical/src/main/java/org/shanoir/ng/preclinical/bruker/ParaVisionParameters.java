@@ -0,0 +1,205 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.preclinical.bruker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parameters of a ParaVision file (visu_pars, method, acqp...), written in the
+ * JCAMP-DX format: "##$Name=value" records, array values being announced by
+ * their dimensions "( n )" and written on the following lines.
+ */
+public class ParaVisionParameters {
+
+	private static final String RECORD_PREFIX = "##";
+
+	private static final String COMMENT_PREFIX = "$$";
+
+	private static final Pattern DIMENSIONS = Pattern.compile("^\\(\\s*\\d+(\\s*,\\s*\\d+)*\\s*\\)$");
+
+	/** ParaVision 6 compresses repeated values as "@count*(value)". */
+	private static final Pattern REPETITION = Pattern.compile("^@(\\d+)\\*\\((.*)\\)$");
+
+	private final Map<String, String> values = new HashMap<>();
+
+	/**
+	 * Parses the parameters from a stream. The stream is not closed, so that
+	 * it can be a zip entry.
+	 * 
+	 * @param in the stream
+	 * @return the parameters
+	 * @throws IOException
+	 */
+	public static ParaVisionParameters parse(InputStream in) throws IOException {
+		ParaVisionParameters parameters = new ParaVisionParameters();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.ISO_8859_1));
+		String name = null;
+		StringBuilder value = new StringBuilder();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.startsWith(COMMENT_PREFIX)) {
+				continue;
+			}
+			if (line.startsWith(RECORD_PREFIX)) {
+				parameters.put(name, value);
+				name = null;
+				value.setLength(0);
+				int equals = line.indexOf('=');
+				if (equals != -1) {
+					name = line.substring(RECORD_PREFIX.length(), equals).replace("$", "").trim();
+					String first = line.substring(equals + 1).trim();
+					if (!DIMENSIONS.matcher(first).matches()) {
+						value.append(first);
+					}
+				}
+			} else if (name != null) {
+				if (value.length() > 0) {
+					value.append('\n');
+				}
+				value.append(line.trim());
+			}
+		}
+		parameters.put(name, value);
+		return parameters;
+	}
+
+	private void put(String name, StringBuilder value) {
+		if (name != null && !name.isEmpty()) {
+			values.put(name, value.toString());
+		}
+	}
+
+	/**
+	 * @param name a parameter name, without its "$" prefix
+	 * @return true if the parameter is defined
+	 */
+	public boolean contains(String name) {
+		return values.containsKey(name);
+	}
+
+	/**
+	 * @param name a parameter name
+	 * @return the raw value of the parameter, null if it is not defined
+	 */
+	public String getRaw(String name) {
+		return values.get(name);
+	}
+
+	/**
+	 * Gets a string value, the "&lt;" and "&gt;" delimiters and line breaks removed.
+	 * 
+	 * @param name a parameter name
+	 * @return the value, null if it is not defined
+	 */
+	public String getString(String name) {
+		String value = values.get(name);
+		if (value == null) {
+			return null;
+		}
+		value = value.replace("\n", "");
+		int start = value.indexOf('<');
+		int end = value.lastIndexOf('>');
+		if (start != -1 && end > start) {
+			return value.substring(start + 1, end).trim();
+		}
+		return value.trim();
+	}
+
+	/**
+	 * Gets the values of an array, expanding the "@n*(value)" repetitions.
+	 * 
+	 * @param name a parameter name
+	 * @return the values, empty if the parameter is not defined
+	 */
+	public List<String> getValues(String name) {
+		List<String> result = new ArrayList<>();
+		String value = values.get(name);
+		if (value == null) {
+			return result;
+		}
+		for (String token : value.trim().split("\\s+")) {
+			if (token.isEmpty()) {
+				continue;
+			}
+			Matcher repetition = REPETITION.matcher(token);
+			if (repetition.matches()) {
+				int count = Integer.parseInt(repetition.group(1));
+				for (int i = 0; i < count; i++) {
+					result.add(repetition.group(2));
+				}
+			} else {
+				result.add(token);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param name a parameter name
+	 * @return the numeric values of an array, empty if the parameter is not defined
+	 */
+	public double[] getDoubles(String name) {
+		List<String> tokens = getValues(name);
+		double[] result = new double[tokens.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = Double.parseDouble(tokens.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * @param name a parameter name
+	 * @return the integer values of an array, empty if the parameter is not defined
+	 */
+	public int[] getInts(String name) {
+		double[] doubles = getDoubles(name);
+		int[] result = new int[doubles.length];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = (int) doubles[i];
+		}
+		return result;
+	}
+
+	/**
+	 * @param name a parameter name
+	 * @param defaultValue the value returned if the parameter is missing or empty
+	 * @return the first numeric value of the parameter
+	 */
+	public double getDouble(String name, double defaultValue) {
+		double[] doubles = getDoubles(name);
+		return doubles.length > 0 ? doubles[0] : defaultValue;
+	}
+
+	/**
+	 * @param name a parameter name
+	 * @param defaultValue the value returned if the parameter is missing or empty
+	 * @return the first integer value of the parameter
+	 */
+	public int getInt(String name, int defaultValue) {
+		int[] ints = getInts(name);
+		return ints.length > 0 ? ints[0] : defaultValue;
+	}
+
+}
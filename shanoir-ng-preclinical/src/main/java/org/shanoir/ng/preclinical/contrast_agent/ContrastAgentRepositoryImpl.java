@@ -19,6 +19,7 @@ import java.util.List;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import org.shanoir.ng.utils.RepositoryUtils;
 import org.springframework.stereotype.Component;
 
 
@@ -28,13 +29,9 @@ public class ContrastAgentRepositoryImpl implements ContrastAgentRepositoryCusto
 	@PersistenceContext
     private EntityManager em;
 		
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<ContrastAgent> findBy(String fieldName, Object value) {
-		return em.createQuery(
-				"SELECT ca FROM ContrastAgent ca WHERE ca." + fieldName + " LIKE :value")
-				.setParameter("value", value)
-				.getResultList();
+		return RepositoryUtils.findBy(em, ContrastAgent.class, fieldName, value);
 	}
 		
 	
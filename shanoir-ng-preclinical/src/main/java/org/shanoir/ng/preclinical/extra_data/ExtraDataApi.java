@@ -14,13 +14,18 @@
 
 package org.shanoir.ng.preclinical.extra_data;
 
+import java.io.IOException;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.shanoir.ng.preclinical.extra_data.bloodgas_data.BloodGasData;
 import org.shanoir.ng.preclinical.extra_data.examination_extra_data.ExaminationExtraData;
 import org.shanoir.ng.preclinical.extra_data.physiological_data.PhysiologicalData;
+import org.shanoir.ng.preclinical.extra_data.timeseries.TimeSeriesChannel;
+import org.shanoir.ng.preclinical.extra_data.timeseries.TimeSeriesWindow;
 import org.shanoir.ng.shared.exception.RestServiceException;
-import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -137,8 +142,35 @@ public interface ExtraDataApi {
 			@ApiResponse(code = 500, message = "Unexpected Error", response = Void.class) })
 	@GetMapping(value = "/examination/extradata/download/{id}", produces = {
 			MediaType.APPLICATION_OCTET_STREAM_VALUE, "application/json" })
-	ResponseEntity<Resource> downloadExtraData(
-			@ApiParam(value = "Examination extra data id to download", required = true) @PathVariable("id") Long id)
+	void downloadExtraData(
+			@ApiParam(value = "Examination extra data id to download", required = true) @PathVariable("id") Long id,
+			HttpServletRequest request, HttpServletResponse response) throws RestServiceException, IOException;
+
+	@ApiOperation(value = "List the time series channels of an extradata file", notes = "", response = TimeSeriesChannel.class, responseContainer = "List", tags = {
+			"ExaminationExtraData", })
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "An array of channels, empty if the file has no time series", response = TimeSeriesChannel.class),
+			@ApiResponse(code = 404, message = "Examination extra data not found", response = Void.class),
+			@ApiResponse(code = 500, message = "Unexpected error", response = Void.class) })
+	@GetMapping(value = "/examination/extradata/{id}/timeseries", produces = { "application/json" })
+	ResponseEntity<List<TimeSeriesChannel>> getTimeSeriesChannels(
+			@ApiParam(value = "Examination extra data id", required = true) @PathVariable("id") Long id)
+			throws RestServiceException;
+
+	@ApiOperation(value = "Get a downsampled window of a time series channel", notes = "Consecutive samples are grouped into at most 'points' buckets, each one giving its first time and the min, max and mean of its values", response = TimeSeriesWindow.class, tags = {
+			"ExaminationExtraData", })
+	@ApiResponses(value = {
+			@ApiResponse(code = 200, message = "The downsampled window", response = TimeSeriesWindow.class),
+			@ApiResponse(code = 404, message = "Examination extra data or channel not found", response = Void.class),
+			@ApiResponse(code = 422, message = "Invalid number of points", response = Void.class),
+			@ApiResponse(code = 500, message = "Unexpected error", response = Void.class) })
+	@GetMapping(value = "/examination/extradata/{id}/timeseries/window", produces = { "application/json" })
+	ResponseEntity<TimeSeriesWindow> getTimeSeriesWindow(
+			@ApiParam(value = "Examination extra data id", required = true) @PathVariable("id") Long id,
+			@ApiParam(value = "Channel name", required = true) @RequestParam("channel") String channel,
+			@ApiParam(value = "Start time of the window") @RequestParam(value = "from", required = false) Double from,
+			@ApiParam(value = "End time of the window") @RequestParam(value = "to", required = false) Double to,
+			@ApiParam(value = "Max number of points") @RequestParam(value = "points", required = false, defaultValue = "500") int points)
 			throws RestServiceException;
 
 	@ApiOperation(value = "Update an existing physiologicalData", notes = "", response = Void.class, tags = {
@@ -20,11 +20,19 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.shanoir.ng.configuration.ShanoirPreclinicalConfiguration;
 import org.shanoir.ng.preclinical.extra_data.bloodgas_data.BloodGasData;
 import org.shanoir.ng.preclinical.extra_data.examination_extra_data.ExaminationExtraData;
 import org.shanoir.ng.preclinical.extra_data.physiological_data.PhysiologicalData;
+import org.shanoir.ng.preclinical.extra_data.timeseries.TimeSeriesChannel;
+import org.shanoir.ng.preclinical.extra_data.timeseries.TimeSeriesStore;
+import org.shanoir.ng.preclinical.extra_data.timeseries.TimeSeriesWindow;
 import org.shanoir.ng.shared.error.FieldErrorMap;
 import org.shanoir.ng.shared.exception.ErrorDetails;
 import org.shanoir.ng.shared.exception.ErrorModel;
@@ -32,15 +40,12 @@ import org.shanoir.ng.shared.exception.RestServiceException;
 import org.shanoir.ng.shared.exception.ShanoirException;
 import org.shanoir.ng.shared.validation.EditableOnlyByValidator;
 import org.shanoir.ng.shared.validation.UniqueValidator;
+import org.shanoir.ng.utils.FileServingUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
@@ -58,6 +63,15 @@ public class ExtraDataApiController implements ExtraDataApi {
 
 	private static final Logger LOG = LoggerFactory.getLogger(ExtraDataApiController.class);
 
+	/** Separates the words of a lower cased channel name: "HR (bpm)", "heart_rate", "SpO2-1". */
+	private static final Pattern CHANNEL_NAME_SEPARATOR = Pattern.compile("[^a-z0-9]+");
+
+	/* Whole words of the channel names flagging a physiological signal */
+	private static final Pattern HEART_RATE_WORD = Pattern.compile("heart.*|pulse.*|hr|bpm");
+	private static final Pattern RESPIRATORY_RATE_WORD = Pattern.compile("resp.*|breath.*");
+	private static final Pattern SAO2_WORD = Pattern.compile("sao2|spo2|satur.*");
+	private static final Pattern TEMPERATURE_WORD = Pattern.compile("temp.*");
+
 	@Autowired
 	private ExtraDataService<ExaminationExtraData> extraDataService;
 	@Autowired
@@ -66,6 +80,8 @@ public class ExtraDataApiController implements ExtraDataApi {
 	private ExtraDataService<BloodGasData> bloodGasDataService;
 	@Autowired
 	private ShanoirPreclinicalConfiguration preclinicalConfig;
+	@Autowired
+	private TimeSeriesStore timeSeriesStore;
 	@Value("${preclinical.uploadExtradataFolder}")
 	private String extraDataPath;
 
@@ -87,6 +103,7 @@ public class ExtraDataApiController implements ExtraDataApi {
 
 		try {
 			extradata = saveUploadedFile(extradata, uploadfiles[0]);
+			importTimeSeries(extradata);
 			extraDataService.save(extradata);
 			return new ResponseEntity<>(extradata, HttpStatus.OK);
 		} catch (IOException e) {
@@ -203,6 +220,7 @@ public class ExtraDataApiController implements ExtraDataApi {
 			LOG.error("There was an error trying to delete files from " + toDelete.getFilepath()
 					+ toDelete.getFilename() + " " + e.getMessage(), e);
 		}
+		timeSeriesStore.delete(toDelete);
 		try {
 			extraDataService.deleteById(toDelete.getId());
 		} catch (ShanoirException e) {
@@ -233,30 +251,66 @@ public class ExtraDataApiController implements ExtraDataApi {
 	}
 
 	@Override
-	public ResponseEntity<Resource> downloadExtraData(
-			@ApiParam(value = "ID of exam extra data file to download", required = true) @PathVariable("id") Long id)
+	public void downloadExtraData(
+			@ApiParam(value = "ID of exam extra data file to download", required = true) @PathVariable("id") Long id,
+			HttpServletRequest request, HttpServletResponse response) throws RestServiceException, IOException {
+
+		final ExaminationExtraData extradata = extraDataService.findById(id);
+		if (extradata == null) {
+			response.sendError(HttpStatus.NO_CONTENT.value());
+			return;
+		}
+		File toDownload = new File(extradata.getFilepath());
+		if (!toDownload.isFile()) {
+			LOG.error("Error while getting file to download {}", toDownload.getAbsolutePath());
+			response.sendError(HttpStatus.NOT_FOUND.value());
+			return;
+		}
+		FileServingUtil.serve(toDownload, extradata.getFilename().replace(" ", "_"), null, request, response);
+	}
+
+	@Override
+	public ResponseEntity<List<TimeSeriesChannel>> getTimeSeriesChannels(
+			@ApiParam(value = "Examination extra data id", required = true) @PathVariable("id") Long id)
 			throws RestServiceException {
+		final ExaminationExtraData extradata = extraDataService.findById(id);
+		if (extradata == null) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+		try {
+			return new ResponseEntity<>(timeSeriesStore.getChannels(extradata), HttpStatus.OK);
+		} catch (IOException e) {
+			throw new RestServiceException(e, new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(),
+					"Error while reading time series of extradata " + id, null));
+		}
+	}
 
+	@Override
+	public ResponseEntity<TimeSeriesWindow> getTimeSeriesWindow(
+			@ApiParam(value = "Examination extra data id", required = true) @PathVariable("id") Long id,
+			@ApiParam(value = "Channel name", required = true) @RequestParam("channel") String channel,
+			@ApiParam(value = "Start time of the window") @RequestParam(value = "from", required = false) Double from,
+			@ApiParam(value = "End time of the window") @RequestParam(value = "to", required = false) Double to,
+			@ApiParam(value = "Max number of points") @RequestParam(value = "points", required = false, defaultValue = "500") int points)
+			throws RestServiceException {
+		if (points < 1 || points > TimeSeriesStore.MAX_POINTS) {
+			throw new RestServiceException(new ErrorModel(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+					"The number of points must be between 1 and " + TimeSeriesStore.MAX_POINTS, null));
+		}
 		final ExaminationExtraData extradata = extraDataService.findById(id);
-		if (extradata != null) {
-			try {
-				File toDownload = new File(extradata.getFilepath());
-				Path path = Paths.get(toDownload.getAbsolutePath());
-				ByteArrayResource resource = new ByteArrayResource(Files.readAllBytes(path));
-
-				HttpHeaders header = new HttpHeaders();
-				header.setContentType(MediaType.APPLICATION_PDF);
-				header.set(HttpHeaders.CONTENT_DISPOSITION,
-						"attachment; filename=" + extradata.getFilename().replace(" ", "_"));
-
-				return ResponseEntity.ok().headers(header).contentLength(toDownload.length())
-						.contentType(MediaType.parseMediaType("application/octet-stream")).body((Resource) resource);
-			} catch (IOException ioe) {
-				LOG.error("Error while getting file to download " + ioe.getMessage(), ioe);
+		if (extradata == null) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+		try {
+			final TimeSeriesWindow window = timeSeriesStore.query(extradata, channel, from, to, points);
+			if (window == null) {
 				return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 			}
+			return new ResponseEntity<>(window, HttpStatus.OK);
+		} catch (IOException e) {
+			throw new RestServiceException(e, new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(),
+					"Error while reading time series of extradata " + id, null));
 		}
-		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 	}
 
 	@Override
@@ -352,11 +406,48 @@ public class ExtraDataApiController implements ExtraDataApi {
 		Files.createDirectories(path);
 		// Path to file
 		Path pathToFile = Paths.get(path.toString() + File.pathSeparator + file.getOriginalFilename());
-		byte[] bytes = file.getBytes();
-		Files.write(pathToFile, bytes);
+		file.transferTo(pathToFile.toFile());
 		extradata.setFilename(file.getOriginalFilename());
 		extradata.setFilepath(pathToFile.toString());
 		return extradata;
 	}
 
+	/**
+	 * Stores the channels of an uploaded delimited file, so that they can be
+	 * plotted by window. Physiological flags are set from the words of the
+	 * channel names, a flag being cleared when no channel of the new file has
+	 * it. A file which cannot be parsed is still kept as a plain attachment.
+	 */
+	private void importTimeSeries(ExaminationExtraData extradata) {
+		timeSeriesStore.delete(extradata);
+		if (!timeSeriesStore.isSupported(extradata.getFilename())) {
+			return;
+		}
+		try {
+			List<TimeSeriesChannel> channels = timeSeriesStore.importFile(extradata, Paths.get(extradata.getFilepath()));
+			if (extradata instanceof PhysiologicalData) {
+				PhysiologicalData physioData = (PhysiologicalData) extradata;
+				physioData.setHasHeartRate(false);
+				physioData.setHasRespiratoryRate(false);
+				physioData.setHasSao2(false);
+				physioData.setHasTemperature(false);
+				for (TimeSeriesChannel channel : channels) {
+					for (String word : CHANNEL_NAME_SEPARATOR.split(channel.getName().toLowerCase(Locale.ROOT))) {
+						if (HEART_RATE_WORD.matcher(word).matches()) {
+							physioData.setHasHeartRate(true);
+						} else if (RESPIRATORY_RATE_WORD.matcher(word).matches()) {
+							physioData.setHasRespiratoryRate(true);
+						} else if (SAO2_WORD.matcher(word).matches()) {
+							physioData.setHasSao2(true);
+						} else if (TEMPERATURE_WORD.matcher(word).matches()) {
+							physioData.setHasTemperature(true);
+						}
+					}
+				}
+			}
+		} catch (IOException e) {
+			LOG.warn("Could not read time series from {}: {}", extradata.getFilepath(), e.getMessage());
+		}
+	}
+
 }
@@ -20,6 +20,7 @@ import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
 import org.shanoir.ng.preclinical.extra_data.examination_extra_data.ExaminationExtraData;
+import org.shanoir.ng.utils.RepositoryUtils;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -28,17 +29,14 @@ public class ExtraDataRepositoryImpl implements ExtraDataRepositoryCustom<Examin
 	@PersistenceContext
 	private EntityManager em;
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<ExaminationExtraData> findBy(String fieldName, Object value) {
-		return em.createQuery("SELECT ex FROM ExaminationExtraData ex WHERE ex." + fieldName + " LIKE :value")
-				.setParameter("value", value).getResultList();
+		return RepositoryUtils.findBy(em, ExaminationExtraData.class, fieldName, value);
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<ExaminationExtraData> findAllByExaminationId(Long id) {
-		return em.createQuery("SELECT ex FROM ExaminationExtraData ex WHERE ex.examinationId" + " LIKE :id")
+		return em.createQuery("SELECT ex FROM ExaminationExtraData ex WHERE ex.examinationId = :id", ExaminationExtraData.class)
 				.setParameter("id", id).getResultList();
 	}
 
@@ -0,0 +1,84 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.preclinical.extra_data.timeseries;
+
+/**
+ * A channel (column) of a stored physiological time series.
+ */
+public class TimeSeriesChannel {
+
+	private String name;
+
+	private int sampleCount;
+
+	private Double start;
+
+	private Double end;
+
+	public TimeSeriesChannel() {
+	}
+
+	public TimeSeriesChannel(String name, int sampleCount, Double start, Double end) {
+		this.name = name;
+		this.sampleCount = sampleCount;
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * @return the name of the channel, as found in the header of the file
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @return the number of samples
+	 */
+	public int getSampleCount() {
+		return sampleCount;
+	}
+
+	public void setSampleCount(int sampleCount) {
+		this.sampleCount = sampleCount;
+	}
+
+	/**
+	 * @return the time of the first sample, null if there is no sample
+	 */
+	public Double getStart() {
+		return start;
+	}
+
+	public void setStart(Double start) {
+		this.start = start;
+	}
+
+	/**
+	 * @return the time of the last sample, null if there is no sample
+	 */
+	public Double getEnd() {
+		return end;
+	}
+
+	public void setEnd(Double end) {
+		this.end = end;
+	}
+
+}
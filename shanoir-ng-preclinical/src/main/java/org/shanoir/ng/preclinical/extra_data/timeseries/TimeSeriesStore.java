@@ -0,0 +1,363 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.preclinical.extra_data.timeseries;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+import org.shanoir.ng.preclinical.extra_data.examination_extra_data.ExaminationExtraData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Columnar store of the physiological time series uploaded as extra data.
+ * A CSV / TSV file with a header line is parsed once at upload into one
+ * binary file per column (64 bits times, 32 bits values), in a folder per
+ * examination and extra data. Windows of a channel are then read through a
+ * memory mapping and downsampled on the server.
+ */
+@Service
+public class TimeSeriesStore {
+
+	public static final String TIMESERIES_FOLDER = "timeseries";
+
+	/** Max number of buckets of a window. */
+	public static final int MAX_POINTS = 5000;
+
+	private static final List<String> SUPPORTED_EXTENSIONS = Arrays.asList(".csv", ".tsv", ".txt");
+
+	private static final Pattern TIME_COLUMN = Pattern.compile("(?i)^(t|time|times|timestamp|sec|secs|seconds|s)([ _(\\[].*)?$");
+
+	private static final int MAX_CHANNELS = 64;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final String INDEX_FILE = "index.properties";
+	private static final String TIME_FILE = "time.f64";
+	private static final String CHANNEL_FILE = "%d.f32";
+
+	private static final String SAMPLE_COUNT = "samples";
+	private static final String CHANNEL_COUNT = "channels";
+	private static final String CHANNEL_NAME = "channel.";
+	private static final String START = "start";
+	private static final String END = "end";
+
+	@Value("${preclinical.uploadExtradataFolder}")
+	private String extraDataPath;
+
+	/**
+	 * @param fileName an uploaded file name
+	 * @return true if the file may contain time series
+	 */
+	public boolean isSupported(String fileName) {
+		if (fileName == null) {
+			return false;
+		}
+		String lowerCase = fileName.toLowerCase(Locale.ROOT);
+		return SUPPORTED_EXTENSIONS.stream().anyMatch(lowerCase::endsWith);
+	}
+
+	/**
+	 * Parses a delimited file into the store, replacing the previous series of
+	 * the extra data. The file is read line by line.
+	 * 
+	 * @param extradata the extra data the file was uploaded to
+	 * @param source the uploaded file
+	 * @return the stored channels
+	 * @throws IOException if the file cannot be read or has no valid header
+	 */
+	public List<TimeSeriesChannel> importFile(ExaminationExtraData extradata, Path source) throws IOException {
+		Path directory = getDirectory(extradata);
+		delete(extradata);
+		Files.createDirectories(directory);
+		try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.ISO_8859_1)) {
+			return importSeries(reader, directory);
+		} catch (IOException | RuntimeException e) {
+			delete(extradata);
+			throw e;
+		}
+	}
+
+	private List<TimeSeriesChannel> importSeries(BufferedReader reader, Path directory) throws IOException {
+		String header = reader.readLine();
+		while (header != null && header.trim().isEmpty()) {
+			header = reader.readLine();
+		}
+		if (header == null) {
+			throw new IOException("Empty time series file");
+		}
+		char delimiter = detectDelimiter(header);
+		String[] names = split(header, delimiter);
+		int timeColumn = -1;
+		List<Integer> columns = new ArrayList<>();
+		for (int i = 0; i < names.length; i++) {
+			if (!Double.isNaN(parse(names[i], delimiter))) {
+				throw new IOException("A header line with the channel names is expected");
+			}
+			if (timeColumn == -1 && TIME_COLUMN.matcher(names[i]).matches()) {
+				timeColumn = i;
+			} else if (columns.size() < MAX_CHANNELS && !names[i].isEmpty()) {
+				columns.add(i);
+			}
+		}
+		if (columns.isEmpty()) {
+			throw new IOException("No channel found in the header line");
+		}
+
+		DataOutputStream timeOut = open(directory.resolve(TIME_FILE));
+		List<DataOutputStream> valueOuts = new ArrayList<>(columns.size());
+		int samples = 0;
+		double start = Double.NaN;
+		double previous = Double.NEGATIVE_INFINITY;
+		try {
+			for (int c = 0; c < columns.size(); c++) {
+				valueOuts.add(open(directory.resolve(String.format(CHANNEL_FILE, c))));
+			}
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+				String[] fields = split(line, delimiter);
+				double time = timeColumn == -1 ? samples
+						: timeColumn < fields.length ? parse(fields[timeColumn], delimiter) : Double.NaN;
+				if (Double.isNaN(time)) {
+					continue;
+				}
+				if (time < previous) {
+					throw new IOException("The time column must be increasing, at line " + (samples + 2));
+				}
+				previous = time;
+				if (samples == 0) {
+					start = time;
+				}
+				timeOut.writeDouble(time);
+				for (int c = 0; c < columns.size(); c++) {
+					int column = columns.get(c);
+					valueOuts.get(c).writeFloat(column < fields.length ? (float) parse(fields[column], delimiter) : Float.NaN);
+				}
+				samples++;
+			}
+		} finally {
+			timeOut.close();
+			for (DataOutputStream out : valueOuts) {
+				out.close();
+			}
+		}
+
+		Properties index = new Properties();
+		index.setProperty(SAMPLE_COUNT, String.valueOf(samples));
+		index.setProperty(CHANNEL_COUNT, String.valueOf(columns.size()));
+		if (samples > 0) {
+			index.setProperty(START, String.valueOf(start));
+			index.setProperty(END, String.valueOf(previous));
+		}
+		for (int c = 0; c < columns.size(); c++) {
+			index.setProperty(CHANNEL_NAME + c, names[columns.get(c)]);
+		}
+		try (Writer writer = Files.newBufferedWriter(directory.resolve(INDEX_FILE), StandardCharsets.UTF_8)) {
+			index.store(writer, null);
+		}
+		return toChannels(index);
+	}
+
+	/**
+	 * @param extradata an extra data
+	 * @return the stored channels, empty if no time series was stored for it
+	 * @throws IOException
+	 */
+	public List<TimeSeriesChannel> getChannels(ExaminationExtraData extradata) throws IOException {
+		Properties index = readIndex(getDirectory(extradata));
+		return index == null ? new ArrayList<>() : toChannels(index);
+	}
+
+	/**
+	 * Reads a window of a channel, downsampled into at most the given number of
+	 * buckets of consecutive samples.
+	 * 
+	 * @param extradata an extra data
+	 * @param channel the channel name
+	 * @param from the min time of the window, null for the start of the series
+	 * @param to the max time of the window, null for the end of the series
+	 * @param points the max number of buckets
+	 * @return the window, null if the channel does not exist
+	 * @throws IOException
+	 */
+	public TimeSeriesWindow query(ExaminationExtraData extradata, String channel, Double from, Double to, int points)
+			throws IOException {
+		Path directory = getDirectory(extradata);
+		Properties index = readIndex(directory);
+		if (index == null) {
+			return null;
+		}
+		int channelIndex = -1;
+		int channelCount = Integer.parseInt(index.getProperty(CHANNEL_COUNT));
+		for (int c = 0; c < channelCount && channelIndex == -1; c++) {
+			if (index.getProperty(CHANNEL_NAME + c).equals(channel)) {
+				channelIndex = c;
+			}
+		}
+		if (channelIndex == -1) {
+			return null;
+		}
+		int samples = Integer.parseInt(index.getProperty(SAMPLE_COUNT));
+		try (FileChannel timeChannel = FileChannel.open(directory.resolve(TIME_FILE), StandardOpenOption.READ);
+				FileChannel valueChannel = FileChannel.open(directory.resolve(String.format(CHANNEL_FILE, channelIndex)),
+						StandardOpenOption.READ)) {
+			DoubleBuffer times = timeChannel.map(FileChannel.MapMode.READ_ONLY, 0, samples * 8L).asDoubleBuffer();
+			FloatBuffer values = valueChannel.map(FileChannel.MapMode.READ_ONLY, 0, samples * 4L).asFloatBuffer();
+			int first = from == null ? 0 : firstIndexNotBefore(times, samples, from);
+			int last = to == null ? samples : firstIndexNotBefore(times, samples, Math.nextUp(to));
+			int count = Math.max(0, last - first);
+			int buckets = Math.min(points, count);
+			TimeSeriesWindow window = new TimeSeriesWindow(channel, count, buckets);
+			for (int b = 0; b < buckets; b++) {
+				int bucketStart = first + (int) ((long) count * b / buckets);
+				int bucketEnd = first + (int) ((long) count * (b + 1) / buckets);
+				double min = Double.POSITIVE_INFINITY;
+				double max = Double.NEGATIVE_INFINITY;
+				double sum = 0;
+				int valid = 0;
+				for (int i = bucketStart; i < bucketEnd; i++) {
+					float value = values.get(i);
+					if (!Float.isNaN(value)) {
+						min = Math.min(min, value);
+						max = Math.max(max, value);
+						sum += value;
+						valid++;
+					}
+				}
+				window.getTime()[b] = times.get(bucketStart);
+				if (valid > 0) {
+					window.getMin()[b] = min;
+					window.getMax()[b] = max;
+					window.getMean()[b] = sum / valid;
+				}
+			}
+			return window;
+		}
+	}
+
+	/**
+	 * Deletes the stored time series of an extra data, if any.
+	 * 
+	 * @param extradata an extra data
+	 */
+	public void delete(ExaminationExtraData extradata) {
+		FileSystemUtils.deleteRecursively(getDirectory(extradata).toFile());
+	}
+
+	private Path getDirectory(ExaminationExtraData extradata) {
+		return Paths.get(extraDataPath, TIMESERIES_FOLDER, String.valueOf(extradata.getExaminationId()),
+				String.valueOf(extradata.getId()));
+	}
+
+	private static Properties readIndex(Path directory) throws IOException {
+		Path indexFile = directory.resolve(INDEX_FILE);
+		if (!Files.isRegularFile(indexFile)) {
+			return null;
+		}
+		Properties index = new Properties();
+		try (Reader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+			index.load(reader);
+		}
+		return index;
+	}
+
+	private static List<TimeSeriesChannel> toChannels(Properties index) {
+		int samples = Integer.parseInt(index.getProperty(SAMPLE_COUNT));
+		Double start = index.containsKey(START) ? Double.valueOf(index.getProperty(START)) : null;
+		Double end = index.containsKey(END) ? Double.valueOf(index.getProperty(END)) : null;
+		int channelCount = Integer.parseInt(index.getProperty(CHANNEL_COUNT));
+		List<TimeSeriesChannel> channels = new ArrayList<>(channelCount);
+		for (int c = 0; c < channelCount; c++) {
+			channels.add(new TimeSeriesChannel(index.getProperty(CHANNEL_NAME + c), samples, start, end));
+		}
+		return channels;
+	}
+
+	/**
+	 * Binary search of the first sample whose time is not before the given one.
+	 */
+	private static int firstIndexNotBefore(DoubleBuffer times, int samples, double time) {
+		int low = 0;
+		int high = samples;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (times.get(middle) < time) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private static DataOutputStream open(Path file) throws IOException {
+		return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+	}
+
+	/**
+	 * Tabulations first, then semicolons (with decimal commas), then commas.
+	 */
+	private static char detectDelimiter(String header) {
+		if (header.indexOf('\t') != -1) {
+			return '\t';
+		} else if (header.indexOf(';') != -1) {
+			return ';';
+		}
+		return ',';
+	}
+
+	private static String[] split(String line, char delimiter) {
+		String[] fields = line.split(Pattern.quote(String.valueOf(delimiter)), -1);
+		for (int i = 0; i < fields.length; i++) {
+			fields[i] = fields[i].trim().replace("\"", "");
+		}
+		return fields;
+	}
+
+	private static double parse(String field, char delimiter) {
+		String value = delimiter == ',' ? field : field.replace(',', '.');
+		if (value.isEmpty()) {
+			return Double.NaN;
+		}
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+
+}
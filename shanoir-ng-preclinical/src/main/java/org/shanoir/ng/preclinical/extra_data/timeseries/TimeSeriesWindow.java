@@ -0,0 +1,87 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.preclinical.extra_data.timeseries;
+
+/**
+ * A window of a channel, downsampled into buckets of consecutive samples.
+ * For each bucket, the time of its first sample and the min, max and mean of
+ * its values are given; empty values are null.
+ */
+public class TimeSeriesWindow {
+
+	private String channel;
+
+	private int sampleCount;
+
+	private double[] time;
+
+	private Double[] min;
+
+	private Double[] max;
+
+	private Double[] mean;
+
+	public TimeSeriesWindow(String channel, int sampleCount, int bucketCount) {
+		this.channel = channel;
+		this.sampleCount = sampleCount;
+		this.time = new double[bucketCount];
+		this.min = new Double[bucketCount];
+		this.max = new Double[bucketCount];
+		this.mean = new Double[bucketCount];
+	}
+
+	/**
+	 * @return the channel name
+	 */
+	public String getChannel() {
+		return channel;
+	}
+
+	/**
+	 * @return the number of samples in the window, before downsampling
+	 */
+	public int getSampleCount() {
+		return sampleCount;
+	}
+
+	/**
+	 * @return the time of the first sample of each bucket
+	 */
+	public double[] getTime() {
+		return time;
+	}
+
+	/**
+	 * @return the min value of each bucket
+	 */
+	public Double[] getMin() {
+		return min;
+	}
+
+	/**
+	 * @return the max value of each bucket
+	 */
+	public Double[] getMax() {
+		return max;
+	}
+
+	/**
+	 * @return the mean value of each bucket
+	 */
+	public Double[] getMean() {
+		return mean;
+	}
+
+}
@@ -19,6 +19,7 @@ import java.util.Objects;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
+import javax.persistence.Index;
 import javax.persistence.PostLoad;
 import javax.persistence.Table;
 
@@ -36,7 +37,7 @@ import io.swagger.annotations.ApiModelProperty;
  */
 @javax.annotation.Generated(value = "io.swagger.codegen.languages.SpringCodegen", date = "2017-03-23T14:51:04.625Z")
 @Entity
-@Table(name = "pathology")
+@Table(name = "pathology", indexes = { @Index(columnList = "name", name = "i_pathology_name") })
 @JsonPropertyOrder({ "_links", "name" })
 public class Pathology extends HalEntity   {
 	
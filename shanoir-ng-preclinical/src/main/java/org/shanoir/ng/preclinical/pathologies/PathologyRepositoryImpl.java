@@ -19,6 +19,7 @@ import java.util.List;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import org.shanoir.ng.utils.RepositoryUtils;
 import org.springframework.stereotype.Component;
 
 
@@ -28,13 +29,9 @@ public class PathologyRepositoryImpl implements PathologyRepositoryCustom{
 	@PersistenceContext
     private EntityManager em;
 		
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<Pathology> findBy(String fieldName, Object value) {
-		return em.createQuery(
-				"SELECT p FROM Pathology p WHERE p." + fieldName + " LIKE :value")
-				.setParameter("value", value)
-				.getResultList();
+		return RepositoryUtils.findBy(em, Pathology.class, fieldName, value);
 	}
 	
 	
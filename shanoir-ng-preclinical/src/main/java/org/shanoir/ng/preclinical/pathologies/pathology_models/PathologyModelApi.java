@@ -14,10 +14,13 @@
 
 package org.shanoir.ng.preclinical.pathologies.pathology_models;
 
+import java.io.IOException;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.shanoir.ng.shared.exception.RestServiceException;
-import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -120,7 +123,8 @@ public interface PathologyModelApi {
         @ApiResponse(code = 500, message = "Unexpected Error", response = Void.class) })
     @GetMapping(value = "/pathology/model/download/specs/{id}",
         produces = { MediaType.APPLICATION_OCTET_STREAM_VALUE,"application/json" })
-    ResponseEntity<Resource> downloadModelSpecifications(@ApiParam(value = "pathology model id",required=true ) @PathVariable("id") Long id) throws RestServiceException;
+    void downloadModelSpecifications(@ApiParam(value = "pathology model id",required=true ) @PathVariable("id") Long id,
+    		HttpServletRequest request, HttpServletResponse response) throws RestServiceException, IOException;
 
     
 }
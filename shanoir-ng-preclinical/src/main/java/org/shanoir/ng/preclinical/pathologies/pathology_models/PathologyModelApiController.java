@@ -21,6 +21,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.shanoir.ng.configuration.ShanoirPreclinicalConfiguration;
 import org.shanoir.ng.preclinical.pathologies.Pathology;
 import org.shanoir.ng.preclinical.pathologies.PathologyService;
@@ -34,16 +37,13 @@ import org.shanoir.ng.shared.exception.RestServiceException;
 import org.shanoir.ng.shared.exception.ShanoirException;
 import org.shanoir.ng.shared.validation.EditableOnlyByValidator;
 import org.shanoir.ng.shared.validation.UniqueValidator;
+import org.shanoir.ng.utils.FileServingUtil;
 import org.shanoir.ng.utils.KeycloakUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
@@ -227,30 +227,22 @@ public class PathologyModelApiController implements PathologyModelApi {
 	}
 
 	@Override
-	public ResponseEntity<Resource> downloadModelSpecifications(
-			@ApiParam(value = "ID of model specifications file to download", required = true) @PathVariable("id") Long id)
-			throws RestServiceException {
+	public void downloadModelSpecifications(
+			@ApiParam(value = "ID of model specifications file to download", required = true) @PathVariable("id") Long id,
+			HttpServletRequest request, HttpServletResponse response) throws RestServiceException, IOException {
 
 		final PathologyModel model = modelsService.findById(id);
-		if (model != null) {
-			try {
-				File toDownload = new File(model.getFilepath());
-				Path path = Paths.get(toDownload.getAbsolutePath());
-				ByteArrayResource resource = new ByteArrayResource(Files.readAllBytes(path));
-
-				HttpHeaders header = new HttpHeaders();
-				header.setContentType(MediaType.APPLICATION_PDF);
-				header.set(HttpHeaders.CONTENT_DISPOSITION,
-						"attachment; filename=" + model.getFilename().replace(" ", "_"));
-
-				return ResponseEntity.ok().headers(header).contentLength(toDownload.length())
-						.contentType(MediaType.parseMediaType("application/octet-stream")).body((Resource) resource);
-			} catch (IOException ioe) {
-				LOG.error("Error while getting file to download " + ioe.getMessage(), ioe);
-				return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-			}
+		if (model == null) {
+			response.sendError(HttpStatus.NO_CONTENT.value());
+			return;
+		}
+		File toDownload = new File(model.getFilepath());
+		if (!toDownload.isFile()) {
+			LOG.error("Error while getting file to download {}", toDownload.getAbsolutePath());
+			response.sendError(HttpStatus.NOT_FOUND.value());
+			return;
 		}
-		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+		FileServingUtil.serve(toDownload, model.getFilename().replace(" ", "_"), null, request, response);
 	}
 
 	private FieldErrorMap getUpdateRightsErrors(final PathologyModel model) {
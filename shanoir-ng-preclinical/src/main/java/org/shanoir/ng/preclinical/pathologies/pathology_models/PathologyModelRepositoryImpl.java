@@ -20,6 +20,7 @@ import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
 import org.shanoir.ng.preclinical.pathologies.Pathology;
+import org.shanoir.ng.utils.RepositoryUtils;
 import org.springframework.stereotype.Component;
 
 
@@ -29,13 +30,9 @@ public class PathologyModelRepositoryImpl implements PathologyModelRepositoryCus
 	@PersistenceContext
     private EntityManager em;
 		
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<PathologyModel> findBy(String fieldName, Object value) {
-		return em.createQuery(
-				"SELECT p FROM PathologyModel p WHERE p." + fieldName + " LIKE :value")
-				.setParameter("value", value)
-				.getResultList();
+		return RepositoryUtils.findBy(em, PathologyModel.class, fieldName, value);
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -21,6 +21,9 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.PostLoad;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
@@ -47,6 +50,9 @@ import io.swagger.annotations.ApiModelProperty;
 
 @Entity
 @Table(name = "subject_pathology")
+@NamedEntityGraph(name = "SubjectPathology.list", attributeNodes = { @NamedAttributeNode("pathology"),
+		@NamedAttributeNode(value = "pathologyModel", subgraph = "model"), @NamedAttributeNode("location") },
+		subgraphs = @NamedSubgraph(name = "model", attributeNodes = @NamedAttributeNode("pathology")))
 @JsonPropertyOrder({ "_links", "pathology", "pathologyModel", "location", "startDate", "endDate", "animalSubject" })
 public class SubjectPathology extends HalEntity {
 
@@ -17,10 +17,15 @@ package org.shanoir.ng.preclinical.pathologies.subject_pathologies;
 import java.util.List;
 
 import org.shanoir.ng.preclinical.subjects.AnimalSubject;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.repository.CrudRepository;
 
 public interface SubjectPathologyRepository
 		extends CrudRepository<SubjectPathology, Long>, SubjectPathologyRepositoryCustom {
 
+	/**
+	 * Pathology, model and location are fetched with the rows of the subject.
+	 */
+	@EntityGraph("SubjectPathology.list")
 	List<SubjectPathology> findByAnimalSubject(AnimalSubject animalSubject);
 }
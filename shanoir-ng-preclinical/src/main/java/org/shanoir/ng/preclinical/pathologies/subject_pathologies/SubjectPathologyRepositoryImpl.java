@@ -22,6 +22,7 @@ import javax.persistence.PersistenceContext;
 import org.shanoir.ng.preclinical.pathologies.Pathology;
 import org.shanoir.ng.preclinical.pathologies.pathology_models.PathologyModel;
 import org.shanoir.ng.preclinical.references.Reference;
+import org.shanoir.ng.utils.RepositoryUtils;
 import org.springframework.stereotype.Component;
 
 
@@ -31,38 +32,31 @@ public class SubjectPathologyRepositoryImpl implements SubjectPathologyRepositor
 	@PersistenceContext
     private EntityManager em;
 		
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<SubjectPathology> findBy(String fieldName, Object value) {
-		return em.createQuery(
-				"SELECT p FROM SubjectPathology p WHERE p." + fieldName + " LIKE :value")
-				.setParameter("value", value)
-				.getResultList();
+		return RepositoryUtils.findBy(em, SubjectPathology.class, fieldName, value);
 	}
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<SubjectPathology> findAllByPathology(Pathology pathology) {
 		return em.createQuery(
-				"SELECT p FROM SubjectPathology p WHERE p.pathology LIKE :pathology")
+				"SELECT p FROM SubjectPathology p WHERE p.pathology = :pathology", SubjectPathology.class)
 				.setParameter("pathology", pathology)
 				.getResultList();
 	}
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<SubjectPathology> findAllByPathologyModel(PathologyModel model) {
 		return em.createQuery(
-				"SELECT p FROM SubjectPathology p WHERE p.pathologyModel LIKE :model")
+				"SELECT p FROM SubjectPathology p WHERE p.pathologyModel = :model", SubjectPathology.class)
 				.setParameter("model", model)
 				.getResultList();
 	}
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<SubjectPathology> findAllByLocation(Reference location) {
 		return em.createQuery(
-				"SELECT p FROM SubjectPathology p WHERE p.location LIKE :location")
+				"SELECT p FROM SubjectPathology p WHERE p.location = :location", SubjectPathology.class)
 				.setParameter("location", location)
 				.getResultList();
 	}
@@ -19,6 +19,7 @@ import java.util.Objects;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
+import javax.persistence.Index;
 import javax.persistence.PostLoad;
 import javax.persistence.Table;
 
@@ -34,7 +35,9 @@ import io.swagger.annotations.ApiModelProperty;
  * Reference
  */
 @Entity
-@Table(name = "reference")
+@Table(name = "reference", indexes = {
+		@Index(columnList = "category,reftype,value", name = "i_reference_category_type_value"),
+		@Index(columnList = "reftype,value", name = "i_reference_type_value") })
 @JsonPropertyOrder({ "_links", "category" ,"reftype", "value" })
 public class Reference extends HalEntity   {
 	
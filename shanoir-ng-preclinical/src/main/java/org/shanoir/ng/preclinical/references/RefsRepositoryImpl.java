@@ -19,6 +19,7 @@ import java.util.Optional;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
 
 import org.springframework.stereotype.Component;
 
@@ -27,77 +28,65 @@ public class RefsRepositoryImpl implements RefsRepositoryCustom{
 
 	private static final String CATEGORY2 = "category";
 	private static final String REFTYPE2 = "reftype";
+	private static final String VALUE2 = "value";
 	@PersistenceContext
     private EntityManager em;
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<Reference> findByCategory(String category) {
 		return em.createQuery(
-				"SELECT r FROM Reference r WHERE r.category LIKE :category")
+				"SELECT r FROM Reference r WHERE r.category = :category", Reference.class)
 				.setParameter(CATEGORY2, category)
 				.getResultList();
 	}
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<Reference> findByCategoryAndType(String category,String reftype) {
 		return em.createQuery(
-				"SELECT r FROM Reference r WHERE r.category LIKE :category AND r.reftype LIKE :reftype")
+				"SELECT r FROM Reference r WHERE r.category = :category AND r.reftype = :reftype", Reference.class)
 				.setParameter(CATEGORY2, category)
 				.setParameter(REFTYPE2, reftype)
 				.getResultList();
 	}
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public Optional<Reference> findByCategoryTypeAndValue(String category, String reftype, String value) {
-		List<Reference> resultList = em.createQuery(
-				"SELECT r FROM Reference r WHERE r.category LIKE :category AND r.reftype LIKE :reftype AND r.value LIKE :value")
+		return first(em.createQuery(
+				"SELECT r FROM Reference r WHERE r.category = :category AND r.reftype = :reftype AND r.value = :value", Reference.class)
 				.setParameter(CATEGORY2, category)
 				.setParameter(REFTYPE2, reftype)
-				.setParameter("value", value)
-				.setMaxResults(1)
-				.getResultList();
-		if (resultList == null || resultList.isEmpty()) {
-	        return Optional.empty();
-	    }
-	    return Optional.of(resultList.get(0));
-		
+				.setParameter(VALUE2, value));
 	}
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public Optional<Reference> findByTypeAndValue(String reftype, String value) {
-		List<Reference> resultList = em.createQuery(
-				"SELECT r FROM Reference r WHERE r.reftype LIKE :reftype AND r.value LIKE :value")
+		return first(em.createQuery(
+				"SELECT r FROM Reference r WHERE r.reftype = :reftype AND r.value = :value", Reference.class)
 				.setParameter(REFTYPE2, reftype)
-				.setParameter("value", value)
-				.setMaxResults(1)
-				.getResultList();
-		if (resultList == null || resultList.isEmpty()) {
-	        return Optional.empty();
-	    }
-	    return Optional.of(resultList.get(0));
-		
+				.setParameter(VALUE2, value));
 	}
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<String> findCategories() {
 		return em.createQuery(
-				"SELECT DISTINCT(r.category) FROM Reference r")
+				"SELECT DISTINCT(r.category) FROM Reference r", String.class)
 				.getResultList();
 	}
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<String> findTypesByCategory(String category) {
 		return em.createQuery(
-				"SELECT DISTINCT(r.reftype) FROM Reference r WHERE r.category LIKE :category")
+				"SELECT DISTINCT(r.reftype) FROM Reference r WHERE r.category = :category", String.class)
 				.setParameter(CATEGORY2, category)
 				.getResultList();
 	}
 	
+	private static Optional<Reference> first(TypedQuery<Reference> query) {
+		List<Reference> resultList = query.setMaxResults(1).getResultList();
+		if (resultList.isEmpty()) {
+	        return Optional.empty();
+	    }
+	    return Optional.of(resultList.get(0));
+	}
 	
 }
@@ -17,7 +17,10 @@ package org.shanoir.ng.preclinical.subjects;
 import java.util.Objects;
 
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 
@@ -34,7 +37,10 @@ import io.swagger.annotations.ApiModelProperty;
  */
 
 @Entity
-@Table(name = "animal_subject")
+@Table(name = "animal_subject", indexes = { @Index(columnList = "subjectId", name = "i_animal_subject_id") })
+@NamedEntityGraph(name = "AnimalSubject.references", attributeNodes = { @NamedAttributeNode("specie"),
+		@NamedAttributeNode("strain"), @NamedAttributeNode("biotype"), @NamedAttributeNode("provider"),
+		@NamedAttributeNode("stabulation") })
 @JsonPropertyOrder({ "_links", "subjectId", "specie", "strain", "biotype", "provider", "stabulation" })
 public class AnimalSubject extends HalEntity {
 
@@ -185,11 +185,11 @@ public class AnimalSubjectApiController implements AnimalSubjectApi {
 	@Override
 	public ResponseEntity<AnimalSubject> getAnimalSubjectBySubjectId(
 			@ApiParam(value = "ID of subject that needs to be fetched", required = true) @PathVariable("id") Long id) {
-		final List<AnimalSubject> subjects = subjectService.findBy("subjectId", id);
-		if (subjects == null || subjects.isEmpty()) {
+		final AnimalSubject subject = subjectService.findBySubjectId(id);
+		if (subject == null) {
 			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 		}
-		return new ResponseEntity<>(subjects.get(0), HttpStatus.OK);
+		return new ResponseEntity<>(subject, HttpStatus.OK);
 	}
 
 	private FieldErrorMap getUpdateRightsErrors(final AnimalSubject subject) {
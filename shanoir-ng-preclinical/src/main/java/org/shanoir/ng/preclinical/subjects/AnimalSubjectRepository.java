@@ -14,8 +14,24 @@
 
 package org.shanoir.ng.preclinical.subjects;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.repository.CrudRepository;
 
 public interface AnimalSubjectRepository extends CrudRepository<AnimalSubject, Long>, AnimalSubjectRepositoryCustom {
 
+	/**
+	 * The references of the subjects are fetched in the same query, instead of
+	 * one select per reference and subject.
+	 */
+	@Override
+	@EntityGraph("AnimalSubject.references")
+	Iterable<AnimalSubject> findAll();
+
+	/**
+	 * @param subjectId the id of the subject in the studies microservice
+	 * @return the animal subject, null if none
+	 */
+	@EntityGraph("AnimalSubject.references")
+	AnimalSubject findFirstBySubjectId(Long subjectId);
+
 }
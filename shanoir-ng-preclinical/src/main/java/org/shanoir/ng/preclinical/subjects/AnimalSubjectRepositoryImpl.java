@@ -18,8 +18,15 @@ import java.util.List;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Root;
 
 import org.shanoir.ng.preclinical.references.Reference;
+import org.shanoir.ng.utils.RepositoryUtils;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -28,19 +35,21 @@ public class AnimalSubjectRepositoryImpl implements AnimalSubjectRepositoryCusto
 	@PersistenceContext
 	private EntityManager em;
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<AnimalSubject> findByReference(Reference reference) {
-		return em.createQuery(
-				"SELECT a FROM AnimalSubject a LEFT JOIN a." + reference.getReftype() + " r WHERE r.value LIKE :value")
-				.setParameter("value", reference.getValue()).getResultList();
+		CriteriaBuilder builder = em.getCriteriaBuilder();
+		CriteriaQuery<AnimalSubject> query = builder.createQuery(AnimalSubject.class);
+		Root<AnimalSubject> subject = query.from(AnimalSubject.class);
+		// The reference type names the association (specie, strain...), checked by the metamodel
+		Join<AnimalSubject, Reference> joined = subject.join(reference.getReftype(), JoinType.INNER);
+		ParameterExpression<String> value = builder.parameter(String.class);
+		query.select(subject).where(builder.equal(joined.get("value"), value));
+		return em.createQuery(query).setParameter(value, reference.getValue()).getResultList();
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<AnimalSubject> findBy(String fieldName, Object value) {
-		return em.createQuery("SELECT a FROM AnimalSubject a WHERE a." + fieldName + " LIKE :value")
-				.setParameter("value", value).getResultList();
+		return RepositoryUtils.findBy(em, AnimalSubject.class, fieldName, value);
 	}
 
 }
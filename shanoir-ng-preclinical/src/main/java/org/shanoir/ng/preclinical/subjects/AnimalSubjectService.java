@@ -75,4 +75,13 @@ public interface AnimalSubjectService extends UniqueCheckableService<AnimalSubje
 
 	List<AnimalSubject> findByReference(Reference reference);
 
+	/**
+	 * Find the animal subject of a subject.
+	 *
+	 * @param subjectId
+	 *            subject id in the studies microservice.
+	 * @return the animal subject or null.
+	 */
+	AnimalSubject findBySubjectId(Long subjectId);
+
 }
@@ -101,6 +101,11 @@ public class AnimalSubjectServiceImpl implements AnimalSubjectService {
 		return Utils.toList(subjectsRepository.findByReference(reference));
 	}
 
+	@Override
+	public AnimalSubject findBySubjectId(Long subjectId) {
+		return subjectsRepository.findFirstBySubjectId(subjectId);
+	}
+
 	@Override
 	public List<AnimalSubject> findBy(String fieldName, Object value) {
 		return subjectsRepository.findBy(fieldName, value);
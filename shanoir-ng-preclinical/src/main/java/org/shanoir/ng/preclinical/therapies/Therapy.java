@@ -21,6 +21,7 @@ import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
+import javax.persistence.Index;
 import javax.persistence.PostLoad;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
@@ -38,7 +39,7 @@ import io.swagger.annotations.ApiModelProperty;
  * Therapy
  */
 @Entity
-@Table(name = "therapy")
+@Table(name = "therapy", indexes = { @Index(columnList = "name", name = "i_therapy_name") })
 @JsonPropertyOrder({ "_links", "name","therapyType","comment" })
 public class Therapy extends HalEntity   {
 	
@@ -21,6 +21,8 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.PostLoad;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
@@ -44,6 +46,8 @@ import io.swagger.annotations.ApiModelProperty;
  */
 @Entity
 @Table(name = "subject_therapy")
+@NamedEntityGraph(name = "SubjectTherapy.list", attributeNodes = { @NamedAttributeNode("therapy"),
+		@NamedAttributeNode("doseUnit") })
 @JsonPropertyOrder({ "_links", "therapy", "startDate", "endDate", "dose", "frequency", "animalSubject", "molecule" })
 public class SubjectTherapy extends HalEntity {
 
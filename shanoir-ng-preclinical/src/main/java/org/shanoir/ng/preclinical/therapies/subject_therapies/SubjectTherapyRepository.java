@@ -17,7 +17,9 @@ package org.shanoir.ng.preclinical.therapies.subject_therapies;
 import java.util.List;
 
 
+import org.shanoir.ng.preclinical.subjects.AnimalSubject;
 import org.shanoir.ng.preclinical.therapies.Therapy;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.repository.CrudRepository;
 
 
@@ -25,4 +27,10 @@ public interface SubjectTherapyRepository extends CrudRepository<SubjectTherapy,
 
 	
 	List<SubjectTherapy> findByTherapy(Therapy therapy);
+
+	/**
+	 * Therapy and dose unit are fetched with the rows of the subject.
+	 */
+	@EntityGraph("SubjectTherapy.list")
+	List<SubjectTherapy> findByAnimalSubject(AnimalSubject animalSubject);
 }
@@ -16,8 +16,6 @@ package org.shanoir.ng.preclinical.therapies.subject_therapies;
 
 import java.util.List;
 
-import org.shanoir.ng.preclinical.subjects.AnimalSubject;
-
 /**
  * Custom repository for subject therapies
  * 
@@ -28,5 +26,4 @@ public interface SubjectTherapyRepositoryCustom {
 
 	List<SubjectTherapy> findBy(String fieldName, Object value);
 
-	List<SubjectTherapy> findByAnimalSubject(AnimalSubject animalSubject);
 }
@@ -19,7 +19,7 @@ import java.util.List;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
-import org.shanoir.ng.preclinical.subjects.AnimalSubject;
+import org.shanoir.ng.utils.RepositoryUtils;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -28,18 +28,9 @@ public class SubjectTherapyRepositoryImpl implements SubjectTherapyRepositoryCus
 	@PersistenceContext
 	private EntityManager em;
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<SubjectTherapy> findBy(String fieldName, Object value) {
-		return em.createQuery("SELECT t FROM SubjectTherapy t WHERE t." + fieldName + " LIKE :value")
-				.setParameter("value", value).getResultList();
-	}
-
-	@SuppressWarnings("unchecked")
-	@Override
-	public List<SubjectTherapy> findByAnimalSubject(AnimalSubject animalSubject) {
-		return em.createQuery("SELECT t FROM SubjectTherapy t WHERE t.animalSubject LIKE :animalSubject")
-				.setParameter("animalSubject", animalSubject).getResultList();
+		return RepositoryUtils.findBy(em, SubjectTherapy.class, fieldName, value);
 	}
 
 }
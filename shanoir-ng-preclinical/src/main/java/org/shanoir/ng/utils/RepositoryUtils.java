@@ -0,0 +1,62 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.utils;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+
+/**
+ * Typed lookups shared by the custom repositories.
+ */
+public final class RepositoryUtils {
+
+	private RepositoryUtils() {
+	}
+
+	/**
+	 * Finds the entities whose attribute equals the given value. The query is
+	 * built from criteria: the attribute is resolved against the JPA metamodel
+	 * (an unknown name raises an IllegalArgumentException instead of being
+	 * concatenated into JPQL) and the value is always bound as a parameter, so
+	 * that the query plan is cached and an index on the column can be used.
+	 *
+	 * @param em the entity manager
+	 * @param entityClass the entity class
+	 * @param fieldName the attribute name
+	 * @param value the value, null to look for unset attributes
+	 * @return the matching entities
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> List<T> findBy(EntityManager em, Class<T> entityClass, String fieldName, Object value) {
+		CriteriaBuilder builder = em.getCriteriaBuilder();
+		CriteriaQuery<T> query = builder.createQuery(entityClass);
+		Root<T> root = query.from(entityClass);
+		Path<Object> field = root.get(fieldName);
+		if (value == null) {
+			query.select(root).where(builder.isNull(field));
+			return em.createQuery(query).getResultList();
+		}
+		ParameterExpression<Object> parameter = (ParameterExpression<Object>) builder.parameter(field.getJavaType());
+		query.select(root).where(builder.equal(field, parameter));
+		return em.createQuery(query).setParameter(parameter, value).getResultList();
+	}
+
+}
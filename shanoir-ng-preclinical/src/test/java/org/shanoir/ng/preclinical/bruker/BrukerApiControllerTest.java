@@ -15,15 +15,19 @@
 package org.shanoir.ng.preclinical.bruker;
 
 import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
-import org.mockito.Matchers;
 import org.mockito.Mockito;
 import org.shanoir.ng.ShanoirPreclinicalApplication;
 import org.shanoir.ng.configuration.ShanoirPreclinicalConfiguration;
@@ -32,17 +36,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
-import org.springframework.web.client.RestTemplate;
 
 /**
  * Unit test for Bruker Api Controller
@@ -64,7 +65,7 @@ public class BrukerApiControllerTest {
 	private MockMvc mvc;
 
 	@MockBean
-	private RestTemplate restTemplate;
+	private BrukerConversionService conversionService;
 
 	@MockBean
 	private ShanoirPreclinicalConfiguration preclinicalConfig;
@@ -86,20 +87,23 @@ public class BrukerApiControllerTest {
 	@Test
 	@WithMockUser
 	public void uploadBrukerFileTest() throws Exception {
-		String r = "test";
-		given(restTemplate.exchange(Mockito.anyString(), Mockito.any(), Mockito.any(HttpEntity.class),
-				Matchers.<Class<String>>any())).willReturn(new ResponseEntity<>(r, HttpStatus.OK));
+		given(conversionService.convert(Mockito.any(), Mockito.any(), Mockito.any()))
+				.willReturn(CompletableFuture.completedFuture(new File("result0.0.converted.zip")));
 		MockMultipartFile firstFile = new MockMultipartFile("files", "2dseq", "text/plain", "some xml".getBytes());
-		mvc.perform(MockMvcRequestBuilders.fileUpload(REQUEST_PATH_UPLOAD_BRUKER).file(firstFile))
-				.andExpect(status().isOk());
+		MvcResult result = mvc.perform(MockMvcRequestBuilders.fileUpload(REQUEST_PATH_UPLOAD_BRUKER).file(firstFile))
+				.andExpect(request().asyncStarted()).andReturn();
+		mvc.perform(asyncDispatch(result)).andExpect(status().isOk());
 	}
 
 	@Test
 	@WithMockUser
 	public void uploadBrukerFileNotValidTest() throws Exception {
+		given(conversionService.convert(Mockito.any(), Mockito.any(), Mockito.any()))
+				.willReturn(CompletableFuture.completedFuture(null));
 		MockMultipartFile firstFile = new MockMultipartFile("files", "filename.txt", "text/plain",
 				"some xml".getBytes());
-		mvc.perform(MockMvcRequestBuilders.fileUpload(REQUEST_PATH_UPLOAD_BRUKER).file(firstFile))
-				.andExpect(status().isNotAcceptable());
+		MvcResult result = mvc.perform(MockMvcRequestBuilders.fileUpload(REQUEST_PATH_UPLOAD_BRUKER).file(firstFile))
+				.andExpect(request().asyncStarted()).andReturn();
+		mvc.perform(asyncDispatch(result)).andExpect(status().isNotAcceptable());
 	}
 }
@@ -0,0 +1,220 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.preclinical.bruker;
+
+import static org.mockito.BDDMockito.given;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.io.DicomInputStream;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.shanoir.ng.shared.event.ShanoirEvent;
+import org.shanoir.ng.shared.event.ShanoirEventService;
+import org.shanoir.ng.shared.exception.RestServiceException;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Bruker conversion service test.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class BrukerConversionServiceTest {
+
+	private static final Long USER_ID = 1L;
+
+	private static final String VISU_PARS = "##TITLE=Parameter List\n"
+			+ "$$ @vis= visu_pars\n"
+			+ "##$VisuCoreFrameCount=2\n"
+			+ "##$VisuCoreDim=2\n"
+			+ "##$VisuCoreSize=( 2 )\n4 3\n"
+			+ "##$VisuCoreExtent=( 2 )\n8 6\n"
+			+ "##$VisuCoreFrameThickness=( 1 )\n1.5\n"
+			+ "##$VisuCoreWordType=_16BIT_SGN_INT\n"
+			+ "##$VisuCoreByteOrder=littleEndian\n"
+			+ "##$VisuCoreDataSlope=( 2 )\n@2*(0.5)\n"
+			+ "##$VisuCoreDataOffs=( 2 )\n0 10\n"
+			+ "##$VisuCoreOrientation=( 2, 9 )\n1 0 0 0 1 0 0 0 1 1 0 0 0 1 0 0 0 1\n"
+			+ "##$VisuCorePosition=( 2, 3 )\n0 0 0 0 0 1.5\n"
+			+ "##$VisuSubjectId=( 65 )\n<rat01>\n"
+			+ "##$VisuSubjectName=( 65 )\n<rat01>\n"
+			+ "##$VisuStudyDate=( 64 )\n<2019-03-14T10:01:02,000+0100>\n"
+			+ "##$VisuAcquisitionProtocol=( 64 )\n<T2_TurboRARE>\n"
+			+ "##$VisuExperimentNumber=3\n"
+			+ "##$VisuProcessingNumber=1\n"
+			+ "##END=\n";
+
+	private static final String METHOD = "##$PVM_EchoTime=33\n##$PVM_RepetitionTime=2500\n##END=\n";
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Mock
+	private RestTemplate restTemplate;
+
+	@Mock
+	private ShanoirEventService eventService;
+
+	@InjectMocks
+	private BrukerConversionService conversionService;
+
+	private Path brukerDir;
+
+	@Before
+	public void setup() throws IOException {
+		ReflectionTestUtils.setField(conversionService, "bruker2DicomMsUrl", "http://bruker2dicom");
+		brukerDir = tempFolder.newFolder("0").toPath();
+	}
+
+	@Test
+	public void parseParametersTest() throws IOException {
+		ParaVisionParameters parameters = ParaVisionParameters
+				.parse(new ByteArrayInputStream(VISU_PARS.getBytes(StandardCharsets.ISO_8859_1)));
+		Assert.assertArrayEquals(new int[] { 4, 3 }, parameters.getInts("VisuCoreSize"));
+		Assert.assertArrayEquals(new double[] { 0.5, 0.5 }, parameters.getDoubles("VisuCoreDataSlope"), 0);
+		Assert.assertEquals(18, parameters.getDoubles("VisuCoreOrientation").length);
+		Assert.assertEquals("rat01", parameters.getString("VisuSubjectId"));
+		Assert.assertEquals("_16BIT_SGN_INT", parameters.getString("VisuCoreWordType"));
+		Assert.assertFalse(parameters.contains("vis"));
+	}
+
+	@Test
+	public void convertNativelyTest() throws Exception {
+		Path archive = createArchive(false, true);
+
+		File destinationZip = conversionService.convertNow(archive, brukerDir, USER_ID);
+
+		Assert.assertNotNull(destinationZip);
+		List<Attributes> images = readImages(destinationZip);
+		Assert.assertEquals(2, images.size());
+		Attributes second = images.get(1);
+		Assert.assertEquals(3, second.getInt(Tag.Rows, 0));
+		Assert.assertEquals(4, second.getInt(Tag.Columns, 0));
+		Assert.assertEquals("rat01", second.getString(Tag.PatientID));
+		Assert.assertEquals("20190314", second.getString(Tag.StudyDate));
+		Assert.assertEquals(0.5, second.getDouble(Tag.RescaleSlope, 0), 0);
+		Assert.assertEquals(10, second.getDouble(Tag.RescaleIntercept, 0), 0);
+		Assert.assertEquals(33, second.getDouble(Tag.EchoTime, 0), 0);
+		Assert.assertEquals(1.5, second.getDoubles(Tag.ImagePositionPatient)[2], 0);
+		Mockito.verify(restTemplate, Mockito.never()).exchange(Mockito.anyString(), Mockito.any(),
+				Mockito.any(HttpEntity.class), Matchers.<Class<String>>any());
+		Mockito.verify(eventService, Mockito.atLeast(2)).publishEvent(Mockito.any(ShanoirEvent.class));
+	}
+
+	@Test
+	public void convertNativelySpooledTest() throws Exception {
+		// the 2dseq comes before its visu_pars in the archive
+		Path archive = createArchive(true, true);
+
+		File destinationZip = conversionService.convertNow(archive, brukerDir, USER_ID);
+
+		Assert.assertEquals(2, readImages(destinationZip).size());
+	}
+
+	@Test
+	public void fallbackToBruker2DicomTest() throws Exception {
+		given(restTemplate.exchange(Mockito.anyString(), Mockito.any(), Mockito.any(HttpEntity.class),
+				Matchers.<Class<String>>any())).willReturn(new ResponseEntity<>("", HttpStatus.OK));
+		Path archive = createArchive(false, false);
+
+		File destinationZip = conversionService.convertNow(archive, brukerDir, USER_ID);
+
+		Assert.assertNotNull(destinationZip);
+		Mockito.verify(restTemplate, Mockito.times(1)).exchange(Mockito.anyString(), Mockito.any(),
+				Mockito.any(HttpEntity.class), Matchers.<Class<String>>any());
+	}
+
+	@Test
+	public void notValidBrukerTest() throws IOException, RestServiceException {
+		Path archive = tempFolder.newFile("notBruker.zip").toPath();
+		try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(archive.toFile()))) {
+			addEntry(zip, "readme.txt", "some xml".getBytes(StandardCharsets.ISO_8859_1));
+		}
+
+		Assert.assertNull(conversionService.convertNow(archive, brukerDir, USER_ID));
+	}
+
+	private Path createArchive(boolean twoDSeqFirst, boolean withVisuPars) throws IOException {
+		ByteBuffer twoDSeq = ByteBuffer.allocate(2 * 4 * 3 * 2).order(ByteOrder.LITTLE_ENDIAN);
+		for (short i = 0; i < 24; i++) {
+			twoDSeq.putShort(i);
+		}
+		Path archive = tempFolder.newFile("study.zip").toPath();
+		try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(archive.toFile()))) {
+			addEntry(zip, "study/3/method", METHOD.getBytes(StandardCharsets.ISO_8859_1));
+			if (twoDSeqFirst) {
+				addEntry(zip, "study/3/pdata/1/2dseq", twoDSeq.array());
+			}
+			if (withVisuPars) {
+				addEntry(zip, "study/3/pdata/1/visu_pars", VISU_PARS.getBytes(StandardCharsets.ISO_8859_1));
+			}
+			if (!twoDSeqFirst) {
+				addEntry(zip, "study/3/pdata/1/2dseq", twoDSeq.array());
+			}
+		}
+		return archive;
+	}
+
+	private static void addEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+		zip.putNextEntry(new ZipEntry(name));
+		zip.write(content);
+		zip.closeEntry();
+	}
+
+	private static List<Attributes> readImages(File destinationZip) throws IOException {
+		List<Attributes> images = new ArrayList<>();
+		try (ZipFile zip = new ZipFile(destinationZip)) {
+			Assert.assertNotNull(zip.getEntry(BrukerDicomConverter.DICOMDIR));
+			for (ZipEntry entry : Collections.list(zip.entries())) {
+				if (!entry.getName().equals(BrukerDicomConverter.DICOMDIR)) {
+					try (DicomInputStream in = new DicomInputStream(zip.getInputStream(entry))) {
+						images.add(in.readDataset(-1, -1));
+					}
+				}
+			}
+		}
+		images.sort((first, second) -> Integer.compare(first.getInt(Tag.InstanceNumber, 0),
+				second.getInt(Tag.InstanceNumber, 0)));
+		return images;
+	}
+
+}
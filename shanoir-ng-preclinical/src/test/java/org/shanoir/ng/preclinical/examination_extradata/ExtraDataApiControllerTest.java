@@ -16,8 +16,13 @@ package org.shanoir.ng.preclinical.examination_extradata;
 
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Arrays;
 
 import org.junit.Before;
@@ -32,12 +37,15 @@ import org.shanoir.ng.configuration.ShanoirPreclinicalConfiguration;
 import org.shanoir.ng.preclinical.extra_data.ExtraDataApiController;
 import org.shanoir.ng.preclinical.extra_data.ExtraDataService;
 import org.shanoir.ng.preclinical.extra_data.examination_extra_data.ExaminationExtraData;
+import org.shanoir.ng.preclinical.extra_data.timeseries.TimeSeriesStore;
+import org.shanoir.ng.preclinical.extra_data.timeseries.TimeSeriesWindow;
 import org.shanoir.ng.shared.exception.ShanoirException;
 import org.shanoir.ng.utils.ExtraDataModelUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -80,6 +88,10 @@ public class ExtraDataApiControllerTest {
 	private static final String REQUEST_PATH_BLOODGAS_WITH_ID = REQUEST_PATH_BLOODGASDATA + "/1";
 	private static final String REQUEST_PATH_UPLOAD = REQUEST_PATH_EXAMINATION + REQUEST_EXTRADATA + REQUEST_UPLOAD
 			+ "/1";
+	private static final String REQUEST_PATH_DOWNLOAD = REQUEST_PATH_EXAMINATION + REQUEST_EXTRADATA + "/download/2";
+	private static final String REQUEST_PATH_TIMESERIES = REQUEST_PATH_EXAMINATION + REQUEST_EXTRADATA + "/1/timeseries";
+	private static final String REQUEST_PATH_WINDOW = REQUEST_PATH_TIMESERIES + "/window";
+	private static final String DOWNLOAD_CONTENT = "0123456789";
 
 	private Gson gson;
 
@@ -90,6 +102,8 @@ public class ExtraDataApiControllerTest {
 	private ExtraDataService<ExaminationExtraData> extraDataServiceMock;
 	@MockBean
 	private ShanoirPreclinicalConfiguration preclinicalConfig;
+	@MockBean
+	private TimeSeriesStore timeSeriesStoreMock;
 
 	@ClassRule
 	public static TemporaryFolder tempFolder = new TemporaryFolder();
@@ -112,6 +126,15 @@ public class ExtraDataApiControllerTest {
 				.willReturn(new ExaminationExtraData());
 	}
 
+	private void mockDownloadFile() throws Exception {
+		File file = new File(tempFolder.getRoot(), "physio.txt");
+		Files.write(file.toPath(), DOWNLOAD_CONTENT.getBytes(StandardCharsets.US_ASCII));
+		ExaminationExtraData extradata = ExtraDataModelUtil.createExaminationExtraData();
+		extradata.setFilepath(file.getAbsolutePath());
+		extradata.setFilename("physio.txt");
+		given(extraDataServiceMock.findById(2L)).willReturn(extradata);
+	}
+
 	@Test
 	@WithMockUser(authorities = { "adminRole" })
 	public void deleteExtraDataTest() throws Exception {
@@ -164,4 +187,63 @@ public class ExtraDataApiControllerTest {
 				.content(gson.toJson(ExtraDataModelUtil.createExaminationBloodGasData()))).andExpect(status().isOk());
 	}
 
+	@Test
+	@WithMockUser
+	public void downloadExtraDataTest() throws Exception {
+		mockDownloadFile();
+		mvc.perform(MockMvcRequestBuilders.get(REQUEST_PATH_DOWNLOAD)).andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+				.andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "10"))
+				.andExpect(content().string(DOWNLOAD_CONTENT));
+	}
+
+	@Test
+	@WithMockUser
+	public void downloadExtraDataRangeTest() throws Exception {
+		mockDownloadFile();
+		mvc.perform(MockMvcRequestBuilders.get(REQUEST_PATH_DOWNLOAD).header(HttpHeaders.RANGE, "bytes=2-5"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+				.andExpect(content().string("2345"));
+		mvc.perform(MockMvcRequestBuilders.get(REQUEST_PATH_DOWNLOAD).header(HttpHeaders.RANGE, "bytes=-3"))
+				.andExpect(status().isPartialContent()).andExpect(content().string("789"));
+		mvc.perform(MockMvcRequestBuilders.get(REQUEST_PATH_DOWNLOAD).header(HttpHeaders.RANGE, "bytes=20-"))
+				.andExpect(status().isRequestedRangeNotSatisfiable());
+	}
+
+	@Test
+	@WithMockUser
+	public void downloadExtraDataNotModifiedTest() throws Exception {
+		mockDownloadFile();
+		String eTag = mvc.perform(MockMvcRequestBuilders.get(REQUEST_PATH_DOWNLOAD)).andReturn().getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		mvc.perform(MockMvcRequestBuilders.get(REQUEST_PATH_DOWNLOAD).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified());
+		// the file changed since the client got its etag: the whole file is sent
+		mvc.perform(MockMvcRequestBuilders.get(REQUEST_PATH_DOWNLOAD).header(HttpHeaders.RANGE, "bytes=2-5")
+				.header(HttpHeaders.IF_RANGE, "\"other\"")).andExpect(status().isOk())
+				.andExpect(content().string(DOWNLOAD_CONTENT));
+	}
+
+	@Test
+	@WithMockUser
+	public void getTimeSeriesChannelsTest() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.get(REQUEST_PATH_TIMESERIES).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	@WithMockUser
+	public void getTimeSeriesWindowTest() throws Exception {
+		given(timeSeriesStoreMock.query(Mockito.any(ExaminationExtraData.class), Mockito.eq("heart"),
+				Mockito.<Double>any(), Mockito.<Double>any(), Mockito.eq(500)))
+				.willReturn(new TimeSeriesWindow("heart", 0, 0));
+		mvc.perform(MockMvcRequestBuilders.get(REQUEST_PATH_WINDOW).param("channel", "heart")
+				.accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+		mvc.perform(MockMvcRequestBuilders.get(REQUEST_PATH_WINDOW).param("channel", "unknown")
+				.accept(MediaType.APPLICATION_JSON)).andExpect(status().isNotFound());
+		mvc.perform(MockMvcRequestBuilders.get(REQUEST_PATH_WINDOW).param("channel", "heart").param("points", "0")
+				.accept(MediaType.APPLICATION_JSON)).andExpect(status().isUnprocessableEntity());
+	}
+
 }
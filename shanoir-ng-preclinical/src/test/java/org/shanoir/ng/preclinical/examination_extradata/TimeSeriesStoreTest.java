@@ -0,0 +1,122 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.preclinical.examination_extradata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.shanoir.ng.preclinical.extra_data.examination_extra_data.ExaminationExtraData;
+import org.shanoir.ng.preclinical.extra_data.timeseries.TimeSeriesChannel;
+import org.shanoir.ng.preclinical.extra_data.timeseries.TimeSeriesStore;
+import org.shanoir.ng.preclinical.extra_data.timeseries.TimeSeriesWindow;
+import org.shanoir.ng.utils.ExtraDataModelUtil;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Physiological time series store test.
+ */
+public class TimeSeriesStoreTest {
+
+	private static final double DELTA = 1e-4;
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private TimeSeriesStore store;
+
+	private ExaminationExtraData extradata;
+
+	@Before
+	public void setup() {
+		store = new TimeSeriesStore();
+		ReflectionTestUtils.setField(store, "extraDataPath", tempFolder.getRoot().getAbsolutePath() + "/");
+		extradata = ExtraDataModelUtil.createExaminationExtraData();
+	}
+
+	private Path write(String content) throws IOException {
+		Path file = tempFolder.newFile("physio.csv").toPath();
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	@Test
+	public void importAndQueryTest() throws IOException {
+		StringBuilder csv = new StringBuilder("Time (s),Heart rate,Respiration\n");
+		for (int i = 0; i < 1000; i++) {
+			csv.append(i / 10.0).append(',').append(300 + i % 10).append(',').append(i == 5 ? "" : "60").append('\n');
+		}
+		List<TimeSeriesChannel> channels = store.importFile(extradata, write(csv.toString()));
+
+		assertEquals(2, channels.size());
+		assertEquals("Heart rate", channels.get(0).getName());
+		assertEquals(1000, channels.get(0).getSampleCount());
+		assertEquals(99.9, channels.get(0).getEnd(), DELTA);
+		assertEquals(2, store.getChannels(extradata).size());
+
+		TimeSeriesWindow window = store.query(extradata, "Heart rate", 10.0, 19.95, 10);
+		assertEquals(100, window.getSampleCount());
+		assertEquals(10, window.getTime().length);
+		assertEquals(10.0, window.getTime()[0], DELTA);
+		assertEquals(300, window.getMin()[0], DELTA);
+		assertEquals(309, window.getMax()[0], DELTA);
+		assertEquals(304.5, window.getMean()[0], DELTA);
+
+		// missing values are ignored
+		window = store.query(extradata, "Respiration", null, null, 1000);
+		assertEquals(60, window.getMean()[4], DELTA);
+		assertNull(window.getMean()[5]);
+
+		assertNull(store.query(extradata, "Temperature", null, null, 10));
+	}
+
+	@Test
+	public void importSemicolonWithoutTimeTest() throws IOException {
+		List<TimeSeriesChannel> channels = store.importFile(extradata, write("temp;SpO2\n37,5;98\n37,6;97\n"));
+
+		assertEquals(2, channels.size());
+		assertEquals(0, channels.get(0).getStart(), DELTA);
+		TimeSeriesWindow window = store.query(extradata, "temp", null, null, 10);
+		assertEquals(2, window.getTime().length);
+		assertEquals(37.6, window.getMax()[1], DELTA);
+	}
+
+	@Test(expected = IOException.class)
+	public void importWithoutHeaderTest() throws IOException {
+		store.importFile(extradata, write("0,1\n1,2\n"));
+	}
+
+	@Test
+	public void deleteTest() throws IOException {
+		store.importFile(extradata, write("time\tpulse\n0\t1\n1\t2\n"));
+		store.delete(extradata);
+
+		assertTrue(store.getChannels(extradata).isEmpty());
+		assertTrue(store.isSupported("physio.TSV"));
+		assertFalse(store.isSupported("physio.pdf"));
+	}
+
+}
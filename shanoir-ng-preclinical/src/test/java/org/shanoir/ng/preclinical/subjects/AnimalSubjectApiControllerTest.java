@@ -18,9 +18,7 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -93,9 +91,7 @@ public class AnimalSubjectApiControllerTest {
 		doNothing().when(subjectsServiceMock).deleteById(1L);
 		given(subjectsServiceMock.findAll()).willReturn(Arrays.asList(new AnimalSubject()));
 		given(subjectsServiceMock.findById(1L)).willReturn(new AnimalSubject());
-		List<AnimalSubject> subjects = new ArrayList<AnimalSubject>();
-		subjects.add(new AnimalSubject());
-		given(subjectsServiceMock.findBy("subjectId", 1L)).willReturn(subjects);
+		given(subjectsServiceMock.findBySubjectId(1L)).willReturn(new AnimalSubject());
 		AnimalSubject anSubj = new AnimalSubject();
 		anSubj.setId(Long.valueOf(123));
 		given(subjectsServiceMock.save(Mockito.any(AnimalSubject.class))).willReturn(anSubj );
@@ -92,6 +92,15 @@ public class AnimalSubjectRepositoryTest {
 	 * assertTrue(templateDb.isPresent());
 	 * assertThat(templateDb.get().getId()).isEqualTo(TEMPLATE_TEST_1_ID); }
 	 */
+	@Test
+	public void findBySubjectIdTest() throws Exception {
+		AnimalSubject subjectDb = repository.findFirstBySubjectId(SUBJECT_TEST_1_ID);
+		assertNotNull(subjectDb);
+		assertThat(subjectDb.getId()).isEqualTo(SUBJECT_TEST_1_ID);
+		assertThat(subjectDb.getSpecie().getValue()).isEqualTo(SUBJECT_TEST_1_SPECIE);
+		assertThat(repository.findFirstBySubjectId(99L)).isNull();
+	}
+
 	@Test
 	public void findOneTest() throws Exception {
 		AnimalSubject subjectDb = repository.findOne(SUBJECT_TEST_1_ID);
@@ -14,6 +14,7 @@
 
 package org.shanoir.ng.acquisitionequipment.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
@@ -21,6 +22,8 @@ import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 import org.shanoir.ng.center.model.Center;
 import org.shanoir.ng.manufacturermodel.model.ManufacturerModel;
@@ -35,6 +38,8 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(uniqueConstraints = {
 		@UniqueConstraint(columnNames = { "manufacturer_model_id", "serialNumber" }, name = "model_number_idx") })
 @JsonPropertyOrder({ "_links", "id", "serialNumber" })
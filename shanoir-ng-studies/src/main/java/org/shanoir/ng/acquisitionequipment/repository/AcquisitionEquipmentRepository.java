@@ -16,7 +16,10 @@ package org.shanoir.ng.acquisitionequipment.repository;
 
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
 import org.shanoir.ng.acquisitionequipment.model.AcquisitionEquipment;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 /**
@@ -26,6 +29,11 @@ import org.springframework.data.repository.CrudRepository;
  */
 public interface AcquisitionEquipmentRepository extends CrudRepository<AcquisitionEquipment, Long> {
 
+	@Override
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+	Iterable<AcquisitionEquipment> findAll();
+
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	List<AcquisitionEquipment> findByCenterId(Long centerId);
 	
 	
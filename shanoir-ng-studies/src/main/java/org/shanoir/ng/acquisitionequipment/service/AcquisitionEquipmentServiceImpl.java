@@ -18,7 +18,10 @@ import java.util.List;
 
 import org.shanoir.ng.acquisitionequipment.model.AcquisitionEquipment;
 import org.shanoir.ng.acquisitionequipment.repository.AcquisitionEquipmentRepository;
+import org.shanoir.ng.center.model.Center;
 import org.shanoir.ng.shared.core.service.BasicEntityServiceImpl;
+import org.shanoir.ng.shared.exception.EntityNotFoundException;
+import org.shanoir.ng.shared.service.ReferenceDataCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -34,6 +37,34 @@ public class AcquisitionEquipmentServiceImpl extends BasicEntityServiceImpl<Acqu
 	@Autowired
 	AcquisitionEquipmentRepository repository;
 
+	@Autowired
+	private ReferenceDataCacheService referenceDataCacheService;
+
+	@Override
+	public AcquisitionEquipment create(final AcquisitionEquipment entity) {
+		final AcquisitionEquipment savedEntity = super.create(entity);
+		evictCenterAcquisitionEquipments(savedEntity.getCenter());
+		return savedEntity;
+	}
+
+	@Override
+	public AcquisitionEquipment update(final AcquisitionEquipment entity) throws EntityNotFoundException {
+		final AcquisitionEquipment entityDb = repository.findOne(entity.getId());
+		final Center previousCenter = entityDb != null ? entityDb.getCenter() : null;
+		final AcquisitionEquipment updatedEntity = super.update(entity);
+		// The equipment may have moved from a center to another
+		evictCenterAcquisitionEquipments(previousCenter);
+		evictCenterAcquisitionEquipments(updatedEntity.getCenter());
+		return updatedEntity;
+	}
+
+	@Override
+	public void deleteById(final Long id) throws EntityNotFoundException {
+		final AcquisitionEquipment entity = repository.findOne(id);
+		super.deleteById(id);
+		evictCenterAcquisitionEquipments(entity.getCenter());
+	}
+
 	@Override
 	protected AcquisitionEquipment updateValues(AcquisitionEquipment from, AcquisitionEquipment to) {
 		to.setCenter(from.getCenter());
@@ -52,4 +83,9 @@ public class AcquisitionEquipmentServiceImpl extends BasicEntityServiceImpl<Acqu
 		return this.repository.findByCenterStudyCenterListStudyId(studyId);
 	}
 
+	private void evictCenterAcquisitionEquipments(final Center center) {
+		if (center != null) {
+			referenceDataCacheService.evictCenterAcquisitionEquipments(center.getId());
+		}
+	}
 }
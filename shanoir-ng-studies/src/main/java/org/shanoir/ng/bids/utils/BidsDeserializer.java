@@ -2,17 +2,21 @@ package org.shanoir.ng.bids.utils;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.shanoir.ng.bids.model.BidsElement;
 import org.shanoir.ng.bids.model.BidsFile;
 import org.shanoir.ng.bids.model.BidsFolder;
 import org.shanoir.ng.bids.service.StudyBIDSService;
+import org.shanoir.ng.shared.exception.EntityNotFoundException;
 import org.shanoir.ng.study.model.Study;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 /**
@@ -32,14 +36,10 @@ public class BidsDeserializer {
 	@Autowired
 	private StudyBIDSService bidsService;
 
-	public BidsElement deserialize(Study study) throws IOException {
-		// Get the parent folder
-		File studyFile = new File(bidsStorageDir + File.separator + STUDY_PREFIX + study.getId() + '_' + study.getName());
+	private final BidsMetadataCache cache = new BidsMetadataCache();
 
-		if (!studyFile.exists()) {
-			studyFile = bidsService.createBidsFolderFromScratch(study);
-		}
-		BidsFolder studyElement = new BidsFolder(studyFile.getAbsolutePath());
+	public BidsElement deserialize(Study study) throws IOException {
+		BidsFolder studyElement = new BidsFolder(getStudyFolder(study).getAbsolutePath());
 
 		// Iterate recursively over studyFile to get the BidsElement
 		return deserializeElement(studyElement);
@@ -66,9 +66,8 @@ public class BidsDeserializer {
 				deserializeElement((BidsFolder) fileElement);
 			} else {
 				fileElement = new BidsFile(file.getAbsolutePath());
-				if (fileElement.getPath().endsWith(".tsv") || fileElement.getPath().endsWith(".json")) {
-					String content = String.join("\n", Files.readAllLines(Paths.get(file.getAbsolutePath())));
-					((BidsFile)fileElement).setContent(content);
+				if (isSidecar(file)) {
+					((BidsFile)fileElement).setContent(cache.read(file));
 				}
 			}
 			if (folderElement.getElements() == null) {
@@ -78,4 +77,90 @@ public class BidsDeserializer {
 		}
 		return folderElement;
 	}
+
+	/**
+	 * Lists one page of the direct children of a folder of the study BIDS tree.
+	 * Sub folders are returned without their elements and files without their content:
+	 * they have to be requested separately.
+	 * @param study the study
+	 * @param path the folder, relative to the study BIDS folder (or absolute inside it), null for the root
+	 * @param page the page number, starting at 0
+	 * @param size the page size, at least 1
+	 * @return a page of BidsElement, empty past the last one
+	 * @throws IOException
+	 * @throws EntityNotFoundException if the folder does not exist in the study BIDS folder
+	 */
+	public Page<BidsElement> getChildren(Study study, String path, int page, int size) throws IOException, EntityNotFoundException {
+		File folder = resolve(study, path);
+		if (!folder.isDirectory()) {
+			throw new EntityNotFoundException("No BIDS folder " + path + " for study " + study.getId());
+		}
+		List<BidsMetadataCache.Entry> entries = cache.list(folder);
+		// In long: a far page number would overflow, and wrap to a page that exists
+		int from = (int) Math.min((long) page * size, entries.size());
+		int to = Math.min(from + size, entries.size());
+		List<BidsElement> elements = new ArrayList<>(to - from);
+		for (BidsMetadataCache.Entry entry : entries.subList(from, to)) {
+			String childPath = folder.getAbsolutePath() + File.separator + entry.getName();
+			elements.add(entry.isDirectory() ? new BidsFolder(childPath) : new BidsFile(childPath));
+		}
+		return new PageImpl<>(elements, new PageRequest(page, size), entries.size());
+	}
+
+	/**
+	 * Loads a file of the study BIDS tree, with its content for the .tsv and .json sidecars.
+	 * @param study the study
+	 * @param path the file, relative to the study BIDS folder (or absolute inside it)
+	 * @return the BidsFile, with its content if it is a sidecar
+	 * @throws IOException
+	 * @throws EntityNotFoundException if the file does not exist in the study BIDS folder
+	 */
+	public BidsFile getFile(Study study, String path) throws IOException, EntityNotFoundException {
+		File file = resolve(study, path);
+		if (!file.isFile()) {
+			throw new EntityNotFoundException("No BIDS file " + path + " for study " + study.getId());
+		}
+		BidsFile fileElement = new BidsFile(file.getAbsolutePath());
+		if (isSidecar(file)) {
+			fileElement.setContent(cache.read(file));
+		}
+		return fileElement;
+	}
+
+	/**
+	 * @return true for the text files whose content is sent, data files (NIfTI, EDF...) are only named
+	 */
+	private boolean isSidecar(File file) {
+		return file.getName().endsWith(".tsv") || file.getName().endsWith(".json");
+	}
+
+	/**
+	 * Gets the BIDS folder of a study, creating it if necessary.
+	 * @param study the study
+	 * @return the study BIDS folder
+	 * @throws IOException
+	 */
+	private File getStudyFolder(Study study) throws IOException {
+		File studyFile = new File(bidsStorageDir + File.separator + STUDY_PREFIX + study.getId() + '_' + study.getName());
+
+		if (!studyFile.exists()) {
+			studyFile = bidsService.createBidsFolderFromScratch(study);
+		}
+		return studyFile;
+	}
+
+	/**
+	 * Resolves a path inside the BIDS folder of a study, refusing to go outside of it.
+	 */
+	private File resolve(Study study, String path) throws IOException, EntityNotFoundException {
+		Path root = getStudyFolder(study).toPath().toAbsolutePath().normalize();
+		if (path == null || path.isEmpty()) {
+			return root.toFile();
+		}
+		Path resolved = root.resolve(path).normalize();
+		if (!resolved.startsWith(root)) {
+			throw new EntityNotFoundException("No BIDS element " + path + " for study " + study.getId());
+		}
+		return resolved.toFile();
+	}
 }
@@ -0,0 +1,170 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.bids.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of BIDS directory listings and small sidecar files (.json, .tsv).
+ * Entries are validated against the modification timestamp of the directory
+ * (resp. the timestamp and size of the file), so that any change done on disk
+ * by the BIDS export is seen at next access.
+ */
+public class BidsMetadataCache {
+
+	/** Sidecars bigger than this are read from disk at every request. */
+	public static final long MAX_CACHED_FILE_SIZE = 64 * 1024L;
+
+	private static final int MAX_LISTINGS = 2000;
+
+	private static final int MAX_FILES = 5000;
+
+	private final Map<String, Listing> listings = Collections.synchronizedMap(new LruMap<>(MAX_LISTINGS));
+
+	private final Map<String, FileContent> contents = Collections.synchronizedMap(new LruMap<>(MAX_FILES));
+
+	/**
+	 * Lists the children of a directory, folders first then files, by name.
+	 * @param directory the directory
+	 * @return the sorted children, empty if the directory cannot be read
+	 */
+	public List<Entry> list(File directory) {
+		String key = directory.getAbsolutePath();
+		long lastModified = directory.lastModified();
+		Listing listing = listings.get(key);
+		if (listing != null && listing.lastModified == lastModified) {
+			return listing.entries;
+		}
+		File[] files = directory.listFiles();
+		if (files == null) {
+			listings.remove(key);
+			return Collections.emptyList();
+		}
+		List<Entry> entries = new ArrayList<>(files.length);
+		for (File file : files) {
+			entries.add(new Entry(file.getName(), file.isDirectory()));
+		}
+		entries.sort(Comparator.comparing((Entry entry) -> !entry.isDirectory()).thenComparing(Entry::getName));
+		listing = new Listing(lastModified, Collections.unmodifiableList(entries));
+		listings.put(key, listing);
+		return listing.entries;
+	}
+
+	/**
+	 * Reads the content of a file, keeping it in cache if it is small enough.
+	 * @param file the file
+	 * @return the content of the file
+	 * @throws IOException
+	 */
+	public String read(File file) throws IOException {
+		String key = file.getAbsolutePath();
+		long lastModified = file.lastModified();
+		long length = file.length();
+		FileContent content = contents.get(key);
+		if (content != null && content.lastModified == lastModified && content.length == length) {
+			return content.content;
+		}
+		String value = String.join("\n", Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+		if (length <= MAX_CACHED_FILE_SIZE) {
+			contents.put(key, new FileContent(lastModified, length, value));
+		}
+		return value;
+	}
+
+	/**
+	 * Drops all the cached entries.
+	 */
+	public void clear() {
+		listings.clear();
+		contents.clear();
+	}
+
+	/**
+	 * A child of a listed directory.
+	 */
+	public static class Entry {
+
+		private final String name;
+
+		private final boolean directory;
+
+		public Entry(String name, boolean directory) {
+			this.name = name;
+			this.directory = directory;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public boolean isDirectory() {
+			return directory;
+		}
+	}
+
+	private static class Listing {
+
+		private final long lastModified;
+
+		private final List<Entry> entries;
+
+		Listing(long lastModified, List<Entry> entries) {
+			this.lastModified = lastModified;
+			this.entries = entries;
+		}
+	}
+
+	private static class FileContent {
+
+		private final long lastModified;
+
+		private final long length;
+
+		private final String content;
+
+		FileContent(long lastModified, long length, String content) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.content = content;
+		}
+	}
+
+	private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maxEntries;
+
+		LruMap(int maxEntries) {
+			super(16, 0.75f, true);
+			this.maxEntries = maxEntries;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+			return size() > maxEntries;
+		}
+	}
+
+}
@@ -16,6 +16,7 @@ package org.shanoir.ng.center.model;
 
 import java.util.List;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.ColumnResult;
@@ -27,6 +28,8 @@ import javax.persistence.PostLoad;
 import javax.persistence.SqlResultSetMapping;
 import javax.validation.constraints.Pattern;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.validator.constraints.NotBlank;
 import org.shanoir.ng.acquisitionequipment.model.AcquisitionEquipment;
@@ -46,6 +49,8 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @JsonPropertyOrder({ "_links", "id", "name" })
 @GenericGenerator(name = "IdOrGenerate", strategy = "increment")
 @SqlResultSetMapping(name="centerNameResult", classes = {
@@ -61,6 +66,7 @@ public class Center extends HalEntity {
 
 	/** List of the acquisition equipments related to this center. */
 	@OneToMany(mappedBy = "center", fetch = FetchType.LAZY, cascade = { CascadeType.PERSIST, CascadeType.MERGE })
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 	private List<AcquisitionEquipment> acquisitionEquipments;
 
 	private String city;
@@ -16,9 +16,12 @@ package org.shanoir.ng.center.repository;
 
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
 import org.shanoir.ng.center.model.Center;
 import org.shanoir.ng.shared.core.model.IdName;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
@@ -29,9 +32,13 @@ import org.springframework.data.repository.query.Param;
  */
 public interface CenterRepository extends CrudRepository<Center, Long> {
 
+	@Override
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+	Iterable<Center> findAll();
 
 	Center findByName(String name);
 	
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	@Query("select new org.shanoir.ng.shared.core.model.IdName(c.id, c.name) from Center c")
 	public List<IdName> findIdsAndNames();
 	
@@ -14,12 +14,15 @@
 
 package org.shanoir.ng.coil.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.PostLoad;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 import org.shanoir.ng.center.model.Center;
 import org.shanoir.ng.manufacturermodel.model.ManufacturerModel;
@@ -34,6 +37,8 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
  * @author msimon
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @JsonPropertyOrder({ "_links", "id" })
 @GenericGenerator(name = "IdOrGenerate", strategy = "increment")
 public class Coil extends HalEntity {
@@ -16,7 +16,10 @@ package org.shanoir.ng.coil.repository;
 
 import java.util.Optional;
 
+import javax.persistence.QueryHint;
+
 import org.shanoir.ng.coil.model.Coil;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 /**
@@ -26,6 +29,10 @@ import org.springframework.data.repository.CrudRepository;
  */
 public interface CoilRepository extends CrudRepository<Coil, Long> {
 
+	@Override
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+	Iterable<Coil> findAll();
+
 	/**
 	 * Find coil by name.
 	 *
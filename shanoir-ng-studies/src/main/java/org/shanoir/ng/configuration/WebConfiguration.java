@@ -0,0 +1,40 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+
+package org.shanoir.ng.configuration;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Web configuration.
+ */
+@Configuration
+public class WebConfiguration {
+
+	/**
+	 * Adds an ETag to the id/name lists polled by the UI, so that an unchanged
+	 * list is answered by a 304 without body.
+	 */
+	@Bean
+	public FilterRegistrationBean etagFilter() {
+		final FilterRegistrationBean bean = new FilterRegistrationBean(new ShallowEtagHeaderFilter());
+		bean.addUrlPatterns("/studies/names", "/studies/namesAndCenters", "/subjects/names");
+		return bean;
+	}
+
+}
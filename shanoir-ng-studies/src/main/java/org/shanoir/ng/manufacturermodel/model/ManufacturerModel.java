@@ -14,6 +14,7 @@
 
 package org.shanoir.ng.manufacturermodel.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.ColumnResult;
 import javax.persistence.ConstructorResult;
 import javax.persistence.Entity;
@@ -22,6 +23,8 @@ import javax.persistence.PostLoad;
 import javax.persistence.SqlResultSetMapping;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.validator.constraints.Length;
 import org.shanoir.ng.shared.core.model.IdName;
@@ -37,6 +40,8 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @JsonPropertyOrder({ "_links", "id", "name" })
 @GenericGenerator(name = "IdOrGenerate", strategy = "increment")
 @SqlResultSetMapping(name="ManufacturerModelNameResult", classes = {
@@ -14,7 +14,10 @@
 
 package org.shanoir.ng.manufacturermodel.repository;
 
+import javax.persistence.QueryHint;
+
 import org.shanoir.ng.manufacturermodel.model.ManufacturerModel;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 /**
@@ -25,4 +28,8 @@ import org.springframework.data.repository.CrudRepository;
  */
 public interface ManufacturerModelRepository extends CrudRepository<ManufacturerModel, Long>, ManufacturerModelRepositoryCustom {
 
+	@Override
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+	Iterable<ManufacturerModel> findAll();
+
 }
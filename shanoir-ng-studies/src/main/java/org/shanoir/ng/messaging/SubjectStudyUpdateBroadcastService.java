@@ -0,0 +1,124 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.messaging;
+
+import java.util.List;
+
+import org.shanoir.ng.shared.configuration.RabbitMQConfiguration;
+import org.shanoir.ng.shared.core.model.IdName;
+import org.shanoir.ng.shared.core.model.SubjectStudyLink;
+import org.shanoir.ng.shared.core.model.SubjectStudyUpdate;
+import org.shanoir.ng.shared.exception.MicroServiceCommunicationException;
+import org.shanoir.ng.study.model.Study;
+import org.shanoir.ng.subject.model.Subject;
+import org.shanoir.ng.subjectstudy.model.SubjectStudy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Sends the subject/study links to the datasets MS, which keeps a local replica of them.
+ */
+@Service
+public class SubjectStudyUpdateBroadcastService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SubjectStudyUpdateBroadcastService.class);
+
+	@Autowired
+	private RabbitTemplate rabbitTemplate;
+
+	/**
+	 * Sends all the study links of a subject.
+	 * 
+	 * @param subject the subject
+	 * @throws MicroServiceCommunicationException
+	 */
+	public void broadcastSubject(Subject subject) throws MicroServiceCommunicationException {
+		broadcastSubject(subject, subject.getSubjectStudyList());
+	}
+
+	/**
+	 * Sends the given study links of a subject, when they differ from its loaded list.
+	 * 
+	 * @param subject the subject
+	 * @param subjectStudies all the subject studies of this subject
+	 * @throws MicroServiceCommunicationException
+	 */
+	public void broadcastSubject(Subject subject, List<SubjectStudy> subjectStudies) throws MicroServiceCommunicationException {
+		SubjectStudyUpdate update = new SubjectStudyUpdate();
+		update.setSubjectId(subject.getId());
+		update.setSubjectName(subject.getName());
+		if (subjectStudies != null) {
+			for (SubjectStudy subjectStudy : subjectStudies) {
+				update.getLinks().add(new SubjectStudyLink(subject.getId(), subject.getName(), subjectStudy.getStudy().getId()));
+			}
+		}
+		broadcast(update);
+	}
+
+	/**
+	 * Sends all the study links of several subjects in a single message.
+	 * 
+	 * @param subjects the subjects
+	 * @throws MicroServiceCommunicationException
+	 */
+	public void broadcastSubjects(List<Subject> subjects) throws MicroServiceCommunicationException {
+		SubjectStudyUpdate update = new SubjectStudyUpdate();
+		for (Subject subject : subjects) {
+			update.getSubjects().add(new IdName(subject.getId(), subject.getName()));
+			if (subject.getSubjectStudyList() != null) {
+				for (SubjectStudy subjectStudy : subject.getSubjectStudyList()) {
+					update.getLinks().add(new SubjectStudyLink(subject.getId(), subject.getName(), subjectStudy.getStudy().getId()));
+				}
+			}
+		}
+		broadcast(update);
+	}
+
+	/**
+	 * Sends all the subject links of a study.
+	 * 
+	 * @param study the study
+	 * @throws MicroServiceCommunicationException
+	 */
+	public void broadcastStudy(Study study) throws MicroServiceCommunicationException {
+		SubjectStudyUpdate update = new SubjectStudyUpdate();
+		update.setStudyId(study.getId());
+		if (study.getSubjectStudyList() != null) {
+			for (SubjectStudy subjectStudy : study.getSubjectStudyList()) {
+				Subject subject = subjectStudy.getSubject();
+				update.getLinks().add(new SubjectStudyLink(subject.getId(), subject.getName(), study.getId()));
+			}
+		}
+		broadcast(update);
+	}
+
+	private void broadcast(SubjectStudyUpdate update) throws MicroServiceCommunicationException {
+		try {
+			String str = new ObjectMapper().writeValueAsString(update);
+			rabbitTemplate.convertAndSend(RabbitMQConfiguration.SUBJECT_STUDY_UPDATE_QUEUE, str);
+			LOG.debug("Broadcasted subject-study changes : {}", str);
+		} catch (AmqpException | JsonProcessingException e) {
+			throw new MicroServiceCommunicationException("Could not send subject-study changes to datasets MS");
+		}
+	}
+
+}
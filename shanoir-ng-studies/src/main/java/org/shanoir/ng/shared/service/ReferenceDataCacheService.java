@@ -0,0 +1,72 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+
+package org.shanoir.ng.shared.service;
+
+import java.lang.management.ManagementFactory;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.shanoir.ng.center.model.Center;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import net.sf.ehcache.CacheException;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.management.ManagementService;
+
+/**
+ * Second-level cache of the reference data: explicit evictions for the changes
+ * Hibernate does not propagate by itself (inverse side of the associations),
+ * and statistics of the cache regions (hits, misses, size) exposed over JMX.
+ */
+@Service
+public class ReferenceDataCacheService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ReferenceDataCacheService.class);
+
+	private static final String CENTER_ACQUISITION_EQUIPMENTS = Center.class.getName() + ".acquisitionEquipments";
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@PostConstruct
+	public void registerStatistics() {
+		// The cache manager is started by Hibernate with the entity manager factory
+		try {
+			ManagementService.registerMBeans(CacheManager.getInstance(), ManagementFactory.getPlatformMBeanServer(), false, true, true, true);
+		} catch (CacheException e) {
+			// Already registered by another application context sharing the cache manager
+			LOG.debug("Cache statistics not registered: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Evicts the cached list of acquisition equipments of a center.
+	 * 
+	 * @param centerId
+	 *            center id, ignored if null.
+	 */
+	public void evictCenterAcquisitionEquipments(final Long centerId) {
+		if (centerId != null) {
+			entityManagerFactory.unwrap(SessionFactory.class).getCache().evictCollection(CENTER_ACQUISITION_EQUIPMENTS, centerId);
+		}
+	}
+
+}
@@ -21,6 +21,7 @@ import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
 import org.shanoir.ng.bids.model.BidsElement;
+import org.shanoir.ng.bids.model.BidsFile;
 import org.shanoir.ng.shared.core.model.IdName;
 import org.shanoir.ng.shared.exception.ErrorModel;
 import org.shanoir.ng.shared.exception.MicroServiceCommunicationException;
@@ -31,6 +32,7 @@ import org.shanoir.ng.study.dto.StudyDTO;
 import org.shanoir.ng.study.dua.DataUserAgreement;
 import org.shanoir.ng.study.model.Study;
 import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -42,6 +44,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 
 import io.swagger.annotations.Api;
@@ -87,7 +90,6 @@ public interface StudyApi {
 			@ApiResponse(code = 500, message = "unexpected error", response = ErrorModel.class) })
 	@RequestMapping(value = "/names", produces = { "application/json" }, method = RequestMethod.GET)
 	@PreAuthorize("hasAnyRole('ADMIN', 'EXPERT', 'USER')")
-	@PostAuthorize("hasRole('ADMIN') or @studySecurityService.filterStudyIdNameDTOsHasRight(returnObject.getBody(), 'CAN_SEE_ALL')")
 	ResponseEntity<List<IdName>> findStudiesNames() throws RestServiceException;
 
 	@ApiOperation(value = "", notes = "Returns id, name and centers for all the studies", response = IdName.class, responseContainer = "List", tags = {})
@@ -99,7 +101,6 @@ public interface StudyApi {
 			@ApiResponse(code = 500, message = "unexpected error", response = ErrorModel.class) })
 	@RequestMapping(value = "/namesAndCenters", produces = { "application/json" }, method = RequestMethod.GET)
 	@PreAuthorize("hasAnyRole('ADMIN', 'EXPERT', 'USER')")
-	@PostAuthorize("hasRole('ADMIN') or @studySecurityService.filterStudyIdNameDTOsHasRight(returnObject.getBody(), 'CAN_SEE_ALL')")
 	ResponseEntity<List<IdNameCenterStudyDTO>> findStudiesNamesAndCenters() throws RestServiceException;
 
 	@ApiOperation(value = "", notes = "If exists, returns the study corresponding to the given id", response = Study.class, tags = {})
@@ -212,6 +213,33 @@ public interface StudyApi {
 	ResponseEntity<BidsElement> getBIDSStructureByStudyId(
 			@ApiParam(value = "id of the study", required = true) @PathVariable("studyId") Long studyId)
 			throws RestServiceException, IOException;
+
+	@ApiOperation(value = "", nickname = "getBidsChildren", notes = "If exists, returns a page of the direct children of a folder of the BIDS structure of the given study id, without their content", response = BidsElement.class, tags = {})
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "page of BidsElement", response = BidsElement.class),
+			@ApiResponse(code = 400, message = "negative page or page size lower than 1"),
+			@ApiResponse(code = 401, message = "unauthorized"), @ApiResponse(code = 403, message = "forbidden"),
+			@ApiResponse(code = 404, message = "no folder found"),
+			@ApiResponse(code = 500, message = "unexpected error", response = ErrorModel.class) })
+	@GetMapping(value = "/bidsStructure/studyId/{studyId}/children", produces = { "application/json" })
+	@PreAuthorize("hasRole('ADMIN') or (hasAnyRole('EXPERT', 'USER') and @studySecurityService.hasRightOnStudy(#studyId, 'CAN_SEE_ALL'))")
+	ResponseEntity<Page<BidsElement>> getBIDSChildrenByStudyId(
+			@ApiParam(value = "id of the study", required = true) @PathVariable("studyId") Long studyId,
+			@ApiParam(value = "path of the folder, root folder if empty", required = false) @RequestParam(value = "path", required = false) String path,
+			@ApiParam(value = "page number", required = false) @RequestParam(value = "page", required = false, defaultValue = "0") int page,
+			@ApiParam(value = "page size", required = false) @RequestParam(value = "size", required = false, defaultValue = "100") int size)
+			throws RestServiceException, IOException;
+
+	@ApiOperation(value = "", nickname = "getBidsFile", notes = "If exists, returns a file of the BIDS structure of the given study id with its content", response = BidsFile.class, tags = {})
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "BidsFile", response = BidsFile.class),
+			@ApiResponse(code = 401, message = "unauthorized"), @ApiResponse(code = 403, message = "forbidden"),
+			@ApiResponse(code = 404, message = "no file found"),
+			@ApiResponse(code = 500, message = "unexpected error", response = ErrorModel.class) })
+	@GetMapping(value = "/bidsStructure/studyId/{studyId}/file", produces = { "application/json" })
+	@PreAuthorize("hasRole('ADMIN') or (hasAnyRole('EXPERT', 'USER') and @studySecurityService.hasRightOnStudy(#studyId, 'CAN_SEE_ALL'))")
+	ResponseEntity<BidsFile> getBIDSFileByStudyId(
+			@ApiParam(value = "id of the study", required = true) @PathVariable("studyId") Long studyId,
+			@ApiParam(value = "path of the file", required = true) @RequestParam(value = "path") String path)
+			throws RestServiceException, IOException;
 	
 	@ApiOperation(value = "", notes = "If one or more exist, return a list of data user agreements (DUAs) waiting for the given user id", response = DataUserAgreement.class, tags = {})
 	@ApiResponses(value = {
@@ -22,7 +22,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
@@ -35,6 +34,7 @@ import javax.validation.Valid;
 import org.apache.commons.io.FileUtils;
 import org.joda.time.DateTime;
 import org.shanoir.ng.bids.model.BidsElement;
+import org.shanoir.ng.bids.model.BidsFile;
 import org.shanoir.ng.bids.model.BidsFolder;
 import org.shanoir.ng.bids.service.StudyBIDSService;
 import org.shanoir.ng.bids.utils.BidsDeserializer;
@@ -60,11 +60,13 @@ import org.shanoir.ng.study.security.StudyFieldEditionSecurityManager;
 import org.shanoir.ng.study.service.StudyService;
 import org.shanoir.ng.study.service.StudyUniqueConstraintManager;
 import org.shanoir.ng.study.service.StudyUserService;
+import org.shanoir.ng.utils.FileServingUtil;
 import org.shanoir.ng.utils.KeycloakUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -72,6 +74,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 
 import io.swagger.annotations.ApiParam;
@@ -158,27 +161,19 @@ public class StudyApiController implements StudyApi {
 
 	@Override
 	public ResponseEntity<List<IdName>> findStudiesNames() throws RestServiceException {
-		List<IdName> studiesDTO = new ArrayList<>();
-		final List<Study> studies = studyService.findAll();
-		if (studies.isEmpty()) {
+		final List<IdName> studiesDTO = studyService.findIdsAndNames();
+		if (studiesDTO.isEmpty()) {
 			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 		}
-		for (Study study : studies) {
-			studiesDTO.add(studyMapper.studyToIdNameDTO(study));
-		}
 		return new ResponseEntity<>(studiesDTO, HttpStatus.OK);
 	}
 
 	@Override
 	public ResponseEntity<List<IdNameCenterStudyDTO>> findStudiesNamesAndCenters() throws RestServiceException {
-		List<IdNameCenterStudyDTO> studiesDTO = new ArrayList<>();
-		final List<Study> studies = studyService.findAll();
-		if (studies.isEmpty()) {
+		final List<IdNameCenterStudyDTO> studiesDTO = studyService.findIdsAndNamesAndCenters();
+		if (studiesDTO.isEmpty()) {
 			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 		}
-		for (Study study : studies) {
-			studiesDTO.add(studyMapper.studyToExtendedIdNameDTO(study));
-		}
 		return new ResponseEntity<>(studiesDTO, HttpStatus.OK);
 	}
 
@@ -260,12 +255,8 @@ public class StudyApiController implements StudyApi {
 			response.sendError(HttpStatus.NO_CONTENT.value());
 			return;
 		}
-		try (InputStream is = new FileInputStream(fileToDownLoad);) {
-			response.setHeader("Content-Disposition", "attachment;filename=" + fileToDownLoad.getName());
-			response.setContentType(request.getServletContext().getMimeType(fileToDownLoad.getAbsolutePath()));
-			org.apache.commons.io.IOUtils.copy(is, response.getOutputStream());
-			response.flushBuffer();
-		}
+		FileServingUtil.serve(fileToDownLoad, fileToDownLoad.getName(),
+				request.getServletContext().getMimeType(fileToDownLoad.getAbsolutePath()), request, response);
 	}
 
 	@Override
@@ -353,6 +344,43 @@ public class StudyApiController implements StudyApi {
 		return new ResponseEntity<>(studyBidsElement, HttpStatus.OK);
 	}
 
+	@Override
+	public ResponseEntity<Page<BidsElement>> getBIDSChildrenByStudyId(
+			@ApiParam(value = "id of the study", required = true) @PathVariable("studyId") Long studyId,
+			@ApiParam(value = "path of the folder, root folder if empty", required = false) @RequestParam(value = "path", required = false) String path,
+			@ApiParam(value = "page number", required = false) @RequestParam(value = "page", required = false, defaultValue = "0") int page,
+			@ApiParam(value = "page size", required = false) @RequestParam(value = "size", required = false, defaultValue = "100") int size)
+			throws RestServiceException, IOException {
+		if (page < 0 || size < 1) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		Study study = studyService.findById(studyId);
+		if (study == null) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+		try {
+			return new ResponseEntity<>(bidsDeserializer.getChildren(study, path, page, size), HttpStatus.OK);
+		} catch (EntityNotFoundException e) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+	}
+
+	@Override
+	public ResponseEntity<BidsFile> getBIDSFileByStudyId(
+			@ApiParam(value = "id of the study", required = true) @PathVariable("studyId") Long studyId,
+			@ApiParam(value = "path of the file", required = true) @RequestParam(value = "path") String path)
+			throws RestServiceException, IOException {
+		Study study = studyService.findById(studyId);
+		if (study == null) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+		try {
+			return new ResponseEntity<>(bidsDeserializer.getFile(study, path), HttpStatus.OK);
+		} catch (EntityNotFoundException e) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+	}
+
 	/**
 	 * Zip
 	 * 
@@ -441,12 +469,7 @@ public class StudyApiController implements StudyApi {
 			response.sendError(HttpStatus.NO_CONTENT.value());
 			return;
 		}
-		try (InputStream is = new FileInputStream(fileToDownLoad);) {
-			response.setHeader("Content-Disposition", "attachment;filename=" + fileToDownLoad.getName());
-			response.setContentType(MediaType.APPLICATION_PDF_VALUE);
-			org.apache.commons.io.IOUtils.copy(is, response.getOutputStream());
-			response.flushBuffer();
-		}
+		FileServingUtil.serve(fileToDownLoad, fileToDownLoad.getName(), MediaType.APPLICATION_PDF_VALUE, request, response);
 	}
 		
 	@Override
@@ -16,8 +16,11 @@ package org.shanoir.ng.study.repository;
 
 import java.util.List;
 
+import org.shanoir.ng.shared.core.model.IdName;
 import org.shanoir.ng.study.model.Study;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -55,4 +58,27 @@ public interface StudyRepository extends CrudRepository<Study, Long> {
 	 */
 	List<Study> findByStudyUserList_UserIdAndStudyUserList_StudyUserRightsAndStudyUserList_Confirmed_OrderByNameAsc(Long userId, Integer studyUseRightId, boolean confirmed);
 
+	/**
+	 * Get id and name of all the studies, without loading them.
+	 * 
+	 * @return list of id and name.
+	 */
+	@Query("SELECT new org.shanoir.ng.shared.core.model.IdName(s.id, s.name) FROM Study s ORDER BY s.name")
+	List<IdName> findAllIdAndName();
+
+	/**
+	 * Get id and name of the studies on which an user has a confirmed right,
+	 * without loading them.
+	 * 
+	 * @param userId
+	 *            user id.
+	 * @param studyUserRightId
+	 *            right id.
+	 * @return list of id and name.
+	 */
+	@Query("SELECT DISTINCT new org.shanoir.ng.shared.core.model.IdName(s.id, s.name) FROM Study s "
+			+ "JOIN s.studyUserList su JOIN su.studyUserRights r "
+			+ "WHERE su.userId = :userId AND r = :studyUserRightId AND su.confirmed = true ORDER BY s.name")
+	List<IdName> findIdAndNameByUserIdAndStudyUserRight(@Param("userId") Long userId, @Param("studyUserRightId") Integer studyUserRightId);
+
 }
@@ -397,6 +397,32 @@ public class StudySecurityService {
 		return nbStudies == ids.size();
 	}
 
+	/**
+	 * Check that the connected user has the given right for all the studies linked
+	 * to the given subjects.
+	 * 
+	 * @param subjects
+	 *            the subjects
+	 * @param rightStr
+	 *            the right
+	 * @return true or false
+	 */
+	public boolean checkRightOnEverySubjectStudyListOfSubjects(Iterable<Subject> subjects, String rightStr) {
+		if (subjects == null) {
+			return false;
+		}
+		// One subject study per study, as each study is checked once
+		Map<Long, SubjectStudy> subjectStudiesByStudy = new HashMap<>();
+		for (Subject subject : subjects) {
+			if (subject.getSubjectStudyList() != null) {
+				for (SubjectStudy subjectStudy : subject.getSubjectStudyList()) {
+					subjectStudiesByStudy.put(subjectStudy.getStudy().getId(), subjectStudy);
+				}
+			}
+		}
+		return checkRightOnEverySubjectStudyList(subjectStudiesByStudy.values(), rightStr);
+	}
+
 	/**
 	 * Verifies that study's studyUsers link to the correct study.
 	 * 
@@ -16,9 +16,11 @@ package org.shanoir.ng.study.service;
 
 import java.util.List;
 
+import org.shanoir.ng.shared.core.model.IdName;
 import org.shanoir.ng.shared.exception.AccessDeniedException;
 import org.shanoir.ng.shared.exception.EntityNotFoundException;
 import org.shanoir.ng.shared.exception.MicroServiceCommunicationException;
+import org.shanoir.ng.study.dto.IdNameCenterStudyDTO;
 import org.shanoir.ng.study.model.Study;
 import org.shanoir.ng.study.model.StudyUser;
 import org.springframework.security.access.prepost.PostAuthorize;
@@ -65,6 +67,24 @@ public interface StudyService {
 	@PostFilter("@studySecurityService.hasRightOnTrustedStudy(filterObject, 'CAN_SEE_ALL')")
 	List<Study> findAll();
 
+	/**
+	 * Get id and name of the studies the connected user can see, without
+	 * loading the studies.
+	 * 
+	 * @return a list of id and name, ordered by name
+	 */
+	@PreAuthorize("hasAnyRole('USER', 'ADMIN', 'EXPERT')")
+	List<IdName> findIdsAndNames();
+
+	/**
+	 * Get id, name and centers of the studies the connected user can see,
+	 * without loading the studies.
+	 * 
+	 * @return a list of studies with their centers, ordered by name
+	 */
+	@PreAuthorize("hasAnyRole('USER', 'ADMIN', 'EXPERT')")
+	List<IdNameCenterStudyDTO> findIdsAndNamesAndCenters();
+
 	/**
 	 * Get all the challenges
 	 * 
@@ -26,11 +26,13 @@ import javax.transaction.Transactional;
 
 import org.apache.commons.io.FileUtils;
 import org.shanoir.ng.messaging.StudyUserUpdateBroadcastService;
+import org.shanoir.ng.messaging.SubjectStudyUpdateBroadcastService;
 import org.shanoir.ng.shared.configuration.RabbitMQConfiguration;
 import org.shanoir.ng.shared.core.model.IdName;
 import org.shanoir.ng.shared.exception.EntityNotFoundException;
 import org.shanoir.ng.shared.exception.MicroServiceCommunicationException;
 import org.shanoir.ng.shared.security.rights.StudyUserRight;
+import org.shanoir.ng.study.dto.IdNameCenterStudyDTO;
 import org.shanoir.ng.study.dua.DataUserAgreementService;
 import org.shanoir.ng.study.model.Study;
 import org.shanoir.ng.study.model.StudyUser;
@@ -39,6 +41,8 @@ import org.shanoir.ng.study.repository.StudyUserRepository;
 import org.shanoir.ng.study.rights.command.CommandType;
 import org.shanoir.ng.study.rights.command.StudyUserCommand;
 import org.shanoir.ng.studycenter.StudyCenter;
+import org.shanoir.ng.studycenter.StudyCenterDTO;
+import org.shanoir.ng.studycenter.StudyCenterRepository;
 import org.shanoir.ng.subjectstudy.model.SubjectStudy;
 import org.shanoir.ng.utils.KeycloakUtil;
 import org.shanoir.ng.utils.ListDependencyUpdate;
@@ -71,8 +75,14 @@ public class StudyServiceImpl implements StudyService {
 	@Autowired
 	private StudyRepository studyRepository;
 	
+	@Autowired
+	private StudyCenterRepository studyCenterRepository;
+
 	@Autowired
 	private StudyUserUpdateBroadcastService studyUserCom;
+
+	@Autowired
+	private SubjectStudyUpdateBroadcastService subjectStudyCom;
 	
 	@Autowired
 	private DataUserAgreementService dataUserAgreementService;
@@ -136,7 +146,8 @@ public class StudyServiceImpl implements StudyService {
 		Study studyDb = studyRepository.save(study);
 		
 		updateStudyName(new IdName(study.getId(), study.getName()));
-		
+		broadcastSubjectStudies(studyDb);
+
 		if (studyDb.getStudyUserList() != null) {
 			List<StudyUserCommand> commands = new ArrayList<>();
 			for (final StudyUser studyUser: studyDb.getStudyUserList()) {
@@ -212,9 +223,21 @@ public class StudyServiceImpl implements StudyService {
 		
 		studyRepository.save(studyDb);
 
+		if (study.getSubjectStudyList() != null) {
+			broadcastSubjectStudies(studyDb);
+		}
+
 		return studyDb;
 	}
 
+	private void broadcastSubjectStudies(Study studyDb) {
+		try {
+			subjectStudyCom.broadcastStudy(studyDb);
+		} catch (MicroServiceCommunicationException e) {
+			LOG.error("Could not transmit subject-study info through RabbitMQ", e);
+		}
+	}
+
 	/**
 	 * Gets the protocol or data user agreement file path
 	 * 
@@ -243,6 +266,32 @@ public class StudyServiceImpl implements StudyService {
 		}
 	}
 
+	@Override
+	public List<IdName> findIdsAndNames() {
+		if (KeycloakUtil.getTokenRoles().contains("ROLE_ADMIN")) {
+			return studyRepository.findAllIdAndName();
+		}
+		return studyRepository.findIdAndNameByUserIdAndStudyUserRight(KeycloakUtil.getTokenUserId(), StudyUserRight.CAN_SEE_ALL.getId());
+	}
+
+	@Override
+	public List<IdNameCenterStudyDTO> findIdsAndNamesAndCenters() {
+		List<IdNameCenterStudyDTO> studies = new ArrayList<>();
+		Map<Long, IdNameCenterStudyDTO> studiesById = new HashMap<>();
+		for (IdName idName : findIdsAndNames()) {
+			IdNameCenterStudyDTO study = new IdNameCenterStudyDTO(idName.getId(), idName.getName());
+			studies.add(study);
+			studiesById.put(study.getId(), study);
+		}
+		if (studiesById.isEmpty()) {
+			return studies;
+		}
+		for (StudyCenterDTO studyCenter : studyCenterRepository.findDTOByStudyIdIn(studiesById.keySet())) {
+			studiesById.get(studyCenter.getStudy().getId()).getStudyCenterList().add(studyCenter);
+		}
+		return studies;
+	}
+
 	@Transactional
 	protected void updateStudyUsers(Study studyDb, Study study) {
 		if (study.getStudyUserList() == null) {
@@ -286,15 +335,13 @@ public class StudyServiceImpl implements StudyService {
 		Set<Long> idsToBeUpdated = new HashSet<>(replacing.keySet());
 		idsToBeUpdated.removeAll(idsToBeDeleted);
 		
-		// For those which need an update, update them with the replacing values
+		// For those which need an update, update them with the replacing values.
+		// Unchanged study users are neither written nor sent to the other microservices.
 		for (Long id : idsToBeUpdated) {
 			StudyUser existingSu = existing.get(id);
-			StudyUser replacingSu = replacing.get(id);
-			existingSu.setReceiveAnonymizationReport(replacingSu.isReceiveAnonymizationReport());
-			existingSu.setReceiveNewImportReport(replacingSu.isReceiveNewImportReport());
-			existingSu.setStudyUserRights(replacingSu.getStudyUserRights());
-			existingSu.setConfirmed(replacingSu.isConfirmed());
-			toBeUpdated.add(existingSu);
+			if (updateStudyUser(existingSu, replacing.get(id))) {
+				toBeUpdated.add(existingSu);
+			}
 		}
 		
 		// For those which need to be added, add them.
@@ -318,16 +365,18 @@ public class StudyServiceImpl implements StudyService {
 		}
 		
 		// Remove deleted: study user + data user agreements
-		for (Long studyUserIdToBeDeleted : idsToBeDeleted) {
-			StudyUser studyUser = studyUserRepository.findOne(studyUserIdToBeDeleted);
-			// delete a DUA for removed user in study, if not yet accepted, if dua file exists
-			if (studyDb.getDataUserAgreementPaths() != null && !studyDb.getDataUserAgreementPaths().isEmpty()) {
-				dataUserAgreementService.deleteIncompleteDataUserAgreementForUserInStudy(studyDb, studyUser.getUserId());
+		if (studyDb.getDataUserAgreementPaths() != null && !studyDb.getDataUserAgreementPaths().isEmpty()) {
+			for (Long studyUserIdToBeDeleted : idsToBeDeleted) {
+				// delete a DUA for removed user in study, if not yet accepted, if dua file exists
+				dataUserAgreementService.deleteIncompleteDataUserAgreementForUserInStudy(studyDb, existing.get(studyUserIdToBeDeleted).getUserId());
 			}
 		}
 		Utils.removeIdsFromList(idsToBeDeleted, studyDb.getStudyUserList());
 		
-		// Send updates via RabbitMQ
+		if (idsToBeDeleted.isEmpty() && created.isEmpty() && toBeUpdated.isEmpty()) {
+			return;
+		}
+		// Send updates via RabbitMQ, as one message for the whole study
 		try {
 			List<StudyUserCommand> commands = new ArrayList<>();
 			for (Long id : idsToBeDeleted) {
@@ -345,6 +394,35 @@ public class StudyServiceImpl implements StudyService {
 		}
 	}
 	
+	/**
+	 * Copies the replacing values into an existing study user, leaving it
+	 * untouched (and its rights collection not rewritten) if nothing changed.
+	 * 
+	 * @param existingSu the study user from the database.
+	 * @param replacingSu the study user sent by the client.
+	 * @return true if the existing study user has been modified.
+	 */
+	private boolean updateStudyUser(StudyUser existingSu, StudyUser replacingSu) {
+		boolean changed = false;
+		if (existingSu.isReceiveAnonymizationReport() != replacingSu.isReceiveAnonymizationReport()) {
+			existingSu.setReceiveAnonymizationReport(replacingSu.isReceiveAnonymizationReport());
+			changed = true;
+		}
+		if (existingSu.isReceiveNewImportReport() != replacingSu.isReceiveNewImportReport()) {
+			existingSu.setReceiveNewImportReport(replacingSu.isReceiveNewImportReport());
+			changed = true;
+		}
+		if (existingSu.isConfirmed() != replacingSu.isConfirmed()) {
+			existingSu.setConfirmed(replacingSu.isConfirmed());
+			changed = true;
+		}
+		if (!new HashSet<>(existingSu.getStudyUserRights()).equals(new HashSet<>(replacingSu.getStudyUserRights()))) {
+			existingSu.setStudyUserRights(replacingSu.getStudyUserRights());
+			changed = true;
+		}
+		return changed;
+	}
+
 	@Override
 	public void addStudyUserToStudy(StudyUser studyUser, Study study) {
 		studyUserRepository.save(studyUser);
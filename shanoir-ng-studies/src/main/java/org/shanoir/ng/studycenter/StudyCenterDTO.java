@@ -36,6 +36,15 @@ public class StudyCenterDTO {
 	/** Investigator function in the study */
 	// private InvestigatorFunction investigatorFunction;
 
+	public StudyCenterDTO() {
+	}
+
+	public StudyCenterDTO(Long id, Long centerId, String centerName, Long studyId, String studyName) {
+		this.id = id;
+		this.center = new IdName(centerId, centerName);
+		this.study = new IdName(studyId, studyName);
+	}
+
 	public IdName getStudy() {
 		return study;
 	}
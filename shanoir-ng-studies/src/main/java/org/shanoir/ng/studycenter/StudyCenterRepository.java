@@ -14,7 +14,12 @@
 
 package org.shanoir.ng.studycenter;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository for relations between a study and a center.
@@ -23,4 +28,15 @@ import org.springframework.data.repository.CrudRepository;
  */
 public interface StudyCenterRepository extends CrudRepository<StudyCenter, Long> {
 
+	/**
+	 * Get the centers of the given studies, without loading any entity.
+	 * 
+	 * @param studyIds
+	 *            study ids.
+	 * @return the relations between the studies and their centers.
+	 */
+	@Query("SELECT new org.shanoir.ng.studycenter.StudyCenterDTO(sc.id, c.id, c.name, s.id, s.name) "
+			+ "FROM StudyCenter sc JOIN sc.center c JOIN sc.study s WHERE s.id IN :studyIds")
+	List<StudyCenterDTO> findDTOByStudyIdIn(@Param("studyIds") Collection<Long> studyIds);
+
 }
@@ -107,6 +107,20 @@ public interface SubjectApi {
 			@ApiParam(value = "request param centerId as flag for auto-increment common name", required = false) @RequestParam(required = false) Long centerId,
 			final BindingResult result) throws RestServiceException;
 	
+	@ApiOperation(value = "", notes = "Saves new subjects, named with the next common names of the given center", response = Subject.class, responseContainer = "List", tags = {})
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "created subjects", response = Subject.class, responseContainer = "List"),
+			@ApiResponse(code = 401, message = "unauthorized", response = Subject.class),
+			@ApiResponse(code = 403, message = "forbidden", response = Subject.class),
+			@ApiResponse(code = 422, message = "bad parameters", response = Subject.class),
+			@ApiResponse(code = 500, message = "unexpected error", response = Subject.class) })
+	@PostMapping(value = "/bulk", produces = { "application/json" }, consumes = {
+			"application/json" })
+	@PreAuthorize("hasRole('ADMIN') or (hasAnyRole('EXPERT', 'USER') and @studySecurityService.checkRightOnEverySubjectStudyListOfSubjects(#subjects, 'CAN_IMPORT'))")
+	ResponseEntity<List<SubjectDTO>> saveNewSubjects(
+			@ApiParam(value = "subjects to create", required = true) @RequestBody List<Subject> subjects,
+			@ApiParam(value = "id of the center giving the common names", required = true) @RequestParam Long centerId)
+			throws RestServiceException;
+
 	// Attention: this method is used by ShanoirUploader!!!
 	@ApiOperation(value = "", notes = "Updates a subject", response = Void.class, tags = {})
 	@ApiResponses(value = { @ApiResponse(code = 204, message = "subject updated", response = Void.class),
@@ -16,9 +16,11 @@ package org.shanoir.ng.subject.controler;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map.Entry;
 
 import org.shanoir.ng.bids.service.StudyBIDSService;
 import org.shanoir.ng.shared.core.model.IdName;
+import org.shanoir.ng.shared.error.FieldError;
 import org.shanoir.ng.shared.error.FieldErrorMap;
 import org.shanoir.ng.shared.event.ShanoirEvent;
 import org.shanoir.ng.shared.event.ShanoirEventService;
@@ -33,6 +35,7 @@ import org.shanoir.ng.subject.dto.SimpleSubjectDTO;
 import org.shanoir.ng.subject.dto.SubjectDTO;
 import org.shanoir.ng.subject.dto.mapper.SubjectMapper;
 import org.shanoir.ng.subject.model.Subject;
+import org.shanoir.ng.subject.service.SubjectImportService;
 import org.shanoir.ng.subject.service.SubjectService;
 import org.shanoir.ng.subject.service.SubjectUniqueConstraintManager;
 import org.shanoir.ng.utils.KeycloakUtil;
@@ -40,7 +43,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.BindingResult;
+import org.springframework.validation.Validator;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -56,6 +61,9 @@ public class SubjectApiController implements SubjectApi {
 	@Autowired
 	private SubjectService subjectService;
 
+	@Autowired
+	private SubjectImportService subjectImportService;
+
 	@Autowired
 	private SubjectUniqueConstraintManager uniqueConstraintManager;
 
@@ -65,6 +73,9 @@ public class SubjectApiController implements SubjectApi {
 	@Autowired
 	private ShanoirEventService eventService;
 
+	@Autowired
+	private Validator mvcValidator;
+
 	@Override
 	public ResponseEntity<Void> deleteSubject(
 			@ApiParam(value = "id of the subject", required = true) @PathVariable("subjectId") Long subjectId) {
@@ -124,6 +135,25 @@ public class SubjectApiController implements SubjectApi {
 		return new ResponseEntity<SubjectDTO>(subjectDTO, HttpStatus.OK);
 	}
 
+	@Override
+	public ResponseEntity<List<SubjectDTO>> saveNewSubjects(
+			@RequestBody List<Subject> subjects,
+			@RequestParam Long centerId) throws RestServiceException {
+		// Same checks as for one subject, the errors of each subject being prefixed by its index
+		final FieldErrorMap errors = new FieldErrorMap();
+		for (int i = 0; i < subjects.size(); i++) {
+			final Subject subject = subjects.get(i);
+			final BindingResult result = new BeanPropertyBindingResult(subject, "subject");
+			mvcValidator.validate(subject, result);
+			for (Entry<String, List<FieldError>> fieldErrors : getErrors(subject, result).entrySet()) {
+				errors.put("[" + i + "]." + fieldErrors.getKey(), fieldErrors.getValue());
+			}
+		}
+		throwIfErrors(errors);
+		final List<Subject> createdSubjects = subjectImportService.createAllAutoIncrement(subjects, centerId);
+		return new ResponseEntity<>(subjectMapper.subjectsToSubjectDTOs(createdSubjects), HttpStatus.OK);
+	}
+
 	// Attention: this method is used by ShanoirUploader!!!
 	@Override
 	public ResponseEntity<Void> updateSubject(
@@ -178,8 +208,14 @@ public class SubjectApiController implements SubjectApi {
 	}
 
 	private void validate(Subject subject, BindingResult result) throws RestServiceException {
-		final FieldErrorMap errors = new FieldErrorMap().add(new FieldErrorMap(result))
-				.add(uniqueConstraintManager.validate(subject));
+		throwIfErrors(getErrors(subject, result));
+	}
+
+	private FieldErrorMap getErrors(Subject subject, BindingResult result) {
+		return new FieldErrorMap().add(new FieldErrorMap(result)).add(uniqueConstraintManager.validate(subject));
+	}
+
+	private void throwIfErrors(FieldErrorMap errors) throws RestServiceException {
 		if (!errors.isEmpty()) {
 			ErrorModel error = new ErrorModel(HttpStatus.UNPROCESSABLE_ENTITY.value(), "Bad arguments",
 					new ErrorDetails(errors));
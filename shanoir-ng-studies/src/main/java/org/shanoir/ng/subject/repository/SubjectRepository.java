@@ -14,6 +14,10 @@
 
 package org.shanoir.ng.subject.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.shanoir.ng.shared.core.model.IdName;
 import org.shanoir.ng.subject.model.Subject;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
@@ -63,4 +67,14 @@ public interface SubjectRepository extends CrudRepository<Subject, Long>, Subjec
 	 */
 	Iterable<Subject> findBySubjectStudyListStudyIdIn(Iterable<Long> studyIds);
 
+	@Query("SELECT new org.shanoir.ng.shared.core.model.IdName(s.id, s.name) FROM Subject s")
+	List<IdName> findAllIdAndName();
+
+	@Query("SELECT DISTINCT new org.shanoir.ng.shared.core.model.IdName(s.id, s.name) FROM Subject s "
+			+ "JOIN s.subjectStudyList ss WHERE ss.study.id IN :studyIds")
+	List<IdName> findIdAndNameByStudyIdIn(@Param("studyIds") Iterable<Long> studyIds);
+
+	@Query("SELECT new org.shanoir.ng.shared.core.model.IdName(s.id, s.name) FROM Subject s WHERE s.name IN :names")
+	List<IdName> findIdAndNameByNameIn(@Param("names") Collection<String> names);
+
 }
@@ -21,9 +21,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
+import org.shanoir.ng.messaging.SubjectStudyUpdateBroadcastService;
 import org.shanoir.ng.shared.configuration.RabbitMQConfiguration;
 import org.shanoir.ng.shared.core.model.IdName;
 import org.shanoir.ng.shared.exception.ShanoirException;
@@ -100,6 +99,9 @@ public class RabbitMQSubjectService {
 	@Autowired
 	SubjectService subjectService;
 
+	@Autowired
+	SubjectImportService subjectImportService;
+
 	@Autowired
 	StudyRepository studyRepository;
 
@@ -108,6 +110,9 @@ public class RabbitMQSubjectService {
 	
 	@Autowired
 	ObjectMapper mapper;
+
+	@Autowired
+	SubjectStudyUpdateBroadcastService subjectStudyCom;
 	
 	/**
 	 * This methods returns a list of subjects for a given study ID
@@ -125,6 +130,23 @@ public class RabbitMQSubjectService {
 		}
 	}
 
+	/**
+	 * This methods returns all the subject/study links, used by datasets MS to initialize its replica.
+	 * @param message unused
+	 * @return the links as a json list
+	 */
+	@RabbitListener(queues = RabbitMQConfiguration.SUBJECT_STUDY_BOOTSTRAP_QUEUE)
+	@RabbitHandler
+	@Transactional
+	public String getAllSubjectStudies(String message) {
+		try {
+			return mapper.writeValueAsString(subjectStudyRepository.findAllLinks());
+		} catch (Exception e) {
+			LOG.error("Error while serializing subject studies.", e);
+			throw new AmqpRejectAndDontRequeueException(e);
+		}
+	}
+
 	/**
 	 * This methods allows to update a subject with a subjectStudy if not existing.
 	 * @param message the IDName we are receiving containing 1) The subject id in the id 2) The study id in the name
@@ -155,6 +177,10 @@ public class RabbitMQSubjectService {
 			subStud.setPhysicallyInvolved(true);
 			subStud.setStudy(study);
 			subjectStudyRepository.save(subStud);
+
+			List<SubjectStudy> subjectStudies = new ArrayList<>(subject.getSubjectStudyList());
+			subjectStudies.add(subStud);
+			subjectStudyCom.broadcastSubject(subject, subjectStudies);
 			return study.getName();
 		} catch (Exception e) {
 			LOG.error("Error while creating subjectStudy", e);
@@ -184,24 +210,8 @@ public class RabbitMQSubjectService {
 			// Deserialize in a list of subjects
 			List<Subject> participants = participantsDeserializer(participantsFile);
 
-			// Get all existing subjects and the list of their names
-			List<Subject> existingSubjects = StreamSupport.stream(subjectRepository.findAll().spliterator(), false).collect(Collectors.toList());
-			List<String> existingNames = existingSubjects.stream().map(subject -> subject.getName()).collect(Collectors.toList());
-
-			// Either create subjects or set their IDs
-			List<IdName> participantsToReturn = new ArrayList<>();
-			for (Subject subjToCreate : participants) {
-				if (!existingNames.contains(subjToCreate.getName())) {
-					// If not existing, create a new one
-					Subject created = subjectRepository.save(subjToCreate);
-					participantsToReturn.add(new IdName(created.getId(), created.getName()));
-				} else {
-					subjToCreate.setId(getSubjectIdByName(subjToCreate.getName(), existingSubjects));
-					participantsToReturn.add(new IdName(subjToCreate.getId(), subjToCreate.getName()));
-				}
-			}
-			// Return the list of subjects updated with their IDs.
-			return mapper.writeValueAsString(participantsToReturn);
+			// Create the non existing subjects at once and return the list of subjects with their IDs.
+			return mapper.writeValueAsString(subjectImportService.importParticipants(participants));
 		} catch (Exception e) {
 			LOG.error("Something went wrong deserializing the event. {}", e.getMessage());
 			IdName subj = new IdName(null, "Something went wrong parsing participants.tsv: " + e.getMessage());
@@ -211,21 +221,6 @@ public class RabbitMQSubjectService {
 		}
 	}
 
-	/**
-	 * Get the ID of a subject from its name and a list of subject
-	 * @param name the name of the subject to find
-	 * @param subjects the list of subjects to supply
-	 * @return the ID of the subject corresponding to the name, null otherwise
-	 */
-	public Long getSubjectIdByName(String name, List<Subject> subjects) {
-		for (Subject sub : subjects) {
-			if (sub.getName().equals(name)) {
-				return sub.getId();
-			}
-		}
-		return null;
-	}
-
 	public List<Subject> participantsDeserializer(File participantsTsv) throws IOException, ShanoirException {
 		if (participantsTsv == null || !participantsTsv.exists()) {
 			return Collections.emptyList();
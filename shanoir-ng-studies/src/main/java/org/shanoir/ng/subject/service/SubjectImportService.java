@@ -0,0 +1,144 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+
+package org.shanoir.ng.subject.service;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.shanoir.ng.messaging.SubjectStudyUpdateBroadcastService;
+import org.shanoir.ng.shared.core.model.IdName;
+import org.shanoir.ng.shared.exception.MicroServiceCommunicationException;
+import org.shanoir.ng.subject.model.Subject;
+import org.shanoir.ng.subject.repository.SubjectRepository;
+import org.shanoir.ng.subjectstudy.model.SubjectStudy;
+import org.shanoir.ng.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Creation of many subjects at once (participants.tsv of a BIDS import, cohort
+ * onboarding): the subjects are inserted in a single transaction, with JDBC
+ * batching, and the datasets MS is notified by a single message.
+ */
+@Service
+public class SubjectImportService {
+
+	private static final String FORMAT_CENTER_CODE = "000";
+
+	private static final String FORMAT_SUBJECT_CODE = "0000";
+
+	private static final Logger LOG = LoggerFactory.getLogger(SubjectImportService.class);
+
+	@Autowired
+	private SubjectRepository subjectRepository;
+
+	@Autowired
+	private SubjectStudyUpdateBroadcastService subjectStudyCom;
+
+	/**
+	 * Creates the given subjects.
+	 * 
+	 * @param subjects
+	 *            subjects to create, with their subject studies.
+	 * @return created subjects.
+	 */
+	public List<Subject> createAll(final List<Subject> subjects) {
+		if (subjects.isEmpty()) {
+			return subjects;
+		}
+		for (final Subject subject : subjects) {
+			if (subject.getSubjectStudyList() != null) {
+				for (final SubjectStudy subjectStudy : subject.getSubjectStudyList()) {
+					subjectStudy.setSubject(subject);
+				}
+			}
+		}
+		final List<Subject> subjectsDb = Utils.toList(subjectRepository.save(subjects));
+		try {
+			subjectStudyCom.broadcastSubjects(subjectsDb);
+		} catch (MicroServiceCommunicationException e) {
+			LOG.error("Unable to propagate subjects creation to dataset microservice: ", e);
+		}
+		return subjectsDb;
+	}
+
+	/**
+	 * Creates the given subjects, naming them with the next common names of
+	 * the center (3 digits of center code + 4 digits of subject number).
+	 * 
+	 * @param subjects
+	 *            subjects to create, with their subject studies.
+	 * @param centerId
+	 *            center id.
+	 * @return created subjects.
+	 */
+	public List<Subject> createAllAutoIncrement(final List<Subject> subjects, final Long centerId) {
+		final String commonNameCenter = new DecimalFormat(FORMAT_CENTER_CODE).format(centerId);
+		int maxCommonNameNumber = 0;
+		final Subject subjectMaxFoundByCenter = subjectRepository.findSubjectFromCenterCode(commonNameCenter + "%");
+		if (subjectMaxFoundByCenter != null) {
+			maxCommonNameNumber = Integer.parseInt(subjectMaxFoundByCenter.getName().substring(3));
+		}
+		final DecimalFormat formatterSubject = new DecimalFormat(FORMAT_SUBJECT_CODE);
+		for (final Subject subject : subjects) {
+			maxCommonNameNumber++;
+			subject.setName(commonNameCenter + formatterSubject.format(maxCommonNameNumber));
+		}
+		return createAll(subjects);
+	}
+
+	/**
+	 * Creates the participants which do not exist yet, found by name.
+	 * 
+	 * @param participants
+	 *            participants, read from a participants.tsv file.
+	 * @return id and name of every participant, in the same order.
+	 */
+	public List<IdName> importParticipants(final List<Subject> participants) {
+		final List<String> names = new ArrayList<>();
+		for (final Subject participant : participants) {
+			names.add(participant.getName());
+		}
+		final Map<String, Long> idsByName = new HashMap<>();
+		if (!names.isEmpty()) {
+			for (final IdName existing : subjectRepository.findIdAndNameByNameIn(names)) {
+				idsByName.put(existing.getName(), existing.getId());
+			}
+		}
+		final List<Subject> toCreate = new ArrayList<>();
+		final Map<String, Subject> toCreateByName = new HashMap<>();
+		for (final Subject participant : participants) {
+			if (!idsByName.containsKey(participant.getName()) && !toCreateByName.containsKey(participant.getName())) {
+				toCreate.add(participant);
+				toCreateByName.put(participant.getName(), participant);
+			}
+		}
+		for (final Subject created : createAll(toCreate)) {
+			idsByName.put(created.getName(), created.getId());
+		}
+		final List<IdName> result = new ArrayList<>();
+		for (final Subject participant : participants) {
+			result.add(new IdName(idsByName.get(participant.getName()), participant.getName()));
+		}
+		return result;
+	}
+
+}
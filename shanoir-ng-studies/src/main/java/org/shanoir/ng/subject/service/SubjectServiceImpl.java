@@ -18,6 +18,7 @@ import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.shanoir.ng.messaging.SubjectStudyUpdateBroadcastService;
 import org.shanoir.ng.shared.configuration.RabbitMQConfiguration;
 import org.shanoir.ng.shared.core.model.IdName;
 import org.shanoir.ng.shared.exception.EntityNotFoundException;
@@ -76,6 +77,9 @@ public class SubjectServiceImpl implements SubjectService {
 	
 	@Autowired
 	private StudyUserRepository studyUserRepository;
+
+	@Autowired
+	private SubjectStudyUpdateBroadcastService subjectStudyCom;
 	
 	private static final Logger LOG = LoggerFactory.getLogger(SubjectServiceImpl.class);
 
@@ -96,22 +100,15 @@ public class SubjectServiceImpl implements SubjectService {
 
 	@Override
 	public List<IdName> findNames() {
-		Iterable<Subject> subjects;
 		if (KeycloakUtil.getTokenRoles().contains("ROLE_ADMIN") || KeycloakUtil.getTokenRoles().contains("ROLE_EXPERT")) {
-			subjects = subjectRepository.findAll();
-		} else {
-			Long userId = KeycloakUtil.getTokenUserId();
-			List<Long> studyIds = studyUserRepository.findDistinctStudyIdByUserId(userId, StudyUserRight.CAN_SEE_ALL.getId());
-			subjects = subjectRepository.findBySubjectStudyListStudyIdIn(studyIds);
+			return subjectRepository.findAllIdAndName();
 		}
-		List<IdName> names = new ArrayList<IdName>();
-		if (subjects != null) {
-			for (Subject subject : subjects) {
-				IdName name = new IdName(subject.getId(), subject.getName());
-				names.add(name);
-			}
+		Long userId = KeycloakUtil.getTokenUserId();
+		List<Long> studyIds = studyUserRepository.findDistinctStudyIdByUserId(userId, StudyUserRight.CAN_SEE_ALL.getId());
+		if (studyIds.isEmpty()) {
+			return new ArrayList<>();
 		}
-		return names;
+		return subjectRepository.findIdAndNameByStudyIdIn(studyIds);
 	}
 
 	@Override
@@ -139,6 +136,7 @@ public class SubjectServiceImpl implements SubjectService {
 		Subject subjectDb = subjectRepository.save(subject);
 		try {
 			updateSubjectName(new IdName(subjectDb.getId(), subjectDb.getName()));
+			subjectStudyCom.broadcastSubject(subjectDb);
 		} catch (MicroServiceCommunicationException e) {
 			LOG.error("Unable to propagate subject creation to dataset microservice: ", e);
 		}
@@ -168,6 +166,7 @@ public class SubjectServiceImpl implements SubjectService {
 		Subject subjectDb = subjectRepository.save(subject);
 		try {
 			updateSubjectName(new IdName(subjectDb.getId(), subjectDb.getName()));
+			subjectStudyCom.broadcastSubject(subjectDb);
 		} catch (MicroServiceCommunicationException e) {
 			LOG.error("Unable to propagate subject creation to dataset microservice: ", e);
 		}
@@ -185,6 +184,11 @@ public class SubjectServiceImpl implements SubjectService {
 		}
 		updateSubjectValues(subjectDb, subject);
 		subjectRepository.save(subjectDb);
+		try {
+			subjectStudyCom.broadcastSubject(subjectDb);
+		} catch (MicroServiceCommunicationException e) {
+			LOG.error("Unable to propagate subject update to dataset microservice: ", e);
+		}
 		return subjectDb;
 	}
 
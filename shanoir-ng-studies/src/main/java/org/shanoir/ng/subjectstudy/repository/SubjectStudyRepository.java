@@ -16,8 +16,10 @@ package org.shanoir.ng.subjectstudy.repository;
 
 import java.util.List;
 
+import org.shanoir.ng.shared.core.model.SubjectStudyLink;
 import org.shanoir.ng.study.model.Study;
 import org.shanoir.ng.subjectstudy.model.SubjectStudy;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 /**
@@ -35,5 +37,13 @@ public interface SubjectStudyRepository extends CrudRepository<SubjectStudy, Lon
 	 * @return a template.
 	 */
 	List<SubjectStudy> findByStudy(Study study);
+
+	/**
+	 * Get all the subject/study links, without loading the entities.
+	 * 
+	 * @return the links.
+	 */
+	@Query("SELECT new org.shanoir.ng.shared.core.model.SubjectStudyLink(ss.subject.id, ss.subject.name, ss.study.id) FROM SubjectStudy ss")
+	List<SubjectStudyLink> findAllLinks();
 	
 }
@@ -30,7 +30,9 @@ import org.mockito.runners.MockitoJUnitRunner;
 import org.shanoir.ng.acquisitionequipment.model.AcquisitionEquipment;
 import org.shanoir.ng.acquisitionequipment.repository.AcquisitionEquipmentRepository;
 import org.shanoir.ng.acquisitionequipment.service.AcquisitionEquipmentServiceImpl;
+import org.shanoir.ng.center.model.Center;
 import org.shanoir.ng.shared.exception.EntityNotFoundException;
+import org.shanoir.ng.shared.service.ReferenceDataCacheService;
 import org.shanoir.ng.utils.ModelsUtil;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 
@@ -52,6 +54,9 @@ public class AcquisitionEquipmentServiceTest {
 	@Mock
 	private RabbitTemplate rabbitTemplate;
 
+	@Mock
+	private ReferenceDataCacheService referenceDataCacheService;
+
 	@InjectMocks
 	private AcquisitionEquipmentServiceImpl acquisitionEquipmentService;
 
@@ -108,6 +113,23 @@ public class AcquisitionEquipmentServiceTest {
 		Mockito.verify(acquisitionEquipmentRepository, Mockito.times(1)).save(Mockito.any(AcquisitionEquipment.class));
 	}
 
+	@Test
+	public void updateCenterEvictsBothCentersTest() throws EntityNotFoundException {
+		final AcquisitionEquipment equipmentDb = ModelsUtil.createAcquisitionEquipment();
+		equipmentDb.getCenter().setId(1L);
+		given(acquisitionEquipmentRepository.findOne(ACQ_EQPT_ID)).willReturn(equipmentDb);
+		final AcquisitionEquipment equipment = createAcquisitionEquipment();
+		final Center newCenter = ModelsUtil.createCenter();
+		newCenter.setId(2L);
+		equipment.setCenter(newCenter);
+		given(acquisitionEquipmentRepository.save(Mockito.any(AcquisitionEquipment.class))).willReturn(equipment);
+
+		acquisitionEquipmentService.update(equipment);
+
+		Mockito.verify(referenceDataCacheService, Mockito.times(1)).evictCenterAcquisitionEquipments(1L);
+		Mockito.verify(referenceDataCacheService, Mockito.times(1)).evictCenterAcquisitionEquipments(2L);
+	}
+
 	private AcquisitionEquipment createAcquisitionEquipment() {
 		final AcquisitionEquipment equipment = new AcquisitionEquipment();
 		equipment.setId(ACQ_EQPT_ID);
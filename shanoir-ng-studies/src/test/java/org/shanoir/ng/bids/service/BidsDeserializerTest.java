@@ -1,7 +1,10 @@
 package org.shanoir.ng.bids.service;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
@@ -13,6 +16,10 @@ import org.shanoir.ng.bids.model.BidsElement;
 import org.shanoir.ng.bids.model.BidsFile;
 import org.shanoir.ng.bids.model.BidsFolder;
 import org.shanoir.ng.bids.utils.BidsDeserializer;
+import org.shanoir.ng.shared.exception.EntityNotFoundException;
+import org.shanoir.ng.study.model.Study;
+import org.springframework.data.domain.Page;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.google.common.base.Charsets;
 
@@ -82,4 +89,84 @@ public class BidsDeserializerTest {
 
 	}
 	
+
+	@Test
+	public void testGetChildren() throws IOException, EntityNotFoundException {
+		// GIVEN a study bids folder with a sidecar and two subjects
+		Study study = new Study();
+		study.setId(1L);
+		study.setName("study");
+		ReflectionTestUtils.setField(deserializer, "bidsStorageDir", folder.getRoot().getAbsolutePath());
+		File studyFolder = folder.newFolder("stud-1_study");
+		File description = new File(studyFolder, "dataset_description.json");
+		FileUtils.write(description, "{}", Charsets.UTF_8);
+		new File(studyFolder, "sub-1").mkdir();
+		new File(studyFolder, "sub-2").mkdir();
+
+		// WHEN we get the first page of the root folder
+		Page<BidsElement> result = deserializer.getChildren(study, null, 0, 2);
+
+		// THEN we get only the folders, without their elements
+		assertEquals(3, result.getTotalElements());
+		assertEquals(2, result.getContent().size());
+		assertFalse(result.getContent().get(0).isFile());
+		assertNull(((BidsFolder) result.getContent().get(0)).getElements());
+
+		// THEN the second page contains the sidecar, without its content
+		BidsElement sidecar = deserializer.getChildren(study, "", 1, 2).getContent().get(0);
+		assertTrue(sidecar.isFile());
+		assertNull(((BidsFile) sidecar).getContent());
+
+		// THEN the content is loaded on request
+		assertEquals("{}", deserializer.getFile(study, "dataset_description.json").getContent());
+	}
+
+	@Test
+	public void testGetChildrenPastLastPage() throws IOException, EntityNotFoundException {
+		// GIVEN a study bids folder with a subject
+		Study study = new Study();
+		study.setId(1L);
+		study.setName("study");
+		ReflectionTestUtils.setField(deserializer, "bidsStorageDir", folder.getRoot().getAbsolutePath());
+		File studyFolder = folder.newFolder("stud-1_study");
+		new File(studyFolder, "sub-1").mkdir();
+
+		// WHEN we get a page whose offset does not fit in an int
+		Page<BidsElement> result = deserializer.getChildren(study, null, Integer.MAX_VALUE, 2);
+
+		// THEN it is empty
+		assertEquals(1, result.getTotalElements());
+		assertTrue(result.getContent().isEmpty());
+	}
+
+	@Test
+	public void testGetDataFileWithoutContent() throws IOException, EntityNotFoundException {
+		// GIVEN a study bids folder with a data file
+		Study study = new Study();
+		study.setId(1L);
+		study.setName("study");
+		ReflectionTestUtils.setField(deserializer, "bidsStorageDir", folder.getRoot().getAbsolutePath());
+		File studyFolder = folder.newFolder("stud-1_study");
+		FileUtils.writeByteArrayToFile(new File(studyFolder, "data.nii.gz"), new byte[] {0x1f, (byte) 0x8b, 0});
+
+		// WHEN we get the file
+		BidsFile data = deserializer.getFile(study, "data.nii.gz");
+
+		// THEN only its name and path are returned
+		assertEquals(new File(studyFolder, "data.nii.gz").getAbsolutePath(), data.getPath());
+		assertNull(data.getContent());
+	}
+
+	@Test(expected = EntityNotFoundException.class)
+	public void testGetFileOutsideStudyFolder() throws IOException, EntityNotFoundException {
+		Study study = new Study();
+		study.setId(1L);
+		study.setName("study");
+		ReflectionTestUtils.setField(deserializer, "bidsStorageDir", folder.getRoot().getAbsolutePath());
+		folder.newFolder("stud-1_study");
+		folder.newFile("secret.json");
+
+		deserializer.getFile(study, "../secret.json");
+	}
+
 }
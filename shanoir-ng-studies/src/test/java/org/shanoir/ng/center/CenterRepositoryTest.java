@@ -20,6 +20,10 @@ import static org.junit.Assert.assertNotNull;
 import java.util.Iterator;
 import java.util.List;
 
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.shanoir.ng.center.model.Center;
@@ -27,6 +31,7 @@ import org.shanoir.ng.center.repository.CenterRepository;
 import org.shanoir.ng.shared.core.model.IdName;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.test.context.ActiveProfiles;
@@ -51,6 +56,12 @@ public class CenterRepositoryTest {
 	
 	@Autowired
 	private CenterRepository repository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
 	
 	/*
 	 * Mocks used to avoid unsatisfied dependency exceptions.
@@ -101,5 +112,36 @@ public class CenterRepositoryTest {
 		assertNotNull(centersDb);
 		assertThat(centersDb.size()).isEqualTo(2);
 	}
-	
+
+	@Test
+	public void findOneFromSecondLevelCacheTest() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		try {
+			repository.findOne(CENTER_TEST_1_ID);
+			entityManager.clear();
+			Center centerDb = repository.findOne(CENTER_TEST_1_ID);
+			assertThat(centerDb.getName()).isEqualTo(CENTER_TEST_1_NAME);
+			assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(0);
+		} finally {
+			statistics.setStatisticsEnabled(false);
+		}
+	}
+
+	@Test
+	public void findIdsAndNamesFromQueryCacheTest() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		try {
+			repository.findIdsAndNames();
+			List<IdName> centersDb = repository.findIdsAndNames();
+			assertThat(centersDb.size()).isEqualTo(2);
+			assertThat(statistics.getQueryCacheHitCount()).isGreaterThan(0);
+		} finally {
+			statistics.setStatisticsEnabled(false);
+		}
+	}
+
 }
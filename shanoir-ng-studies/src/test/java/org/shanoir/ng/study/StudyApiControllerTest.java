@@ -35,6 +35,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.shanoir.ng.bids.service.StudyBIDSService;
 import org.shanoir.ng.bids.utils.BidsDeserializer;
+import org.shanoir.ng.shared.core.model.IdName;
 import org.shanoir.ng.shared.error.FieldErrorMap;
 import org.shanoir.ng.shared.event.ShanoirEventService;
 import org.shanoir.ng.shared.exception.AccessDeniedException;
@@ -141,6 +142,7 @@ public class StudyApiControllerTest {
 
 		doNothing().when(studyServiceMock).deleteById(1L);
 		given(studyServiceMock.findAll()).willReturn(Arrays.asList(new Study()));
+		given(studyServiceMock.findIdsAndNames()).willReturn(Arrays.asList(new IdName(1L, "study")));
 		given(studyServiceMock.findById(1L)).willReturn(stud);
 		given(studyServiceMock.create(Mockito.mock(Study.class))).willReturn(new Study());
 		given(fieldEditionSecurityManager.validate(Mockito.any(Study.class))).willReturn(new FieldErrorMap());
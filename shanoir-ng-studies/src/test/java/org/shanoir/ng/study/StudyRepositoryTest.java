@@ -22,6 +22,8 @@ import java.util.List;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.shanoir.ng.center.model.Center;
+import org.shanoir.ng.shared.core.model.IdName;
+import org.shanoir.ng.shared.security.rights.StudyUserRight;
 import org.shanoir.ng.study.model.Study;
 import org.shanoir.ng.study.model.StudyStatus;
 import org.shanoir.ng.study.repository.StudyRepository;
@@ -91,6 +93,20 @@ public class StudyRepositoryTest {
 		assertEquals("shanoirStudy1", studyList.get(0).getName());
 	}
 
+	@Test
+	public void findAllIdAndNameTest() {
+		final List<IdName> studies = studyRepository.findAllIdAndName();
+		assertEquals(3, studies.size());
+		assertEquals("shanoirStudy1", studies.get(0).getName());
+	}
+
+	@Test
+	public void findIdAndNameByUserIdAndStudyUserRightTest() {
+		final List<IdName> studies = studyRepository.findIdAndNameByUserIdAndStudyUserRight(2L, StudyUserRight.CAN_SEE_ALL.getId());
+		assertEquals(1, studies.size());
+		assertEquals(STUDY_TEST_1_ID, studies.get(0).getId());
+	}
+
 	@Test
 	public void findOneTest() {
 		final Study s = studyRepository.findOne(1L);
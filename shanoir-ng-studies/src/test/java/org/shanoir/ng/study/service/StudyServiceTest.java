@@ -34,10 +34,12 @@ import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.shanoir.ng.messaging.StudyUserUpdateBroadcastService;
+import org.shanoir.ng.messaging.SubjectStudyUpdateBroadcastService;
 import org.shanoir.ng.shared.exception.AccessDeniedException;
 import org.shanoir.ng.shared.exception.EntityNotFoundException;
 import org.shanoir.ng.shared.exception.MicroServiceCommunicationException;
@@ -47,6 +49,8 @@ import org.shanoir.ng.study.model.Study;
 import org.shanoir.ng.study.model.StudyUser;
 import org.shanoir.ng.study.repository.StudyRepository;
 import org.shanoir.ng.study.repository.StudyUserRepository;
+import org.shanoir.ng.study.rights.command.CommandType;
+import org.shanoir.ng.study.rights.command.StudyUserCommand;
 import org.shanoir.ng.study.service.StudyServiceImpl;
 import org.shanoir.ng.studycenter.StudyCenterRepository;
 import org.shanoir.ng.utils.ModelsUtil;
@@ -87,6 +91,9 @@ public class StudyServiceTest {
 
 	@Mock
 	private StudyUserUpdateBroadcastService studyUserCom;
+
+	@Mock
+	private SubjectStudyUpdateBroadcastService subjectStudyCom;
 	
 	@Mock
 	private DataUserAgreementService dataUserAgreementService;
@@ -226,11 +233,11 @@ public class StudyServiceTest {
 		updated.getStudyUserList().add(suToBeAdded);
 				
 		given(studyUserRepository.save(Mockito.any(List.class))).willReturn(Collections.singletonList(suToBeAdded));
-		given(studyUserRepository.findOne(2L)).willReturn(suToBeDeleted);
 
 		studyService.updateStudyUsers(existing, updated);
 		
 		Mockito.verify(dataUserAgreementService).deleteIncompleteDataUserAgreementForUserInStudy(existing, 2L);
+		Mockito.verify(studyUserRepository, Mockito.never()).findOne(Mockito.anyLong());
 		
 		for (StudyUser su : updated.getStudyUserList()) {
 			// all are now confirmed
@@ -285,6 +292,36 @@ public class StudyServiceTest {
 		}
 	}
 
+	@Test
+	@WithMockKeycloakUser(id = 3, username = "jlouis", authorities = { "ROLE_EXPERT" })
+	public void testUpdateStudyUsersOnlyChanged() throws MicroServiceCommunicationException {
+		Study existing = createStudy();
+		existing.setStudyUserList(new ArrayList<StudyUser>());
+		StudyUser unchanged = createStudyUsers(1L, 1L, existing, true, StudyUserRight.CAN_SEE_ALL, StudyUserRight.CAN_IMPORT);
+		existing.getStudyUserList().add(unchanged);
+		existing.getStudyUserList().add(createStudyUsers(2L, 2L, existing, true, StudyUserRight.CAN_ADMINISTRATE));
+
+		Study updated = createStudy();
+		updated.setStudyUserList(new ArrayList<StudyUser>());
+		// same rights, in another order
+		updated.getStudyUserList().add(createStudyUsers(1L, 1L, updated, true, StudyUserRight.CAN_IMPORT, StudyUserRight.CAN_SEE_ALL));
+		updated.getStudyUserList().add(createStudyUsers(2L, 2L, updated, true, StudyUserRight.CAN_ADMINISTRATE, StudyUserRight.CAN_DOWNLOAD));
+
+		studyService.updateStudyUsers(existing, updated);
+
+		ArgumentCaptor<List> commandsCaptor = ArgumentCaptor.forClass(List.class);
+		Mockito.verify(studyUserCom, Mockito.times(1)).broadcast(commandsCaptor.capture());
+		List<StudyUserCommand> commands = commandsCaptor.getValue();
+		assertEquals(1, commands.size());
+		assertEquals(CommandType.UPDATE, commands.get(0).getType());
+		assertEquals(Long.valueOf(2L), commands.get(0).getStudyUser().getId());
+
+		// nothing changed at all: nothing is sent
+		Mockito.reset(studyUserCom);
+		studyService.updateStudyUsers(existing, updated);
+		Mockito.verify(studyUserCom, Mockito.never()).broadcast(Mockito.any(Iterable.class));
+	}
+
 	private Study createStudy() {
 		final Study study = new Study();
 		study.setId(STUDY_ID);
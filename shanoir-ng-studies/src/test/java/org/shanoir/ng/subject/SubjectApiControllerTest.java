@@ -16,6 +16,7 @@ package org.shanoir.ng.subject;
 
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -28,6 +29,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.shanoir.ng.bids.service.StudyBIDSService;
+import org.shanoir.ng.shared.controller.GlobalExceptionHandler;
+import org.shanoir.ng.shared.error.FieldError;
 import org.shanoir.ng.shared.error.FieldErrorMap;
 import org.shanoir.ng.shared.event.ShanoirEventService;
 import org.shanoir.ng.shared.exception.EntityNotFoundException;
@@ -39,6 +42,7 @@ import org.shanoir.ng.subject.dto.SimpleSubjectDTO;
 import org.shanoir.ng.subject.dto.SubjectDTO;
 import org.shanoir.ng.subject.dto.mapper.SubjectMapper;
 import org.shanoir.ng.subject.model.Subject;
+import org.shanoir.ng.subject.service.SubjectImportService;
 import org.shanoir.ng.subject.service.SubjectService;
 import org.shanoir.ng.subject.service.SubjectUniqueConstraintManager;
 import org.shanoir.ng.subjectstudy.dto.SubjectStudyDTO;
@@ -66,7 +70,7 @@ import com.google.gson.GsonBuilder;
  */
 @RunWith(SpringRunner.class)
 @WebMvcTest(controllers = SubjectApiController.class)
-@ContextConfiguration(classes = {SubjectApiController.class, RestTemplate.class, MicroserviceRequestsService.class})
+@ContextConfiguration(classes = {SubjectApiController.class, GlobalExceptionHandler.class, RestTemplate.class, MicroserviceRequestsService.class})
 @AutoConfigureMockMvc(secure = false)
 public class SubjectApiControllerTest {
 
@@ -89,6 +93,9 @@ public class SubjectApiControllerTest {
 	
 	@MockBean
 	private SubjectUniqueConstraintManager uniqueConstraintManager;
+
+	@MockBean
+	private SubjectImportService subjectImportService;
 	
 	@MockBean
 	StudyBIDSService bidsService;
@@ -140,6 +147,29 @@ public class SubjectApiControllerTest {
 				.andExpect(status().isOk());
 	}
 
+	@Test
+	@WithMockKeycloakUser(id = 12, username = "test", authorities = { "ROLE_ADMIN" })
+	public void saveNewSubjectsTest() throws Exception {
+		given(subjectImportService.createAllAutoIncrement(Mockito.anyListOf(Subject.class), Mockito.eq(1L))).willReturn(Arrays.asList(new Subject()));
+		mvc.perform(MockMvcRequestBuilders.post(REQUEST_PATH + "/bulk").param("centerId", "1").accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON).content(gson.toJson(Arrays.asList(ModelsUtil.createSubject()))))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	@WithMockKeycloakUser(id = 12, username = "test", authorities = { "ROLE_ADMIN" })
+	public void saveNewSubjectsWithErrorsTest() throws Exception {
+		// GIVEN a second subject whose name is already taken
+		FieldErrorMap errors = new FieldErrorMap();
+		errors.put("name", Arrays.asList(new FieldError("unique", "The given value is already taken for this field, choose another", "duplicate")));
+		given(uniqueConstraintManager.validate(Mockito.any(Subject.class))).willReturn(new FieldErrorMap(), errors);
+		mvc.perform(MockMvcRequestBuilders.post(REQUEST_PATH + "/bulk").param("centerId", "1").accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON).content(gson.toJson(Arrays.asList(ModelsUtil.createSubject(), ModelsUtil.createSubject()))))
+				.andExpect(status().isUnprocessableEntity())
+				.andExpect(content().string(containsString("[1].name")));
+		Mockito.verify(subjectImportService, Mockito.never()).createAllAutoIncrement(Mockito.anyListOf(Subject.class), Mockito.anyLong());
+	}
+
 	@Test
 	@WithMockKeycloakUser(id = 12, username = "test", authorities = { "ROLE_ADMIN" })
 	public void updateSubjectTest() throws Exception {
@@ -104,6 +104,7 @@ public class SubjectApiSecurityTest {
 		assertAccessDenied(api::findSubjectsNames);
 		assertAccessDenied(api::findSubjectById, ENTITY_ID);
 		assertAccessDenied((t, u) -> { try { api.saveNewSubject(t, null, u); } catch (RestServiceException e) { fail(e.toString()); }}, mockNew, mockBindingResult);
+		assertAccessDenied((t, u) -> { try { api.saveNewSubjects(t, u); } catch (RestServiceException e) { fail(e.toString()); }}, Arrays.asList(mockNew), ENTITY_ID);
 		assertAccessDenied((t, u, v) -> { try { api.updateSubject(t, u, v); } catch (RestServiceException e) { fail(e.toString()); }}, ENTITY_ID, mockExisting, mockBindingResult);
 		assertAccessDenied(api::findSubjectsByStudyId, ENTITY_ID, "null");
 		assertAccessDenied(api::findSubjectByIdentifier, "identifier");
@@ -16,7 +16,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.shanoir.ng.messaging.SubjectStudyUpdateBroadcastService;
 import org.shanoir.ng.shared.core.model.IdName;
+import org.shanoir.ng.shared.exception.MicroServiceCommunicationException;
 import org.shanoir.ng.study.model.Study;
 import org.shanoir.ng.study.repository.StudyRepository;
 import org.shanoir.ng.subject.dto.SimpleSubjectDTO;
@@ -51,6 +53,9 @@ public class RabbitMQSubjectServiceTest {
 	@Mock
 	ObjectMapper mapper;
 
+	@Mock
+	SubjectStudyUpdateBroadcastService subjectStudyCom;
+
 	@InjectMocks
 	private RabbitMQSubjectService rabbitMQSubjectService;
 
@@ -115,7 +120,7 @@ public class RabbitMQSubjectServiceTest {
 	}
 
 	@Test
-	public void testUpdateSubjectStudyCreating() throws IOException {
+	public void testUpdateSubjectStudyCreating() throws IOException, MicroServiceCommunicationException {
 		SubjectStudy susu = new SubjectStudy();
 		susu.setStudy(study);
 		susu.setSubject(subject);
@@ -129,8 +134,9 @@ public class RabbitMQSubjectServiceTest {
 		// WHEN the subjectStudy does not exists
 		String name = rabbitMQSubjectService.updateSubjectStudy(mapper.writeValueAsString(idName));
 		
-		// THEN a new subejctStudy is created
+		// THEN a new subejctStudy is created and sent to datasets MS
 		Mockito.verify(subjectStudyRepository).save(Mockito.any(SubjectStudy.class));
+		Mockito.verify(subjectStudyCom).broadcastSubject(Mockito.eq(subject), Mockito.anyListOf(SubjectStudy.class));
 		assertEquals(name, studyName);
 	}
 
@@ -0,0 +1,100 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+
+package org.shanoir.ng.subject.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.shanoir.ng.messaging.SubjectStudyUpdateBroadcastService;
+import org.shanoir.ng.shared.core.model.IdName;
+import org.shanoir.ng.shared.exception.MicroServiceCommunicationException;
+import org.shanoir.ng.subject.model.Subject;
+import org.shanoir.ng.subject.repository.SubjectRepository;
+
+/**
+ * Subject bulk import service test.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SubjectImportServiceTest {
+
+	@Mock
+	private SubjectRepository subjectRepository;
+
+	@Mock
+	private SubjectStudyUpdateBroadcastService subjectStudyCom;
+
+	@InjectMocks
+	private SubjectImportService subjectImportService;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void createAllAutoIncrementTest() throws MicroServiceCommunicationException {
+		Subject maxSubject = new Subject();
+		maxSubject.setName("0010041");
+		given(subjectRepository.findSubjectFromCenterCode("001%")).willReturn(maxSubject);
+		given(subjectRepository.save(Mockito.anyListOf(Subject.class))).willAnswer(invocation -> invocation.getArguments()[0]);
+
+		List<Subject> subjects = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			subjects.add(new Subject());
+		}
+		List<Subject> created = subjectImportService.createAllAutoIncrement(subjects, 1L);
+
+		assertEquals("0010042", created.get(0).getName());
+		assertEquals("0010044", created.get(2).getName());
+		// One name lookup, one save, one event for the whole list
+		Mockito.verify(subjectRepository, Mockito.times(1)).findSubjectFromCenterCode(Mockito.anyString());
+		Mockito.verify(subjectRepository, Mockito.times(1)).save(Mockito.any(Iterable.class));
+		Mockito.verify(subjectStudyCom, Mockito.times(1)).broadcastSubjects(Mockito.anyListOf(Subject.class));
+	}
+
+	@Test
+	public void importParticipantsTest() {
+		given(subjectRepository.findIdAndNameByNameIn(Mockito.anyCollectionOf(String.class))).willReturn(Arrays.asList(new IdName(1L, "existing")));
+		given(subjectRepository.save(Mockito.anyListOf(Subject.class))).willAnswer(invocation -> {
+			@SuppressWarnings("unchecked")
+			List<Subject> toSave = (List<Subject>) invocation.getArguments()[0];
+			assertEquals(1, toSave.size());
+			toSave.get(0).setId(2L);
+			return toSave;
+		});
+
+		List<IdName> result = subjectImportService.importParticipants(Arrays.asList(
+				createSubject("existing"), createSubject("new"), createSubject("new")));
+
+		assertEquals(3, result.size());
+		assertEquals(Long.valueOf(1L), result.get(0).getId());
+		assertEquals(Long.valueOf(2L), result.get(1).getId());
+		assertEquals(Long.valueOf(2L), result.get(2).getId());
+	}
+
+	private Subject createSubject(String name) {
+		Subject subject = new Subject();
+		subject.setName(name);
+		return subject;
+	}
+
+}
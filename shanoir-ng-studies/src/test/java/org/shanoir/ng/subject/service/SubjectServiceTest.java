@@ -32,6 +32,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.shanoir.ng.messaging.SubjectStudyUpdateBroadcastService;
 import org.shanoir.ng.shared.exception.EntityNotFoundException;
 import org.shanoir.ng.shared.exception.MicroServiceCommunicationException;
 import org.shanoir.ng.shared.exception.RestServiceException;
@@ -67,6 +68,9 @@ public class SubjectServiceTest {
 	@Mock
 	private RabbitTemplate rabbitTemplate;
 
+	@Mock
+	private SubjectStudyUpdateBroadcastService subjectStudyCom;
+
 	@InjectMocks
 	private SubjectServiceImpl subjectService;
 
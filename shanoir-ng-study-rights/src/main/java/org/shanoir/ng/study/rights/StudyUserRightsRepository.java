@@ -19,6 +19,7 @@ import java.util.Set;
 
 import javax.transaction.Transactional;
 
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -28,8 +29,21 @@ import org.springframework.data.repository.query.Param;
  */
 public interface StudyUserRightsRepository extends CrudRepository<StudyUser, Long> {
 
+	/**
+	 * Deletes study users in one statement. Their rights have to be deleted
+	 * first with {@link #deleteRightsByStudyUserIdIn(Set)}.
+	 * 
+	 * @param ids study user ids
+	 */
 	@Transactional
-	void deleteByIdIn(Set<Long> ids);
+	@Modifying
+	@Query("delete from StudyUser su where su.id in :ids")
+	void deleteByIdIn(@Param("ids") Set<Long> ids);
+
+	@Transactional
+	@Modifying
+	@Query(value = "delete from study_user_study_user_rights where study_user_id in :ids", nativeQuery = true)
+	void deleteRightsByStudyUserIdIn(@Param("ids") Set<Long> ids);
 
 	StudyUser findByUserIdAndStudyId(Long userId, Long studyId);
 
@@ -21,6 +21,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.transaction.Transactional;
+
 import org.shanoir.ng.shared.security.rights.StudyUserRight;
 import org.shanoir.ng.study.rights.StudyUser;
 import org.shanoir.ng.study.rights.StudyUserRightsRepository;
@@ -40,6 +42,13 @@ public class StudyUserUpdateService {
 	@Autowired
 	private StudyUserRightsRepository studyUserRepository;
 
+    /**
+     * Applies the study-user commands of a study in one transaction:
+     * creations and updates are saved by batches, deletions are bulk statements.
+     * 
+     * @param commands the commands
+     */
+    @Transactional
     public void processCommands(Iterable<StudyUserCommand> commands) {
         
         List<StudyUser> toBeCreated = new ArrayList<>();
@@ -91,6 +100,7 @@ public class StudyUserUpdateService {
         }
         if (!toBeDeleted.isEmpty()) {
         	LOG.debug("Deleting {} study-user(s)", toBeDeleted.size());
+        	studyUserRepository.deleteRightsByStudyUserIdIn(toBeDeleted);
         	studyUserRepository.deleteByIdIn(toBeDeleted);
         }
     }
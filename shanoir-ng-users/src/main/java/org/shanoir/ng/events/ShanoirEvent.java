@@ -20,6 +20,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 @Table(name = "events",
 		indexes = {
 			@Index(name = "i_user_type", columnList = "userId,eventType"),
+			@Index(name = "i_user_last_update", columnList = "userId,lastUpdate"),
 		}
 	)
 public class ShanoirEvent {
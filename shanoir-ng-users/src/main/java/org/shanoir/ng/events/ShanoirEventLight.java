@@ -0,0 +1,113 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.events;
+
+import java.util.Date;
+
+/**
+ * Compact projection of a shanoir event, as displayed in the task panel.
+ * Built directly by the repository with a JPQL constructor expression.
+ */
+public class ShanoirEventLight {
+
+	private Long id;
+
+	private String eventType;
+
+	private String objectId;
+
+	private String message;
+
+	private Date creationDate;
+
+	private Date lastUpdate;
+
+	private int status;
+
+	private Float progress;
+
+	public ShanoirEventLight() {
+		// Default empty constructor for json deserializer.
+	}
+
+	public ShanoirEventLight(Long id, String eventType, String objectId, String message, Date creationDate,
+			Date lastUpdate, int status, Float progress) {
+		this.id = id;
+		this.eventType = eventType;
+		this.objectId = objectId;
+		this.message = message;
+		this.creationDate = creationDate;
+		this.lastUpdate = lastUpdate;
+		this.status = status;
+		this.progress = progress;
+	}
+
+	/**
+	 * @return the id
+	 */
+	public Long getId() {
+		return id;
+	}
+
+	/**
+	 * @return the eventType
+	 */
+	public String getEventType() {
+		return eventType;
+	}
+
+	/**
+	 * @return the objectId
+	 */
+	public String getObjectId() {
+		return objectId;
+	}
+
+	/**
+	 * @return the message
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * @return the creationDate
+	 */
+	public Date getCreationDate() {
+		return creationDate;
+	}
+
+	/**
+	 * @return the lastUpdate
+	 */
+	public Date getLastUpdate() {
+		return lastUpdate;
+	}
+
+	/**
+	 * @return the status
+	 */
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return the progress
+	 */
+	public Float getProgress() {
+		return progress;
+	}
+
+}
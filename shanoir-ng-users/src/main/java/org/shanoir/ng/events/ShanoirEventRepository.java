@@ -1,13 +1,12 @@
 package org.shanoir.ng.events;
 
-import java.util.Date;
 import java.util.List;
 
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ShanoirEventRepository extends CrudRepository<ShanoirEvent, Long> {
+public interface ShanoirEventRepository extends CrudRepository<ShanoirEvent, Long>, ShanoirEventRepositoryCustom {
 
 	/**
 	 * Find event by userId and eventType
@@ -17,10 +16,4 @@ public interface ShanoirEventRepository extends CrudRepository<ShanoirEvent, Lon
 	 * @return a list of ShanoirEvents with given userID and event type
 	 */
 	List<ShanoirEvent> findByUserIdAndEventType(Long userId, String eventType);
-
-	/**
-	 * Deletes all events older than a date.
-	 * @param expiryDate the expiration date.
-	 */
-    public void deleteByLastUpdateBefore(Date expiryDate);
 }
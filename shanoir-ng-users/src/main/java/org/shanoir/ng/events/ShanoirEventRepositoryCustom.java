@@ -0,0 +1,48 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.events;
+
+import java.util.Date;
+import java.util.List;
+
+public interface ShanoirEventRepositoryCustom {
+
+	/**
+	 * Find a page of events of a user, most recently updated first.
+	 * Pagination is keyset based: the next page starts strictly after the
+	 * (lastUpdate, id) of the last event of the previous page.
+	 *
+	 * @param userId the owner of the events
+	 * @param eventType the event type
+	 * @param status the status, ignored if null
+	 * @param since lower bound of the last update date, ignored if null
+	 * @param beforeDate last update of the last event of the previous page, null for the first page
+	 * @param beforeId id of the last event of the previous page, null for the first page
+	 * @param size maximum number of events returned, all the events if null
+	 * @return a list of light events
+	 */
+	List<ShanoirEventLight> findPage(Long userId, String eventType, Integer status, Date since, Date beforeDate,
+			Long beforeId, Integer size);
+
+	/**
+	 * Deletes at most chunkSize events older than a date, in its own transaction.
+	 *
+	 * @param expiryDate the expiration date.
+	 * @param chunkSize the maximum number of deleted events.
+	 * @return the number of deleted events.
+	 */
+	int deleteChunkByLastUpdateBefore(Date expiryDate, int chunkSize);
+
+}
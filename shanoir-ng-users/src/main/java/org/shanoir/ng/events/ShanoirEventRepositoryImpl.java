@@ -0,0 +1,92 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.events;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public class ShanoirEventRepositoryImpl implements ShanoirEventRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<ShanoirEventLight> findPage(Long userId, String eventType, Integer status, Date since,
+			Date beforeDate, Long beforeId, Integer size) {
+		StringBuilder jpql = new StringBuilder("SELECT new org.shanoir.ng.events.ShanoirEventLight(")
+				.append("e.id, e.eventType, e.objectId, e.message, e.creationDate, e.lastUpdate, e.status, e.progress)")
+				.append(" FROM ShanoirEvent e WHERE e.userId = :userId AND e.eventType = :eventType");
+		if (status != null) {
+			jpql.append(" AND e.status = :status");
+		}
+		if (since != null) {
+			jpql.append(" AND e.lastUpdate > :since");
+		}
+		if (beforeDate != null) {
+			jpql.append(" AND (e.lastUpdate < :beforeDate");
+			if (beforeId != null) {
+				jpql.append(" OR (e.lastUpdate = :beforeDate AND e.id < :beforeId)");
+			}
+			jpql.append(")");
+		}
+		jpql.append(" ORDER BY e.lastUpdate DESC, e.id DESC");
+
+		TypedQuery<ShanoirEventLight> query = entityManager.createQuery(jpql.toString(), ShanoirEventLight.class);
+		query.setParameter("userId", userId);
+		query.setParameter("eventType", eventType);
+		if (status != null) {
+			query.setParameter("status", status);
+		}
+		if (since != null) {
+			query.setParameter("since", since);
+		}
+		if (beforeDate != null) {
+			query.setParameter("beforeDate", beforeDate);
+			if (beforeId != null) {
+				query.setParameter("beforeId", beforeId);
+			}
+		}
+		if (size != null) {
+			query.setMaxResults(size);
+		}
+		return query.getResultList();
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public int deleteChunkByLastUpdateBefore(Date expiryDate, int chunkSize) {
+		List<Long> ids = entityManager
+				.createQuery("SELECT e.id FROM ShanoirEvent e WHERE e.lastUpdate < :expiryDate", Long.class)
+				.setParameter("expiryDate", expiryDate)
+				.setMaxResults(chunkSize)
+				.getResultList();
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		return entityManager.createQuery("DELETE FROM ShanoirEvent e WHERE e.id IN (:ids)")
+				.setParameter("ids", ids)
+				.executeUpdate();
+	}
+
+}
@@ -1,21 +1,20 @@
 package org.shanoir.ng.events;
 
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 import org.apache.commons.lang3.time.DateUtils;
 import org.shanoir.ng.shared.event.ShanoirEventType;
-import org.shanoir.ng.tasks.AsyncTaskApiController;
+import org.shanoir.ng.tasks.SseEmitterRegistry;
 import org.shanoir.ng.utils.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.MediaType;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Service managing ShanoirEvents
@@ -28,8 +27,17 @@ public class ShanoirEventsService {
 	@Autowired
 	ShanoirEventRepository repository;
 
+	@Autowired
+	SseEmitterRegistry emitterRegistry;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
 	private static final Logger LOG = LoggerFactory.getLogger(ShanoirEventsService.class);
 
+	/** Maximum number of events deleted per transaction by the retention purge. */
+	static final int PURGE_CHUNK_SIZE = 1000;
+
 
 	public void addEvent(ShanoirEvent event) {
 		// Call repository
@@ -45,6 +53,23 @@ public class ShanoirEventsService {
 		return Utils.toList(repository.findByUserIdAndEventType(userId, eventType));
 	}
 
+	/**
+	 * Gets a page of events of a user, most recently updated first.
+	 *
+	 * @param userId the user id
+	 * @param eventType the event type
+	 * @param status the status, ignored if null
+	 * @param since only events updated after this date, ignored if null
+	 * @param beforeDate last update of the last event of the previous page, null for the first page
+	 * @param beforeId id of the last event of the previous page, null for the first page
+	 * @param size the page size, all the events if null
+	 * @return a list of light events
+	 */
+	public List<ShanoirEventLight> getEventsPage(Long userId, String eventType, Integer status, Date since,
+			Date beforeDate, Long beforeId, Integer size) {
+		return repository.findPage(userId, eventType, status, since, beforeDate, beforeId, size);
+	}
+
 	/**
 	 * Deletes everyday events older than 1 year.
 	 */
@@ -52,44 +77,43 @@ public class ShanoirEventsService {
 	private void deletePeriodically( ) {
 		Date now = new Date();
 		Long nowMinusSevenDays = now.getTime() - DateUtils.MILLIS_PER_DAY * 180;
-		repository.deleteByLastUpdateBefore(new Date(nowMinusSevenDays));
+		Date expiryDate = new Date(nowMinusSevenDays);
+		deleteEventsBefore(expiryDate);
+	}
+
+	/**
+	 * Deletes the events not updated since a date, PURGE_CHUNK_SIZE at a time.
+	 * @param expiryDate the expiration date
+	 * @return the number of deleted events
+	 */
+	int deleteEventsBefore(Date expiryDate) {
+		int total = 0;
+		int deleted;
+		do {
+			deleted = repository.deleteChunkByLastUpdateBefore(expiryDate, PURGE_CHUNK_SIZE);
+			total += deleted;
+		} while (deleted == PURGE_CHUNK_SIZE);
+		return total;
 	}
 
 	/**
-	 * Sends an event using an emiter
+	 * Sends an event to the emitters of its owner only.
+	 * The event is serialized once, whatever the number of opened emitters.
 	 * @param notification the event to send
 	 */
 	public void sendSseEventsToUI(ShanoirEvent notification) {
-        List<SseEmitter> sseEmitterListToRemove = new ArrayList<>();
-        AsyncTaskApiController.emitters.forEach((SseEmitter emitter) -> {
-            try {
-                emitter.send(notification, MediaType.APPLICATION_JSON);
-            } catch (IOException e2) {
-            	emitter.complete();
-                sseEmitterListToRemove.add(emitter);
-                LOG.error("Error while send task to UI ", e2);
-            } catch (Exception e) {
-            	emitter.complete();
-                sseEmitterListToRemove.add(emitter);
-                LOG.error("Error while send task to UI ", e);
-                throw e;
-            }
-        });
-        AsyncTaskApiController.emitters.removeAll(sseEmitterListToRemove);
-    }
+		if (emitterRegistry.countEmitters(notification.getUserId()) == 0) {
+			return;
+		}
+		try {
+			emitterRegistry.send(notification.getUserId(), objectMapper.writeValueAsString(notification));
+		} catch (JsonProcessingException e) {
+			LOG.error("Error while serializing task for UI ", e);
+		}
+	}
 
 	@Scheduled(fixedDelay = 30000)
 	private void keepConnectionAlive( ) {
-        List<SseEmitter> sseEmitterListToRemove = new ArrayList<>();
-        AsyncTaskApiController.emitters.forEach((SseEmitter emitter) -> {
-            try {
-                emitter.send("{}", MediaType.APPLICATION_JSON);
-            } catch (Exception e) {
-            	emitter.complete();
-                sseEmitterListToRemove.add(emitter);
-                LOG.error("Error while keeping connection alive. ", e);
-            }
-        });
-        AsyncTaskApiController.emitters.removeAll(sseEmitterListToRemove);
+		emitterRegistry.sendToAll("{}");
 	}
 }
@@ -3,16 +3,18 @@ package org.shanoir.ng.tasks;
 import java.io.IOException;
 import java.util.List;
 
-import org.shanoir.ng.events.ShanoirEvent;
+import org.shanoir.ng.events.ShanoirEventLight;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 
@@ -26,15 +28,19 @@ import io.swagger.annotations.ApiResponses;
 @RequestMapping("/tasks")
 @CrossOrigin(exposedHeaders = "Access-Control-Allow-Origin")
 public interface AsyncTaskApi {
-	@ApiOperation(value = "", notes = "If exists, returns the tasks that the user is allowed to see", response = ShanoirEvent.class, tags = {})
-	@ApiResponses(value = { @ApiResponse(code = 200, message = "found tasks", response = ShanoirEvent.class),
+	@ApiOperation(value = "", notes = "If exists, returns the tasks that the user is allowed to see, most recent first, by page if a page parameter is given", response = ShanoirEventLight.class, tags = {})
+	@ApiResponses(value = { @ApiResponse(code = 200, message = "found tasks", response = ShanoirEventLight.class),
 			@ApiResponse(code = 401, message = "unauthorized", response = Void.class),
 			@ApiResponse(code = 403, message = "forbidden", response = Void.class),
 			@ApiResponse(code = 404, message = "no task found", response = Void.class),
 			@ApiResponse(code = 500, message = "unexpected error", response = Void.class) })
 	@GetMapping(value = "", produces = { "application/json" })
 	@PreAuthorize("hasAnyRole('ADMIN', 'EXPERT', 'USER')")
-	ResponseEntity<List<ShanoirEvent>> findTasks();
+	ResponseEntity<List<ShanoirEventLight>> findTasks(
+			@ApiParam(value = "status of the tasks", required = false) @RequestParam(required = false) Integer status,
+			@ApiParam(value = "last update (ms) of the last task of the previous page", required = false) @RequestParam(required = false) Long before,
+			@ApiParam(value = "id of the last task of the previous page", required = false) @RequestParam(required = false) Long beforeId,
+			@ApiParam(value = "maximum number of tasks", required = false) @RequestParam(required = false) Integer size);
 
 	@ApiOperation(value = "", notes = "Pushes a new event emitter to front", response = SseEmitter.class, tags = {})
 	@ApiResponses(value = { @ApiResponse(code = 200, message = "found tasks", response = SseEmitter.class),
@@ -1,15 +1,11 @@
 package org.shanoir.ng.tasks;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.time.DateUtils;
-import org.shanoir.ng.events.ShanoirEvent;
+import org.shanoir.ng.events.ShanoirEventLight;
 import org.shanoir.ng.events.ShanoirEventsService;
 import org.shanoir.ng.shared.event.ShanoirEventType;
 import org.shanoir.ng.utils.KeycloakUtil;
@@ -28,29 +24,34 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 @Controller
 public class AsyncTaskApiController implements AsyncTaskApi {
 
+	private static final int DEFAULT_PAGE_SIZE = 100;
+
+	private static final int MAX_PAGE_SIZE = 500;
+
 	@Autowired
 	ShanoirEventsService taskService;
 
-    public static final List<SseEmitter> emitters = Collections.synchronizedList(new ArrayList<>());
+	@Autowired
+	SseEmitterRegistry emitterRegistry;
 
 	@Override
-	public ResponseEntity<List<ShanoirEvent>> findTasks() {
+	public ResponseEntity<List<ShanoirEventLight>> findTasks(Integer status, Long before, Long beforeId, Integer size) {
 		Long userId = KeycloakUtil.getTokenUserId();
-		List<ShanoirEvent> taskList = taskService.getEventsByUserAndType(userId, ShanoirEventType.IMPORT_DATASET_EVENT);
-		
+
 		// Get only event with last updates < 7 days
 		Date now = new Date();
 		Long nowMinusSevenDays = now.getTime() - 7 * DateUtils.MILLIS_PER_DAY;
- 		taskList = taskList.stream().filter(event -> event.getLastUpdate().getTime() > nowMinusSevenDays).collect(Collectors.toList());
+		// Callers without any page parameter, as the task panel, still get all their tasks
+		Integer pageSize = null;
+		if (size != null) {
+			pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+		} else if (before != null || beforeId != null) {
+			pageSize = DEFAULT_PAGE_SIZE;
+		}
 
- 		// Order by last update date
-		Comparator<ShanoirEvent> comparator = new Comparator<ShanoirEvent>() {
-			@Override
-			public int compare(ShanoirEvent event1, ShanoirEvent event2) {
-				return event1.getLastUpdate().before(event2.getLastUpdate()) ? 1 : -1;
-			}
-		};
-		taskList.sort(comparator);
+		// Ordered by last update date, filtered and trimmed in database
+		List<ShanoirEventLight> taskList = taskService.getEventsPage(userId, ShanoirEventType.IMPORT_DATASET_EVENT,
+				status, new Date(nowMinusSevenDays), before == null ? null : new Date(before), beforeId, pageSize);
 
 		return new ResponseEntity<>(taskList, HttpStatus.OK);
 	}
@@ -58,8 +59,7 @@ public class AsyncTaskApiController implements AsyncTaskApi {
 	@Override
     public ResponseEntity<SseEmitter> updateTasks() throws IOException {
         SseEmitter emitter = new SseEmitter(-1L);
-        emitters.add(emitter);
-        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitterRegistry.register(KeycloakUtil.getTokenUserId(), emitter);
         return new ResponseEntity<>(emitter,HttpStatus.OK);
     }
 }
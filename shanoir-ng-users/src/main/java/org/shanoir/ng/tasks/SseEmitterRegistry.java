@@ -0,0 +1,117 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.tasks;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Registry of the SSE emitters opened by the UI, indexed by user id.
+ * Events are only pushed to the emitters (browser tabs) of their owner.
+ */
+@Component
+public class SseEmitterRegistry {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SseEmitterRegistry.class);
+
+	private final Map<Long, Set<SseEmitter>> emittersByUser = new ConcurrentHashMap<>();
+
+	/**
+	 * Registers an emitter for a user. The emitter is unregistered automatically
+	 * when it completes or times out.
+	 *
+	 * @param userId the owner of the emitter
+	 * @param emitter the emitter
+	 */
+	public void register(Long userId, SseEmitter emitter) {
+		emittersByUser.computeIfAbsent(userId, id -> new CopyOnWriteArraySet<>()).add(emitter);
+		emitter.onCompletion(() -> unregister(userId, emitter));
+		emitter.onTimeout(() -> unregister(userId, emitter));
+	}
+
+	/**
+	 * Unregisters an emitter. The user entry is dropped once its last emitter is gone.
+	 *
+	 * @param userId the owner of the emitter
+	 * @param emitter the emitter
+	 */
+	public void unregister(Long userId, SseEmitter emitter) {
+		emittersByUser.computeIfPresent(userId, (id, emitters) -> {
+			emitters.remove(emitter);
+			return emitters.isEmpty() ? null : emitters;
+		});
+	}
+
+	/**
+	 * Sends an already serialized json payload to every emitter of a user.
+	 * Emitters failing to send are completed and removed.
+	 *
+	 * @param userId the user to notify
+	 * @param json the payload
+	 */
+	public void send(Long userId, String json) {
+		if (userId == null) {
+			return;
+		}
+		Set<SseEmitter> emitters = emittersByUser.get(userId);
+		if (emitters == null) {
+			return;
+		}
+		for (SseEmitter emitter : emitters) {
+			sendOrRemove(userId, emitter, json);
+		}
+	}
+
+	/**
+	 * Sends a json payload to every registered emitter, whatever its user.
+	 *
+	 * @param json the payload
+	 */
+	public void sendToAll(String json) {
+		emittersByUser.forEach((userId, emitters) -> {
+			for (SseEmitter emitter : emitters) {
+				sendOrRemove(userId, emitter, json);
+			}
+		});
+	}
+
+	/**
+	 * @param userId a user id
+	 * @return the number of emitters currently opened by this user
+	 */
+	public int countEmitters(Long userId) {
+		Set<SseEmitter> emitters = emittersByUser.get(userId);
+		return emitters == null ? 0 : emitters.size();
+	}
+
+	private void sendOrRemove(Long userId, SseEmitter emitter, String json) {
+		try {
+			emitter.send(json, MediaType.APPLICATION_JSON);
+		} catch (Exception e) {
+			unregister(userId, emitter);
+			emitter.complete();
+			LOG.debug("Removing SSE emitter of user {} after send failure: {}", userId, e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,166 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import springfox.documentation.spring.web.plugins.DocumentationPluginsBootstrapper;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
+
+/**
+ * Tests for repository 'events'.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("test")
+public class ShanoirEventRepositoryTest {
+
+	private static final Long USER_ID = 1L;
+
+	private static final String EVENT_TYPE = "importDataset.event";
+
+	private static final long NOW = 1600000000000L;
+
+	@Autowired
+	private ShanoirEventRepository repository;
+
+	@Autowired
+	private TestEntityManager testEntityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/*
+	 * Mocks used to avoid unsatisfied dependency exceptions.
+	 */
+	@MockBean
+	private AuthenticationManager authenticationManager;
+	@MockBean
+	private DocumentationPluginsBootstrapper documentationPluginsBootstrapper;
+	@MockBean
+	private WebMvcRequestHandlerProvider webMvcRequestHandlerProvider;
+
+	@Test
+	public void findPageWithSameLastUpdateTest() throws Exception {
+		// GIVEN events 2, 3 and 4 updated at the same time, between events 1 and 5
+		saveEvents(1, 1, new Date(NOW - 1000));
+		saveEvents(2, 3, new Date(NOW));
+		saveEvents(5, 1, new Date(NOW + 1000));
+
+		// WHEN they are read by pages of 2, each page starting after the last event of the previous one
+		List<Long> ids = new ArrayList<>();
+		List<ShanoirEventLight> page = repository.findPage(USER_ID, EVENT_TYPE, null, null, null, null, 2);
+		int pages = 0;
+		while (!page.isEmpty()) {
+			pages++;
+			for (ShanoirEventLight event : page) {
+				ids.add(event.getId());
+			}
+			ShanoirEventLight last = page.get(page.size() - 1);
+			page = repository.findPage(USER_ID, EVENT_TYPE, null, null, last.getLastUpdate(), last.getId(), 2);
+		}
+
+		// THEN every event is read once, most recently updated first, even across the page boundary inside 2-4
+		assertThat(ids).containsExactly(5L, 4L, 3L, 2L, 1L);
+		assertThat(pages).isEqualTo(3);
+	}
+
+	@Test
+	public void findPageSinceTest() throws Exception {
+		// GIVEN an old event and a recent one
+		saveEvents(1, 1, new Date(NOW - 1000));
+		saveEvents(2, 1, new Date(NOW + 1000));
+
+		// WHEN the events updated since now are read
+		List<ShanoirEventLight> page = repository.findPage(USER_ID, EVENT_TYPE, null, new Date(NOW), null, null, null);
+
+		// THEN only the recent one is returned
+		assertThat(page).extracting("id").containsExactly(2L);
+	}
+
+	/*
+	 * The chunks are deleted in their own transactions: the events are committed
+	 * first, so the test does not run in a transaction.
+	 */
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void deleteEventsBeforeTest() throws Exception {
+		// GIVEN more expired events than two purge chunks, and a recent one
+		int expired = 2 * ShanoirEventsService.PURGE_CHUNK_SIZE + 1;
+		new TransactionTemplate(transactionManager).execute(status -> {
+			saveEvents(1, expired, new Date(NOW - 1000));
+			saveEvents(expired + 1, 1, new Date(NOW + 1000));
+			return null;
+		});
+		ShanoirEventsService service = new ShanoirEventsService();
+		service.repository = repository;
+
+		try {
+			// WHEN the events older than now are purged
+			int deleted = service.deleteEventsBefore(new Date(NOW));
+
+			// THEN all the expired events are deleted, in several chunks, and the recent one is kept
+			assertThat(deleted).isEqualTo(expired);
+			assertThat(repository.count()).isEqualTo(1);
+			assertThat(repository.findOne(expired + 1L)).isNotNull();
+		} finally {
+			repository.deleteAll();
+		}
+	}
+
+	/*
+	 * The last update is set by Hibernate when the event is saved: it is
+	 * overwritten afterwards with a bulk update.
+	 */
+	private void saveEvents(long firstId, int count, Date lastUpdate) {
+		EntityManager entityManager = testEntityManager.getEntityManager();
+		for (long id = firstId; id < firstId + count; id++) {
+			ShanoirEvent event = new ShanoirEvent();
+			event.setId(id);
+			event.setUserId(USER_ID);
+			event.setEventType(EVENT_TYPE);
+			event.setStatus(1);
+			entityManager.persist(event);
+		}
+		entityManager.flush();
+		entityManager.createQuery("UPDATE ShanoirEvent e SET e.lastUpdate = :lastUpdate WHERE e.id >= :firstId AND e.id < :end")
+				.setParameter("lastUpdate", lastUpdate)
+				.setParameter("firstId", firstId)
+				.setParameter("end", firstId + count)
+				.executeUpdate();
+		entityManager.clear();
+	}
+
+}
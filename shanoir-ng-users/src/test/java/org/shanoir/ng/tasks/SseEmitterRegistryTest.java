@@ -0,0 +1,91 @@
+/**
+ * Shanoir NG - Import, manage and share neuroimaging data
+ * Copyright (C) 2009-2019 Inria - https://www.inria.fr/
+ * Contact us on https://project.inria.fr/shanoir/
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/gpl-3.0.html
+ */
+
+package org.shanoir.ng.tasks;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * SSE emitter registry test.
+ */
+public class SseEmitterRegistryTest {
+
+	private static final Long USER_ID = 1L;
+
+	private static final Long OTHER_USER_ID = 2L;
+
+	private static final String PAYLOAD = "{\"id\":1}";
+
+	private SseEmitterRegistry registry;
+
+	@Before
+	public void setup() {
+		registry = new SseEmitterRegistry();
+	}
+
+	@Test
+	public void sendOnlyToOwnerTest() throws IOException {
+		SseEmitter ownerTab1 = mock(SseEmitter.class);
+		SseEmitter ownerTab2 = mock(SseEmitter.class);
+		SseEmitter otherTab = mock(SseEmitter.class);
+		registry.register(USER_ID, ownerTab1);
+		registry.register(USER_ID, ownerTab2);
+		registry.register(OTHER_USER_ID, otherTab);
+
+		registry.send(USER_ID, PAYLOAD);
+
+		verify(ownerTab1, times(1)).send(PAYLOAD, MediaType.APPLICATION_JSON);
+		verify(ownerTab2, times(1)).send(PAYLOAD, MediaType.APPLICATION_JSON);
+		verify(otherTab, never()).send(anyString(), any(MediaType.class));
+	}
+
+	@Test
+	public void removeEmitterOnFailureTest() throws IOException {
+		SseEmitter deadTab = mock(SseEmitter.class);
+		SseEmitter aliveTab = mock(SseEmitter.class);
+		doThrow(new IOException("Broken pipe")).when(deadTab).send(eq(PAYLOAD), any(MediaType.class));
+		registry.register(USER_ID, deadTab);
+		registry.register(USER_ID, aliveTab);
+
+		registry.send(USER_ID, PAYLOAD);
+
+		verify(deadTab, times(1)).complete();
+		assertEquals(1, registry.countEmitters(USER_ID));
+	}
+
+	@Test
+	public void unregisterLastEmitterTest() {
+		SseEmitter tab = mock(SseEmitter.class);
+		registry.register(USER_ID, tab);
+		registry.unregister(USER_ID, tab);
+
+		assertEquals(0, registry.countEmitters(USER_ID));
+	}
+
+}
@@ -0,0 +1,256 @@
+package org.shanoir.downloader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.util.EntityUtils;
+import org.apache.log4j.Logger;
+import org.shanoir.uploader.service.rest.ShanoirUploaderServiceClientNG;
+
+/**
+ * Downloads datasets concurrently, one zip per dataset, into a destination
+ * directory.
+ *
+ * Each zip is first written into a hidden ".part" file. When the connection
+ * drops, the next attempt (or the next run) asks the server for the missing
+ * bytes only, with a Range request bound to the ETag of the zip. Complete
+ * files are checked against the SHA-256 digest sent by the server before being
+ * renamed, and recorded in a {@link DownloadManifest} so that a new run on the
+ * same directory skips them.
+ */
+public class DatasetsDownloader {
+
+	private static Logger logger = Logger.getLogger(DatasetsDownloader.class);
+
+	public static final int DEFAULT_THREADS = 4;
+
+	private static final int MAX_ATTEMPTS = 3;
+
+	private static final long RETRY_DELAY_MS = 2000;
+
+	private static final String PART = ".part";
+
+	private static final String ZIP = ".zip";
+
+	private static final String DIGEST = "Digest";
+
+	private static final String CONTENT_DISPOSITION = "Content-Disposition";
+
+	private static final String SHA_256 = "SHA-256";
+
+	private static final String FILENAME = "filename=";
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final File destDir;
+
+	private final String format;
+
+	private final ShanoirUploaderServiceClientNG shng;
+
+	private final int threads;
+
+	private final DownloadManifest manifest;
+
+	public DatasetsDownloader(File destDir, String format, ShanoirUploaderServiceClientNG shng, int threads) {
+		this.destDir = destDir;
+		this.format = format;
+		this.shng = shng;
+		this.threads = Math.max(1, threads);
+		this.manifest = new DownloadManifest(destDir);
+	}
+
+	/**
+	 * Downloads the datasets not already in the destination directory.
+	 *
+	 * @param datasetIds
+	 * @return the ids of the datasets that could not be downloaded
+	 * @throws InterruptedException
+	 */
+	public List<Long> download(List<Long> datasetIds) throws InterruptedException {
+		List<Long> failedIds = new ArrayList<>();
+		List<Long> ids = new ArrayList<>(new LinkedHashSet<>(datasetIds));
+		if (ids.isEmpty()) {
+			return failedIds;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, ids.size()));
+		try {
+			List<Future<Boolean>> futures = new ArrayList<>();
+			for (Long datasetId : ids) {
+				futures.add(executor.submit(() -> downloadWithRetry(datasetId)));
+			}
+			for (int i = 0; i < ids.size(); i++) {
+				try {
+					if (!futures.get(i).get()) {
+						failedIds.add(ids.get(i));
+					}
+				} catch (ExecutionException e) {
+					logger.error("Download of dataset " + ids.get(i) + " failed.", e.getCause());
+					failedIds.add(ids.get(i));
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return failedIds;
+	}
+
+	private boolean downloadWithRetry(Long datasetId) throws InterruptedException {
+		String key = datasetId + "." + format;
+		if (manifest.isDone(key)) {
+			System.out.println("Dataset " + datasetId + " already downloaded, skipped.");
+			return true;
+		}
+		for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+			try {
+				if (downloadOnce(datasetId, key)) {
+					return true;
+				}
+			} catch (IOException e) {
+				logger.warn("Download of dataset " + datasetId + " interrupted (attempt " + attempt + "/"
+						+ MAX_ATTEMPTS + "): " + e.getMessage());
+			}
+			if (attempt < MAX_ATTEMPTS) {
+				Thread.sleep(RETRY_DELAY_MS * attempt);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Downloads a dataset, resuming its partial file if any.
+	 *
+	 * @return true if the dataset has been downloaded and verified
+	 * @throws IOException if the transfer is interrupted: the bytes received
+	 *                     are kept for the next attempt
+	 */
+	private boolean downloadOnce(Long datasetId, String key) throws IOException {
+		File partFile = new File(destDir, "." + key + PART);
+		String eTag = manifest.getETag(key);
+		long offset = partFile.isFile() && eTag != null ? partFile.length() : 0;
+		if (offset > 0) {
+			System.out.println("Resuming dataset " + datasetId + " at byte " + offset + "...");
+		} else {
+			System.out.println("Downloading dataset " + datasetId + "...");
+		}
+		HttpResponse response;
+		try {
+			response = shng.downloadDatasetById(datasetId, format, offset, eTag);
+		} catch (Exception e) {
+			throw new IOException(e.getMessage(), e);
+		}
+		if (response == null) {
+			return false;
+		}
+		if (response.getStatusLine().getStatusCode() == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE) {
+			// The partial file is complete (killed before the rename) or longer than the zip
+			EntityUtils.consumeQuietly(response.getEntity());
+			logger.warn("Partial file of dataset " + datasetId + " does not match the zip, downloading it again.");
+			Files.deleteIfExists(partFile.toPath());
+			manifest.setETag(key, null);
+			return downloadOnce(datasetId, key);
+		}
+		boolean append = response.getStatusLine().getStatusCode() == HttpStatus.SC_PARTIAL_CONTENT;
+		String digest = getSha256(response.getFirstHeader(DIGEST));
+		String fileName = getFileName(response.getFirstHeader(CONTENT_DISPOSITION), key);
+		Header eTagHeader = response.getFirstHeader(HttpHeaders.ETAG);
+		manifest.setETag(key, eTagHeader != null ? eTagHeader.getValue() : null);
+
+		MessageDigest messageDigest = newSha256();
+		if (append) {
+			// Hash the bytes already received, so that the file is read only once
+			try (InputStream in = new FileInputStream(partFile)) {
+				byte[] buffer = new byte[BUFFER_SIZE];
+				int read;
+				while ((read = in.read(buffer)) != -1) {
+					messageDigest.update(buffer, 0, read);
+				}
+			}
+		}
+		try (InputStream in = response.getEntity().getContent();
+				OutputStream out = new DigestOutputStream(new FileOutputStream(partFile, append), messageDigest)) {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+		} finally {
+			EntityUtils.consumeQuietly(response.getEntity());
+		}
+
+		String sha256 = Base64.getEncoder().encodeToString(messageDigest.digest());
+		if (digest == null) {
+			logger.warn("No digest sent by the server for dataset " + datasetId + ", file not verified.");
+		} else if (!digest.equals(sha256)) {
+			logger.error("Checksum mismatch for dataset " + datasetId + ", downloading it again.");
+			Files.deleteIfExists(partFile.toPath());
+			manifest.setETag(key, null);
+			return false;
+		}
+		File file = new File(destDir, fileName);
+		Files.move(partFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		manifest.setDone(key, fileName, sha256);
+		System.out.println("Dataset " + datasetId + " downloaded to " + file + ".");
+		return true;
+	}
+
+	/**
+	 * @return the base64 SHA-256 of a "Digest: SHA-256=..." header, null if none
+	 */
+	private static String getSha256(Header header) {
+		if (header == null) {
+			return null;
+		}
+		for (String value : header.getValue().split(",")) {
+			value = value.trim();
+			if (value.regionMatches(true, 0, SHA_256 + "=", 0, SHA_256.length() + 1)) {
+				return value.substring(SHA_256.length() + 1);
+			}
+		}
+		return null;
+	}
+
+	private static String getFileName(Header header, String key) {
+		if (header != null) {
+			String value = header.getValue();
+			int index = value.indexOf(FILENAME);
+			if (index >= 0) {
+				String fileName = new File(value.substring(index + FILENAME.length()).replace("\"", "")).getName();
+				if (!fileName.isEmpty()) {
+					return fileName;
+				}
+			}
+		}
+		return key + ZIP;
+	}
+
+	private static MessageDigest newSha256() {
+		try {
+			return MessageDigest.getInstance(SHA_256);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package org.shanoir.downloader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Keeps track, in the destination directory, of the datasets already
+ * downloaded and of the ETag of the partial ones, so that a new run skips the
+ * former and resumes the latter. Entries are keyed by "datasetId.format".
+ *
+ * The manifest is written after each change, through a temporary file moved
+ * over the previous one, so that it stays readable if the download is killed.
+ */
+public class DownloadManifest {
+
+	private static Logger logger = Logger.getLogger(DownloadManifest.class);
+
+	public static final String MANIFEST = ".shanoir_download.properties";
+
+	private static final String FILE = ".file";
+
+	private static final String SHA_256 = ".sha256";
+
+	private static final String ETAG = ".etag";
+
+	private final File destDir;
+
+	private final File manifestFile;
+
+	private final Properties properties = new Properties();
+
+	public DownloadManifest(File destDir) {
+		this.destDir = destDir;
+		this.manifestFile = new File(destDir, MANIFEST);
+		if (manifestFile.exists()) {
+			try (InputStream in = new FileInputStream(manifestFile)) {
+				properties.load(in);
+			} catch (IOException e) {
+				logger.error("Could not read download manifest " + manifestFile + ", starting from scratch.", e);
+				properties.clear();
+			}
+		}
+	}
+
+	/**
+	 * @return true if the dataset has been downloaded and its file is still
+	 *         in the destination directory
+	 */
+	public synchronized boolean isDone(String key) {
+		String fileName = properties.getProperty(key + FILE);
+		return fileName != null && new File(destDir, fileName).isFile();
+	}
+
+	/**
+	 * @return the ETag of the zip a partial file comes from, null if none
+	 */
+	public synchronized String getETag(String key) {
+		return properties.getProperty(key + ETAG);
+	}
+
+	public synchronized void setETag(String key, String eTag) throws IOException {
+		if (eTag == null) {
+			properties.remove(key + ETAG);
+		} else {
+			properties.setProperty(key + ETAG, eTag);
+		}
+		save();
+	}
+
+	public synchronized void setDone(String key, String fileName, String sha256) throws IOException {
+		properties.remove(key + ETAG);
+		properties.setProperty(key + FILE, fileName);
+		if (sha256 != null) {
+			properties.setProperty(key + SHA_256, sha256);
+		}
+		save();
+	}
+
+	private void save() throws IOException {
+		File tmpFile = new File(destDir, MANIFEST + ".tmp");
+		try (OutputStream out = new FileOutputStream(tmpFile)) {
+			properties.store(out, "Shanoir downloads");
+		}
+		Files.move(tmpFile.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+}
@@ -4,6 +4,7 @@ import java.io.Console;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 import java.util.stream.Collectors;
@@ -18,15 +19,11 @@ import org.apache.commons.cli.MissingArgumentException;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.OptionBuilder;
 import org.apache.commons.cli.Options;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.SystemUtils;
-import org.apache.http.Header;
-import org.apache.http.HttpResponse;
 import org.shanoir.uploader.ShUpConfig;
 import org.shanoir.uploader.ShUpOnloadConfig;
 import org.shanoir.uploader.service.rest.ShanoirUploaderServiceClientNG;
 import org.shanoir.uploader.utils.Util;
-import org.springframework.http.HttpHeaders;
 
 /**
  * This class intends to be used as a binary executable to download datasets
@@ -61,6 +58,12 @@ public final class ShanoirDownloader extends ShanoirCLI {
 	 */
 	private static Option formatIdOption;
 
+	/** -threads to set the number of datasets downloaded at the same time. */
+	private static Option threadsOption;
+
+	/** Number of datasets downloaded at the same time. */
+	private static int threads = DatasetsDownloader.DEFAULT_THREADS;
+
 	/** -h used to request help on command line options. */
 	private static Option helpOption;
 	/** The Constant USAGE. */
@@ -120,6 +123,15 @@ public final class ShanoirDownloader extends ShanoirCLI {
 		destDirOption = OptionBuilder.create("destDir");
 	}
 
+	static {
+		OptionBuilder.withArgName("threads");
+		OptionBuilder.hasArg();
+		OptionBuilder.isRequired(false);
+		OptionBuilder.withDescription("Number of datasets downloaded at the same time, "
+				+ DatasetsDownloader.DEFAULT_THREADS + " by default.");
+		threadsOption = OptionBuilder.create("threads");
+	}
+
 	/**
 	 * Main method.
 	 *
@@ -150,6 +162,7 @@ public final class ShanoirDownloader extends ShanoirCLI {
 		opts.addOption(studyIdOption);
 		opts.addOption(destDirOption);
 		opts.addOption(formatIdOption);
+		opts.addOption(threadsOption);
 
 		ShanoirDownloader shanoirDownloader = new ShanoirDownloader(opts);
 
@@ -202,63 +215,39 @@ public final class ShanoirDownloader extends ShanoirCLI {
 		}
 	}
 
-	public static void saveResponseToFile(File destDir, HttpResponse response) throws IOException {
-		Header header = response.getFirstHeader(HttpHeaders.CONTENT_DISPOSITION);
-		String fileName = header.getValue();
-		fileName = fileName.replace("attachment;filename=", "");
-
-		final File downloadedFile = new File(destDir + "/" + fileName);
-
-		FileUtils.copyInputStreamToFile(response.getEntity().getContent(), downloadedFile);
-	}
-
 	public static String downloadDataset(File destDir, Long datasetId, String format,
 			ShanoirUploaderServiceClientNG shng) throws Exception {
-		System.out.println("Downloading dataset " + datasetId + "...");
-		HttpResponse response = shng.downloadDatasetById(datasetId, format);
-		String message = "";
-		if (response == null) {
-			message = "Dataset with id " + datasetId + " not found.";
-			System.out.println(message);
-			return message;
-		}
-
-		saveResponseToFile(destDir, response);
-		return message;
+		return downloadDatasets(destDir, Collections.singletonList(datasetId), format, shng);
 	}
 
 	public static String downloadDatasets(File destDir, List<Long> datasetIds, String format,
 			ShanoirUploaderServiceClientNG shng) throws Exception {
-		System.out.println("Downloading dataset " + datasetIds + "...");
-		HttpResponse response = shng.downloadDatasetsByIds(datasetIds, format);
 		String message = "";
-		if (response == null) {
-			if (datasetIds.size() > 0) {
-				String datasetIdsString = datasetIds.stream().map(Object::toString).collect(Collectors.joining(", "));
-				message = "Datasets with ids [" + datasetIdsString + "] not found.";
-			} else {
-				message = "Could not get datasets: no dataset ids provided.";
-			}
-
+		if (datasetIds.isEmpty()) {
+			message = "Could not get datasets: no dataset ids provided.";
 			System.out.println(message);
 			return message;
 		}
-
-		saveResponseToFile(destDir, response);
+		System.out.println("Downloading datasets " + datasetIds + " with " + threads + " threads...");
+		List<Long> failedIds = new DatasetsDownloader(destDir, format, shng, threads).download(datasetIds);
+		if (!failedIds.isEmpty()) {
+			String datasetIdsString = failedIds.stream().map(Object::toString).collect(Collectors.joining(", "));
+			message = "Datasets with ids [" + datasetIdsString + "] could not be downloaded, run the download again to resume them.";
+			System.out.println(message);
+		}
 		return message;
 	}
 
 	public static String downloadDatasetByStudy(File destDir, Long studyId, String format,
 			ShanoirUploaderServiceClientNG shng) throws Exception {
-		HttpResponse response = shng.downloadDatasetsByStudyId(studyId, format);
+		List<Long> datasetIds = shng.findDatasetIdsByStudyId(studyId);
 		String message = "";
-		if (response == null) {
+		if (datasetIds == null) {
 			message = "Datasets of study " + studyId + " not found.";
 			System.out.println(message);
 			return message;
 		}
-
-		saveResponseToFile(destDir, response);
+		message = downloadDatasets(destDir, datasetIds, format, shng);
 		return message;
 	}
 
@@ -330,6 +319,13 @@ public final class ShanoirDownloader extends ShanoirCLI {
 				format = Long.parseLong(cl.getOptionValue("formatId")) == 6 ? "dcm" : "nii";
 			}
 
+			if (cl.hasOption("threads")) {
+				threads = Integer.parseInt(cl.getOptionValue("threads"));
+				if (threads < 1) {
+					exit("The number of threads must be at least 1.");
+				}
+			}
+
 			if (cl.hasOption("datasetId")) {
 				Long datasetId = Long.parseLong(cl.getOptionValue("datasetId"));
 				downloadDataset(destDir, datasetId, format, shanoirUploaderServiceClientNG);
@@ -357,7 +353,7 @@ public final class ShanoirDownloader extends ShanoirCLI {
 
 		} catch (NumberFormatException e) {
 			e.printStackTrace();
-			exit("Download failed: could not parse your dataset, subject or study id, make sure it only contains numbers.");
+			exit("Download failed: could not parse your dataset, subject or study id or your number of threads, make sure it only contains numbers.");
 		} catch (Exception e) {
 			e.printStackTrace();
 			exit("Download failed: " + e.getMessage());
@@ -72,6 +72,28 @@ public class ShUpConfig {
 	public static final int UPLOAD_SERVICE_INTERVAL = 5;
 
 	public static final String RANDOM_SEED = "random.seed";
+
+	public static final String IMPORT_CSV_WORKERS = "import.csv.workers";
+
+	public static final int IMPORT_CSV_WORKERS_DEFAULT = 3;
+
+	public static final String IMPORT_CSV_RETRIES = "import.csv.retries";
+
+	public static final int IMPORT_CSV_RETRIES_DEFAULT = 2;
+
+	public static final String IMPORT_CSV_PROGRESS = "import_csv_progress.properties";
+
+	public static final String HTTP_MAX_CONNECTIONS = "http.max.connections";
+
+	public static final int HTTP_MAX_CONNECTIONS_DEFAULT = 20;
+
+	public static final String HTTP_MAX_CONNECTIONS_PER_ROUTE = "http.max.connections.per.route";
+
+	public static final int HTTP_MAX_CONNECTIONS_PER_ROUTE_DEFAULT = 10;
+
+	public static final String HTTP_CONNECTION_REQUEST_TIMEOUT = "http.connection.request.timeout";
+
+	public static final int HTTP_CONNECTION_REQUEST_TIMEOUT_DEFAULT = 60000;
 	
 	/**
 	 * Static variables
@@ -120,4 +142,49 @@ public class ShUpConfig {
 		return Boolean.parseBoolean(profileProperties.getProperty(MODE_SUBJECT_STUDY_IDENTIFIER));
 	}
 
+	/**
+	 * @return the number of CSV lines imported at the same time
+	 */
+	public static int getImportCsvWorkers() {
+		return getPositiveInt(basicProperties.getProperty(IMPORT_CSV_WORKERS), IMPORT_CSV_WORKERS_DEFAULT);
+	}
+
+	/**
+	 * @return the number of times a CSV line is imported again after a PACS or server failure
+	 */
+	public static int getImportCsvRetries() {
+		String retries = basicProperties.getProperty(IMPORT_CSV_RETRIES);
+		return retries == null ? IMPORT_CSV_RETRIES_DEFAULT : getPositiveInt(retries, 0);
+	}
+
+	/**
+	 * @return the max number of connections kept open to all servers
+	 */
+	public static int getHttpMaxConnections() {
+		return getPositiveInt(basicProperties.getProperty(HTTP_MAX_CONNECTIONS), HTTP_MAX_CONNECTIONS_DEFAULT);
+	}
+
+	/**
+	 * @return the max number of connections kept open to one server
+	 */
+	public static int getHttpMaxConnectionsPerRoute() {
+		return getPositiveInt(basicProperties.getProperty(HTTP_MAX_CONNECTIONS_PER_ROUTE), HTTP_MAX_CONNECTIONS_PER_ROUTE_DEFAULT);
+	}
+
+	/**
+	 * @return the max time, in ms, to wait for a free connection of the pool
+	 */
+	public static int getHttpConnectionRequestTimeout() {
+		return getPositiveInt(basicProperties.getProperty(HTTP_CONNECTION_REQUEST_TIMEOUT), HTTP_CONNECTION_REQUEST_TIMEOUT_DEFAULT);
+	}
+
+	private static int getPositiveInt(final String value, final int defaultValue) {
+		try {
+			int intValue = Integer.parseInt(value.trim());
+			return intValue > 0 ? intValue : defaultValue;
+		} catch (NumberFormatException | NullPointerException e) {
+			return defaultValue;
+		}
+	}
+
 }
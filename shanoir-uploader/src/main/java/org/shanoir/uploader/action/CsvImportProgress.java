@@ -0,0 +1,107 @@
+package org.shanoir.uploader.action;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+import org.apache.log4j.Logger;
+import org.shanoir.uploader.model.CsvImport;
+
+/**
+ * Keeps track of the CSV lines already imported, so that a CSV import which
+ * has been interrupted (crash, PACS or server down) does not import again
+ * the lines done when it is started again with the same file.
+ * Lines are identified by a hash of their content, so that no nominative
+ * data is written into the progress file. The file is deleted once all the
+ * lines of a run have been imported.
+ */
+public class CsvImportProgress {
+
+	private static Logger logger = Logger.getLogger(CsvImportProgress.class);
+
+	private static final String DONE = "done";
+
+	private final File progressFile;
+
+	private final Properties doneLines = new Properties();
+
+	public CsvImportProgress(final File progressFile) {
+		this.progressFile = progressFile;
+		if (progressFile.exists()) {
+			try (InputStream in = new FileInputStream(progressFile)) {
+				doneLines.load(in);
+				logger.info("CSV import resumed, " + doneLines.size() + " lines already imported.");
+			} catch (IOException e) {
+				logger.error("Could not read CSV import progress, all lines will be imported: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * @param csvImport a CSV line
+	 * @return true if this line has already been imported by a previous run
+	 */
+	public synchronized boolean isDone(final CsvImport csvImport) {
+		return doneLines.containsKey(key(csvImport));
+	}
+
+	/**
+	 * Marks a CSV line as imported, and writes the progress immediately.
+	 * @param csvImport a CSV line
+	 */
+	public synchronized void setDone(final CsvImport csvImport) {
+		doneLines.setProperty(key(csvImport), DONE);
+		File tmpFile = new File(progressFile.getAbsolutePath() + ".tmp");
+		try (OutputStream out = new FileOutputStream(tmpFile)) {
+			doneLines.store(out, "CSV import progress");
+		} catch (IOException e) {
+			logger.error("Could not write CSV import progress: " + e.getMessage());
+			return;
+		}
+		try {
+			Files.move(tmpFile.toPath(), progressFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			logger.error("Could not write CSV import progress: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Forgets the progress, once all the lines have been imported.
+	 */
+	public synchronized void clear() {
+		doneLines.clear();
+		if (progressFile.exists() && !progressFile.delete()) {
+			logger.error("Could not delete CSV import progress file " + progressFile.getAbsolutePath());
+		}
+	}
+
+	private static String key(final CsvImport csvImport) {
+		StringBuilder line = new StringBuilder();
+		String[] rawData = csvImport.getRawData();
+		// the last column is the error message, not part of the line
+		for (int i = 0; i < rawData.length - 1; i++) {
+			line.append(rawData[i]).append(',');
+		}
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			StringBuilder key = new StringBuilder();
+			for (byte b : digest.digest(line.toString().getBytes(StandardCharsets.UTF_8))) {
+				key.append(String.format("%02x", b));
+			}
+			return key.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 is available in every JRE
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
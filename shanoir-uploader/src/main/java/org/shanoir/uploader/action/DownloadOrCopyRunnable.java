@@ -1,12 +1,10 @@
 package org.shanoir.uploader.action;
 
 import java.io.File;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
-import org.shanoir.dicom.importer.Serie;
 import org.shanoir.dicom.importer.UploadJob;
 import org.shanoir.dicom.importer.UploadJobManager;
 import org.shanoir.dicom.importer.UploadState;
@@ -15,7 +13,6 @@ import org.shanoir.uploader.dicom.IDicomServerClient;
 import org.shanoir.uploader.nominativeData.NominativeDataUploadJob;
 import org.shanoir.uploader.nominativeData.NominativeDataUploadJobManager;
 import org.shanoir.uploader.utils.ImportUtils;
-import org.shanoir.uploader.utils.Util;
 
 /**
  * This class downloads the files from the PACS or copies
@@ -63,14 +60,10 @@ public class DownloadOrCopyRunnable implements Runnable {
 		List<String> allFileNames = ImportUtils.downloadOrCopyFilesIntoUploadFolder(this.isFromPACS, selectedSeries, uploadFolder, dicomServerClient, filePathDicomDir);
 		
 		/**
-		 * 2. Fill MRI information into serie from first DICOM file of each serie
-		 * This has already been done for CD/DVD import, but not yet here for PACS
+		 * 2. MRI information of each serie has been filled from its first DICOM file:
+		 * for CD/DVD import before, for PACS import while the series were arriving
 		 */
-		for (Iterator iterator = selectedSeries.iterator(); iterator.hasNext();) {
-			Serie serie = (Serie) iterator.next();
-			Util.processSerieMriInfo(uploadFolder, serie);
-		}
-			
+
 		/**
 		 * 3. Write the UploadJob and schedule upload
 		 */
@@ -11,11 +11,17 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.JTabbedPane;
 import javax.swing.SwingWorker;
@@ -49,11 +55,18 @@ import org.shanoir.uploader.nominativeData.NominativeDataUploadJob;
 import org.shanoir.uploader.nominativeData.NominativeDataUploadJobManager;
 import org.shanoir.uploader.service.rest.ShanoirUploaderServiceClientNG;
 import org.shanoir.uploader.utils.ImportUtils;
-import org.shanoir.uploader.utils.Util;
 import org.shanoir.util.ShanoirUtil;
 
 public class ImportFromCsvRunner extends SwingWorker<Void, Integer> {
 
+	private enum ImportResult {
+		SUCCESS,
+		/** The line can not be imported as is (no data, no study card) */
+		ERROR,
+		/** The PACS or the server failed, the line can be imported again */
+		TEMPORARY_ERROR
+	}
+
 	private static final String WILDCARD = "*";
 	private static final String WILDCARD_REPLACE = "\\*";
 
@@ -77,9 +90,9 @@ public class ImportFromCsvRunner extends SwingWorker<Void, Integer> {
 
 	@Override
 	protected Void doInBackground() throws Exception {
-		// Iterate over import to import them one by one
 		Set<Long> idList = new HashSet<>();
 		Map<String, ArrayList<StudyCard>> studyCardsByStudy = new HashMap<>();
+		Map<String, org.shanoir.uploader.model.rest.Study> studiesById = new HashMap<>();
 
 		importFromCSVWindow.openButton.setEnabled(false);
 		importFromCSVWindow.uploadButton.setEnabled(false);
@@ -88,14 +101,15 @@ public class ImportFromCsvRunner extends SwingWorker<Void, Integer> {
 		importFromCSVWindow.progressBar.setString("Preparing import...");
 		importFromCSVWindow.progressBar.setVisible(true);
 
-		// Get the list of studies, study card, center, equipments to check their existence
+		// Get the list of studies, study card, center, equipments once for all the lines
 		for (CsvImport importTodo : this.csvImports) {
 			idList.add(Long.valueOf(importTodo.getStudyId()));
 			studyCardsByStudy.put(importTodo.getStudyId(), new ArrayList<StudyCard>());
 		}
-		List<org.shanoir.uploader.model.rest.Study> studies = new ArrayList<>();
 		try {
-			studies = shanoirUploaderServiceClientNG.findStudiesNamesAndCenters();
+			for (org.shanoir.uploader.model.rest.Study study : shanoirUploaderServiceClientNG.findStudiesNamesAndCenters()) {
+				studiesById.put(study.getId().toString(), study);
+			}
 
 			IdList idealist = new IdList();
 			idealist.setIdList(new ArrayList<>(idList));
@@ -108,17 +122,17 @@ public class ImportFromCsvRunner extends SwingWorker<Void, Integer> {
 			if (acquisitionEquipments == null) {
 				throw new ShanoirException("Error while retrieving acquisition equipments");
 			}
+			Map<Long, AcquisitionEquipment> acquisitionEquipmentsById = new HashMap<>();
+			for (AcquisitionEquipment acquisitionEquipment : acquisitionEquipments) {
+				acquisitionEquipmentsById.put(acquisitionEquipment.getId(), acquisitionEquipment);
+			}
 
-			// Iterate over study cards to get equipment + fill study => SC map
+			// Set equipment and center of each study card + fill study => SC map
 			for (StudyCard studyCard : studyCards) {
-				Long acquisitionEquipmentIdSC = studyCard.getAcquisitionEquipmentId();
-				for (Iterator<AcquisitionEquipment> acquisitionEquipmentsIt = acquisitionEquipments.iterator(); acquisitionEquipmentsIt.hasNext();) {
-					AcquisitionEquipment acquisitionEquipment = (AcquisitionEquipment) acquisitionEquipmentsIt.next();
-					if (acquisitionEquipment.getId().equals(acquisitionEquipmentIdSC)) {
-						studyCard.setAcquisitionEquipment(acquisitionEquipment);
-						studyCard.setCenterId(acquisitionEquipment.getCenter().getId());
-						break;
-					}
+				AcquisitionEquipment acquisitionEquipment = acquisitionEquipmentsById.get(studyCard.getAcquisitionEquipmentId());
+				if (acquisitionEquipment != null) {
+					studyCard.setAcquisitionEquipment(acquisitionEquipment);
+					studyCard.setCenterId(acquisitionEquipment.getCenter().getId());
 				}
 				studyCardsByStudy.get(studyCard.getStudyId().toString()).add(studyCard);
 			}
@@ -127,19 +141,49 @@ public class ImportFromCsvRunner extends SwingWorker<Void, Integer> {
 			return null;
 		}
 
-		boolean success = true;
-		int i = 1;
-
+		// Lines of the same patient are imported one after the other, by the same worker:
+		// they share the subject, and must not create it twice
+		Map<String, List<CsvImport>> importsByPatient = new LinkedHashMap<>();
 		for (CsvImport importTodo : this.csvImports) {
-			importFromCSVWindow.progressBar.setString("Preparing import " + i + "/" + this.csvImports.size());
-			importFromCSVWindow.progressBar.setValue(100*i/this.csvImports.size() + 1);
+			importsByPatient.computeIfAbsent(getPatientName(importTodo), name -> new ArrayList<>()).add(importTodo);
+		}
 
-			org.shanoir.uploader.model.rest.Study study = studies.stream().filter(element -> element.getId().toString().equals(importTodo.getStudyId())).findFirst().get();
-			success = importData(importTodo, studyCardsByStudy.get(importTodo.getStudyId()), study ) && success;
-			i++;
+		final CsvImportProgress progress = new CsvImportProgress(new File(ShUpConfig.shanoirUploaderFolder, ShUpConfig.IMPORT_CSV_PROGRESS));
+		final AtomicInteger done = new AtomicInteger();
+		final int workers = Math.min(ShUpConfig.getImportCsvWorkers(), importsByPatient.size());
+		logger.info("Importing " + this.csvImports.size() + " CSV lines with " + workers + " workers.");
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, workers));
+		List<Future<Boolean>> results = new ArrayList<>();
+		for (List<CsvImport> patientImports : importsByPatient.values()) {
+			results.add(executor.submit(() -> {
+				boolean patientSuccess = true;
+				for (CsvImport importTodo : patientImports) {
+					if (progress.isDone(importTodo)) {
+						logger.info("CSV line of " + importTodo.getCommonName() + " already imported, skipped.");
+					} else if (importDataWithRetry(importTodo, studyCardsByStudy.get(importTodo.getStudyId()), studiesById.get(importTodo.getStudyId()))) {
+						progress.setDone(importTodo);
+					} else {
+						patientSuccess = false;
+					}
+					publish(done.incrementAndGet());
+				}
+				return patientSuccess;
+			}));
+		}
+		executor.shutdown();
+
+		boolean success = true;
+		for (Future<Boolean> result : results) {
+			try {
+				success = result.get() && success;
+			} catch (ExecutionException e) {
+				logger.error("Error during CSV import: ", e.getCause());
+				success = false;
+			}
 		}
 
 		if (success) {
+			progress.clear();
 			importFromCSVWindow.progressBar.setString("Success !");
 			importFromCSVWindow.progressBar.setValue(100);
 
@@ -156,28 +200,75 @@ public class ImportFromCsvRunner extends SwingWorker<Void, Integer> {
 		return null;
 	}
 
+	@Override
+	protected void process(List<Integer> chunks) {
+		int done = chunks.get(chunks.size() - 1);
+		importFromCSVWindow.progressBar.setString("Importing " + done + "/" + this.csvImports.size());
+		importFromCSVWindow.progressBar.setValue(100 * done / this.csvImports.size());
+	}
+
+	/**
+	 * Imports a CSV line, and imports it again when it failed because of the
+	 * PACS or the server, as long as the configured number of retries allows it.
+	 * @param csvImport the import
+	 * @param studyCardsByStudy the study cards of the study
+	 * @param study the study
+	 * @return true if the line has been imported
+	 */
+	private boolean importDataWithRetry(CsvImport csvImport, List<StudyCard> studyCardsByStudy, org.shanoir.uploader.model.rest.Study study) {
+		int retries = ShUpConfig.getImportCsvRetries();
+		for (int attempt = 0; ; attempt++) {
+			csvImport.setErrorMessage(null);
+			ImportResult result;
+			try {
+				result = importData(csvImport, studyCardsByStudy, study);
+			} catch (Exception e) {
+				logger.error("Error while importing CSV line of " + csvImport.getCommonName() + ": ", e);
+				csvImport.setErrorMessage(e.getMessage());
+				result = ImportResult.TEMPORARY_ERROR;
+			}
+			if (result == ImportResult.SUCCESS) {
+				return true;
+			}
+			if (result == ImportResult.ERROR || attempt >= retries) {
+				return false;
+			}
+			logger.warn("Import of CSV line of " + csvImport.getCommonName() + " failed (" + csvImport.getErrorMessage()
+					+ "), retry " + (attempt + 1) + "/" + retries);
+		}
+	}
+
+	private String getPatientName(CsvImport csvImport) {
+		String name = csvImport.getName().toUpperCase();
+		if (!StringUtils.isEmpty(csvImport.getSurname())) {
+			name+="^";
+			name+=csvImport.getSurname().toUpperCase();
+		}
+		return name;
+	}
+
 	/**
 	 * Loads data to shanoir NG
 	 * @param csvImport the import
 	 * @param studyCardsByStudy the list of study
 	 * @param study2
-	 * @return
+	 * @return SUCCESS, ERROR if the line can not be imported, TEMPORARY_ERROR if the PACS or the server failed
 	 */
-	private boolean importData(CsvImport csvImport, List<StudyCard> studyCardsByStudy, org.shanoir.uploader.model.rest.Study study2) {
+	private ImportResult importData(CsvImport csvImport, List<StudyCard> studyCardsByStudy, org.shanoir.uploader.model.rest.Study study2) {
+
+		if (study2 == null) {
+			csvImport.setErrorMessage(resourceBundle.getString("shanoir.uploader.import.csv.error.studycard"));
+			return ImportResult.ERROR;
+		}
 
 		// 1. Request PACS to check the presence of data
 		logger.info("1 Request PACS");
 		Media media;
 		try {
-			String name = csvImport.getName().toUpperCase();
-			if (!StringUtils.isEmpty(csvImport.getSurname())) {
-				name+="^";
-				name+=csvImport.getSurname().toUpperCase();
-			}
-			media = dicomServerClient.queryDicomServer(name, "", "", "", null, null);
+			media = dicomServerClient.queryDicomServer(getPatientName(csvImport), "", "", "", null, null);
 		} catch (Exception e) {
 			csvImport.setErrorMessage(resourceBundle.getString("shanoir.uploader.import.csv.error.missing.data"));
-			return false;
+			return ImportResult.TEMPORARY_ERROR;
 		}
 
 		// 2. Select series
@@ -188,7 +279,7 @@ public class ImportFromCsvRunner extends SwingWorker<Void, Integer> {
 		Study stud = null;
 		if (media == null || media.getTreeNodes() == null || media.getTreeNodes().isEmpty()) {
 			csvImport.setErrorMessage(resourceBundle.getString("shanoir.uploader.import.csv.error.missing.data"));
-			return false;
+			return ImportResult.ERROR;
 		}
 		boolean foundPatient = false;
 		String serialNumber = null;
@@ -254,12 +345,12 @@ public class ImportFromCsvRunner extends SwingWorker<Void, Integer> {
 		}
 		if (selectedStudy == null) {
 			csvImport.setErrorMessage(resourceBundle.getString("shanoir.uploader.import.csv.error.missing.data"));
-			return false;
+			return ImportResult.ERROR;
 		}
 		selectedSeries = selectedSeriesByStudy.get(selectedStudy);
 		if (selectedSeries.isEmpty()) {
 			csvImport.setErrorMessage(resourceBundle.getString("shanoir.uploader.import.csv.error.missing.data"));
-			return false;
+			return ImportResult.ERROR;
 		}
 
 		// 3. Check existence of study / study card
@@ -267,6 +358,9 @@ public class ImportFromCsvRunner extends SwingWorker<Void, Integer> {
 
 		StudyCard sc = null;
 		for (StudyCard studyc : studyCardsByStudy) {
+			if (studyc.getAcquisitionEquipment() == null) {
+				continue;
+			}
 			if (serialNumber != null && serialNumber.equals(studyc.getAcquisitionEquipment().getSerialNumber())) {
 				sc = studyc;
 				break;
@@ -282,7 +376,7 @@ public class ImportFromCsvRunner extends SwingWorker<Void, Integer> {
 			Optional<StudyCard> scOpt = studyCardsByStudy.stream().filter(element -> element.getName().equals(csvImport.getStudyCardName())).findFirst();
 			if (!scOpt.isPresent()) {
 				csvImport.setErrorMessage(resourceBundle.getString("shanoir.uploader.import.csv.error.studycard"));
-				return false;
+				return ImportResult.ERROR;
 			} else {
 				sc = scOpt.get();
 			}
@@ -313,22 +407,16 @@ public class ImportFromCsvRunner extends SwingWorker<Void, Integer> {
 			}
 		} catch (Exception e) {
 			csvImport.setErrorMessage(resourceBundle.getString("shanoir.uploader.import.csv.error.missing.data"));
-			return false;
+			return ImportResult.ERROR;
 		}
 
 		File uploadFolder = ImportUtils.createUploadFolder(dicomServerClient.getWorkFolder(), dicomData);
 		List<String> allFileNames = ImportUtils.downloadOrCopyFilesIntoUploadFolder(true, selectedSeries, uploadFolder, this.dicomServerClient, null);
 
 		/**
-		 * 5. Fill MRI information into serie from first DICOM file of each serie
-		 * This has already been done for CD/DVD import, but not yet here for PACS
+		 * 5. MRI information of each serie has been filled from its first DICOM file
+		 * while the series were arriving from the PACS
 		 */
-		logger.info("5 Fill MRI info");
-
-		for (Iterator<Serie> iterator = selectedSeries.iterator(); iterator.hasNext();) {
-			Serie serie = iterator.next();
-			Util.processSerieMriInfo(uploadFolder, serie);
-		}
 
 		/**
 		 * 6. Write the UploadJob and schedule upload
@@ -341,7 +429,7 @@ public class ImportFromCsvRunner extends SwingWorker<Void, Integer> {
 		if (allFileNames == null) {
 			uploadJob.setUploadState(UploadState.ERROR);
 			csvImport.setErrorMessage(resourceBundle.getString("shanoir.uploader.import.csv.error.pacs.copy"));
-			return false;
+			return ImportResult.TEMPORARY_ERROR;
 		}
 		UploadJobManager uploadJobManager = new UploadJobManager(uploadFolder.getAbsolutePath());
 		uploadJobManager.writeUploadJob(uploadJob);
@@ -406,7 +494,7 @@ public class ImportFromCsvRunner extends SwingWorker<Void, Integer> {
 		if (subject == null) {
 			uploadJob.setUploadState(UploadState.ERROR);
 			csvImport.setErrorMessage(resourceBundle.getString("shanoir.uploader.import.csv.error.subject"));
-			return false;
+			return ImportResult.TEMPORARY_ERROR;
 		}
 
 		// 9. Create examination
@@ -424,7 +512,7 @@ public class ImportFromCsvRunner extends SwingWorker<Void, Integer> {
 		if (createdExam == null) {
 			uploadJob.setUploadState(UploadState.ERROR);
 			csvImport.setErrorMessage(resourceBundle.getString("shanoir.uploader.import.csv.error.examination"));
-			return false;
+			return ImportResult.TEMPORARY_ERROR;
 		}
 
 		/**
@@ -437,7 +525,7 @@ public class ImportFromCsvRunner extends SwingWorker<Void, Integer> {
 		Thread thread = new Thread(runnable);
 		thread.start();
 
-		return true;
+		return ImportResult.SUCCESS;
 	}
 
 	/**
@@ -1,15 +1,26 @@
 package org.shanoir.uploader.dicom;
 
 import java.io.File;
-import java.io.FilenameFilter;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 import org.dcm4che2.data.DicomObject;
+import org.dcm4che2.data.Tag;
+import org.dcm4che2.io.DicomInputStream;
+import org.dcm4che2.io.StopTagInputHandler;
 import org.shanoir.dicom.importer.Serie;
 import org.shanoir.uploader.dicom.query.ConfigBean;
 //import org.shanoir.dicom.query.DicomQueryHelper;
@@ -20,6 +31,7 @@ import org.shanoir.uploader.dicom.query.DicomQueryHelper;
 import org.shanoir.uploader.dicom.query.Echo;
 import org.shanoir.uploader.dicom.query.Media;
 import org.shanoir.uploader.dicom.retrieve.DcmRcvManager;
+import org.shanoir.uploader.utils.Util;
 import org.shanoir.util.ShanoirUtil;
 
 /**
@@ -29,6 +41,9 @@ import org.shanoir.util.ShanoirUtil;
  * AET to configure in the PACS, the method retrieveDicomFiles is
  * synchronized in case of multiple threads in ShUp (ImportFinishRunnable)
  * call the methods and another download of dicom files is still ongoing.
+ * Within one download, the series are moved concurrently (up to
+ * dicom.server.max.concurrent.moves associations), as they all go
+ * into the same upload folder.
  * @author mkain
  *
  */
@@ -90,58 +105,73 @@ public class DicomServerClient implements IDicomServerClient {
 	 */
 	@Override
 	public synchronized List<String> retrieveDicomFiles(final Collection<Serie> selectedSeries, final File uploadFolder) {
-		final DcmQR dcmqr = new DcmQR();
-		final DicomQueryHelper dQH = new DicomQueryHelper(dcmqr, config, "MR");
 		dcmRcvManager.setDestination(uploadFolder.getAbsolutePath());
-		final List<String> retrievedDicomFiles = new ArrayList<String>();
-		final List<String> oldFileNames = new ArrayList<String>();
-		// Iterate over all series and send command for sending DICOM files.
-		for (Serie serie : selectedSeries) {
-			List<String> fileNamesForSerie = new ArrayList<String>();
-			final String seriesInstanceUID = serie.getDescriptionMap().get("id");
-			final String studyInstanceUID = serie.getStudyInstanceUID();
-			try {
-				// move files from server directly into uploadFolder
-				boolean noError = getFilesFromServer(dcmqr, dQH, studyInstanceUID, seriesInstanceUID);
-				if(noError) {
-					// create file name filter for old files
-					final FilenameFilter oldFileNamesFilter = new FilenameFilter() {
-						@Override
-						public boolean accept(File dir, String name) {
-							for (Iterator iterator = oldFileNames.iterator(); iterator.hasNext();) {
-								String oldFileName = (String) iterator.next();
-								if (name.equals(oldFileName)) {
-									return false;
-								}
-							}
-							return true;
-						}
-					};
-					File[] newFileNames = uploadFolder.listFiles(oldFileNamesFilter);
-					logger.debug("newFileNames: " + newFileNames.length);
-					for (int i = 0; i < newFileNames.length; i++) {
-						fileNamesForSerie.add(newFileNames[i].getName());
-					}
-					serie.setFileNames(fileNamesForSerie);
-					retrievedDicomFiles.addAll(fileNamesForSerie);
-					oldFileNames.addAll(fileNamesForSerie);
-					logger.info(uploadFolder.getName() + ":\n\n Download of " + fileNamesForSerie.size()
-							+ " DICOM files for serie " + seriesInstanceUID
-							+ " was successful.\n\n");
-				} else {
-					logger.error(uploadFolder.getName() + ":\n\n Download of " + fileNamesForSerie.size()
-							+ " DICOM files for serie " + seriesInstanceUID
-							+ " has failed.\n\n");
+		final SeriesFiles seriesFiles = new SeriesFiles(uploadFolder);
+		final int threads = Math.max(1, Math.min(config.getDicomServerMaxConcurrentMoves(), selectedSeries.size()));
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+		// One C-MOVE per serie, each one on its own association
+		for (final Serie serie : selectedSeries) {
+			results.add(executor.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					return retrieveSerie(serie, uploadFolder, seriesFiles);
+				}
+			}));
+		}
+		executor.shutdown();
+		try {
+			for (Future<Boolean> result : results) {
+				if (!result.get()) {
+					executor.shutdownNow();
 					return null;
 				}
-			} catch (final Exception e) {
-				logger.error(e.getMessage(), e);
-				return null;
 			}
+		} catch (final InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (final ExecutionException e) {
+			logger.error(e.getMessage(), e);
+			executor.shutdownNow();
+			return null;
+		}
+		final List<String> retrievedDicomFiles = new ArrayList<String>();
+		for (Serie serie : selectedSeries) {
+			retrievedDicomFiles.addAll(serie.getFileNames());
 		}
 		return retrievedDicomFiles;
 	}
-	
+
+	/**
+	 * Moves the files of one serie into the upload folder, then reads the MRI
+	 * information of the serie, while the other series are still arriving.
+	 * @param serie
+	 * @param uploadFolder
+	 * @param seriesFiles
+	 * @return false if the C-MOVE failed
+	 */
+	private boolean retrieveSerie(final Serie serie, final File uploadFolder, final SeriesFiles seriesFiles) throws Exception {
+		final String seriesInstanceUID = serie.getDescriptionMap().get("id");
+		final String studyInstanceUID = serie.getStudyInstanceUID();
+		final DcmQR dcmqr = new DcmQR();
+		final DicomQueryHelper dQH = new DicomQueryHelper(dcmqr, config, "MR");
+		// move files from server directly into uploadFolder
+		boolean noError = getFilesFromServer(dcmqr, dQH, studyInstanceUID, seriesInstanceUID);
+		if (!noError) {
+			logger.error(uploadFolder.getName() + ":\n\n Download of DICOM files for serie " + seriesInstanceUID
+					+ " has failed.\n\n");
+			return false;
+		}
+		// the C-MOVE response comes after the last C-STORE: all files of the serie are there
+		List<String> fileNamesForSerie = seriesFiles.getFileNames(seriesInstanceUID);
+		serie.setFileNames(fileNamesForSerie);
+		logger.info(uploadFolder.getName() + ":\n\n Download of " + fileNamesForSerie.size()
+				+ " DICOM files for serie " + seriesInstanceUID + " was successful.\n\n");
+		Util.processSerieMriInfo(uploadFolder, serie);
+		return true;
+	}
+
 	/**
 	 * DICOM query for receiving all image files (C-MOVE) for one serie.
 	 * @param dcmqr
@@ -167,6 +197,68 @@ public class DicomServerClient implements IDicomServerClient {
 		}
 	}
 
+	/**
+	 * Sorts the files received in an upload folder by serie, reading the
+	 * SeriesInstanceUID from their header. As several series are moved at the
+	 * same time into the same folder, the files of a serie can not be found
+	 * any more by comparing the folder content before and after its C-MOVE.
+	 * Each file is read once, files still being written are read again later.
+	 */
+	private static class SeriesFiles {
+
+		private final File uploadFolder;
+
+		private final Set<String> sortedFiles = new HashSet<String>();
+
+		private final Map<String, List<String>> filesBySerie = new HashMap<String, List<String>>();
+
+		SeriesFiles(final File uploadFolder) {
+			this.uploadFolder = uploadFolder;
+		}
+
+		synchronized List<String> getFileNames(final String seriesInstanceUID) {
+			File[] files = uploadFolder.listFiles();
+			if (files != null) {
+				for (File file : files) {
+					String name = file.getName();
+					if (file.isFile() && !name.endsWith(".xml") && !name.endsWith(".part") && !sortedFiles.contains(name)) {
+						String fileSeriesInstanceUID = readSeriesInstanceUID(file);
+						if (fileSeriesInstanceUID != null) {
+							sortedFiles.add(name);
+							List<String> fileNames = filesBySerie.get(fileSeriesInstanceUID);
+							if (fileNames == null) {
+								fileNames = new ArrayList<String>();
+								filesBySerie.put(fileSeriesInstanceUID, fileNames);
+							}
+							fileNames.add(name);
+						}
+					}
+				}
+			}
+			List<String> fileNames = filesBySerie.get(seriesInstanceUID);
+			return fileNames == null ? new ArrayList<String>() : new ArrayList<String>(fileNames);
+		}
+
+		private static String readSeriesInstanceUID(final File file) {
+			DicomInputStream din = null;
+			try {
+				din = new DicomInputStream(file);
+				din.setHandler(new StopTagInputHandler(Tag.SeriesInstanceUID + 1));
+				return din.readDicomObject().getString(Tag.SeriesInstanceUID);
+			} catch (IOException e) {
+				logger.debug("File " + file.getName() + " not readable yet: " + e.getMessage());
+				return null;
+			} finally {
+				if (din != null) {
+					try {
+						din.close();
+					} catch (IOException ignore) {
+					}
+				}
+			}
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see org.shanoir.uploader.dicom.IDicomServerClient#getWorkFolder()
 	 */
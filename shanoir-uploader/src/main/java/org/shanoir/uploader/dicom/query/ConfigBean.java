@@ -14,6 +14,8 @@ public class ConfigBean {
 
 	static Logger logger = Logger.getLogger(ConfigBean.class);
 
+	private static final int DEFAULT_MAX_CONCURRENT_MOVES = 2;
+
 	/** The AET of the Q/R SCP. */
 	private String dicomServerAETCalled;
 
@@ -44,6 +46,9 @@ public class ConfigBean {
 	/** The web port of the remote Pacs server. */
 	private int dicomServerWebPort;
 
+	/** Max number of series moved at the same time from the Q/R SCP. */
+	private int dicomServerMaxConcurrentMoves = DEFAULT_MAX_CONCURRENT_MOVES;
+
 	/** The local AET of the Q/R SCP. */
 	private String localDicomServerAETCalling;
 
@@ -53,6 +58,10 @@ public class ConfigBean {
 	/** Port of the local Q/R SCP. */
 	private int localDicomServerPort;
 
+	public int getDicomServerMaxConcurrentMoves() {
+		return dicomServerMaxConcurrentMoves;
+	}
+
 	public String getDicomServerAETCalled() {
 		return dicomServerAETCalled;
 	}
@@ -152,6 +161,7 @@ public class ConfigBean {
 		final String keystorePassword = properties.getProperty("dicom.server.keystore.password");
 		final String truststoreURL = properties.getProperty("dicom.server.truststore.url");
 		final String truststorePassword = properties.getProperty("dicom.server.truststore.password");
+		final int maxConcurrentMoves = toInt(properties.getProperty("dicom.server.max.concurrent.moves"));
 
 		setDicomServerHost(host);
 		setDicomServerPort(port);
@@ -164,6 +174,7 @@ public class ConfigBean {
 		setDicomServerKeystorePassword(keystorePassword);
 		setDicomServerTruststoreURL(truststoreURL);
 		setDicomServerTruststorePassword(truststorePassword);
+		setDicomServerMaxConcurrentMoves(maxConcurrentMoves > 0 ? maxConcurrentMoves : DEFAULT_MAX_CONCURRENT_MOVES);
 
 		logger.info("initWithValues : host=" + host);
 		logger.info("initWithValues : port=" + port);
@@ -176,6 +187,7 @@ public class ConfigBean {
 		logger.info("initWithValues : keystorePassword=" + keystorePassword);
 		logger.info("initWithValues : truststoreURL=" + truststoreURL);
 		logger.info("initWithValues : truststorePassword=" + truststorePassword);
+		logger.info("initWithValues : maxConcurrentMoves=" + getDicomServerMaxConcurrentMoves());
 
 
 		// Init calling PACS (Shanoir)
@@ -232,6 +244,10 @@ public class ConfigBean {
 		this.dicomServerKeystoreURL = dicomServerKeystoreURL;
 	}
 
+	public void setDicomServerMaxConcurrentMoves(final int dicomServerMaxConcurrentMoves) {
+		this.dicomServerMaxConcurrentMoves = dicomServerMaxConcurrentMoves;
+	}
+
 	public void setDicomServerPort(final int dicomServerPort) {
 		this.dicomServerPort = dicomServerPort;
 	}
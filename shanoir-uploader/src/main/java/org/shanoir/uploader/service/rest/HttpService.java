@@ -1,8 +1,7 @@
 package org.shanoir.uploader.service.rest;
 
 import java.io.File;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
+import java.io.IOException;
 import java.security.SecureRandom;
 import java.security.cert.X509Certificate;
 
@@ -10,6 +9,7 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
@@ -17,16 +17,27 @@ import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLContexts;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.shanoir.uploader.ShUpConfig;
 import org.shanoir.uploader.ShUpOnloadConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,13 +45,24 @@ import org.slf4j.LoggerFactory;
 /**
  * This class wraps the usage of Apache HttpClient, currently 4.3.1.
  * 
+ * All requests go through one shared client with a pool of keep-alive
+ * connections, so that the many REST calls and file uploads of ShUp do not
+ * open a new TCP and TLS connection each. The access token is read at each
+ * request, so its refresh does not rebuild the client. The client is only
+ * rebuilt when the proxy configuration changes. Responses are accepted gzip
+ * compressed (default of HttpClient). The pool size is configured with
+ * http.max.connections and http.max.connections.per.route in basic.properties.
+ * As connections go back to the pool only when the response entity has been
+ * read or consumed, callers must always consume it. A request waits at most
+ * http.connection.request.timeout ms for a free connection, so that a leaked
+ * connection makes the next requests fail instead of hanging forever.
+ * 
  * In case of development environments with self-signed certificates a special
  * SocketFactory is used, that avoid the below exception:
  * sun.security.provider.certpath.SunCertPathBuilderException: unable to find
  * valid certification path to requested target And as even the import of the
- * certificate did not bring a solution, HttpService creates a socketFactory in
- * the constructor, that "solves" the certificate issue for testing/development
- * purpose only.
+ * certificate did not bring a solution, HttpService creates a socketFactory,
+ * that "solves" the certificate issue for testing/development purpose only.
  * 
  * The SocketFactory is only used in case of "-dev" or "shanoir-ng-nginx" is
  * present in the URL.
@@ -58,27 +80,27 @@ public class HttpService {
 
 	private static final String DEV_LOCAL = "shanoir-ng-nginx";
 
-	// only used for dev environments, not for prod
-	private SSLConnectionSocketFactory socketFactoryDevEnv;
+	/** Used when the server does not say how long it keeps connections alive. */
+	private static final long KEEP_ALIVE_DEFAULT_MS = 30000;
 
-	/**
-	 * Initiates a SocketFactory only for qualif testing.
-	 */
-	public HttpService() {
-		try {
-			TrustManager[] trustManager = initWeakTrustManager();
-			SSLContext context = SSLContext.getInstance("TLSv1.2");
-			context.init(null, trustManager, new SecureRandom());
-			socketFactoryDevEnv = new SSLConnectionSocketFactory(context,
-					SSLConnectionSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER);
-		} catch (NoSuchAlgorithmException e) {
-			LOG.error(e.getMessage(), e);
-		} catch (KeyManagementException e) {
-			LOG.error(e.getMessage(), e);
+	private static final ConnectionKeepAliveStrategy KEEP_ALIVE_STRATEGY = new ConnectionKeepAliveStrategy() {
+		@Override
+		public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+			long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return keepAlive > 0 ? keepAlive : KEEP_ALIVE_DEFAULT_MS;
 		}
-	}
+	};
 
-	private TrustManager[] initWeakTrustManager() {
+	// shared by all instances, built on first use
+	private static CloseableHttpClient sharedHttpClient;
+
+	// only used for dev environments, not for prod
+	private static CloseableHttpClient sharedHttpClientDevEnv;
+
+	// the proxy configuration the clients have been built with
+	private static String proxyConfiguration;
+
+	private static TrustManager[] initWeakTrustManager() {
 		TrustManager[] trustManager = new TrustManager[] {
 			new X509TrustManager() {
 				public X509Certificate[] getAcceptedIssuers() {
@@ -95,11 +117,14 @@ public class HttpService {
 		return trustManager;
 	}
 
-	public HttpResponse get(String url) {
+	public HttpResponse get(String url, Header... headers) {
 		try {
-			HttpClient httpClient = buildHttpClient(url);
+			HttpClient httpClient = getHttpClient(url);
 			HttpGet httpGet = new HttpGet(url);
 			httpGet.addHeader("Authorization", "Bearer " + ShUpOnloadConfig.getTokenString());
+			for (Header header : headers) {
+				httpGet.addHeader(header);
+			}
 			HttpResponse response = httpClient.execute(httpGet);
 			return response;
 		} catch (Exception e) {
@@ -110,7 +135,7 @@ public class HttpService {
 
 	public HttpResponse post(String url, String json, boolean isLoginPost) {
 		try {
-			HttpClient httpClient = buildHttpClient(url);
+			HttpClient httpClient = getHttpClient(url);
 			HttpPost httpPost = new HttpPost(url);
 			if (isLoginPost) {
 				httpPost.setHeader("Content-type", "application/x-www-form-urlencoded");
@@ -129,7 +154,7 @@ public class HttpService {
 
 	public HttpResponse postFile(String url, String tempDirId, File file) {
 		try {
-			HttpClient httpClient = buildHttpClient(url);
+			HttpClient httpClient = getHttpClient(url);
 			HttpPost httpPost = new HttpPost(url + tempDirId);
 			httpPost.addHeader("Authorization", "Bearer " + ShUpOnloadConfig.getTokenString());
 			MultipartEntityBuilder builder = MultipartEntityBuilder.create();
@@ -149,7 +174,7 @@ public class HttpService {
 
 	public HttpResponse put(String url, String json) {
 		try {
-			HttpClient httpClient = buildHttpClient(url);
+			HttpClient httpClient = getHttpClient(url);
 			HttpPut httpPut = new HttpPut(url);
 			httpPut.addHeader("Authorization", "Bearer " + ShUpOnloadConfig.getTokenString());
 			StringEntity requestEntity = new StringEntity(json, ContentType.APPLICATION_JSON);
@@ -162,73 +187,86 @@ public class HttpService {
 		return null;
 	}
 
-	private CloseableHttpClient buildHttpClient(String url) throws Exception {
+	/**
+	 * Returns the shared client for this url, and builds it on first use or
+	 * when the proxy configuration has changed since it has been built.
+	 */
+	private static synchronized CloseableHttpClient getHttpClient(String url) throws Exception {
+		String currentProxyConfiguration = serviceConfiguration.isProxyEnable() + "|" + serviceConfiguration.getProxyHost()
+				+ "|" + serviceConfiguration.getProxyPort() + "|" + serviceConfiguration.getProxyUser()
+				+ "|" + serviceConfiguration.getProxyPassword();
+		if (!currentProxyConfiguration.equals(proxyConfiguration)) {
+			closeHttpClient(sharedHttpClient);
+			closeHttpClient(sharedHttpClientDevEnv);
+			sharedHttpClient = null;
+			sharedHttpClientDevEnv = null;
+			proxyConfiguration = currentProxyConfiguration;
+		}
+		if (url.contains(DEV_SERVER) || url.contains(DEV_LOCAL)) {
+			if (sharedHttpClientDevEnv == null) {
+				SSLContext context = SSLContext.getInstance("TLSv1.2");
+				context.init(null, initWeakTrustManager(), new SecureRandom());
+				sharedHttpClientDevEnv = buildHttpClient(new SSLConnectionSocketFactory(context,
+						SSLConnectionSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER));
+			}
+			return sharedHttpClientDevEnv;
+		}
+		if (sharedHttpClient == null) {
+			// the below code solves the GitHub issue: https://github.com/fli-iam/shanoir-ng/issues/582,
+			// as Apache HttpClient does not per default use the HostnameVerifier from HttpsURLConnection (JDK/JRE)
+			sharedHttpClient = buildHttpClient(new SSLConnectionSocketFactory(SSLContexts.createDefault(),
+					new CustomHostnameVerifier()));
+		}
+		return sharedHttpClient;
+	}
+
+	private static void closeHttpClient(CloseableHttpClient client) {
+		if (client != null) {
+			try {
+				client.close();
+			} catch (IOException e) {
+				LOG.error(e.getMessage(), e);
+			}
+		}
+	}
+
+	private static CloseableHttpClient buildHttpClient(SSLConnectionSocketFactory sslSocketFactory) throws Exception {
+		Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+				.register("http", PlainConnectionSocketFactory.getSocketFactory())
+				.register("https", sslSocketFactory)
+				.build();
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+		connectionManager.setMaxTotal(ShUpConfig.getHttpMaxConnections());
+		connectionManager.setDefaultMaxPerRoute(ShUpConfig.getHttpMaxConnectionsPerRoute());
+		HttpClientBuilder builder = HttpClientBuilder.create()
+				.setConnectionManager(connectionManager)
+				.setKeepAliveStrategy(KEEP_ALIVE_STRATEGY)
+				.setDefaultRequestConfig(RequestConfig.custom()
+						.setConnectionRequestTimeout(ShUpConfig.getHttpConnectionRequestTimeout())
+						.build());
 		if (serviceConfiguration.isProxyEnable()) {
 			HttpHost proxy = null;
-			CredentialsProvider credsProvider = null;
 			// Host and port are given
 			if (serviceConfiguration.getProxyHost() != null && serviceConfiguration.getProxyPort() != null) {
 				proxy = new HttpHost(serviceConfiguration.getProxyHost(), Integer.valueOf(serviceConfiguration.getProxyPort()));
-				// user and password are additionally set
-				if (serviceConfiguration.getProxyUser() != null && serviceConfiguration.getProxyPassword() != null) {
-					credsProvider = new BasicCredentialsProvider();
-				    credsProvider.setCredentials(
-				            new AuthScope(proxy),
-				            new UsernamePasswordCredentials(serviceConfiguration.getProxyUser(), serviceConfiguration.getProxyPassword()));
-				}
 			// Only host is configured, so do not set port
 			} else if (serviceConfiguration.getProxyHost() != null) {
 				proxy = new HttpHost(serviceConfiguration.getProxyHost());
-				// user and password are additionally set
-				if (serviceConfiguration.getProxyUser() != null && serviceConfiguration.getProxyPassword() != null) {
-					credsProvider = new BasicCredentialsProvider();
-				    credsProvider.setCredentials(
-				            new AuthScope(proxy),
-				            new UsernamePasswordCredentials(serviceConfiguration.getProxyUser(), serviceConfiguration.getProxyPassword()));
-				}
 			} else {
+				connectionManager.shutdown();
 				throw new Exception("Proxy enabled, but no host set or only port does not work.");
 			}
-			if (proxy != null && credsProvider != null) {
-				if (url.contains(DEV_SERVER) || url.contains(DEV_LOCAL)) {
-					return HttpClientBuilder.create()
-							.setSSLSocketFactory(socketFactoryDevEnv)
-							.setDefaultCredentialsProvider(credsProvider)
-							.setProxy(proxy).build();
-				} else {
-					// the below code solves the GitHub issue: https://github.com/fli-iam/shanoir-ng/issues/582,
-					// as Apache HttpClient does not per default use the HostnameVerifier from HttpsURLConnection (JDK/JRE)
-					return HttpClientBuilder.create()
-							.setHostnameVerifier(new CustomHostnameVerifier())
-							.setDefaultCredentialsProvider(credsProvider)
-							.setProxy(proxy).build();
-				}
-			} else if (proxy != null) {
-				if (url.contains(DEV_SERVER) || url.contains(DEV_LOCAL)) {
-					return HttpClientBuilder.create()
-							.setSSLSocketFactory(socketFactoryDevEnv)
-							.setProxy(proxy).build();
-				} else {
-					// the below code solves the GitHub issue: https://github.com/fli-iam/shanoir-ng/issues/582,
-					// as Apache HttpClient does not per default use the HostnameVerifier from HttpsURLConnection (JDK/JRE)
-					return HttpClientBuilder.create()
-							.setHostnameVerifier(new CustomHostnameVerifier())
-							.setProxy(proxy).build();
-				}
-			}
-		/**
-		 * No proxy case:
-		 */
-		} else {
-			if (url.contains(DEV_SERVER) || url.contains(DEV_LOCAL)) {
-				return HttpClientBuilder.create().setSSLSocketFactory(socketFactoryDevEnv).build();
-			} else {
-				// the below code solves the GitHub issue: https://github.com/fli-iam/shanoir-ng/issues/582,
-				// as Apache HttpClient does not per default use the HostnameVerifier from HttpsURLConnection (JDK/JRE)
-				return HttpClientBuilder.create().setHostnameVerifier(new CustomHostnameVerifier()).build();
+			builder.setProxy(proxy);
+			// user and password are additionally set
+			if (serviceConfiguration.getProxyUser() != null && serviceConfiguration.getProxyPassword() != null) {
+				CredentialsProvider credsProvider = new BasicCredentialsProvider();
+				credsProvider.setCredentials(
+						new AuthScope(proxy),
+						new UsernamePasswordCredentials(serviceConfiguration.getProxyUser(), serviceConfiguration.getProxyPassword()));
+				builder.setDefaultCredentialsProvider(credsProvider);
 			}
 		}
-		return null;
+		return builder.build();
 	}
 
 }
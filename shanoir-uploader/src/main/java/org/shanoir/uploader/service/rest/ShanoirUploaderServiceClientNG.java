@@ -12,13 +12,14 @@ import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 import javax.ws.rs.core.UriBuilder;
 
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.ParseException;
+import org.apache.http.message.BasicHeader;
 import org.apache.http.util.EntityUtils;
 import org.apache.log4j.Logger;
 import org.json.JSONObject;
@@ -216,6 +217,7 @@ public class ShanoirUploaderServiceClientNG {
 			List<Study> studies = Util.getMappedList(response, Study.class);
 			return studies;
 		} else {
+			EntityUtils.consumeQuietly(response.getEntity());
 			return null;
 		}
 	}
@@ -234,6 +236,7 @@ public class ShanoirUploaderServiceClientNG {
 				List<StudyCard> studyCards = Util.getMappedList(response, StudyCard.class);
 				return studyCards;
 			}
+			EntityUtils.consumeQuietly(response.getEntity());
 		} catch (JsonProcessingException e) {
 			logger.error(e.getMessage(), e);
 		}
@@ -247,6 +250,7 @@ public class ShanoirUploaderServiceClientNG {
 			Subject subjectDTO = Util.getMappedObject(response, Subject.class);
 			return subjectDTO;
 		} else {
+			EntityUtils.consumeQuietly(response.getEntity());
 			return null;
 		}
 	}
@@ -258,6 +262,7 @@ public class ShanoirUploaderServiceClientNG {
 			String importTempDirId = Util.getMappedObject(response, String.class);
 			return importTempDirId;
 		} else {
+			EntityUtils.consumeQuietly(response.getEntity());
 			return null;
 		}
 	}
@@ -273,6 +278,7 @@ public class ShanoirUploaderServiceClientNG {
 				List<Examination> examinations = Util.getMappedList(response, Examination.class);
 				return examinations;
 			}
+			EntityUtils.consumeQuietly(response.getEntity());
 		}
 		return null;
 	}
@@ -293,6 +299,7 @@ public class ShanoirUploaderServiceClientNG {
 				}
 				return datasetIds;
 			} else {
+				EntityUtils.consumeQuietly(response.getEntity());
 				logger.error("Could not get subjects ids from study id " + studyId + " (status code: " + code + ", message: " + apiResponseMessages.getOrDefault(code, "unknown status code") + ")");
 			}
 		}
@@ -307,6 +314,7 @@ public class ShanoirUploaderServiceClientNG {
 				List<Long> datasetIds = Util.getMappedList(response, Long.class);
 				return datasetIds;
 			} else {
+				EntityUtils.consumeQuietly(response.getEntity());
 				logger.error("Could not get dataset ids from subject id " + subjectId + " (status code: " + code + ", message: " + apiResponseMessages.getOrDefault(code, "unknown status code") + ")");
 			}
 		}
@@ -321,6 +329,7 @@ public class ShanoirUploaderServiceClientNG {
 				List<Long> datasetIds = Util.getMappedList(response, Long.class);
 				return datasetIds;
 			} else {
+				EntityUtils.consumeQuietly(response.getEntity());
 				logger.error("Could not get dataset ids from subject id " + subjectId + " and study id " + studyId + " (status code: " + code + ", message: " + apiResponseMessages.getOrDefault(code, "unknown status code") + ")");
 			}
 		}
@@ -338,12 +347,14 @@ public class ShanoirUploaderServiceClientNG {
 			List<AcquisitionEquipment> acquisitionEquipments = Util.getMappedList(response, AcquisitionEquipment.class);
 			return acquisitionEquipments;
 		}
+		EntityUtils.consumeQuietly(response.getEntity());
 		return null;
 	}
 	
 	public void uploadFile(String tempDirId, File file) throws Exception {
 		HttpResponse response = httpService.postFile(this.serviceURLImporterCreateTempDir, tempDirId, file);
 		int code = response.getStatusLine().getStatusCode();
+		EntityUtils.consumeQuietly(response.getEntity());
 		if (code == HttpStatus.SC_OK) {
 		} else {
 			throw new Exception("Error in uploadFile.");
@@ -353,6 +364,7 @@ public class ShanoirUploaderServiceClientNG {
 	public void startImportJob(String importJobJsonStr) throws Exception {
 		HttpResponse response = httpService.post(this.serviceURLImporterStartImportJob, importJobJsonStr, false);
 		int code = response.getStatusLine().getStatusCode();
+		EntityUtils.consumeQuietly(response.getEntity());
 		if (code == HttpStatus.SC_OK) {
 		} else {
 			throw new Exception("Error in startImportJob.");
@@ -362,6 +374,7 @@ public class ShanoirUploaderServiceClientNG {
 	public void startImport(String exchangeJsonStr) throws Exception {
 		HttpResponse response = httpService.post(this.serviceURLImporterStartImport, exchangeJsonStr, false);
 		int code = response.getStatusLine().getStatusCode();
+		EntityUtils.consumeQuietly(response.getEntity());
 		if (code == HttpStatus.SC_OK) {
 		} else {
 			throw new Exception("Error in startImport.");
@@ -369,48 +382,49 @@ public class ShanoirUploaderServiceClientNG {
 	}
 
 	public HttpResponse downloadDatasetById(Long datasetId, String format) throws Exception {
+		return downloadDatasetById(datasetId, format, 0, null);
+	}
+
+	/**
+	 * Downloads a dataset, or the end of it from an offset, to resume a
+	 * download. The range is only sent back (206) if the dataset zip has still
+	 * the given ETag, the whole zip is sent back (200) otherwise. When the
+	 * offset is past the end of the zip, the 416 response is returned too, so
+	 * that the caller can start again from scratch.
+	 * 
+	 * @param datasetId
+	 * @param format
+	 * @param offset the number of bytes already downloaded
+	 * @param eTag the ETag of the zip the downloaded bytes come from
+	 * @return the response if 200, 206 or 416 (to a range request), null otherwise
+	 * @throws Exception
+	 */
+	public HttpResponse downloadDatasetById(Long datasetId, String format, long offset, String eTag) throws Exception {
 		if (datasetId != null) {
 			URI url = UriBuilder.fromUri(this.serviceURLDatasets + "download/" + datasetId).queryParam("format", format).build();
-			HttpResponse response = httpService.get(url.toString());
-			int code = response.getStatusLine().getStatusCode();
-			if (code == HttpStatus.SC_OK) {
-				return response;
+			HttpResponse response;
+			if (offset > 0 && eTag != null) {
+				response = httpService.get(url.toString(), new BasicHeader(HttpHeaders.RANGE, "bytes=" + offset + "-"),
+						new BasicHeader(HttpHeaders.IF_RANGE, eTag));
 			} else {
-				logger.error("Could not get dataset id " + datasetId + " (status code: " + code + ", message: " + apiResponseMessages.getOrDefault(code, "unknown status code") + ")");
+				response = httpService.get(url.toString());
 			}
-		}
-		return null;
-	}
-
-	public HttpResponse downloadDatasetsByIds(List<Long> datasetIds, String format) throws Exception {
-		if (datasetIds != null) {
-			String datasetIdsString = datasetIds.stream().map(Object::toString).collect(Collectors.joining(","));
-			String url = this.serviceURLDatasets + "massiveDownload?datasetIds=" + datasetIdsString + "&format=" + format;
-			HttpResponse response = httpService.get(url.toString());
-			int code = response.getStatusLine().getStatusCode();
-			if (code == HttpStatus.SC_OK) {
-				return response;
-			} else {
-				logger.error("Could not get dataset ids " + datasetIds + " (status code: " + code + ", message: " + apiResponseMessages.getOrDefault(code, "unknown status code") + ")");
+			if (response == null) {
+				logger.error("Could not get dataset id " + datasetId + ": no response.");
+				return null;
 			}
-		}
-		return null;
-	}
-
-	public HttpResponse downloadDatasetsByStudyId(Long studyId, String format) throws Exception {
-		if (studyId != null) {
-			URI url = UriBuilder.fromUri(this.serviceURLDatasets + "massiveDownloadByStudy").queryParam("studyId", studyId).queryParam("format", format).build();
-			HttpResponse response = httpService.get(url.toString());
 			int code = response.getStatusLine().getStatusCode();
-			if (code == HttpStatus.SC_OK) {
+			if (code == HttpStatus.SC_OK || code == HttpStatus.SC_PARTIAL_CONTENT
+					|| (code == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE && offset > 0)) {
 				return response;
 			} else {
-				logger.error("Could not get dataset of study " + studyId + " (status code: " + code + ", message: " + apiResponseMessages.getOrDefault(code, "unknown status code") + ")");
+				EntityUtils.consumeQuietly(response.getEntity());
+				logger.error("Could not get dataset id " + datasetId + " (status code: " + code + ", message: " + apiResponseMessages.getOrDefault(code, "unknown status code") + ")");
 			}
 		}
 		return null;
 	}
-	
+
 	/**
 	 * This method creates a subject on the server.
 	 * 
@@ -438,6 +452,7 @@ public class ShanoirUploaderServiceClientNG {
 				Subject subjectDTOCreated = Util.getMappedObject(response, Subject.class);
 				return subjectDTOCreated;
 			}
+			EntityUtils.consumeQuietly(response.getEntity());
 		} catch (JsonProcessingException e) {
 			logger.error(e.getMessage(), e);
 		}
@@ -458,6 +473,7 @@ public class ShanoirUploaderServiceClientNG {
 			String json = ow.writeValueAsString(subject);
 			HttpResponse response = httpService.put(this.serviceURLSubjectsCreate + "/" + subject.getId(), json);
 			int code = response.getStatusLine().getStatusCode();
+			EntityUtils.consumeQuietly(response.getEntity());
 			if (code == HttpStatus.SC_NO_CONTENT) {
 				return subject;
 			}
@@ -483,6 +499,7 @@ public class ShanoirUploaderServiceClientNG {
 				Examination examinationDTOCreated = Util.getMappedObject(response, Examination.class);
 				return examinationDTOCreated;
 			}
+			EntityUtils.consumeQuietly(response.getEntity());
 		} catch (JsonProcessingException e) {
 			logger.error(e.getMessage(), e);
 		}
@@ -37,6 +37,7 @@ import org.apache.log4j.Logger;
 import org.dcm4che2.data.DicomObject;
 import org.dcm4che2.data.Tag;
 import org.dcm4che2.io.DicomInputStream;
+import org.dcm4che2.io.StopTagInputHandler;
 import org.shanoir.dicom.importer.MRI;
 import org.shanoir.dicom.importer.Serie;
 import org.shanoir.dicom.model.DicomTreeNode;
@@ -156,6 +157,8 @@ public final class Util {
 					MRI mriInformation = new MRI();
 					try {
 						din = new DicomInputStream(new File(imageFilePath));
+						// only the header is needed here, not the pixel data
+						din.setHandler(new StopTagInputHandler(Tag.PixelData));
 						dcmObj = din.readDicomObject();
 						mriInformation.setInstitutionName(dcmObj.getString(Tag.InstitutionName));
 						mriInformation.setInstitutionAddress(dcmObj.getString(Tag.InstitutionAddress));
@@ -0,0 +1,158 @@
+package org.shanoir.downloader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.shanoir.uploader.ShUpConfig;
+import org.shanoir.uploader.service.rest.ShanoirUploaderServiceClientNG;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs DatasetsDownloader against a stub datasets server on localhost, which
+ * answers Range requests like FileServingUtil.
+ */
+public class DatasetsDownloaderTest {
+
+	private static final String FORMAT = "dcm";
+
+	private static final String KEY = "1." + FORMAT;
+
+	private static final String FILE_NAME = "dataset_1.zip";
+
+	private static final String ETAG = "\"v1\"";
+
+	private static final byte[] ZIP = "PK-not-really-a-zip-but-enough-bytes".getBytes(StandardCharsets.UTF_8);
+
+	/** Range header of each request received, null if none. */
+	private static final List<String> ranges = new CopyOnWriteArrayList<>();
+
+	private static HttpServer server;
+
+	private File destDir;
+
+	@BeforeClass
+	public static void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", DatasetsDownloaderTest::serve);
+		server.start();
+		ShUpConfig.profileProperties.setProperty("shanoir.server.url", "http://localhost:" + server.getAddress().getPort());
+		ShUpConfig.profileProperties.setProperty("service.datasets", "/datasets/");
+	}
+
+	@AfterClass
+	public static void stopServer() {
+		server.stop(0);
+		ShUpConfig.profileProperties.remove("shanoir.server.url");
+		ShUpConfig.profileProperties.remove("service.datasets");
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		ranges.clear();
+		destDir = Files.createTempDirectory("shanoir-download-test").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		for (File file : destDir.listFiles()) {
+			file.delete();
+		}
+		destDir.delete();
+	}
+
+	@Test
+	public void testCompletePartFileIsDownloadedAgain() throws Exception {
+		// GIVEN a partial file already holding the whole zip, as when killed before the rename
+		Files.write(new File(destDir, "." + KEY + ".part").toPath(), ZIP);
+		new DownloadManifest(destDir).setETag(KEY, ETAG);
+
+		// WHEN the dataset is downloaded
+		List<Long> failedIds = newDownloader().download(Collections.singletonList(1L));
+
+		// THEN the range is refused, and the zip is downloaded again from scratch
+		assertTrue(failedIds.isEmpty());
+		assertEquals(Arrays.asList("bytes=" + ZIP.length + "-", null), ranges);
+		assertArrayEquals(ZIP, Files.readAllBytes(new File(destDir, FILE_NAME).toPath()));
+		assertFalse(new File(destDir, "." + KEY + ".part").exists());
+		DownloadManifest manifest = new DownloadManifest(destDir);
+		assertTrue(manifest.isDone(KEY));
+		assertNull(manifest.getETag(KEY));
+	}
+
+	@Test
+	public void testPartialFileIsResumed() throws Exception {
+		// GIVEN a partial file holding the first half of the zip
+		int half = ZIP.length / 2;
+		Files.write(new File(destDir, "." + KEY + ".part").toPath(), Arrays.copyOf(ZIP, half));
+		new DownloadManifest(destDir).setETag(KEY, ETAG);
+
+		// WHEN the dataset is downloaded
+		List<Long> failedIds = newDownloader().download(Collections.singletonList(1L));
+
+		// THEN only the missing bytes are requested
+		assertTrue(failedIds.isEmpty());
+		assertEquals(Collections.singletonList("bytes=" + half + "-"), ranges);
+		assertArrayEquals(ZIP, Files.readAllBytes(new File(destDir, FILE_NAME).toPath()));
+	}
+
+	private DatasetsDownloader newDownloader() {
+		return new DatasetsDownloader(destDir, FORMAT, new ShanoirUploaderServiceClientNG(), 1);
+	}
+
+	private static void serve(HttpExchange exchange) throws IOException {
+		String range = exchange.getRequestHeaders().getFirst(HttpHeaders.RANGE);
+		ranges.add(range);
+		long start = 0;
+		if (range != null && ETAG.equals(exchange.getRequestHeaders().getFirst(HttpHeaders.IF_RANGE))) {
+			start = Long.parseLong(range.substring("bytes=".length(), range.length() - 1));
+			if (start >= ZIP.length) {
+				exchange.getResponseHeaders().add("Content-Range", "bytes */" + ZIP.length);
+				exchange.sendResponseHeaders(HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE, -1);
+				exchange.close();
+				return;
+			}
+		}
+		exchange.getResponseHeaders().add(HttpHeaders.ETAG, ETAG);
+		exchange.getResponseHeaders().add("Digest", "SHA-256=" + sha256(ZIP));
+		exchange.getResponseHeaders().add("Content-Disposition", "attachment; filename=" + FILE_NAME);
+		int length = ZIP.length - (int) start;
+		exchange.sendResponseHeaders(start > 0 ? HttpStatus.SC_PARTIAL_CONTENT : HttpStatus.SC_OK, length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(ZIP, (int) start, length);
+		}
+	}
+
+	private static String sha256(byte[] bytes) {
+		try {
+			return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(bytes));
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
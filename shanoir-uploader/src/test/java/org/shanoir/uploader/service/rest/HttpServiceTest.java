@@ -0,0 +1,154 @@
+package org.shanoir.uploader.service.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.util.EntityUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.shanoir.uploader.ShUpConfig;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs HttpService against a stub server on localhost, to check that the
+ * requests share the pooled keep-alive connections.
+ */
+public class HttpServiceTest {
+
+	private static final int MAX_CONNECTIONS_PER_ROUTE = 2;
+
+	private static final int CONNECTION_REQUEST_TIMEOUT_MS = 1000;
+
+	private static final int CLIENT_THREADS = 8;
+
+	private static final int REQUESTS = 400;
+
+	private static final byte[] BODY = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+	/** Client ports seen by the stub server, one per TCP connection. */
+	private static final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+	private static HttpServer server;
+
+	private static ExecutorService serverExecutor;
+
+	private static String url;
+
+	private final HttpService httpService = new HttpService();
+
+	@BeforeClass
+	public static void startServer() throws IOException {
+		ShUpConfig.basicProperties.setProperty(ShUpConfig.HTTP_MAX_CONNECTIONS_PER_ROUTE,
+				String.valueOf(MAX_CONNECTIONS_PER_ROUTE));
+		ShUpConfig.basicProperties.setProperty(ShUpConfig.HTTP_CONNECTION_REQUEST_TIMEOUT,
+				String.valueOf(CONNECTION_REQUEST_TIMEOUT_MS));
+		// Without it, the stub server waits for the ACK of the headers before sending the body
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			clientPorts.add(exchange.getRemoteAddress().getPort());
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(HttpStatus.SC_OK, BODY.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(BODY);
+			}
+		});
+		serverExecutor = Executors.newFixedThreadPool(CLIENT_THREADS);
+		server.setExecutor(serverExecutor);
+		server.start();
+		url = "http://localhost:" + server.getAddress().getPort() + "/datasets/1";
+	}
+
+	@AfterClass
+	public static void stopServer() {
+		server.stop(0);
+		serverExecutor.shutdownNow();
+		ShUpConfig.basicProperties.remove(ShUpConfig.HTTP_MAX_CONNECTIONS_PER_ROUTE);
+		ShUpConfig.basicProperties.remove(ShUpConfig.HTTP_CONNECTION_REQUEST_TIMEOUT);
+	}
+
+	@Test
+	public void testConcurrentGetsReuseConnections() throws Exception {
+		// GIVEN more client threads than pooled connections
+		clientPorts.clear();
+		ExecutorService executor = Executors.newFixedThreadPool(CLIENT_THREADS);
+		List<Callable<Integer>> calls = new ArrayList<>();
+		for (int i = 0; i < REQUESTS; i++) {
+			calls.add(() -> {
+				HttpResponse response = httpService.get(url);
+				assertNotNull(response);
+				EntityUtils.consume(response.getEntity());
+				return response.getStatusLine().getStatusCode();
+			});
+		}
+
+		// WHEN they all send their requests
+		long start = System.nanoTime();
+		List<Future<Integer>> results;
+		try {
+			results = executor.invokeAll(calls);
+		} finally {
+			executor.shutdown();
+		}
+		long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1000000);
+
+		// THEN all the requests succeed over the pooled connections only
+		for (Future<Integer> result : results) {
+			assertEquals(HttpStatus.SC_OK, result.get().intValue());
+		}
+		assertTrue("Opened " + clientPorts.size() + " connections for " + REQUESTS + " requests",
+				clientPorts.size() <= MAX_CONNECTIONS_PER_ROUTE);
+		System.out.println(REQUESTS + " requests in " + elapsedMs + " ms (" + REQUESTS * 1000 / elapsedMs
+				+ " requests/s) over " + clientPorts.size() + " connection(s).");
+	}
+
+	@Test
+	public void testGetFailsWhenPoolIsExhausted() throws Exception {
+		// GIVEN all the connections held by responses not consumed yet
+		List<HttpResponse> held = new ArrayList<>();
+		for (int i = 0; i < MAX_CONNECTIONS_PER_ROUTE; i++) {
+			HttpResponse response = httpService.get(url);
+			assertNotNull(response);
+			held.add(response);
+		}
+		try {
+			// WHEN one more request is sent
+			long start = System.nanoTime();
+			HttpResponse response = httpService.get(url);
+			long elapsedMs = (System.nanoTime() - start) / 1000000;
+
+			// THEN it gives up after the connection request timeout instead of waiting forever
+			assertNull(response);
+			assertTrue("Gave up after " + elapsedMs + " ms", elapsedMs >= CONNECTION_REQUEST_TIMEOUT_MS / 2);
+		} finally {
+			for (HttpResponse response : held) {
+				EntityUtils.consume(response.getEntity());
+			}
+		}
+
+		// THEN the connections are usable again once the responses are consumed
+		HttpResponse response = httpService.get(url);
+		assertNotNull(response);
+		EntityUtils.consume(response.getEntity());
+	}
+
+}